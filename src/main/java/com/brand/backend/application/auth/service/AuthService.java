@@ -1,20 +1,24 @@
 package com.brand.backend.application.auth.service;
 
-import java.security.SecureRandom;
-import com.brand.backend.domain.user.model.RefreshToken;
+import com.brand.backend.application.user.service.UserProfileCache;
+import com.brand.backend.application.user.service.VerificationCodeStore;
+import com.brand.backend.common.exeption.TooManyRequestsException;
 import com.brand.backend.domain.user.model.User;
-import com.brand.backend.domain.user.repository.RefreshTokenRepository;
 import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.infrastructure.security.jwt.AuthenticatedUser;
+import com.brand.backend.infrastructure.security.jwt.VerifiedTokenCache;
+import com.brand.backend.infrastructure.security.ratelimit.TokenBucketRateLimiter;
+import com.brand.backend.presentation.dto.request.UserDTO;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -22,8 +26,15 @@ import java.util.UUID;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserProfileCache profileCache;
+    private final PasswordHashingService passwordHashingService;
+    private final VerifiedTokenCache tokenCache;
+    private final VerificationCodeStore verificationCodeStore;
+    private final TokenBucketRateLimiter rateLimiter;
+
+    @Value("${rate-limit.auth.username-per-minute:5}")
+    private int loginAttemptsPerUsername;
 
     @Transactional
     public User registerUser(User user, String rawPassword) {
@@ -39,31 +50,41 @@ public class AuthService {
             throw new RuntimeException("Username already exists");
         }
 
-        user.setPasswordHash(passwordEncoder.encode(rawPassword));
+        user.setPasswordHash(passwordHashingService.hash(rawPassword));
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
-
-        String verificationCode = generateVerificationCode();
-        user.setVerificationCode(verificationCode);
         user.setVerified(false);
 
         log.info("Пользователь зарегистрирован: {}", user.getUsername());
         return userRepository.save(user);
     }
 
-    public Optional<User> authenticateUser(String username, String password) {
+    /**
+     * @param clientIp адрес клиента: лимит попыток считается на пару (логин, IP), поэтому подбор пароля
+     *                 с чужого IP не блокирует вход владельцу
+     */
+    public Optional<User> authenticateUser(String username, String password, String clientIp) {
         log.info("Попытка входа в систему: {}", username);
 
-        Optional<User> userOptional = userRepository.findByUsername(username);
+        // Подбор пароля к логину: отказываем до обращения к БД и BCrypt
+        long waitNanos = rateLimiter.tryAcquire("login-user", username + '@' + clientIp, loginAttemptsPerUsername,
+                TimeUnit.MINUTES.toNanos(1));
+        if (waitNanos > 0) {
+            log.warn("⚠️ [LOGIN] Превышен лимит попыток входа для {}", username);
+            throw new TooManyRequestsException("Слишком много попыток входа, повторите позже",
+                    TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        }
+
+        // Вход сразу после регистрации не должен зависеть от отставания реплики
+        Optional<User> userOptional = WorkloadContext.onPrimary(() -> userRepository.findByUsername(username));
 
         if (userOptional.isPresent()) {
             User user = userOptional.get();
             log.info("Пользователь найден в базе: {}", username);
-            log.debug("Хешированный пароль в базе: {}", user.getPasswordHash());
-            log.debug("Введенный пароль: {}", password);
 
-            if (passwordEncoder.matches(password, user.getPasswordHash())) {
+            if (passwordHashingService.matches(password, user.getPasswordHash())) {
                 log.info("Пароль совпадает для пользователя: {}", username);
+                upgradePasswordHash(user, password);
                 return userOptional;
             } else {
                 log.warn("Пароль НЕ совпадает для пользователя: {}", username);
@@ -74,49 +95,56 @@ public class AuthService {
         return Optional.empty();
     }
 
+    /**
+     * Перехэширует пароль, если стоимость BCrypt изменилась с момента его создания
+     */
+    private void upgradePasswordHash(User user, String password) {
+        if (!passwordHashingService.needsRehash(user.getPasswordHash())) {
+            return;
+        }
+        try {
+            user.setPasswordHash(passwordHashingService.hash(password));
+            userRepository.save(user);
+            log.info("🔐 [PASSWORD] Хэш пароля {} обновлён до стоимости {}", user.getUsername(), passwordHashingService.getCost());
+        } catch (Exception e) {
+            // Вход не должен падать из-за неудачного обновления хэша
+            log.warn("Не удалось обновить хэш пароля {}: {}", user.getUsername(), e.getMessage());
+        }
+    }
+
     // ✅ Генерация Refresh Token
-    @Transactional
     public String generateRefreshToken(User user) {
-
-        refreshTokenRepository.deleteByUser(user);
-        RefreshToken refreshToken = RefreshToken.builder()
-                .user(user)
-                .token(UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plusMillis(604800000)) // 7 дней
-                .build();
-
-        refreshTokenRepository.save(refreshToken);
-        return refreshToken.getToken();
+        return refreshTokenStore.issue(user.getId());
     }
 
-    // ✅ Обновление Access Token по Refresh Token
-    public String refreshAccessToken(String refreshToken) {
-        Optional<RefreshToken> storedToken = refreshTokenRepository.findByToken(refreshToken);
-
-        if (storedToken.isEmpty() || storedToken.get().getExpiryDate().isBefore(Instant.now())) {
+    /**
+     * Обновление Access Token по Refresh Token: токен и профиль берутся из памяти
+     *
+     * @return пользователь, для которого выпускается новый access-токен
+     */
+    public AuthenticatedUser refreshAccessToken(String refreshToken) {
+        Long userId = refreshTokenStore.resolve(refreshToken)
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+
+        UserDTO profile = profileCache.get(userId, () -> userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token")));
+        if (!profile.isActive()) {
             throw new RuntimeException("Invalid refresh token");
         }
-
-        return storedToken.get().getUser().getUsername();
+        return new AuthenticatedUser(profile.getId(), profile.getUsername(), profile.getRole(), profile.isVerified());
     }
 
     // ✅ Logout (удаляем Refresh Token)
-    @Transactional
     public void logout(User user) {
-        refreshTokenRepository.deleteByUser(user);
+        refreshTokenStore.revoke(user.getId());
+        tokenCache.revokeUser(user.getId());
     }
 
-    private String generateVerificationCode() {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        SecureRandom random = new SecureRandom();
-        StringBuilder code = new StringBuilder();
-
-        for (int i = 0; i < 32; i++) {
-            int index = random.nextInt(chars.length());
-            code.append(chars.charAt(index));
-        }
-
-        return code.toString();
+    /**
+     * Новый код для привязки Telegram неверифицированного аккаунта
+     */
+    public String issueVerificationCode(User user) {
+        return verificationCodeStore.issue(user.getId());
     }
 
 }
@@ -0,0 +1,163 @@
+package com.brand.backend.application.auth.service;
+
+import com.brand.backend.common.exeption.ServiceOverloadedException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Хэширование и проверка паролей в отдельном пуле passwordHashExecutor.
+ * <p>
+ * Вызов синхронный: поток запроса ждёт результата, пул лишь ограничивает число одновременных BCrypt
+ * по числу ядер, чтобы всплеск логинов не занял весь CPU. Если очередь пула заполнена или операция
+ * не уложилась в таймаут, выбрасывается {@link ServiceOverloadedException} (503) - поток запроса
+ * освобождается сразу, а не после долгого ожидания.
+ * <p>
+ * Стоимость BCrypt подбирается при старте под целевое время хэширования (или задаётся явно).
+ * Тот же хэшер отдаётся Spring Security через {@link #asPasswordEncoder()}.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 16;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${security.password.bcrypt-cost:0}")
+    private int configuredCost;
+
+    @Value("${security.password.target-ms:250}")
+    private long targetMillis;
+
+    @Value("${security.password.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private volatile int cost;
+    private volatile BCryptPasswordEncoder encoder;
+
+    public PasswordHashingService(@Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    public void init() {
+        cost = configuredCost > 0 ? configuredCost : calibrate();
+        encoder = new BCryptPasswordEncoder(cost);
+        log.info("🔐 [PASSWORD] Стоимость BCrypt: {}{}", cost, configuredCost > 0 ? " (задана)" : " (подобрана)");
+    }
+
+    public String hash(String rawPassword) {
+        return execute(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        if (rawPassword == null || passwordHash == null) {
+            return false;
+        }
+        return execute(() -> encoder.matches(rawPassword, passwordHash));
+    }
+
+    /**
+     * Нужно ли перехэшировать пароль: хэш создан с другой стоимостью
+     */
+    public boolean needsRehash(String passwordHash) {
+        if (passwordHash == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(passwordHash);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * PasswordEncoder для DaoAuthenticationProvider: та же стоимость и тот же пул, что у сервиса
+     */
+    public PasswordEncoder asPasswordEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return hash(rawPassword.toString());
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return PasswordHashingService.this.matches(rawPassword == null ? null : rawPassword.toString(),
+                        encodedPassword);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return needsRehash(encodedPassword);
+            }
+        };
+    }
+
+    /**
+     * Наибольшая стоимость, при которой хэширование укладывается в целевое время
+     */
+    private int calibrate() {
+        int selected = MIN_COST;
+        for (int candidate = MIN_COST; candidate <= MAX_COST; candidate++) {
+            BCryptPasswordEncoder candidateEncoder = new BCryptPasswordEncoder(candidate);
+            candidateEncoder.encode(CALIBRATION_PASSWORD); // прогрев
+            long started = System.nanoTime();
+            candidateEncoder.encode(CALIBRATION_PASSWORD);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            log.debug("[PASSWORD] BCrypt cost {}: {} мс", candidate, elapsedMillis);
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            selected = candidate;
+            // Следующая стоимость вдвое дороже
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+        }
+        return selected;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            log.warn("⚠️ [PASSWORD] Очередь хэширования переполнена");
+            throw new ServiceOverloadedException("Сервис авторизации перегружен, повторите попытку позже", 1);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("⚠️ [PASSWORD] Хэширование не уложилось в {} мс", timeoutMillis);
+            throw new ServiceOverloadedException("Сервис авторизации перегружен, повторите попытку позже", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хэширование пароля прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка хэширования пароля", e.getCause());
+        }
+    }
+}
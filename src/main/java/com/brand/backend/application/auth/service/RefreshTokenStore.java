@@ -0,0 +1,232 @@
+package com.brand.backend.application.auth.service;
+
+import com.brand.backend.domain.user.model.RefreshToken;
+import com.brand.backend.domain.user.repository.RefreshTokenRepository;
+import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.cache.CacheInvalidationBus;
+import com.brand.backend.infrastructure.cache.ClusterCache;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранилище refresh-токенов.
+ * <p>
+ * Токены хранятся в таблице refresh_tokens в виде SHA-256 с датой истечения; проверка токена, которого нет
+ * в кэше узла, идёт в основную БД, поэтому токен, выпущенный или отозванный на другом узле, проверяется
+ * верно. Кэш ограничен по размеру и сбрасывается по пользователю после коммита выпуска или отзыва, на других
+ * узлах - по уведомлению {@link CacheInvalidationBus}. Запись кэша живёт не дольше cache-ttl-ms, поэтому
+ * даже потерянное уведомление оставляет заменённый токен действующим лишь на это время.
+ * У пользователя один действующий токен: новый вход заменяет предыдущий.
+ * Просроченные токены удаляются фоновой задачей пачками.
+ */
+@Slf4j
+@Service
+public class RefreshTokenStore implements ClusterCache {
+
+    private static final String REGION = "refresh-token";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus invalidationBus;
+
+    // хэш токена -> запись
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    // userId -> хэш закэшированного токена
+    private final Map<Long, String> tokenByUser = new ConcurrentHashMap<>();
+    // Увеличивается при каждом сбросе; загрузки, начатые до сброса, не кэшируются
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${jwt.refreshExpiration:604800000}")
+    private long refreshTokenExpiration;
+
+    @Value("${auth.refresh-token.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Value("${auth.refresh-token.cache-max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${auth.refresh-token.cache-ttl-ms:60000}")
+    private long cacheTtlMillis;
+
+    public RefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                             UserRepository userRepository,
+                             CacheInvalidationBus invalidationBus) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * Выпускает новый refresh-токен пользователя взамен предыдущего
+     */
+    public String issue(Long userId) {
+        String token = generateToken();
+        String hash = hash(token);
+        Instant expiryDate = Instant.now().plusMillis(refreshTokenExpiration);
+
+        // Сначала БД: токен, не сохранённый надёжно, не выдаём
+        if (refreshTokenRepository.updateTokenForUser(userId, hash, expiryDate) == 0) {
+            refreshTokenRepository.save(RefreshToken.builder()
+                    .user(userRepository.getReferenceById(userId))
+                    .token(hash)
+                    .expiryDate(expiryDate)
+                    .build());
+        }
+
+        evictUser(userId);
+        invalidationBus.publish(REGION, userId);
+        return token;
+    }
+
+    /**
+     * ID владельца действующего токена
+     */
+    public Optional<Long> resolve(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String hash = hash(token);
+        long now = System.currentTimeMillis();
+        Entry entry = tokens.get(hash);
+        if (entry == null || entry.cachedUntil() <= now) {
+            entry = load(hash, now);
+        }
+        if (entry == null || entry.expiresAt() <= now) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.userId());
+    }
+
+    /**
+     * Отзывает refresh-токен пользователя
+     */
+    public void revoke(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        evictUser(userId);
+        invalidationBus.publish(REGION, userId);
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    /**
+     * Токен пользователя заменён или отозван на другом узле: ключ - userId
+     */
+    @Override
+    public void invalidate(String key) {
+        evictUser(Long.valueOf(key));
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (tokens) {
+            generation.incrementAndGet();
+            tokens.clear();
+            tokenByUser.clear();
+        }
+    }
+
+    /**
+     * Удаляет просроченные записи кэша и просроченные токены из БД (пачками)
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-token.sweep-interval-ms:300000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        int removedFromMemory = 0;
+        Iterator<Map.Entry<String, Entry>> iterator = tokens.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> token = iterator.next();
+            if (token.getValue().cachedUntil() <= now) {
+                iterator.remove();
+                tokenByUser.remove(token.getValue().userId(), token.getKey());
+                removedFromMemory++;
+            }
+        }
+
+        int removedFromDb = 0;
+        Instant cutoff = Instant.ofEpochMilli(now);
+        List<Long> expiredIds;
+        while (!(expiredIds = refreshTokenRepository.findExpiredIds(cutoff, PageRequest.of(0, sweepBatchSize))).isEmpty()) {
+            refreshTokenRepository.deleteAllByIdInBatch(expiredIds);
+            removedFromDb += expiredIds.size();
+        }
+
+        if (removedFromMemory > 0 || removedFromDb > 0) {
+            log.info("🧹 Удалено просроченных refresh-токенов: {} из кэша, {} из БД", removedFromMemory, removedFromDb);
+        }
+    }
+
+    private Entry load(String hash, long now) {
+        long loadGeneration = generation.get();
+        // Токен мог быть выпущен на другом узле только что: реплика его ещё не видит
+        List<Object[]> rows = WorkloadContext.onPrimary(() -> refreshTokenRepository.findOwnerByToken(hash));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Long userId = (Long) rows.get(0)[0];
+        long expiresAt = ((Instant) rows.get(0)[1]).toEpochMilli();
+        Entry entry = new Entry(userId, expiresAt, Math.min(expiresAt, now + cacheTtlMillis));
+
+        synchronized (tokens) {
+            if (generation.get() == loadGeneration && tokens.size() < cacheMaxSize) {
+                String previous = tokenByUser.put(userId, hash);
+                if (previous != null && !previous.equals(hash)) {
+                    tokens.remove(previous);
+                }
+                tokens.put(hash, entry);
+            }
+        }
+        return entry;
+    }
+
+    private void evictUser(Long userId) {
+        synchronized (tokens) {
+            generation.incrementAndGet();
+            String hash = tokenByUser.remove(userId);
+            if (hash != null) {
+                tokens.remove(hash);
+            }
+        }
+    }
+
+    private static String generateToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param cachedUntil до какого момента запись берётся из кэша без обращения к БД
+     */
+    private record Entry(Long userId, long expiresAt, long cachedUntil) {
+    }
+}
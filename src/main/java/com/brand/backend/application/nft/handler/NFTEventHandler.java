@@ -1,6 +1,8 @@
 package com.brand.backend.application.nft.handler;
 
+import com.brand.backend.application.nft.service.NFTMetadataService;
 import com.brand.backend.infrastructure.integration.telegram.user.TelegramBotService;
+import com.brand.backend.domain.nft.event.NFTBatchRevealedEvent;
 import com.brand.backend.domain.nft.event.NFTEvent;
 import com.brand.backend.domain.nft.model.NFT;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,8 @@ import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -22,6 +26,7 @@ import java.util.List;
 public class NFTEventHandler {
 
     private final TelegramBotService telegramBotService;
+    private final NFTMetadataService metadataService;
 
     @Async("eventExecutor")
     @EventListener
@@ -48,6 +53,42 @@ public class NFTEventHandler {
         }
     }
     
+    /**
+     * Уведомления о массовом раскрытии: одно сообщение на пользователя за пачку
+     */
+    @Async("eventExecutor")
+    @EventListener
+    public void handleNFTBatchRevealed(NFTBatchRevealedEvent event) {
+        log.debug("Обработка пачки раскрытых NFT: задание #{}, {} NFT", event.getJobId(), event.getNfts().size());
+
+        Map<Long, List<NFT>> nftsByChat = event.getNfts().stream()
+                .filter(nft -> nft.getUser().getTelegramId() != null)
+                .collect(Collectors.groupingBy(nft -> nft.getUser().getTelegramId()));
+
+        nftsByChat.forEach((telegramId, nfts) -> {
+            try {
+                if (nfts.size() == 1) {
+                    notifyUserNFTRevealed(nfts.get(0));
+                    return;
+                }
+
+                StringBuilder text = new StringBuilder("✨ Ваши NFT раскрыты (" + nfts.size() + "):\n");
+                for (NFT nft : nfts) {
+                    text.append("\n• ").append(nft.getRarity() != null ? nft.getRarity() : "NFT")
+                            .append(": ").append(nft.getRevealedUri());
+                }
+
+                SendMessage sendMessage = new SendMessage();
+                sendMessage.setChatId(telegramId.toString());
+                sendMessage.setText(text.toString());
+                telegramBotService.execute(sendMessage);
+            } catch (Exception e) {
+                log.error("Ошибка отправки уведомления о массовом раскрытии NFT пользователю {}: {}",
+                        telegramId, e.getMessage());
+            }
+        });
+    }
+
     private void notifyUserNFTCreated(NFT nft) {
         if (nft.getUser().getTelegramId() != null) {
             String message = "🎁 Вам выдан новый NFT!\n" +
@@ -56,7 +97,8 @@ public class NFTEventHandler {
             SendMessage sendMessage = createNFTMessage(
                     nft.getUser().getTelegramId().toString(), 
                     message,
-                    nft.getPlaceholderUri()
+                    nft.getPlaceholderUri(),
+                    metadataService.getMetadataUrl(nft.getId())
             );
             
             try {
@@ -76,7 +118,8 @@ public class NFTEventHandler {
             SendMessage sendMessage = createNFTMessage(
                     nft.getUser().getTelegramId().toString(), 
                     message,
-                    nft.getRevealedUri()
+                    nft.getRevealedUri(),
+                    metadataService.getMetadataUrl(nft.getId())
             );
             
             try {
@@ -105,7 +148,7 @@ public class NFTEventHandler {
         }
     }
     
-    private SendMessage createNFTMessage(String chatId, String text, String imageUrl) {
+    private SendMessage createNFTMessage(String chatId, String text, String imageUrl, String metadataUrl) {
         SendMessage message = new SendMessage();
         message.setChatId(chatId);
         message.setText(text + "\n\nИзображение: " + imageUrl);
@@ -119,6 +162,11 @@ public class NFTEventHandler {
         viewButton.setText("Просмотреть NFT");
         viewButton.setUrl(imageUrl);
         row.add(viewButton);
+
+        InlineKeyboardButton metadataButton = new InlineKeyboardButton();
+        metadataButton.setText("Метаданные");
+        metadataButton.setUrl(metadataUrl);
+        row.add(metadataButton);
         
         rows.add(row);
         markup.setKeyboard(rows);
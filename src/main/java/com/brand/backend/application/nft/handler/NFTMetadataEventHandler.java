@@ -0,0 +1,46 @@
+package com.brand.backend.application.nft.handler;
+
+import com.brand.backend.application.nft.service.NFTMetadataService;
+import com.brand.backend.domain.nft.event.NFTBatchRevealedEvent;
+import com.brand.backend.domain.nft.event.NFTEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обновляет метаданные NFT при изменении NFT
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NFTMetadataEventHandler {
+
+    private final NFTMetadataService metadataService;
+
+    @Async("eventExecutor")
+    @EventListener
+    public void handleNFTEvent(NFTEvent event) {
+        if (event.getEventType() == NFTEvent.NFTEventType.TRANSFERRED) {
+            return;
+        }
+        try {
+            metadataService.render(event.getNft());
+        } catch (Exception e) {
+            log.error("Ошибка рендера метаданных NFT {}: {}", event.getNft().getId(), e.getMessage(), e);
+        }
+    }
+
+    @Async("eventExecutor")
+    @EventListener
+    public void handleNFTBatchRevealed(NFTBatchRevealedEvent event) {
+        metadataService.renderAll(event.getNfts());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMetadata() {
+        metadataService.backfill();
+    }
+}
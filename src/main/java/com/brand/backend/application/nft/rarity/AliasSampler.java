@@ -0,0 +1,71 @@
+package com.brand.backend.application.nft.rarity;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Выбор индекса по весам за O(1) методом псевдонимов (Vose's alias method).
+ * Таблица строится один раз за O(n), дальше каждая выборка - одно 64-битное случайное число.
+ */
+public final class AliasSampler {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    public AliasSampler(List<Double> weights) {
+        int n = weights.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("Список весов пуст");
+        }
+        probability = new double[n];
+        alias = new int[n];
+
+        double sum = weights.stream().mapToDouble(Double::doubleValue).sum();
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights.get(i) * n / sum;
+            if (scaled[i] < 1.0) {
+                small.push(i);
+            } else {
+                large.push(i);
+            }
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small.push(more);
+            } else {
+                large.push(more);
+            }
+        }
+        // Остатки из-за погрешности округления считаются полными столбцами
+        while (!large.isEmpty()) {
+            probability[large.pop()] = 1.0;
+        }
+        while (!small.isEmpty()) {
+            probability[small.pop()] = 1.0;
+        }
+    }
+
+    /**
+     * Возвращает индекс по случайному 64-битному числу.
+     * Старшие 31 бит выбирают столбец, младшие 30 бит - монетку внутри столбца.
+     */
+    public int sample(long random) {
+        int column = (int) (((random >>> 33) * probability.length) >>> 31);
+        double coin = (random & ((1L << 30) - 1)) / (double) (1L << 30);
+        return coin < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,96 @@
+package com.brand.backend.application.nft.rarity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Детерминированный выбор уровней редкости для выдачи.
+ * <p>
+ * Для выдачи с номером N распределитель даёт порядок уровней, которые нужно пробовать: до {@value #MAX_REDRAWS}
+ * выборок по весам (alias за O(1)) из счётного случайного числа от seed и N, затем запасной уровень без
+ * ограничения тиража (или, если все уровни ограничены, все уровни по порядку). Сам тираж здесь не хранится:
+ * уровень резервируется в БД первым кандидатом, у которого остался тираж
+ * ({@link com.brand.backend.application.nft.service.RarityAllocationService}).
+ * Кандидаты зависят только от seed и N, поэтому по журналу можно проверить, что каждая выдача
+ * могла получиться при этом seed ({@link #isCandidate}).
+ */
+public final class RarityAllocator {
+
+    // Сколько раз перевыбирать уровень, если выпал исчерпанный
+    private static final int MAX_REDRAWS = 8;
+
+    private final List<RarityTier> tiers;
+    private final AliasSampler sampler;
+    private final long seed;
+    private final int fallbackTier;
+
+    public RarityAllocator(List<RarityTier> tiers, long seed) {
+        this.tiers = List.copyOf(tiers);
+        this.sampler = new AliasSampler(tiers.stream().map(RarityTier::weight).toList());
+        this.seed = seed;
+        this.fallbackTier = findFallbackTier(this.tiers);
+    }
+
+    /**
+     * Индексы уровней в порядке попыток для выдачи с номером sequence (могут повторяться)
+     */
+    public int[] candidates(long sequence) {
+        int[] draws = new int[MAX_REDRAWS];
+        for (int attempt = 0; attempt < MAX_REDRAWS; attempt++) {
+            draws[attempt] = sampler.sample(random(sequence, attempt));
+        }
+        if (fallbackTier >= 0) {
+            int[] candidates = Arrays.copyOf(draws, MAX_REDRAWS + 1);
+            candidates[MAX_REDRAWS] = fallbackTier;
+            return candidates;
+        }
+        int[] candidates = Arrays.copyOf(draws, MAX_REDRAWS + tiers.size());
+        for (int tier = 0; tier < tiers.size(); tier++) {
+            candidates[MAX_REDRAWS + tier] = tier;
+        }
+        return candidates;
+    }
+
+    /**
+     * Мог ли уровень rarity достаться выдаче с номером sequence при этом seed
+     */
+    public boolean isCandidate(long sequence, String rarity) {
+        for (int tier : candidates(sequence)) {
+            if (tiers.get(tier).name().equals(rarity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<RarityTier> tiers() {
+        return tiers;
+    }
+
+    /**
+     * Счётное случайное число (SplitMix64 от seed, номера выдачи и попытки)
+     */
+    private long random(long sequence, int attempt) {
+        long z = seed + sequence * 0x9E3779B97F4A7C15L + attempt * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Уровень без ограничения тиража с наибольшим весом, -1 если все ограничены
+     */
+    private static int findFallbackTier(List<RarityTier> tiers) {
+        int fallback = -1;
+        for (int i = 0; i < tiers.size(); i++) {
+            RarityTier tier = tiers.get(i);
+            if (!tier.isCapped() && (fallback < 0 || tier.weight() > tiers.get(fallback).weight())) {
+                fallback = i;
+            }
+        }
+        return fallback;
+    }
+
+    public record Allocation(long sequence, String rarity) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.brand.backend.application.nft.rarity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Уровень редкости NFT в дропе.
+ *
+ * @param name название (common, rare, legendary...)
+ * @param weight относительный вес при выборе
+ * @param cap максимальный тираж уровня, 0 - без ограничения
+ */
+public record RarityTier(String name, double weight, int cap) {
+
+    public RarityTier {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Название уровня редкости не может быть пустым");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Вес уровня " + name + " должен быть положительным");
+        }
+        if (cap < 0) {
+            throw new IllegalArgumentException("Тираж уровня " + name + " не может быть отрицательным");
+        }
+    }
+
+    public boolean isCapped() {
+        return cap > 0;
+    }
+
+    /**
+     * Разбирает описание вида "legendary:1:50,epic:4:400,common:95:0"
+     */
+    public static List<RarityTier> parseList(String spec) {
+        List<RarityTier> tiers = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException("Некорректное описание уровня редкости: " + item);
+            }
+            int cap = parts.length == 3 ? Integer.parseInt(parts[2].trim()) : 0;
+            tiers.add(new RarityTier(parts[0].trim(), Double.parseDouble(parts[1].trim()), cap));
+        }
+        return tiers;
+    }
+}
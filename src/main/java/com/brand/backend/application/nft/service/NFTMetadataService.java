@@ -0,0 +1,283 @@
+package com.brand.backend.application.nft.service;
+
+import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.repository.NFTRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Метаданные NFT в формате ERC-721.
+ * <p>
+ * JSON рендерится из данных NFT и дропа и хранится на диске под именем SHA-256 содержимого,
+ * поэтому файл по хэшу неизменяем и кэшируется навсегда. Индекс id -> хэш держится в памяти,
+ * так что запросы кошельков и маркетплейсов не обращаются к БД.
+ * Повторный рендер выполняется только при изменении входных данных. Метаданные публичны, поэтому
+ * в них нет ничего, что связывает NFT с заказом или покупателем (номер заказа, пользователь).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NFTMetadataService {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final long UNREFERENCED_GRACE_MS = 3_600_000;
+
+    private final NFTRepository nftRepository;
+    private final ObjectMapper objectMapper;
+
+    // id NFT -> хэш актуального JSON
+    private final Map<Long, String> hashIndex = new ConcurrentHashMap<>();
+    // id NFT -> входные данные последнего рендера
+    private final Map<Long, MetadataInputs> renderedInputs = new ConcurrentHashMap<>();
+
+    @Value("${nft.metadata.dir:./data/nft-metadata}")
+    private String metadataDir;
+
+    @Value("${nft.metadata.public-base-url:https://brand.com}")
+    private String publicBaseUrl;
+
+    @Value("${nft.metadata.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(metadataDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+
+        for (Object[] row : nftRepository.findAllMetadataHashes()) {
+            hashIndex.put((Long) row[0], (String) row[1]);
+        }
+        log.info("Метаданные NFT: {} записей в индексе, хранилище {}", hashIndex.size(), root);
+    }
+
+    /**
+     * Рендерит и сохраняет метаданные NFT, если входные данные изменились.
+     *
+     * @return хэш актуального JSON
+     */
+    public String render(NFT nft) {
+        MetadataInputs inputs = MetadataInputs.of(nft);
+        String currentHash = hashIndex.get(nft.getId());
+        if (currentHash != null && inputs.equals(renderedInputs.get(nft.getId()))) {
+            return currentHash;
+        }
+
+        byte[] json = toJson(inputs);
+        String hash = sha256(json);
+        store(hash, json);
+
+        if (!hash.equals(currentHash)) {
+            nftRepository.updateMetadataHash(nft.getId(), hash);
+            hashIndex.put(nft.getId(), hash);
+            log.debug("Метаданные NFT {} обновлены: {}", nft.getId(), hash);
+        }
+        renderedInputs.put(nft.getId(), inputs);
+        return hash;
+    }
+
+    public void renderAll(List<NFT> nfts) {
+        for (NFT nft : nfts) {
+            try {
+                render(nft);
+            } catch (Exception e) {
+                log.error("Ошибка рендера метаданных NFT {}: {}", nft.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Рендерит метаданные NFT, созданных до появления хранилища
+     */
+    @Async("taskExecutor")
+    public void backfill() {
+        long afterId = 0L;
+        int rendered = 0;
+        List<Long> ids;
+        while (!(ids = nftRepository.findIdsWithoutMetadataAfter(afterId, PageRequest.of(0, backfillBatchSize))).isEmpty()) {
+            renderAll(nftRepository.findAllById(ids));
+            rendered += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (rendered > 0) {
+            log.info("Метаданные NFT: дорендерено {} записей", rendered);
+            purgeUnreferenced();
+        }
+    }
+
+    /**
+     * Удаляет файлы, на которые не ссылается ни один NFT (например, прежние версии с номером заказа).
+     * Свежие файлы не трогаем: их хэш мог ещё не дойти до БД
+     */
+    private void purgeUnreferenced() {
+        Set<String> referenced = new HashSet<>();
+        for (Object[] row : nftRepository.findAllMetadataHashes()) {
+            referenced.add((String) row[1]);
+        }
+        long cutoff = System.currentTimeMillis() - UNREFERENCED_GRACE_MS;
+        int removed = 0;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".json") || referenced.contains(name.substring(0, name.length() - 5))) {
+                    continue;
+                }
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Метаданные NFT: не удалось очистить хранилище: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            log.info("Метаданные NFT: удалено неиспользуемых файлов: {}", removed);
+        }
+    }
+
+    public Optional<String> getHash(Long nftId) {
+        return Optional.ofNullable(hashIndex.get(nftId));
+    }
+
+    /**
+     * Путь к файлу метаданных по хэшу; пусто, если хэш некорректен или файла нет
+     */
+    public Optional<Path> resolve(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path file = pathFor(hash);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Публичный URL метаданных NFT (tokenURI)
+     */
+    public String getMetadataUrl(Long nftId) {
+        return publicBaseUrl + "/api/nfts/" + nftId + "/metadata";
+    }
+
+    private byte[] toJson(MetadataInputs inputs) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("name", "Brand NFT #" + inputs.id());
+        metadata.put("description", inputs.revealed()
+                ? "Коллекционный NFT бренда, выданный за заказ."
+                : "Коллекционный NFT бренда. Будет раскрыт после доставки заказа.");
+        metadata.put("image", inputs.image());
+        metadata.put("external_url", getMetadataUrl(inputs.id()));
+
+        List<Map<String, Object>> attributes = new ArrayList<>();
+        // Редкость не раскрываем до reveal
+        if (inputs.revealed() && inputs.rarity() != null) {
+            attributes.add(attribute("Rarity", inputs.rarity()));
+        }
+        if (inputs.dropId() != null) {
+            attributes.add(attribute("Drop", inputs.dropId()));
+        }
+        attributes.add(attribute("Status", inputs.revealed() ? "Revealed" : "Unrevealed"));
+        if (inputs.createdAt() != null) {
+            Map<String, Object> minted = new LinkedHashMap<>();
+            minted.put("display_type", "date");
+            minted.put("trait_type", "Minted");
+            minted.put("value", inputs.createdAt().toEpochSecond(ZoneOffset.UTC));
+            attributes.add(minted);
+        }
+        metadata.put("attributes", attributes);
+
+        try {
+            return objectMapper.writeValueAsString(metadata).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать метаданные NFT " + inputs.id(), e);
+        }
+    }
+
+    private static Map<String, Object> attribute(String traitType, Object value) {
+        Map<String, Object> attribute = new LinkedHashMap<>();
+        attribute.put("trait_type", traitType);
+        attribute.put("value", value);
+        return attribute;
+    }
+
+    /**
+     * Сохраняет JSON атомарно; одинаковое содержимое пишется один раз
+     */
+    private void store(String hash, byte[] json) {
+        Path file = pathFor(hash);
+        if (Files.exists(file)) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), hash, ".tmp");
+            Files.write(tmp, json);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить метаданные " + hash, e);
+        }
+    }
+
+    // Двухсимвольные подкаталоги, чтобы не держать все файлы в одном каталоге
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".json");
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Всё, от чего зависит JSON метаданных
+     */
+    private record MetadataInputs(Long id,
+                                  boolean revealed,
+                                  String image,
+                                  String rarity,
+                                  String dropId,
+                                  LocalDateTime createdAt) {
+
+        static MetadataInputs of(NFT nft) {
+            return new MetadataInputs(
+                    nft.getId(),
+                    nft.isRevealed(),
+                    Objects.requireNonNullElse(nft.isRevealed() ? nft.getRevealedUri() : null, nft.getPlaceholderUri()),
+                    nft.getRarity(),
+                    nft.getDropId(),
+                    nft.getCreatedAt());
+        }
+    }
+}
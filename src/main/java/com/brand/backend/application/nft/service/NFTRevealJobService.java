@@ -0,0 +1,331 @@
+package com.brand.backend.application.nft.service;
+
+import com.brand.backend.domain.nft.event.NFTBatchRevealedEvent;
+import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTRevealJob;
+import com.brand.backend.domain.nft.model.NFTRevealJobStatus;
+import com.brand.backend.domain.nft.repository.NFTRepository;
+import com.brand.backend.domain.nft.repository.NFTRevealJobRepository;
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.cluster.Leadership;
+import com.brand.backend.infrastructure.cluster.LeadershipLostException;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Массовое раскрытие NFT.
+ * <p>
+ * Координатор выбирает ID нераскрытых NFT волнами (keyset по частичному индексу idx_nfts_unrevealed_id), делит волну на пачки
+ * и раскрывает их параллельно в пуле nftRevealExecutor, каждую пачку в отдельной транзакции.
+ * После каждой волны сохраняется контрольная точка, поэтому задание можно поставить на паузу и продолжить.
+ * Запрос паузы и статус задания хранятся в nft_reveal_jobs: команды админ-бота работают на любом узле.
+ * <p>
+ * Задания выполняет только ведущий узел роли {@value #LEADER_ROLE}: перед каждой волной проверяется
+ * fencing-токен, и прежний ведущий останавливается, оставляя задание в статусе RUNNING. Новый ведущий
+ * подхватывает такие задания при захвате роли и плановой проверкой, поэтому задание, созданное командой
+ * на другом узле, тоже будет запущено.
+ */
+@Slf4j
+@Service
+public class NFTRevealJobService {
+
+    public static final String LEADER_ROLE = "nft-reveal";
+
+    private final NFTRepository nftRepository;
+    private final NFTRevealJobRepository jobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor coordinatorExecutor;
+    private final Executor revealExecutor;
+    private final LeaderElection leaderElection;
+
+    // Fencing-токен роли (0 - узел не ведущий)
+    private volatile long leaderToken;
+    // ID задания, выполняющегося на этом узле; одновременно выполняется не больше одного
+    private final AtomicReference<Long> activeJobId = new AtomicReference<>();
+
+    @Value("${nft.reveal.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${nft.reveal.workers:4}")
+    private int workers;
+
+    public NFTRevealJobService(NFTRepository nftRepository,
+                               NFTRevealJobRepository jobRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier("taskExecutor") Executor coordinatorExecutor,
+                               @Qualifier("nftRevealExecutor") Executor revealExecutor,
+                               LeaderElection leaderElection) {
+        this.nftRepository = nftRepository;
+        this.jobRepository = jobRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.coordinatorExecutor = coordinatorExecutor;
+        this.revealExecutor = revealExecutor;
+        this.leaderElection = leaderElection;
+    }
+
+    /**
+     * Подписка на роль после запуска приложения: без выборов роль захватывается сразу при подписке
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerLeadership() {
+        leaderElection.register(LEADER_ROLE, new RevealLeadership());
+    }
+
+    /**
+     * Создаёт и запускает задание массового раскрытия.
+     *
+     * @param baseUri базовый URI манифеста (например, ipfs://CID/)
+     * @param startedBy chat ID администратора
+     * @return созданное задание
+     */
+    public NFTRevealJob startJob(String baseUri, String startedBy) {
+        if (baseUri == null || baseUri.isBlank()) {
+            throw new IllegalArgumentException("Базовый URI манифеста не может быть пустым");
+        }
+        checkNoRunningJob(null);
+
+        NFTRevealJob job = new NFTRevealJob();
+        job.setBaseUri(baseUri.endsWith("/") ? baseUri : baseUri + "/");
+        job.setStartedBy(startedBy);
+        job.setStatus(NFTRevealJobStatus.RUNNING);
+        job.setTotalCount(nftRepository.countByRevealedFalse());
+        job.setCreatedAt(LocalDateTime.now());
+        NFTRevealJob savedJob = jobRepository.save(job);
+
+        log.info("🚀 [NFT REVEAL] Задание #{} создано: {} NFT, manifest={}",
+                savedJob.getId(), savedJob.getTotalCount(), savedJob.getBaseUri());
+        launchIfLeader(savedJob.getId());
+        return savedJob;
+    }
+
+    /**
+     * Продолжает приостановленное или прерванное задание с последней контрольной точки
+     */
+    public NFTRevealJob resumeJob(Long jobId) {
+        NFTRevealJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Задание не найдено"));
+        if (job.getStatus() == NFTRevealJobStatus.COMPLETED) {
+            return job;
+        }
+        checkNoRunningJob(jobId);
+
+        // Запрос паузы, оставшийся от прошлого запуска, снимается
+        jobRepository.clearPauseRequest(jobId);
+        job.setStatus(NFTRevealJobStatus.RUNNING);
+        job.setErrorMessage(null);
+        // Пересчитываем объём работы: после паузы могли появиться новые NFT
+        job.setTotalCount(job.getProcessedCount() + nftRepository.countByRevealedFalseAndIdGreaterThan(job.getLastProcessedId()));
+        job.setUpdatedAt(LocalDateTime.now());
+        NFTRevealJob savedJob = jobRepository.save(job);
+
+        log.info("▶️ [NFT REVEAL] Задание #{} продолжено с ID > {}", jobId, job.getLastProcessedId());
+        launchIfLeader(jobId);
+        return savedJob;
+    }
+
+    /**
+     * Запрашивает паузу текущего задания. Запрос сохраняется в БД, пауза наступает на ведущем узле
+     * после завершения текущей волны.
+     *
+     * @return false - нет задания в статусе RUNNING
+     */
+    public boolean pauseActiveJob() {
+        return jobRepository.requestPause(NFTRevealJobStatus.RUNNING, LocalDateTime.now()) > 0;
+    }
+
+    public Optional<NFTRevealJob> getLatestJob() {
+        return jobRepository.findFirstByOrderByIdDesc();
+    }
+
+    /**
+     * Есть ли задание в статусе RUNNING; задание может выполняться на другом узле
+     */
+    public boolean isRunning() {
+        return WorkloadContext.onPrimary(() -> jobRepository.existsByStatus(NFTRevealJobStatus.RUNNING));
+    }
+
+    /**
+     * Продолжает задания в статусе RUNNING, которые никто не выполняет: прерванные остановкой
+     * или сменой ведущего и созданные командой на другом узле
+     */
+    @Scheduled(fixedDelayString = "${nft.reveal.resume-interval-ms:30000}",
+            initialDelayString = "${nft.reveal.resume-interval-ms:30000}")
+    public void resumeInterruptedJobs() {
+        long token = leaderToken;
+        if (token == 0) {
+            return;
+        }
+        for (NFTRevealJob job : jobRepository.findByStatus(NFTRevealJobStatus.RUNNING)) {
+            if (activeJobId.get() == null) {
+                log.info("♻️ [NFT REVEAL] Возобновление прерванного задания #{}", job.getId());
+                launch(job.getId(), token);
+            }
+        }
+    }
+
+    private void checkNoRunningJob(Long exceptJobId) {
+        if (activeJobId.get() != null) {
+            throw new IllegalStateException("Задание раскрытия уже выполняется: #" + activeJobId.get());
+        }
+        // Задание может выполняться на ведущем узле
+        for (NFTRevealJob running : jobRepository.findByStatus(NFTRevealJobStatus.RUNNING)) {
+            if (!running.getId().equals(exceptJobId)) {
+                throw new IllegalStateException("Задание раскрытия уже выполняется: #" + running.getId());
+            }
+        }
+    }
+
+    private void launchIfLeader(Long jobId) {
+        long token = leaderToken;
+        if (token == 0) {
+            log.info("🚀 [NFT REVEAL] Задание #{} запустит ведущий узел роли {}", jobId, LEADER_ROLE);
+            return;
+        }
+        launch(jobId, token);
+    }
+
+    private void launch(Long jobId, long token) {
+        if (!activeJobId.compareAndSet(null, jobId)) {
+            throw new IllegalStateException("Задание раскрытия уже выполняется: #" + activeJobId.get());
+        }
+        coordinatorExecutor.execute(() -> {
+            try {
+                runJob(jobId, token);
+            } finally {
+                activeJobId.set(null);
+            }
+        });
+    }
+
+    private void runJob(Long jobId, long token) {
+        NFTRevealJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        int waveSize = chunkSize * workers;
+        try {
+            while (true) {
+                leaderElection.checkFence(LEADER_ROLE, token);
+                // Паузу мог запросить админ-бот на другом узле
+                if (WorkloadContext.onPrimary(() -> jobRepository.isPauseRequested(jobId))) {
+                    finishJob(job, NFTRevealJobStatus.PAUSED, null);
+                    log.info("⏸ [NFT REVEAL] Задание #{} приостановлено на ID {}", jobId, job.getLastProcessedId());
+                    return;
+                }
+
+                List<Long> ids = nftRepository.findUnrevealedIdsAfter(job.getLastProcessedId(), PageRequest.of(0, waveSize));
+                if (ids.isEmpty()) {
+                    finishJob(job, NFTRevealJobStatus.COMPLETED, null);
+                    log.info("✅ [NFT REVEAL] Задание #{} завершено, раскрыто {} NFT", jobId, job.getProcessedCount());
+                    return;
+                }
+
+                List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+                for (int from = 0; from < ids.size(); from += chunkSize) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                    chunks.add(CompletableFuture.supplyAsync(() -> revealChunk(jobId, chunk, job.getBaseUri()), revealExecutor));
+                }
+
+                int revealed = 0;
+                CompletionException failure = null;
+                for (CompletableFuture<Integer> chunk : chunks) {
+                    try {
+                        revealed += chunk.join();
+                    } catch (CompletionException e) {
+                        failure = failure != null ? failure : e;
+                    }
+                }
+                // Успешные пачки волны уже уведомлены и при продолжении не выбираются: учитываем их и при ошибке
+                job.setProcessedCount(job.getProcessedCount() + revealed);
+                if (failure != null) {
+                    throw failure;
+                }
+
+                // Контрольная точка: вся волна обработана
+                job.setLastProcessedId(ids.get(ids.size() - 1));
+                job.setUpdatedAt(LocalDateTime.now());
+                jobRepository.save(job);
+
+                log.debug("[NFT REVEAL] Задание #{}: {}/{} NFT", jobId, job.getProcessedCount(), job.getTotalCount());
+            }
+        } catch (LeadershipLostException e) {
+            // Статус остаётся RUNNING: задание продолжит новый ведущий с последней контрольной точки
+            log.warn("⚠️ [NFT REVEAL] Задание #{} остановлено на ID {}: {}", jobId, job.getLastProcessedId(), e.getMessage());
+        } catch (Exception e) {
+            log.error("❌ [NFT REVEAL] Ошибка выполнения задания #{}: {}", jobId, e.getMessage(), e);
+            finishJob(job, NFTRevealJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Раскрывает одну пачку в отдельной транзакции и публикует одно событие на пачку
+     */
+    private int revealChunk(Long jobId, List<Long> ids, String baseUri) {
+        List<NFT> revealedNfts = transactionTemplate.execute(status -> {
+            int updated = nftRepository.revealBatch(ids, baseUri);
+            if (updated == 0) {
+                return List.<NFT>of();
+            }
+            // NFT, раскрытые раньше вручную, не попадают в уведомления этого задания
+            return nftRepository.findAllWithUserByIdIn(ids).stream()
+                    .filter(nft -> nft.getRevealedUri() != null && nft.getRevealedUri().startsWith(baseUri))
+                    .toList();
+        });
+
+        if (revealedNfts == null || revealedNfts.isEmpty()) {
+            return 0;
+        }
+        eventPublisher.publishEvent(new NFTBatchRevealedEvent(this, jobId, revealedNfts));
+        return revealedNfts.size();
+    }
+
+    private void finishJob(NFTRevealJob job, NFTRevealJobStatus status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(errorMessage);
+        job.setUpdatedAt(LocalDateTime.now());
+        if (status == NFTRevealJobStatus.COMPLETED) {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+        jobRepository.save(job);
+    }
+
+    /**
+     * Задания выполняются, пока узел ведущий; потеря роли останавливает их перед следующей волной
+     */
+    private class RevealLeadership implements Leadership {
+
+        @Override
+        public void onAcquired(long token) {
+            leaderToken = token;
+            resumeInterruptedJobs();
+        }
+
+        @Override
+        public void onRevoked() {
+            leaderToken = 0;
+        }
+    }
+}
@@ -2,12 +2,16 @@ package com.brand.backend.application.nft.service;
 
 import com.brand.backend.domain.nft.event.NFTEvent;
 import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTSummary;
+import com.brand.backend.domain.nft.model.NFTTransfer;
 import com.brand.backend.domain.order.model.Order;
 import com.brand.backend.domain.user.model.User;
 import com.brand.backend.domain.nft.repository.NFTRepository;
 import com.brand.backend.domain.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -20,6 +24,7 @@ public class NFTService {
     private final NFTRepository nftRepository;
     private final UserRepository userRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final NFTTransferService nftTransferService;
 
     /**
      * Создает запись NFT для заказа.
@@ -31,13 +36,28 @@ public class NFTService {
      */
     @Transactional
     public NFT createNFTForOrder(Order order, String placeholderUri, String rarity) {
-        User user = order.getUser();
+        return createNFTForOrder(order, placeholderUri, rarity, null, null);
+    }
+
+    /**
+     * Создает запись NFT для заказа с редкостью, выданной в рамках дропа.
+     *
+     * @param dropId Идентификатор дропа.
+     * @param allocationSeq Порядковый номер выдачи редкости в дропе.
+     */
+    @Transactional
+    public NFT createNFTForOrder(Order order, String placeholderUri, String rarity, String dropId, Long allocationSeq) {
+        // Заказ лежит на шарде, пользователь - в основной БД рядом с NFT
+        User user = userRepository.getReferenceById(order.getUserId());
 
         NFT nft = new NFT();
-        nft.setOrder(order);
+        nft.setOrderId(order.getId());
+        nft.setOrderNumber(order.getOrderNumber());
         nft.setUser(user);
         nft.setPlaceholderUri(placeholderUri);
         nft.setRarity(rarity);
+        nft.setDropId(dropId);
+        nft.setAllocationSeq(allocationSeq);
         nft.setCreatedAt(LocalDateTime.now());
         nft.setRevealed(false);
 
@@ -68,21 +88,15 @@ public class NFTService {
     }
     
     /**
-     * Имитирует передачу NFT на внешний кошелек.
+     * Ставит NFT в очередь на передачу на внешний кошелек.
+     * Транзакция отправляется пачкой через {@link NFTTransferService}, событие TRANSFERRED
+     * публикуется после подтверждения.
      *
      * @param nftId Идентификатор NFT.
      * @param externalAddress Адрес внешнего кошелька.
      */
-    @Transactional
-    public void transferNFTToExternalWallet(Long nftId, String externalAddress) {
-        NFT nft = nftRepository.findById(nftId)
-                .orElseThrow(() -> new RuntimeException("NFT not found"));
-        
-        // Здесь можно добавить логику для реальной передачи на блокчейн
-        // ...
-        
-        // Публикуем событие передачи NFT
-        eventPublisher.publishEvent(new NFTEvent(this, nft, NFTEvent.NFTEventType.TRANSFERRED));
+    public NFTTransfer transferNFTToExternalWallet(Long nftId, String externalAddress) {
+        return nftTransferService.requestTransfer(nftId, externalAddress);
     }
 
     /**
@@ -94,4 +108,48 @@ public class NFTService {
     public List<NFT> getNFTsForUser(User user) {
         return nftRepository.findByUser(user);
     }
+
+    /**
+     * Все NFT пользователя без загрузки заказов и пользователя (новые первыми).
+     *
+     * @param userId Идентификатор пользователя.
+     * @param revealed Фильтр по признаку раскрытия (null - все).
+     * @return Список NFT.
+     */
+    public List<NFTSummary> getNFTSummariesForUser(Long userId, Boolean revealed) {
+        return revealed == null
+                ? nftRepository.findSummariesByUserId(userId, Long.MAX_VALUE, Pageable.unpaged())
+                : nftRepository.findSummariesByUserIdAndRevealed(userId, revealed, Long.MAX_VALUE, Pageable.unpaged());
+    }
+
+    /**
+     * Страница NFT пользователя без загрузки заказов и пользователя.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param revealed Фильтр по признаку раскрытия (null - все).
+     * @param cursor ID последнего NFT предыдущей страницы (null - первая страница).
+     * @param limit Размер страницы.
+     * @return NFT страницы и курсор следующей страницы
+     */
+    public NFTPage getNFTPageForUser(Long userId, Boolean revealed, Long cursor, int limit) {
+        long beforeId = cursor != null ? cursor : Long.MAX_VALUE;
+        // Берём на одну запись больше, чтобы узнать, есть ли следующая страница
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<NFTSummary> rows = revealed == null
+                ? nftRepository.findSummariesByUserId(userId, beforeId, page)
+                : nftRepository.findSummariesByUserIdAndRevealed(userId, revealed, beforeId, page);
+
+        if (rows.size() <= limit) {
+            return new NFTPage(rows, null);
+        }
+        List<NFTSummary> items = rows.subList(0, limit);
+        return new NFTPage(items, items.get(limit - 1).id());
+    }
+
+    public boolean isOwnedBy(Long nftId, Long userId) {
+        return nftRepository.existsByIdAndUserId(nftId, userId);
+    }
+
+    public record NFTPage(List<NFTSummary> items, Long nextCursor) {
+    }
 }
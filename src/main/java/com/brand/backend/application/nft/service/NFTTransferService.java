@@ -0,0 +1,297 @@
+package com.brand.backend.application.nft.service;
+
+import com.brand.backend.common.exeption.ConflictException;
+import com.brand.backend.domain.nft.event.NFTEvent;
+import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTTransfer;
+import com.brand.backend.domain.nft.model.NFTTransferStatus;
+import com.brand.backend.domain.nft.repository.NFTRepository;
+import com.brand.backend.domain.nft.repository.NFTTransferRepository;
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.cluster.LeadershipLostException;
+import com.brand.backend.infrastructure.integration.blockchain.ChainAdapter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Конвейер передачи NFT на внешние кошельки.
+ * <p>
+ * Запросы копятся в таблице nft_transfers, периодически группируются по адресу получателя
+ * и отправляются одной транзакцией на пачку, когда цена газа укладывается в окно
+ * (или когда самый старый запрос ждёт дольше max-wait). Подтверждения проверяются асинхронно.
+ * Очередь обрабатывает только ведущий узел роли {@value #LEADER_ROLE}; перед каждой отправкой в блокчейн
+ * проверяется его fencing-токен, чтобы пачку не отправили два узла.
+ */
+@Slf4j
+@Service
+public class NFTTransferService {
+
+    public static final String LEADER_ROLE = "nft-transfer";
+
+    private static final Pattern ADDRESS_PATTERN = Pattern.compile("^0x[0-9a-fA-F]{40}$");
+    private static final List<NFTTransferStatus> ACTIVE_STATUSES =
+            List.of(NFTTransferStatus.QUEUED, NFTTransferStatus.SUBMITTED);
+
+    private final NFTRepository nftRepository;
+    private final NFTTransferRepository transferRepository;
+    private final ChainAdapter chainAdapter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+
+    private final Counter requestedCounter;
+    private final Counter submittedCounter;
+    private final Counter confirmedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer confirmationLatencyTimer;
+    private final AtomicLong queueSize = new AtomicLong();
+
+    @Value("${nft.transfer.batch-size:50}")
+    private int batchSize;
+
+    @Value("${nft.transfer.max-gas-price-gwei:30}")
+    private long maxGasPriceGwei;
+
+    @Value("${nft.transfer.max-wait-seconds:600}")
+    private long maxWaitSeconds;
+
+    @Value("${nft.transfer.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${nft.transfer.flush-limit:1000}")
+    private int flushLimit;
+
+    public NFTTransferService(NFTRepository nftRepository,
+                              NFTTransferRepository transferRepository,
+                              ChainAdapter chainAdapter,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              LeaderElection leaderElection,
+                              MeterRegistry meterRegistry) {
+        this.nftRepository = nftRepository;
+        this.transferRepository = transferRepository;
+        this.chainAdapter = chainAdapter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderElection = leaderElection;
+        leaderElection.claim(LEADER_ROLE);
+
+        this.requestedCounter = meterRegistry.counter("nft.transfer.requested");
+        this.submittedCounter = meterRegistry.counter("nft.transfer.submitted");
+        this.confirmedCounter = meterRegistry.counter("nft.transfer.confirmed");
+        this.failedCounter = meterRegistry.counter("nft.transfer.failed");
+        this.batchSizeSummary = meterRegistry.summary("nft.transfer.batch.size");
+        this.confirmationLatencyTimer = Timer.builder("nft.transfer.confirmation.latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("nft.transfer.queue.size", queueSize, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Ставит передачу NFT в очередь.
+     *
+     * @param nftId Идентификатор NFT.
+     * @param externalAddress Адрес внешнего кошелька.
+     * @return запись о передаче
+     * @throws ConflictException если NFT уже на внешнем кошельке или его передача ещё не завершена
+     */
+    @Transactional
+    public NFTTransfer requestTransfer(Long nftId, String externalAddress) {
+        if (externalAddress == null || !ADDRESS_PATTERN.matcher(externalAddress).matches()) {
+            throw new IllegalArgumentException("Некорректный адрес кошелька");
+        }
+        NFT nft = nftRepository.findById(nftId)
+                .orElseThrow(() -> new RuntimeException("NFT not found"));
+        if (nft.getExternalAddress() != null) {
+            throw new ConflictException("NFT уже передан на внешний кошелёк");
+        }
+        if (transferRepository.existsByNftIdAndStatusIn(nftId, ACTIVE_STATUSES)) {
+            throw new ConflictException("Передача этого NFT уже выполняется");
+        }
+
+        NFTTransfer transfer = new NFTTransfer();
+        transfer.setNft(nft);
+        transfer.setDestinationAddress(externalAddress.toLowerCase());
+        transfer.setStatus(NFTTransferStatus.QUEUED);
+        transfer.setCreatedAt(LocalDateTime.now());
+
+        NFTTransfer savedTransfer;
+        try {
+            savedTransfer = transferRepository.saveAndFlush(transfer);
+        } catch (DataIntegrityViolationException e) {
+            // Параллельный запрос успел поставить передачу (uq_nft_transfers_active_nft)
+            throw new ConflictException("Передача этого NFT уже выполняется");
+        }
+        requestedCounter.increment();
+        queueSize.incrementAndGet();
+        log.info("NFT {} поставлен в очередь на передачу: {}", nftId, externalAddress);
+        return savedTransfer;
+    }
+
+    /**
+     * Формирует пачки из очереди и отправляет их в блокчейн
+     */
+    @Scheduled(fixedDelayString = "${nft.transfer.flush-interval-ms:5000}")
+    public void flushQueue() {
+        long token = leaderElection.token(LEADER_ROLE);
+        if (token == 0) {
+            return;
+        }
+        List<NFTTransfer> queued = transferRepository.findWithNftByStatus(NFTTransferStatus.QUEUED, PageRequest.of(0, flushLimit));
+        queueSize.set(transferRepository.countByStatus(NFTTransferStatus.QUEUED));
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        long gasPrice = chainAdapter.currentGasPriceGwei();
+        boolean gasWindowOpen = gasPrice <= maxGasPriceGwei;
+        LocalDateTime overdueBefore = LocalDateTime.now().minusSeconds(maxWaitSeconds);
+
+        Map<String, List<NFTTransfer>> byDestination = queued.stream()
+                .collect(Collectors.groupingBy(NFTTransfer::getDestinationAddress, LinkedHashMap::new, Collectors.toList()));
+
+        try {
+            byDestination.forEach((destination, transfers) -> {
+                LocalDateTime oldest = transfers.stream()
+                        .map(NFTTransfer::getCreatedAt)
+                        .min(Comparator.naturalOrder())
+                        .orElse(LocalDateTime.now());
+                if (!gasWindowOpen && oldest.isAfter(overdueBefore)) {
+                    log.debug("Газ {} gwei выше окна {}, передачи на {} отложены", gasPrice, maxGasPriceGwei, destination);
+                    return;
+                }
+                for (int from = 0; from < transfers.size(); from += batchSize) {
+                    leaderElection.checkFence(LEADER_ROLE, token);
+                    submitBatch(destination, transfers.subList(from, Math.min(from + batchSize, transfers.size())));
+                }
+            });
+        } catch (LeadershipLostException e) {
+            log.warn("Отправка передач NFT прервана: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет подтверждения отправленных транзакций
+     */
+    @Scheduled(fixedDelayString = "${nft.transfer.confirmation-poll-ms:2000}")
+    public void pollConfirmations() {
+        if (!leaderElection.isLeader(LEADER_ROLE)) {
+            return;
+        }
+        for (String txHash : transferRepository.findSubmittedTxHashes()) {
+            try {
+                ChainAdapter.TransactionStatus status = chainAdapter.getTransactionStatus(txHash);
+                switch (status) {
+                    case CONFIRMED -> confirmTransaction(txHash);
+                    case FAILED -> failTransaction(txHash, "Transaction reverted");
+                    case PENDING -> { }
+                }
+            } catch (Exception e) {
+                log.warn("Не удалось получить статус транзакции {}: {}", txHash, e.getMessage());
+            }
+        }
+    }
+
+    private void submitBatch(String destination, List<NFTTransfer> batch) {
+        List<Long> tokenIds = batch.stream().map(t -> t.getNft().getId()).toList();
+        List<Long> transferIds = batch.stream().map(NFTTransfer::getId).toList();
+
+        String txHash;
+        try {
+            txHash = chainAdapter.submitBatchTransfer(destination, tokenIds);
+        } catch (Exception e) {
+            log.warn("Ошибка отправки пачки из {} NFT на {}: {}", tokenIds.size(), destination, e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> registerAttemptFailure(transferIds, e.getMessage()));
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (NFTTransfer transfer : transferRepository.findAllById(transferIds)) {
+                transfer.setStatus(NFTTransferStatus.SUBMITTED);
+                transfer.setTxHash(txHash);
+                transfer.setAttempts(transfer.getAttempts() + 1);
+                transfer.setSubmittedAt(now);
+            }
+        });
+
+        submittedCounter.increment(batch.size());
+        batchSizeSummary.record(batch.size());
+        queueSize.addAndGet(-batch.size());
+        log.info("Пачка из {} NFT отправлена на {}, tx={}", batch.size(), destination, txHash);
+    }
+
+    private void confirmTransaction(String txHash) {
+        List<NFTTransfer> confirmed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NFTTransfer> transfers = transferRepository.findByTxHash(txHash);
+            for (NFTTransfer transfer : transfers) {
+                transfer.setStatus(NFTTransferStatus.CONFIRMED);
+                transfer.setConfirmedAt(now);
+                transfer.getNft().setExternalAddress(transfer.getDestinationAddress());
+                if (transfer.getSubmittedAt() != null) {
+                    confirmationLatencyTimer.record(Duration.between(transfer.getSubmittedAt(), now));
+                }
+            }
+            return transfers;
+        });
+        if (confirmed == null) {
+            return;
+        }
+
+        confirmedCounter.increment(confirmed.size());
+        for (NFTTransfer transfer : confirmed) {
+            eventPublisher.publishEvent(new NFTEvent(this, transfer.getNft(), NFTEvent.NFTEventType.TRANSFERRED));
+        }
+        log.info("✅ Транзакция {} подтверждена, передано NFT: {}", txHash, confirmed.size());
+    }
+
+    private void failTransaction(String txHash, String reason) {
+        transactionTemplate.executeWithoutResult(status -> registerAttemptFailure(
+                transferRepository.findByTxHash(txHash).stream().map(NFTTransfer::getId).toList(), reason));
+        log.warn("❌ Транзакция {} не прошла: {}", txHash, reason);
+    }
+
+    /**
+     * Возвращает передачи в очередь или помечает их неуспешными после исчерпания попыток
+     */
+    private void registerAttemptFailure(List<Long> transferIds, String reason) {
+        for (NFTTransfer transfer : transferRepository.findAllById(transferIds)) {
+            if (transfer.getStatus() == NFTTransferStatus.QUEUED) {
+                transfer.setAttempts(transfer.getAttempts() + 1);
+            }
+            transfer.setTxHash(null);
+            transfer.setErrorMessage(reason);
+            if (transfer.getAttempts() >= maxAttempts) {
+                transfer.setStatus(NFTTransferStatus.FAILED);
+                failedCounter.increment();
+            } else {
+                transfer.setStatus(NFTTransferStatus.QUEUED);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.brand.backend.application.nft.service;
+
+import com.brand.backend.application.nft.rarity.RarityAllocator;
+import com.brand.backend.application.nft.rarity.RarityTier;
+import com.brand.backend.domain.nft.model.NFTRarityAllocation;
+import com.brand.backend.domain.nft.repository.NFTRarityAllocationRepository;
+import com.brand.backend.domain.order.model.Order;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Выдача редкостей NFT для текущего дропа.
+ * <p>
+ * Номер выдачи берётся из последовательности БД, тираж ограниченного уровня резервируется условным UPDATE
+ * в nft_rarity_supply, поэтому лимиты общие для всех узлов. {@link RarityAllocator} только задаёт порядок
+ * уровней, которые пробуются для номера. Запись журнала сохраняется в той же транзакции, что и резерв:
+ * если журнал не записан, выдача не состоялась и тираж возвращается.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RarityAllocationService {
+
+    private final NFTRarityAllocationRepository allocationRepository;
+
+    @Value("${nft.rarity.drop-id:default}")
+    private String dropId;
+
+    @Value("${nft.rarity.seed:0}")
+    private long seed;
+
+    @Value("${nft.rarity.tiers:legendary:1:50,epic:4:0,rare:15:0,common:80:0}")
+    private String tiersSpec;
+
+    private volatile RarityAllocator allocator;
+
+    /**
+     * Создаёт строки тиража ограниченных уровней; для нового уровня выданное считается по журналу
+     */
+    @PostConstruct
+    public void init() {
+        List<RarityTier> tiers = RarityTier.parseList(tiersSpec);
+        allocator = new RarityAllocator(tiers, seed);
+        for (RarityTier tier : tiers) {
+            if (tier.isCapped()) {
+                allocationRepository.upsertSupply(dropId, tier.name(), tier.cap());
+            }
+        }
+        log.info("Дроп {}: распределитель редкостей готов, уровни {}", dropId, tiers);
+    }
+
+    /**
+     * Выдаёт редкость для NFT по заказу
+     *
+     * @throws IllegalStateException если тираж всех уровней исчерпан
+     */
+    @Transactional
+    public RarityAllocator.Allocation allocate(Order order) {
+        long sequence = allocationRepository.nextSequence();
+        String rarity = claimTier(sequence);
+
+        NFTRarityAllocation record = new NFTRarityAllocation();
+        record.setDropId(dropId);
+        record.setSequence(sequence);
+        record.setRarity(rarity);
+        record.setSeed(seed);
+        record.setOrderId(order != null ? order.getId() : null);
+        record.setCreatedAt(LocalDateTime.now());
+        // Ошибка записи журнала откатывает и резерв тиража
+        allocationRepository.saveAndFlush(record);
+
+        return new RarityAllocator.Allocation(sequence, rarity);
+    }
+
+    public String getDropId() {
+        return dropId;
+    }
+
+    /**
+     * Сколько ещё можно выдать уровня редкости
+     */
+    public int remaining(String rarity) {
+        RarityTier tier = allocator.tiers().stream()
+                .filter(candidate -> candidate.name().equals(rarity))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестный уровень редкости: " + rarity));
+        if (!tier.isCapped()) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, tier.cap() - issuedByRarity().getOrDefault(rarity, 0));
+    }
+
+    /**
+     * Сверяет журнал с seed и тиражом: каждая выдача должна быть кандидатом своего номера,
+     * число выдач ограниченного уровня - совпадать со счётчиком и не превышать лимит.
+     *
+     * @return количество расхождений
+     */
+    public int verifyLedger() {
+        List<NFTRarityAllocation> ledger = allocationRepository.findByDropIdOrderBySequence(dropId);
+
+        int mismatches = 0;
+        Map<String, Integer> ledgerCounts = new HashMap<>();
+        for (NFTRarityAllocation record : ledger) {
+            ledgerCounts.merge(record.getRarity(), 1, Integer::sum);
+            if (record.getSeed() != seed || !allocator.isCandidate(record.getSequence(), record.getRarity())) {
+                mismatches++;
+                log.warn("Дроп {}: выдача #{} ({}) не могла получиться при seed {}",
+                        dropId, record.getSequence(), record.getRarity(), seed);
+            }
+        }
+
+        Map<String, Integer> issued = issuedByRarity();
+        for (RarityTier tier : allocator.tiers()) {
+            if (!tier.isCapped()) {
+                continue;
+            }
+            int inLedger = ledgerCounts.getOrDefault(tier.name(), 0);
+            int counted = issued.getOrDefault(tier.name(), 0);
+            if (inLedger != counted || inLedger > tier.cap()) {
+                mismatches++;
+                log.warn("Дроп {}: уровень {} - в журнале {}, по счётчику {}, лимит {}",
+                        dropId, tier.name(), inLedger, counted, tier.cap());
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Первый кандидат номера, у которого остался тираж; уровень без ограничения не резервируется
+     */
+    private String claimTier(long sequence) {
+        List<RarityTier> tiers = allocator.tiers();
+        for (int index : allocator.candidates(sequence)) {
+            RarityTier tier = tiers.get(index);
+            if (!tier.isCapped() || allocationRepository.claimSupply(dropId, tier.name()) == 1) {
+                return tier.name();
+            }
+        }
+        throw new IllegalStateException("Тираж всех уровней редкости исчерпан");
+    }
+
+    private Map<String, Integer> issuedByRarity() {
+        Map<String, Integer> issued = new HashMap<>();
+        for (Object[] row : allocationRepository.findIssuedByDrop(dropId)) {
+            issued.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        return issued;
+    }
+}
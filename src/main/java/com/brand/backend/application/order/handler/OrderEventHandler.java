@@ -6,9 +6,16 @@ import com.brand.backend.domain.order.event.OrderEvent;
 import com.brand.backend.domain.nft.model.NFT;
 import com.brand.backend.domain.order.model.Order;
 import com.brand.backend.domain.order.model.OrderStatus;
+import com.brand.backend.domain.product.model.Product;
+import com.brand.backend.domain.product.repository.ProductRepository;
+import com.brand.backend.domain.user.model.User;
+import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.application.nft.rarity.RarityAllocator;
 import com.brand.backend.application.nft.service.NFTService;
+import com.brand.backend.application.nft.service.RarityAllocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
@@ -23,6 +30,12 @@ public class OrderEventHandler {
     private final TelegramBotService telegramBotService;
     private final AdminTelegramBot adminTelegramBot;
     private final NFTService nftService;
+    private final RarityAllocationService rarityAllocationService;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${nft.placeholder-uri:https://brand.com/nft/placeholder}")
+    private String placeholderUri;
 
     @Async("eventExecutor")
     @EventListener
@@ -31,32 +44,42 @@ public class OrderEventHandler {
         log.debug("Обработка события заказа: {}, тип: {}", order.getOrderNumber(), event.getEventType());
         
         try {
+            // Заказ лежит на шарде, покупатель и товар - в основной БД
+            User user = userRepository.findById(order.getUserId()).orElse(null);
+            if (user == null) {
+                log.warn("Покупатель {} заказа {} не найден", order.getUserId(), order.getOrderNumber());
+                return;
+            }
+            String productName = productRepository.findById(order.getProductId())
+                    .map(Product::getName)
+                    .orElse("товар #" + order.getProductId());
+
             switch (event.getEventType()) {
                 case CREATED:
-                    notifyUserOrderCreated(order);
-                    notifyAdminOrderCreated(order);
+                    notifyUserOrderCreated(order, user, productName);
+                    notifyAdminOrderCreated(order, user, productName);
                     break;
                     
                 case PAID:
                     createNFTForOrder(order);
-                    notifyUserOrderPaid(order);
+                    notifyUserOrderPaid(order, user);
                     break;
                     
                 case UPDATED:
-                    notifyUserOrderUpdated(order);
+                    notifyUserOrderUpdated(order, user);
                     break;
                     
                 case SHIPPED:
-                    notifyUserOrderShipped(order);
+                    notifyUserOrderShipped(order, user);
                     break;
                     
                 case DELIVERED:
-                    notifyUserOrderDelivered(order);
+                    notifyUserOrderDelivered(order, user);
                     break;
                     
                 case CANCELED:
-                    notifyUserOrderCanceled(order);
-                    notifyAdminOrderCanceled(order);
+                    notifyUserOrderCanceled(order, user);
+                    notifyAdminOrderCanceled(order, user);
                     break;
             }
         } catch (Exception e) {
@@ -67,90 +90,91 @@ public class OrderEventHandler {
     private void createNFTForOrder(Order order) {
         if (order.getStatus() == OrderStatus.PROCESSING) {
             try {
-                String placeholderUri = "https://brand.com/nft/placeholder";
-                String rarity = "common"; // Базовая редкость, может быть изменена в будущем
-                NFT nft = nftService.createNFTForOrder(order, placeholderUri, rarity);
-                log.info("NFT создан для заказа: {}, NFT ID: {}", order.getOrderNumber(), nft.getId());
+                RarityAllocator.Allocation allocation = rarityAllocationService.allocate(order);
+                NFT nft = nftService.createNFTForOrder(order, placeholderUri, allocation.rarity(),
+                        rarityAllocationService.getDropId(), allocation.sequence());
+                log.info("NFT создан для заказа: {}, NFT ID: {}, редкость: {} (#{})",
+                        order.getOrderNumber(), nft.getId(), allocation.rarity(), allocation.sequence());
             } catch (Exception e) {
                 log.error("Ошибка при создании NFT для заказа: {}", order.getOrderNumber(), e);
             }
         }
     }
     
-    private void notifyUserOrderCreated(Order order) {
-        if (order.getUser().getTelegramId() != null) {
+    private void notifyUserOrderCreated(Order order, User user, String productName) {
+        if (user.getTelegramId() != null) {
             sendTelegramMessage(
-                order.getUser().getTelegramId().toString(),
+                user.getTelegramId().toString(),
                 "✅ Заказ #" + order.getOrderNumber() + " успешно создан!\n" +
-                "Товар: " + order.getProduct().getName() + "\n" +
+                "Товар: " + productName + "\n" +
                 "Размер: " + order.getSize() + "\n" +
                 "Сумма: " + order.getPrice() + " RUB"
             );
         }
     }
     
-    private void notifyAdminOrderCreated(Order order) {
+    private void notifyAdminOrderCreated(Order order, User user, String productName) {
         sendAdminTelegramMessage(
             "🔔 НОВЫЙ ЗАКАЗ #" + order.getOrderNumber() + "\n" +
-            "Товар: " + order.getProduct().getName() + "\n" +
+            "Товар: " + productName + "\n" +
             "Размер: " + order.getSize() + "\n" +
             "Сумма: " + order.getPrice() + " RUB\n" +
-            "Покупатель: " + order.getUser().getUsername()
+            "Покупатель: " + user.getUsername()
         );
     }
     
-    private void notifyUserOrderPaid(Order order) {
-        if (order.getUser().getTelegramId() != null) {
+    private void notifyUserOrderPaid(Order order, User user) {
+        if (user.getTelegramId() != null) {
             sendTelegramMessage(
-                order.getUser().getTelegramId().toString(),
+                user.getTelegramId().toString(),
                 "💰 Заказ #" + order.getOrderNumber() + " успешно оплачен!\n" +
                 "Вам начислен NFT, который станет доступен после выполнения заказа."
             );
         }
     }
     
-    private void notifyUserOrderUpdated(Order order) {
-        if (order.getUser().getTelegramId() != null) {
+    private void notifyUserOrderUpdated(Order order, User user) {
+        if (user.getTelegramId() != null) {
             sendTelegramMessage(
-                order.getUser().getTelegramId().toString(),
+                user.getTelegramId().toString(),
                 "🔄 Статус заказа #" + order.getOrderNumber() + " обновлен: " + order.getStatus()
             );
         }
     }
     
-    private void notifyUserOrderShipped(Order order) {
-        if (order.getUser().getTelegramId() != null) {
+    private void notifyUserOrderShipped(Order order, User user) {
+        if (user.getTelegramId() != null) {
             sendTelegramMessage(
-                order.getUser().getTelegramId().toString(),
+                user.getTelegramId().toString(),
                 "🚚 Заказ #" + order.getOrderNumber() + " отправлен!\n" +
                 "Скоро он будет у вас."
             );
         }
     }
     
-    private void notifyUserOrderDelivered(Order order) {
-        if (order.getUser().getTelegramId() != null) {
+    private void notifyUserOrderDelivered(Order order, User user) {
+        if (user.getTelegramId() != null) {
             sendTelegramMessage(
-                order.getUser().getTelegramId().toString(),
+                user.getTelegramId().toString(),
                 "📦 Заказ #" + order.getOrderNumber() + " доставлен!\n" +
                 "Спасибо за покупку в нашем магазине."
             );
         }
     }
     
-    private void notifyUserOrderCanceled(Order order) {
-        if (order.getUser().getTelegramId() != null) {
+    private void notifyUserOrderCanceled(Order order, User user) {
+        if (user.getTelegramId() != null) {
             sendTelegramMessage(
-                order.getUser().getTelegramId().toString(),
+                user.getTelegramId().toString(),
                 "❌ Заказ #" + order.getOrderNumber() + " отменен."
             );
         }
     }
     
-    private void notifyAdminOrderCanceled(Order order) {
+    private void notifyAdminOrderCanceled(Order order, User user) {
         sendAdminTelegramMessage(
             "❌ ЗАКАЗ ОТМЕНЕН #" + order.getOrderNumber() + "\n" +
-            "Пользователь: " + order.getUser().getUsername()
+            "Пользователь: " + user.getUsername()
         );
     }
     
@@ -0,0 +1,202 @@
+package com.brand.backend.application.order.service;
+
+import com.brand.backend.domain.order.model.OrderStatus;
+import com.brand.backend.domain.order.repository.OrderRepository;
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.cluster.LeadershipLostException;
+import com.brand.backend.infrastructure.persistence.sharding.OrderShardRouter;
+import com.brand.backend.infrastructure.persistence.sharding.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Архивирование заказов.
+ * <p>
+ * Завершённые и отменённые заказы старше orders.archive.age-days переносятся из orders в orders_archive
+ * пачками по batch-size, каждая пачка - отдельная короткая транзакция. Архив секционирован по месяцам
+ * created_at; секции создаются перед переносом. Секции старше detach-after-months отсоединяются
+ * (DETACH PARTITION CONCURRENTLY), переименовываются в *_detached_* и наследуют orders_archive_cold.
+ * Чтение истории идёт через представление order_history (живые, архивные и холодные заказы вместе);
+ * удалить холодные данные - DROP TABLE нужной секции *_detached_*.
+ * У каждого шарда заказов свой архив; {@link #archive()} и {@link #detachPartitionsBefore} работают
+ * с шардом текущего потока ({@link ShardContext}), плановый запуск обходит все шарды.
+ * Плановый запуск выполняет только ведущий узел роли {@value #LEADER_ROLE}.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    public static final String LEADER_ROLE = "orders-archive";
+
+    private static final List<OrderStatus> ARCHIVED_STATUSES = List.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED);
+    private static final String PARTITION_PREFIX = "orders_archive_p";
+    private static final String COLD_ARCHIVE = "orders_archive_cold";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter DETACHED_AT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderShardRouter shardRouter;
+    private final LeaderElection leaderElection;
+    private final Counter archivedCounter;
+    private final Counter detachedCounter;
+
+    @Value("${orders.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.archive.age-days:180}")
+    private int ageDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${orders.archive.detach-after-months:0}")
+    private int detachAfterMonths;
+
+    public OrderArchiveService(OrderRepository orderRepository,
+                               JdbcTemplate jdbcTemplate,
+                               OrderShardRouter shardRouter,
+                               LeaderElection leaderElection,
+                               MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.leaderElection = leaderElection;
+        leaderElection.claim(LEADER_ROLE);
+        this.archivedCounter = meterRegistry.counter("orders.archive.moved");
+        this.detachedCounter = meterRegistry.counter("orders.archive.partitions.detached");
+    }
+
+    @Scheduled(fixedDelayString = "${orders.archive.interval-ms:3600000}",
+            initialDelayString = "${orders.archive.initial-delay-ms:60000}")
+    public void runScheduled() {
+        long token = leaderElection.token(LEADER_ROLE);
+        if (!enabled || token == 0) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try {
+                leaderElection.checkFence(LEADER_ROLE, token);
+                ShardContext.on(shard, () -> {
+                    archive();
+                    if (detachAfterMonths > 0) {
+                        detachPartitionsBefore(YearMonth.now().minusMonths(detachAfterMonths));
+                    }
+                    return null;
+                });
+            } catch (LeadershipLostException e) {
+                log.warn("⚠️ [DB] Архивирование прервано на шарде {}: {}", shard, e.getMessage());
+                return;
+            } catch (Exception e) {
+                log.error("⚠️ [DB] Ошибка архивирования заказов на шарде {}: {}", shard, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Переносит подходящие заказы в архив (не больше max-batches-per-run пачек за вызов)
+     *
+     * @return число перенесённых заказов
+     */
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ageDays);
+        LocalDateTime oldest = orderRepository.findOldestCreatedAt(ARCHIVED_STATUSES, cutoff);
+        if (oldest == null) {
+            return 0;
+        }
+        ensurePartitions(YearMonth.from(oldest), YearMonth.from(cutoff));
+
+        List<String> statuses = ARCHIVED_STATUSES.stream().map(Enum::name).toList();
+        int moved = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int count = orderRepository.moveToArchive(statuses, cutoff, batchSize);
+            moved += count;
+            archivedCounter.increment(count);
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            log.info("🗄️ [DB] В архив перенесено заказов: {} (созданы до {})", moved, cutoff);
+        }
+        return moved;
+    }
+
+    /**
+     * Отсоединяет секции архива за месяцы раньше before и переводит их в холодный архив. Строки не
+     * копируются: секция становится наследником orders_archive_cold и остаётся видна в order_history.
+     * DETACH ... CONCURRENTLY не блокирует чтение архива и выполняется вне транзакции, поэтому между
+     * отсоединением и INHERIT строки секции на короткое время не видны; повторно они не видны никогда.
+     *
+     * @return имена таблиц, в которые превратились отсоединённые секции
+     */
+    public List<String> detachPartitionsBefore(YearMonth before) {
+        List<String> detached = new ArrayList<>();
+        for (String partition : listPartitions()) {
+            YearMonth month = partitionMonth(partition);
+            if (month == null || !month.isBefore(before)) {
+                continue;
+            }
+            String target = partition + "_detached_" + LocalDateTime.now().format(DETACHED_AT);
+            jdbcTemplate.execute("ALTER TABLE orders_archive DETACH PARTITION " + partition + " CONCURRENTLY");
+            // Имя освобождается на случай, если за этот месяц ещё придут заказы
+            jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO " + target);
+            jdbcTemplate.execute("ALTER TABLE " + target + " INHERIT " + COLD_ARCHIVE);
+            detachedCounter.increment();
+            detached.add(target);
+            log.info("🗄️ [DB] Секция архива {} отсоединена: {}", partition, target);
+        }
+        return detached;
+    }
+
+    private void ensurePartitions(YearMonth from, YearMonth to) {
+        Set<String> existing = new HashSet<>(listPartitions());
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            String partition = PARTITION_PREFIX + month.format(PARTITION_MONTH);
+            if (existing.contains(partition)) {
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF orders_archive"
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            log.info("🗄️ [DB] Создана секция архива заказов {}", partition);
+        }
+    }
+
+    /**
+     * Присоединённые секции архива (без тех, что в процессе отсоединения)
+     */
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'orders_archive'::regclass AND NOT i.inhdetachpending
+                """, String.class);
+    }
+
+    private static YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.brand.backend.application.order.service;
+
+import com.brand.backend.application.product.service.ProductService;
+import com.brand.backend.application.promotion.service.PromoCodeService;
+import com.brand.backend.domain.order.model.Order;
+import com.brand.backend.domain.order.model.OrderReservation;
+import com.brand.backend.domain.order.repository.OrderRepository;
+import com.brand.backend.domain.order.repository.OrderReservationRepository;
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.cluster.LeadershipLostException;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.infrastructure.persistence.sharding.OrderShardRouter;
+import com.brand.backend.infrastructure.persistence.sharding.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Резервы остатка под заказы, которые пишутся в шард.
+ * <p>
+ * Остаток и промокод списываются в основной БД, а заказ записывается в шард отдельной транзакцией.
+ * Чтобы падение узла между ними не уносило остаток, вместе со списанием в основную БД пишется строка
+ * order_reservations; после записи заказа она удаляется ({@link #confirm}), при ошибке записи остаток
+ * возвращается ({@link #release}). Строки старше orders.reservation.timeout-ms разбирает плановая задача
+ * ведущего узла роли {@value #LEADER_ROLE}: если заказ есть в шарде, резерв подтверждается, иначе остаток
+ * и промокод возвращаются. Подтверждение и возврат удаляют строку, поэтому срабатывает только одно из них.
+ */
+@Slf4j
+@Service
+public class OrderReservationService {
+
+    public static final String LEADER_ROLE = "order-reservations";
+
+    private final OrderReservationRepository reservationRepository;
+    private final OrderRepository orderRepository;
+    private final ProductService productService;
+    private final PromoCodeService promoCodeService;
+    private final OrderShardRouter shardRouter;
+    private final LeaderElection leaderElection;
+    private final Counter releasedCounter;
+
+    @Value("${orders.reservation.timeout-ms:600000}")
+    private long timeoutMillis;
+
+    @Value("${orders.reservation.sweep-batch-size:100}")
+    private int sweepBatchSize;
+
+    public OrderReservationService(OrderReservationRepository reservationRepository,
+                                   OrderRepository orderRepository,
+                                   ProductService productService,
+                                   PromoCodeService promoCodeService,
+                                   OrderShardRouter shardRouter,
+                                   LeaderElection leaderElection,
+                                   MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.orderRepository = orderRepository;
+        this.productService = productService;
+        this.promoCodeService = promoCodeService;
+        this.shardRouter = shardRouter;
+        this.leaderElection = leaderElection;
+        leaderElection.claim(LEADER_ROLE);
+        this.releasedCounter = meterRegistry.counter("orders.reservations.released");
+    }
+
+    /**
+     * Записывает резерв. Вызывается в транзакции основной БД, которая списывает остаток
+     *
+     * @param promoApplied списано ли использование промокода заказа
+     */
+    public OrderReservation record(Order order, int shard, boolean promoApplied) {
+        OrderReservation reservation = new OrderReservation();
+        reservation.setOrderNumber(order.getOrderNumber());
+        reservation.setShard(shard);
+        reservation.setProductId(order.getProductId());
+        reservation.setSize(order.getSize());
+        reservation.setPromoCode(promoApplied ? order.getPromoCode() : null);
+        reservation.setCreatedAt(LocalDateTime.now());
+        return reservationRepository.save(reservation);
+    }
+
+    /**
+     * Заказ записан в шард: резерв больше не нужен
+     *
+     * @return false - резерв уже возвращён плановой задачей
+     */
+    public boolean confirm(Long reservationId) {
+        return shardRouter.inTransaction(ShardContext.PRIMARY,
+                status -> reservationRepository.deleteReservation(reservationId) == 1);
+    }
+
+    /**
+     * Возвращает остаток и промокод резерва, если его ещё не подтвердили и не вернули
+     *
+     * @return true - остаток возвращён этим вызовом
+     */
+    public boolean release(Long reservationId) {
+        return shardRouter.inTransaction(ShardContext.PRIMARY, status -> {
+            OrderReservation reservation = reservationRepository.findById(reservationId).orElse(null);
+            if (reservation == null || reservationRepository.deleteReservation(reservationId) == 0) {
+                return false;
+            }
+            productService.returnStock(reservation.getProductId(), reservation.getSize());
+            if (reservation.getPromoCode() != null) {
+                promoCodeService.releasePromoCode(reservation.getPromoCode());
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Разбирает зависшие резервы (не больше sweep-batch-size за запуск)
+     */
+    @Scheduled(fixedDelayString = "${orders.reservation.sweep-interval-ms:60000}",
+            initialDelayString = "${orders.reservation.sweep-initial-delay-ms:60000}")
+    public void sweep() {
+        long token = leaderElection.token(LEADER_ROLE);
+        if (token == 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(timeoutMillis));
+        List<OrderReservation> stale = ShardContext.on(ShardContext.PRIMARY, () -> reservationRepository
+                .findByCreatedAtBeforeOrderById(cutoff, PageRequest.of(0, sweepBatchSize)));
+        for (OrderReservation reservation : stale) {
+            try {
+                leaderElection.checkFence(LEADER_ROLE, token);
+                // Реплика может ещё не видеть только что записанный заказ
+                boolean written = WorkloadContext.onPrimary(() -> shardRouter.read(reservation.getShard(),
+                        () -> orderRepository.existsByOrderNumber(reservation.getOrderNumber())));
+                if (written) {
+                    confirm(reservation.getId());
+                    log.info("🗄️ [ORDER] Резерв заказа {} подтверждён: заказ есть в шарде {}",
+                            reservation.getOrderNumber(), reservation.getShard());
+                } else if (release(reservation.getId())) {
+                    releasedCounter.increment();
+                    log.warn("⚠️ [ORDER] Заказ {} не записан в шард {}, остаток возвращён",
+                            reservation.getOrderNumber(), reservation.getShard());
+                }
+            } catch (LeadershipLostException e) {
+                log.warn("⚠️ [ORDER] Разбор резервов прерван: {}", e.getMessage());
+                return;
+            } catch (Exception e) {
+                log.error("⚠️ [ORDER] Ошибка разбора резерва заказа {}: {}",
+                        reservation.getOrderNumber(), e.getMessage(), e);
+            }
+        }
+    }
+}
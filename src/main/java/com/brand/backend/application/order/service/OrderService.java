@@ -1,56 +1,118 @@
 package com.brand.backend.application.order.service;
 
+import com.brand.backend.application.product.service.ProductService;
 import com.brand.backend.application.promotion.service.PromoCodeService;
 import com.brand.backend.presentation.dto.request.OrderDto;
 import com.brand.backend.presentation.dto.response.OrderResponseDto;
 import com.brand.backend.domain.order.event.OrderEvent;
 import com.brand.backend.domain.order.model.Order;
+import com.brand.backend.domain.order.model.OrderContact;
 import com.brand.backend.domain.order.model.OrderStatus;
+import com.brand.backend.domain.order.model.OrderView;
 import com.brand.backend.domain.product.model.Product;
 import com.brand.backend.domain.user.model.User;
+import com.brand.backend.domain.order.repository.OrderHistoryRepository;
 import com.brand.backend.domain.order.repository.OrderRepository;
 import com.brand.backend.domain.product.repository.ProductRepository;
 import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.persistence.sharding.OrderShardRouter;
+import com.brand.backend.infrastructure.persistence.sharding.ShardContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+/**
+ * Заказы хранятся на шардах по user_id ({@link OrderShardRouter}); товары, пользователи и промокоды -
+ * в основной БД (шард 0). Транзакции задаются через роутер: шард выбирается до начала транзакции.
+ * Заказ ссылается на товар и пользователя по id, названия товаров читаются из основной БД после запроса к шарду
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderHistoryRepository orderHistoryRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final PromoCodeService promoCodeService;
+    private final ProductService productService;
+    private final OrderShardRouter shardRouter;
+    private final OrderReservationService reservationService;
 
-    @Transactional
-    public OrderResponseDto createOrder(String username, OrderDto orderDto) {
-        User user = userRepository.findByUsername(username)
+    private static final Comparator<OrderView> NEWEST_FIRST =
+            Comparator.comparing(OrderView::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    public OrderResponseDto createOrder(Long userId, OrderDto orderDto) {
+        int shard = shardRouter.shardOf(userId);
+        if (shard == ShardContext.PRIMARY) {
+            // Заказ и списание остатка - одна транзакция основной БД
+            return shardRouter.inTransaction(ShardContext.PRIMARY, status -> saveOrder(reserve(userId, orderDto, shard)));
+        }
+
+        // Остаток и промокод резервируются в основной БД вместе со строкой резерва, заказ пишется в шард
+        // пользователя. Если запись в шард не удалась или узел упал до подтверждения, остаток возвращается
+        Reservation reservation = shardRouter.inTransaction(ShardContext.PRIMARY,
+                status -> reserve(userId, orderDto, shard));
+        OrderResponseDto savedOrder;
+        try {
+            savedOrder = shardRouter.inTransaction(shard, status -> saveOrder(reservation));
+        } catch (RuntimeException e) {
+            log.error("⚠️ [ORDER] Заказ {} не записан в шард {}, резерв возвращается: {}",
+                    reservation.order().getOrderNumber(), shard, e.getMessage());
+            try {
+                reservationService.release(reservation.reservationId());
+            } catch (RuntimeException releaseError) {
+                // Строка резерва осталась: остаток вернёт плановая задача
+                e.addSuppressed(releaseError);
+            }
+            throw e;
+        }
+
+        if (!reservationService.confirm(reservation.reservationId())) {
+            // Резерв уже вернула плановая задача: заказ без списанного остатка не оставляем
+            log.error("⚠️ [ORDER] Резерв заказа {} истёк до подтверждения, заказ удаляется",
+                    reservation.order().getOrderNumber());
+            Long orderId = savedOrder.getId();
+            shardRouter.inTransaction(shard, status -> {
+                orderRepository.deleteById(orderId);
+                return null;
+            });
+            throw new RuntimeException("Резерв заказа истёк, оформите заказ повторно");
+        }
+        return savedOrder;
+    }
+
+    /**
+     * Проверяет товар, применяет промокод и списывает остаток; возвращает ещё не сохранённый заказ.
+     * Для заказа, который пишется не в основную БД, в той же транзакции записывается строка резерва
+     */
+    private Reservation reserve(Long userId, OrderDto orderDto, int shard) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден"));
 
         Product product = productRepository.findById(orderDto.getProductId())
                 .orElseThrow(() -> new RuntimeException("Товар не найден"));
 
-        if(!isProductSizeAvailable(product, orderDto.getSize())) {
-            throw new RuntimeException("Товар данного размера не доступен");
-        }
-
         String orderNumber = "ORD-" + UUID.randomUUID().toString().substring(0, 8);
 
         Order order = new Order();
         order.setOrderNumber(orderNumber);
-        order.setProduct(product);
+        order.setProductId(product.getId());
         order.setQuantity(orderDto.getQuantity());
         order.setSize(orderDto.getSize());
         
@@ -59,86 +121,111 @@ public class OrderService {
         
         // Применяем промокод, если он есть
         String promoCode = orderDto.getPromoCode();
+        boolean promoApplied = false;
         if (promoCode != null && !promoCode.isEmpty()) {
-            try {
-                if (promoCodeService.isPromoCodeValid(promoCode)) {
-                    price = promoCodeService.applyPromoCode(promoCode, price);
-                    log.info("Промокод {} применен к заказу {}. Новая цена: {}", 
-                            promoCode, orderNumber, price);
-                } else {
-                    log.warn("Промокод {} недействителен для заказа {}", promoCode, orderNumber);
-                }
-            } catch (Exception e) {
-                log.error("Ошибка при применении промокода {}: {}", promoCode, e.getMessage());
+            OptionalDouble discounted = promoCodeService.applyPromoCode(promoCode, price);
+            if (discounted.isPresent()) {
+                price = discounted.getAsDouble();
+                promoApplied = true;
+                log.info("Промокод {} применен к заказу {}. Новая цена: {}", 
+                        promoCode, orderNumber, price);
+            } else {
+                log.warn("Промокод {} недействителен для заказа {}", promoCode, orderNumber);
             }
         }
         
         order.setPrice(price);
 
         // Заполняем контактные данные заказа из OrderDto (которые уже могут совпадать с профилем)
-        order.setEmail(orderDto.getEmail());
-        order.setPhoneNumber(orderDto.getPhoneNumber());
-        order.setFullName(orderDto.getFullName());
-        order.setCountry(orderDto.getCountry());
-        order.setAddress(orderDto.getAddress());
-        order.setPostalCode(orderDto.getPostalCode());
-        order.setTelegramUsername(orderDto.getTelegramUsername());
-        order.setCryptoAddress(orderDto.getCryptoAddress());
-        order.setOrderComment(orderDto.getOrderComment());
+        OrderContact contact = new OrderContact();
+        contact.setEmail(orderDto.getEmail());
+        contact.setPhoneNumber(orderDto.getPhoneNumber());
+        contact.setFullName(orderDto.getFullName());
+        contact.setCountry(orderDto.getCountry());
+        contact.setAddress(orderDto.getAddress());
+        contact.setPostalCode(orderDto.getPostalCode());
+        contact.setTelegramUsername(orderDto.getTelegramUsername());
+        contact.setCryptoAddress(orderDto.getCryptoAddress());
+        contact.setOrderComment(orderDto.getOrderComment());
+        order.setContact(contact);
         order.setPromoCode(orderDto.getPromoCode());
         order.setPaymentMethod(orderDto.getPaymentMethod());
         order.setCreatedAt(LocalDateTime.now());
-        order.setUser(user);
+        order.setUserId(user.getId());
 
         order.setStatus(OrderStatus.NEW);
 
-        Order savedOrder = orderRepository.save(order);
+        // Наличие размера проверяет само списание; откат вернёт и использование промокода
+        if (!productService.takeStock(product.getId(), orderDto.getSize())) {
+            throw new RuntimeException("Товар данного размера не доступен");
+        }
+
+        Long reservationId = shard == ShardContext.PRIMARY ? null
+                : reservationService.record(order, shard, promoApplied).getId();
+        return new Reservation(order, user, product, reservationId);
+    }
 
-        reduceProductQuantity(product, orderDto.getSize());
+    private OrderResponseDto saveOrder(Reservation reservation) {
+        Order savedOrder = orderRepository.save(reservation.order());
 
         // Публикуем событие создания заказа
         eventPublisher.publishEvent(new OrderEvent(this, savedOrder, OrderEvent.OrderEventType.CREATED));
 
-        log.info("✅ [ORDER CREATED] Заказ {} создан пользователем {}", orderNumber, username);
-        return mapToDto(savedOrder);
+        log.info("✅ [ORDER CREATED] Заказ {} создан пользователем {}", savedOrder.getOrderNumber(),
+                reservation.user().getUsername());
+        return mapToDto(savedOrder, reservation.product().getName());
     }
 
+    // Чтение - из order_history: заказы, перенесённые в архив, остаются в истории
+
     public Optional<OrderResponseDto> getOrderById(Long id) {
-        return orderRepository.findById(id).map(this::mapToDto);
+        return shardRouter.findAny(() -> orderHistoryRepository.findWithContactById(id))
+                .map(order -> toDtos(List.of(order)).get(0));
     }
 
-    public List<OrderResponseDto> getUserOrders(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        return orderRepository.findByUser(user).stream().map(this::mapToDto).toList();
+    public List<OrderResponseDto> getUserOrders(Long userId) {
+        return toDtos(shardRouter.queryUser(userId,
+                () -> orderHistoryRepository.findByUserIdOrderByCreatedAtDesc(userId), NEWEST_FIRST));
     }
 
-    public List<OrderResponseDto> getAllOrders() {
-        return orderRepository.findAll().stream().map(this::mapToDto).toList();
+    /**
+     * Страница всех заказов, новые первыми
+     */
+    public List<OrderResponseDto> getAllOrders(int page, int size) {
+        return toDtos(shardRouter.scatterGather(
+                limit -> orderHistoryRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, limit)),
+                NEWEST_FIRST, Math.multiplyExact(page, size), size));
     }
 
-    @Transactional
-    public void cancelOrder(Long orderId, String username) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Заказ не найден"));
+    public void cancelOrder(Long orderId, Long userId) {
+        shardRouter.inTransaction(locate(orderId), status -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Заказ не найден"));
 
-        if (!order.getUser().getUsername().equals(username)) {
-            throw new RuntimeException("Вы не можете отменить этот заказ");
-        }
+            if (!order.getUserId().equals(userId)) {
+                throw new RuntimeException("Вы не можете отменить этот заказ");
+            }
 
-        orderRepository.delete(order);
-        
-        // Публикуем событие отмены заказа
-        eventPublisher.publishEvent(new OrderEvent(this, order, OrderEvent.OrderEventType.CANCELED));
-        
-        log.info("🗑 [ORDER CANCELED] Заказ {} отменен пользователем {}", order.getOrderNumber(), username);
+            orderRepository.delete(order);
+
+            // Публикуем событие отмены заказа
+            eventPublisher.publishEvent(new OrderEvent(this, order, OrderEvent.OrderEventType.CANCELED));
+
+            log.info("🗑 [ORDER CANCELED] Заказ {} отменен пользователем {}", order.getOrderNumber(), userId);
+            return null;
+        });
     }
-    
-    @Transactional
+
     public OrderResponseDto updateOrderStatus(Long orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
+        Order order = shardRouter.inTransaction(locate(orderId), status -> changeStatus(orderId, newStatus));
+        return toDtos(List.of(order)).get(0);
+    }
+
+    private Order changeStatus(Long orderId, OrderStatus newStatus) {
+        // Контакты нужны ответу, который собирается уже после транзакции шарда
+        Order order = orderRepository.findWithContactById(orderId)
                 .orElseThrow(() -> new RuntimeException("Заказ не найден"));
-        
+
         OrderStatus oldStatus = order.getStatus();
         order.setStatus(newStatus);
         order.setUpdatedAt(LocalDateTime.now());
@@ -168,40 +255,47 @@ public class OrderService {
         log.info("🔄 [ORDER STATUS UPDATED] Заказ {} обновлен с {} на {}", 
                 order.getOrderNumber(), oldStatus, newStatus);
         
-        return mapToDto(savedOrder);
+        return savedOrder;
     }
 
-    private boolean isProductSizeAvailable(Product product, String size) {
-        return switch (size.toLowerCase()) {
-            case "m" -> product.getAvailableQuantityS() > 0;
-            case "l" -> product.getAvailableQuantityM() > 0;
-            case "xl" -> product.getAvailableQuantityL() > 0;
-            default -> false;
-        };
+    /**
+     * Шард, на котором лежит активный заказ
+     */
+    private int locate(Long orderId) {
+        return shardRouter.findShard(() -> orderRepository.existsById(orderId))
+                .orElseThrow(() -> new RuntimeException("Заказ не найден"));
     }
 
-    private void reduceProductQuantity(Product product, String size) {
-        switch (size.toLowerCase()) {
-            case "m" -> product.setAvailableQuantityS(product.getAvailableQuantityS() - 1);
-            case "l" -> product.setAvailableQuantityM(product.getAvailableQuantityM() - 1);
-            case "xl" -> product.setAvailableQuantityL(product.getAvailableQuantityL() - 1);
-        }
-        productRepository.save(product);
+    /**
+     * Ответы по заказам, прочитанным с шардов: названия товаров одним запросом к основной БД
+     */
+    private List<OrderResponseDto> toDtos(List<? extends OrderView> orders) {
+        Set<Long> productIds = orders.stream().map(OrderView::getProductId).collect(Collectors.toSet());
+        Map<Long, String> productNames = ShardContext.on(ShardContext.PRIMARY,
+                () -> productRepository.findAllById(productIds)).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName));
+        return orders.stream().map(order -> mapToDto(order, productNames.get(order.getProductId()))).toList();
     }
 
-    private OrderResponseDto mapToDto(Order order) {
+    private OrderResponseDto mapToDto(OrderView order, String productName) {
         return new OrderResponseDto(
                 order.getId(),
                 order.getOrderNumber(),
-                order.getProduct().getName(),
+                productName,
                 order.getSize(),
                 order.getQuantity(),
                 order.getPrice(),
-                order.getTelegramUsername(),
+                order.getContact().getTelegramUsername(),
                 order.getPaymentMethod(),
-                order.getOrderComment(),
+                order.getContact().getOrderComment(),
                 order.getCreatedAt(),
                 order.getStatus()
         );
     }
+
+    /**
+     * @param reservationId строка order_reservations (null - заказ пишется в основную БД)
+     */
+    private record Reservation(Order order, User user, Product product, Long reservationId) {
+    }
 }
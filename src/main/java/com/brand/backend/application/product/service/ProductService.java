@@ -1,42 +1,61 @@
 package com.brand.backend.application.product.service;
 
 import com.brand.backend.domain.product.model.Product;
+import com.brand.backend.domain.product.model.ProductStock;
 import com.brand.backend.domain.product.repository.ProductRepository;
+import com.brand.backend.domain.product.repository.ProductStockRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Товары читаются из кэша второго уровня, остатки - одним запросом к product_stock
+ * и подставляются в {@link Product#getStock()}
+ */
 @RequiredArgsConstructor
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductStockRepository stockRepository;
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return withStock(productRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productRepository.findById(id).map(product -> {
+            product.setStock(stockRepository.findById(id).orElse(null));
+            return product;
+        });
     }
 
+    @Transactional
     public Product createProduct(String name, double price, int quantityS, int quantityM, int quantityL) {
-        Product product = Product.createProduct(name, price, quantityS, quantityM, quantityL);
-        return productRepository.save(product);
+        Product product = productRepository.save(Product.createProduct(name, price));
+        product.setStock(stockRepository.save(ProductStock.of(product.getId(), quantityS, quantityM, quantityL)));
+        return product;
     }
 
+    @Transactional
     public Product updateProductStock(Long productId, int quantityS, int quantityM, int quantityL) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Товар не найден"));
-        
-        product.setAvailableQuantityS(quantityS);
-        product.setAvailableQuantityM(quantityM);
-        product.setAvailableQuantityL(quantityL);
-        
-        return productRepository.save(product);
+
+        if (stockRepository.set(productId, quantityS, quantityM, quantityL) == 0) {
+            stockRepository.save(ProductStock.of(productId, quantityS, quantityM, quantityL));
+        }
+        product.setStock(ProductStock.of(productId, quantityS, quantityM, quantityL));
+        return product;
     }
 
     public void deleteProduct(Long id) {
@@ -44,7 +63,43 @@ public class ProductService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<Product> getProductsBySize(String size) {
-        return productRepository.findBySize(size);
+        return withStock(productRepository.findBySize(size));
+    }
+
+    /**
+     * Списывает единицу размера заказа. Вызывается в транзакции основной БД, которая пишет заказ или резерв
+     *
+     * @return false - размера нет в наличии (в том числе его только что выкупил параллельный заказ)
+     */
+    public boolean takeStock(Long productId, String size) {
+        return adjustStock(productId, size, -1);
+    }
+
+    /**
+     * Возвращает единицу размера заказа, который не был оформлен
+     */
+    public void returnStock(Long productId, String size) {
+        adjustStock(productId, size, 1);
+    }
+
+    // Размеры заказа m/l/xl хранятся в колонках S/M/L. Кэш товаров не сбрасывается: остатков в нём нет
+    private boolean adjustStock(Long productId, String size, int delta) {
+        int updated = switch (size.toLowerCase()) {
+            case "m" -> stockRepository.adjust(productId, delta, 0, 0);
+            case "l" -> stockRepository.adjust(productId, 0, delta, 0);
+            case "xl" -> stockRepository.adjust(productId, 0, 0, delta);
+            default -> 0;
+        };
+        return updated == 1;
+    }
+
+    private List<Product> withStock(List<Product> products) {
+        Map<Long, ProductStock> stocks = stockRepository.findAllById(products.stream().map(Product::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(ProductStock::getProductId, Function.identity()));
+        products.forEach(product -> product.setStock(stocks.get(product.getId())));
+        return products;
     }
-}
\ No newline at end of file
+}
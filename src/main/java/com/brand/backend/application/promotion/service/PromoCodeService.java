@@ -1,7 +1,9 @@
 package com.brand.backend.application.promotion.service;
 
 import com.brand.backend.domain.promotion.model.PromoCode;
+import com.brand.backend.domain.promotion.model.PromoCodeUsage;
 import com.brand.backend.domain.promotion.repository.PromoCodeRepository;
+import com.brand.backend.domain.promotion.repository.PromoCodeUsageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -10,6 +12,7 @@ import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
 
 @Service
 @Slf4j
@@ -17,6 +20,7 @@ import java.util.Optional;
 public class PromoCodeService {
 
     private final PromoCodeRepository promoCodeRepository;
+    private final PromoCodeUsageRepository usageRepository;
 
     /**
      * Создает новый промокод
@@ -45,6 +49,7 @@ public class PromoCodeService {
         promoCode.setActive(true);
         
         PromoCode savedPromoCode = promoCodeRepository.save(promoCode);
+        usageRepository.save(PromoCodeUsage.of(savedPromoCode.getId()));
         log.info("Создан новый промокод: {}, скидка: {}%, макс. использований: {}", 
                 code, discountPercent, maxUses);
         
@@ -80,6 +85,15 @@ public class PromoCodeService {
         return promoCodeRepository.findById(id);
     }
     
+    /**
+     * Сколько раз промокод уже использован
+     */
+    public int getUsedCount(Long id) {
+        return usageRepository.findById(id)
+                .map(PromoCodeUsage::getUsedCount)
+                .orElse(0);
+    }
+    
     /**
      * Деактивирует промокод
      */
@@ -182,37 +196,50 @@ public class PromoCodeService {
     }
     
     /**
-     * Проверяет действительность промокода и применяет скидку к цене
+     * Проверяет действительность промокода и применяет скидку к цене. Использование засчитывается
+     * условным UPDATE счётчика в promo_code_usage: параллельные заказы с одним промокодом не конфликтуют,
+     * лимит использований не превышается, а закэшированный промокод не сбрасывается
+     *
+     * @return цена со скидкой; пусто, если промокода нет или он недействителен
      */
     @Transactional
-    public double applyPromoCode(String code, double price) {
-        PromoCode promoCode = promoCodeRepository.findByCode(code)
-                .orElseThrow(() -> new IllegalArgumentException("Промокод не найден"));
-        
-        if (!promoCode.isValid()) {
-            throw new IllegalArgumentException("Промокод недействителен");
+    public OptionalDouble applyPromoCode(String code, double price) {
+        Optional<PromoCode> found = promoCodeRepository.findByCode(code);
+        if (found.isEmpty() || !found.get().isValid()) {
+            return OptionalDouble.empty();
         }
-        
-        // Применяем скидку
+        PromoCode promoCode = found.get();
+        // Копия из кэша могла устареть: лимит и активность проверяет сам UPDATE
+        if (usageRepository.increment(promoCode.getId()) == 0) {
+            return OptionalDouble.empty();
+        }
+
         double discountedPrice = price * (1 - promoCode.getDiscountPercent() / 100.0);
-        
-        // Увеличиваем счетчик использований
-        promoCode.incrementUsedCount();
-        promoCode.setUpdatedAt(LocalDateTime.now());
-        promoCodeRepository.save(promoCode);
-        
         log.info("Промокод {} применен. Скидка: {}%, Цена до: {}, Цена после: {}", 
                 code, promoCode.getDiscountPercent(), price, discountedPrice);
         
-        return discountedPrice;
+        return OptionalDouble.of(discountedPrice);
     }
     
     /**
-     * Проверяет действительность промокода
+     * Возвращает использование промокода, применённого к заказу, который не удалось сохранить
+     */
+    @Transactional
+    public void releasePromoCode(String code) {
+        promoCodeRepository.findByCode(code).ifPresent(promoCode -> {
+            if (usageRepository.decrement(promoCode.getId()) == 1) {
+                log.info("Использование промокода {} отменено", code);
+            }
+        });
+    }
+
+    /**
+     * Проверяет действительность промокода с учётом лимита использований
      */
     public boolean isPromoCodeValid(String code) {
         return promoCodeRepository.findByCode(code)
-                .map(PromoCode::isValid)
+                .filter(PromoCode::isValid)
+                .map(promoCode -> getUsedCount(promoCode.getId()) < promoCode.getMaxUses())
                 .orElse(false);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package com.brand.backend.application.user.service;
+
+import com.brand.backend.domain.user.event.UserEvent;
+import com.brand.backend.domain.user.model.User;
+import com.brand.backend.infrastructure.cache.CacheInvalidationBus;
+import com.brand.backend.infrastructure.cache.ClusterCache;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.presentation.dto.request.UserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш профилей пользователей по id и username.
+ * <p>
+ * Заполняется при первом чтении и сбрасывается после коммита изменений пользователя (UserEvent),
+ * на других узлах - по уведомлению {@link CacheInvalidationBus}.
+ * Размер ограничен (LRU). Загрузка, начатая до сброса, в кэш не попадает, поэтому устаревший профиль
+ * не может вернуться после инвалидации. Возвращаемые профили нельзя изменять.
+ */
+@Slf4j
+@Component
+public class UserProfileCache implements ClusterCache {
+
+    private static final String REGION = "user-profile";
+
+    private final Map<Long, UserDTO> profiles;
+    private final Map<String, Long> idsByUsername = new ConcurrentHashMap<>();
+    // Увеличивается при каждом сбросе; загрузки, начатые до сброса, не кэшируются
+    private final AtomicLong generation = new AtomicLong();
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public UserProfileCache(@Value("${user.profile-cache.max-size:10000}") int maxSize,
+                            CacheInvalidationBus invalidationBus,
+                            MeterRegistry meterRegistry) {
+        this.invalidationBus = invalidationBus;
+        this.profiles = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserDTO> eldest) {
+                if (size() > maxSize) {
+                    idsByUsername.remove(eldest.getValue().getUsername(), eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = meterRegistry.counter("user.profile.cache", "result", "hit");
+        this.misses = meterRegistry.counter("user.profile.cache", "result", "miss");
+        this.invalidations = meterRegistry.counter("user.profile.cache.invalidations");
+        Gauge.builder("user.profile.cache.size", this, UserProfileCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Профиль по id; при промахе загружается loader'ом
+     */
+    public UserDTO get(Long userId, Supplier<User> loader) {
+        UserDTO cached;
+        synchronized (profiles) {
+            cached = profiles.get(userId);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        return load(loader);
+    }
+
+    /**
+     * Профиль по username; при промахе загружается loader'ом
+     */
+    public UserDTO getByUsername(String username, Supplier<User> loader) {
+        Long userId = idsByUsername.get(username);
+        if (userId != null) {
+            UserDTO cached;
+            synchronized (profiles) {
+                cached = profiles.get(userId);
+            }
+            if (cached != null && username.equals(cached.getUsername())) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        return load(loader);
+    }
+
+    /**
+     * Сбрасывает профиль пользователя
+     */
+    public void invalidate(Long userId) {
+        generation.incrementAndGet();
+        UserDTO removed;
+        synchronized (profiles) {
+            removed = profiles.remove(userId);
+        }
+        if (removed != null) {
+            idsByUsername.remove(removed.getUsername(), userId);
+            invalidations.increment();
+        }
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        invalidate(Long.valueOf(key));
+    }
+
+    @Override
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (profiles) {
+            profiles.clear();
+            idsByUsername.clear();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Сброс после коммита транзакции, в которой изменился пользователь
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        User user = event.getUser();
+        if (user.getId() == null) {
+            return;
+        }
+        invalidate(user.getId());
+        idsByUsername.remove(user.getUsername(), user.getId());
+        invalidationBus.publishNow(REGION, user.getId());
+        log.debug("Профиль пользователя {} сброшен из кэша ({})", user.getId(), event.getEventType());
+    }
+
+    public int size() {
+        synchronized (profiles) {
+            return profiles.size();
+        }
+    }
+
+    private UserDTO load(Supplier<User> loader) {
+        long loadGeneration = generation.get();
+        // Кэш живёт до следующего сброса, поэтому заполняется только с основной БД
+        User user = Optional.ofNullable(WorkloadContext.onPrimary(loader))
+                .orElseThrow(() -> new IllegalStateException("Загрузчик профиля вернул null"));
+        UserDTO profile = toProfile(user);
+
+        synchronized (profiles) {
+            if (generation.get() == loadGeneration) {
+                profiles.put(user.getId(), profile);
+                idsByUsername.put(user.getUsername(), user.getId());
+            }
+        }
+        return profile;
+    }
+
+    private static UserDTO toProfile(User user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setRole(user.getRole());
+        dto.setActive(user.isActive());
+        dto.setTelegramId(user.getTelegramId());
+        dto.setCreatedAt(user.getCreatedAt());
+        dto.setUpdatedAt(user.getUpdatedAt());
+        dto.setVerified(user.isVerified());
+        dto.setDiscordId(user.getDiscordId());
+        dto.setLastLogin(user.getLastLogin());
+        dto.setTelegramUsername(user.getTelegramUsername());
+        dto.setDiscordUsername(user.getDiscordUsername());
+        dto.setVkUsername(user.getVkUsername());
+        dto.setLinkedDiscord(user.isLinkedDiscord());
+        dto.setLinkedVkontakte(user.isLinkedVkontakte());
+        dto.setEmail(user.getEmail());
+        dto.setPhoneNumber(user.getPhoneNumber());
+        return dto;
+    }
+}
@@ -1,13 +1,15 @@
 package com.brand.backend.application.user.service;
 
+import com.brand.backend.application.auth.service.PasswordHashingService;
 import com.brand.backend.presentation.dto.request.UserDTO;
 import com.brand.backend.common.exeption.UserNotFoundException;
 import com.brand.backend.domain.user.model.User;
 import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.security.jwt.AuthenticatedUser;
+import com.brand.backend.infrastructure.security.jwt.VerifiedTokenCache;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -16,7 +18,6 @@ import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -24,48 +25,35 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final ApplicationEventPublisher eventPublisher;
+    private final VerifiedTokenCache tokenCache;
+    private final UserProfileCache profileCache;
+    private final VerificationCodeStore verificationCodeStore;
 
     // ✅ Получение текущего пользователя
     public UserDTO getCurrentUser() {
-        String username = getAuthenticatedUsername();
-        User user = getUserByUsername(username);
+        Long userId = getCurrentUserId();
+        return profileCache.get(userId, () -> getUserById(userId));
+    }
 
-        UserDTO dto = new UserDTO();
-        dto.setId(user.getId());
-        dto.setUsername(user.getUsername());
-        dto.setRole(user.getRole());
-        dto.setActive(user.isActive());
-        dto.setTelegramId(user.getTelegramId());
-        dto.setCreatedAt(user.getCreatedAt());
-        dto.setUpdatedAt(user.getUpdatedAt());
-        dto.setVerificationCode(user.getVerificationCode());
-        dto.setVerified(user.isVerified());
-        dto.setDiscordId(user.getDiscordId());
-        dto.setLastLogin(user.getLastLogin());
-        dto.setTelegramUsername(user.getTelegramUsername());
-        dto.setDiscordUsername(user.getDiscordUsername());
-        dto.setVkUsername(user.getVkUsername());
-        dto.setLinkedDiscord(user.isLinkedDiscord());
-        dto.setLinkedVkontakte(user.isLinkedVkontakte());
-        dto.setEmail(user.getEmail());
-        dto.setPhoneNumber(user.getPhoneNumber());
-
-        return dto;
+    /**
+     * Профиль пользователя по username (из кэша профилей)
+     */
+    public UserDTO getUserProfile(String username) {
+        return profileCache.getByUsername(username, () -> getUserByUsername(username));
     }
 
     // ✅ Проверка верификации Telegram
     public boolean isTelegramVerified() {
-        String username = getAuthenticatedUsername();
-        return getUserByUsername(username).isVerified();
+        return getCurrentUser().isVerified();
     }
 
     // ✅ Обновление профиля пользователя
     @Transactional
     public void updateUserProfile(String newUsername, String newEmail, String newPhoneNumber) {
-        String username = getAuthenticatedUsername();
-        User user = getUserByUsername(username);
+        User user = getUserById(getCurrentUserId());
+        String username = user.getUsername();
 
         if (newUsername != null && !newUsername.isBlank()) {
             user.setUsername(newUsername);
@@ -78,7 +66,8 @@ public class UserService {
         }
 
         user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserEvent(this, savedUser, UserEvent.UserEventType.UPDATED));
 
         log.info("✅ [USER UPDATED] {} обновил профиль: username={}, email={}, phone={}",
                 username, newUsername, newEmail, newPhoneNumber);
@@ -87,15 +76,16 @@ public class UserService {
     // ✅ Смена пароля
     @Transactional
     public void changePassword(String oldPassword, String newPassword) {
-        String username = getAuthenticatedUsername();
-        User user = getUserByUsername(username);
+        User user = getUserById(getCurrentUserId());
+        String username = user.getUsername();
 
-        if (!passwordEncoder.matches(oldPassword, user.getPasswordHash())) {
+        if (!passwordHashingService.matches(oldPassword, user.getPasswordHash())) {
             throw new IllegalArgumentException("Invalid old password");
         }
 
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
+        user.setPasswordHash(passwordHashingService.hash(newPassword));
         userRepository.save(user);
+        tokenCache.revokeUser(user.getId());
         log.info("✅ [PASSWORD CHANGED] Пароль обновлен для {}", username);
     }
 
@@ -105,6 +95,26 @@ public class UserService {
         return authentication.getName();
     }
 
+    /**
+     * Пользователь запроса из access-токена (без обращения к БД)
+     */
+    public AuthenticatedUser getAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new UserNotFoundException("User not found");
+        }
+        return user;
+    }
+
+    public Long getCurrentUserId() {
+        return getAuthenticatedUser().id();
+    }
+
+    public User getUserById(Long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    }
+
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
@@ -161,14 +171,11 @@ public class UserService {
         
         User user = new User();
         user.setUsername(username);
-        user.setPasswordHash(passwordEncoder.encode(password));
+        user.setPasswordHash(passwordHashingService.hash(password));
         user.setEmail(email);
         user.setRole("ROLE_USER");
         user.setCreatedAt(LocalDateTime.now());
         
-        String verificationCode = generateVerificationCode();
-        user.setVerificationCode(verificationCode);
-        
         User savedUser = userRepository.save(user);
         
         // Публикуем событие регистрации пользователя
@@ -179,11 +186,11 @@ public class UserService {
     
     @Transactional
     public void verifyUser(String verificationCode) {
-        User user = userRepository.findByVerificationCode(verificationCode)
+        User user = verificationCodeStore.consume(verificationCode)
+                .flatMap(userRepository::findById)
                 .orElseThrow(() -> new RuntimeException("Неверный код верификации"));
         
         user.setVerified(true);
-        user.setVerificationCode(null);
         user.setUpdatedAt(LocalDateTime.now());
         
         User savedUser = userRepository.save(user);
@@ -196,20 +203,7 @@ public class UserService {
         return userRepository.findAll();
     }
     
-    private String generateVerificationCode() {
-        return UUID.randomUUID().toString().substring(0, 8);
-    }
-
-    @Transactional
     public String generateAndSaveVerificationCode(String username) {
-        User user = getUserByUsername(username);
-        String code = generateVerificationCode();
-        user.setVerificationCode(code);
-        userRepository.save(user);
-        return code;
-    }
-    
-    public User getUserByVerificationCode(String code) {
-        return userRepository.findByVerificationCode(code).orElse(null);
+        return verificationCodeStore.issue(getUserByUsername(username).getId());
     }
 }
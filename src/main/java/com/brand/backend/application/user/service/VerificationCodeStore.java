@@ -0,0 +1,115 @@
+package com.brand.backend.application.user.service;
+
+import com.brand.backend.domain.user.model.VerificationCode;
+import com.brand.backend.domain.user.repository.VerificationCodeRepository;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Хранилище одноразовых кодов привязки аккаунтов.
+ * <p>
+ * Коды живут ограниченное время в таблице verification_codes (уникальный индекс по коду), поэтому код,
+ * выданный на одном узле, погашается на любом другом и переживает перезапуск. Погашение - один
+ * {@code DELETE ... RETURNING}: код принимается ровно один раз. У пользователя не больше max-per-user
+ * действующих кодов: новый код вытесняет самые старые. Просроченные коды удаляются фоновой задачей пачками.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VerificationCodeStore {
+
+    // Без похожих символов (0/O, 1/I), код вводится вручную
+    private static final char[] ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int CODE_LENGTH = 8;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final VerificationCodeRepository verificationCodeRepository;
+
+    @Value("${verification.code.ttl-ms:600000}")
+    private long ttlMillis;
+
+    @Value("${verification.code.max-per-user:3}")
+    private int maxPerUser;
+
+    @Value("${verification.code.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    /**
+     * Выдаёт новый код пользователю; самые старые коды вытесняются, если превышен лимит
+     */
+    public String issue(Long userId) {
+        Instant now = Instant.now();
+        // Совпадение с действующим кодом (32^8 вариантов) отсекает уникальный индекс
+        String code = generateCode();
+        verificationCodeRepository.save(VerificationCode.builder()
+                .code(code)
+                .userId(userId)
+                .createdAt(now)
+                .expiresAt(now.plusMillis(ttlMillis))
+                .build());
+
+        // Реплика может ещё не видеть только что выданный код
+        List<String> userCodes = WorkloadContext.onPrimary(() -> verificationCodeRepository.findCodesByUserId(userId));
+        if (userCodes.size() > maxPerUser) {
+            List<String> evicted = userCodes.subList(maxPerUser, userCodes.size());
+            verificationCodeRepository.deleteByCodeIn(evicted);
+            log.debug("Пользователь {}: вытеснено старых кодов верификации: {}", userId, evicted.size());
+        }
+        return code;
+    }
+
+    /**
+     * Погашает код: возвращает ID пользователя, если код действует. Повторно код не принимается.
+     */
+    public Optional<Long> consume(String code) {
+        if (code == null || code.isBlank()) {
+            return Optional.empty();
+        }
+        String normalized = code.trim().toUpperCase(Locale.ROOT);
+        return verificationCodeRepository.consumeCode(normalized, Instant.now());
+    }
+
+    /**
+     * Срок действия кода в минутах
+     */
+    public long getTtlMinutes() {
+        return ttlMillis / 60_000;
+    }
+
+    /**
+     * Удаляет просроченные коды пачками
+     */
+    @Scheduled(fixedDelayString = "${verification.code.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int removed = 0;
+        Instant cutoff = Instant.now();
+        List<Long> expiredIds;
+        while (!(expiredIds = verificationCodeRepository.findExpiredIds(cutoff, PageRequest.of(0, purgeBatchSize))).isEmpty()) {
+            verificationCodeRepository.deleteAllByIdInBatch(expiredIds);
+            removed += expiredIds.size();
+        }
+
+        if (removed > 0) {
+            log.info("🧹 Удалено просроченных кодов верификации: {}", removed);
+        }
+    }
+
+    private static String generateCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code[i] = ALPHABET[RANDOM.nextInt(ALPHABET.length)];
+        }
+        return new String(code);
+    }
+}
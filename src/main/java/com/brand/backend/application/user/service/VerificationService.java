@@ -8,7 +8,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
-import java.util.UUID;
 
 /**
  * Сервис для верификации пользователей через разные источники
@@ -19,6 +18,7 @@ import java.util.UUID;
 public class VerificationService {
 
     private final UserRepository userRepository;
+    private final VerificationCodeStore verificationCodeStore;
 
     /**
      * Генерирует и сохраняет код верификации для пользователя
@@ -34,12 +34,8 @@ public class VerificationService {
             throw new IllegalArgumentException("Пользователь не найден");
         }
 
-        User user = userOptional.get();
-        String code = generateVerificationCode();
-        user.setVerificationCode(code);
-        userRepository.save(user);
-        
-        log.info("Сгенерирован код верификации для пользователя {}: {}", username, code);
+        String code = verificationCodeStore.issue(userOptional.get().getId());
+        log.info("Сгенерирован код верификации для пользователя {}", username);
         return code;
     }
     
@@ -58,38 +54,32 @@ public class VerificationService {
         }
 
         User user = userOptional.get();
-        String code = generateVerificationCode();
-        user.setVerificationCode(code);
-        userRepository.save(user);
-        
-        log.info("Сгенерирован код верификации для пользователя {} с Telegram ID {}: {}", 
-                user.getUsername(), telegramId, code);
+        String code = verificationCodeStore.issue(user.getId());
+        log.info("Сгенерирован код верификации для пользователя {} с Telegram ID {}", user.getUsername(), telegramId);
         return code;
     }
     
     /**
-     * Проверяет код верификации
+     * Проверяет и погашает код верификации
      *
      * @param code код верификации
-     * @return пользователь, если код верен, или null
+     * @return пользователь, если код действует, или null
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public User verifyCode(String code) {
-        Optional<User> userOptional = userRepository.findByVerificationCode(code);
+        Optional<User> userOptional = verificationCodeStore.consume(code).flatMap(userRepository::findById);
         if (userOptional.isEmpty()) {
-            log.warn("Неверный код верификации: {}", code);
+            log.warn("Неверный или просроченный код верификации: {}", code);
             return null;
         }
         
         return userOptional.get();
     }
-    
+
     /**
-     * Генерирует случайный код верификации
-     *
-     * @return случайный код
+     * Срок действия кода верификации в минутах
      */
-    private String generateVerificationCode() {
-        return UUID.randomUUID().toString().substring(0, 8);
+    public long getCodeTtlMinutes() {
+        return verificationCodeStore.getTtlMinutes();
     }
 } 
\ No newline at end of file
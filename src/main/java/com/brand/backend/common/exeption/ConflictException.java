@@ -0,0 +1,15 @@
+package com.brand.backend.common.exeption;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Операция противоречит текущему состоянию ресурса (уже выполнена или выполняется); клиенту возвращается 409
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
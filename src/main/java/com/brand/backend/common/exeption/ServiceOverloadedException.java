@@ -0,0 +1,18 @@
+package com.brand.backend.common.exeption;
+
+import lombok.Getter;
+
+/**
+ * Сервис временно перегружен; клиенту возвращается 503 с Retry-After
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
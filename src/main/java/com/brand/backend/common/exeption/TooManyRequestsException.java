@@ -0,0 +1,18 @@
+package com.brand.backend.common.exeption;
+
+import lombok.Getter;
+
+/**
+ * Превышен лимит запросов; клиенту возвращается 429 с Retry-After
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.brand.backend.domain.nft.event;
+
+import com.brand.backend.domain.nft.model.NFT;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Событие раскрытия пачки NFT (массовое раскрытие).
+ * Заменяет поток отдельных событий REVEALED, чтобы уведомления отправлялись одним сообщением на пользователя.
+ */
+@Getter
+public class NFTBatchRevealedEvent extends ApplicationEvent {
+
+    private final Long jobId;
+    private final List<NFT> nfts;
+
+    public NFTBatchRevealedEvent(Object source, Long jobId, List<NFT> nfts) {
+        super(source);
+        this.jobId = jobId;
+        this.nfts = nfts;
+    }
+}
@@ -1,6 +1,5 @@
 package com.brand.backend.domain.nft.model;
 
-import com.brand.backend.domain.order.model.Order;
 import com.brand.backend.domain.user.model.User;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -10,16 +9,24 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "nfts")
+@Table(name = "nfts", indexes = {
+        // Частичные индексы (нераскрытые NFT, NFT без метаданных) описаны в db/migration
+        // Постраничная выдача NFT пользователя (все / по признаку раскрытия)
+        @Index(name = "idx_nfts_user_id_id", columnList = "user_id, id"),
+        @Index(name = "idx_nfts_user_id_revealed_id", columnList = "user_id, revealed, id")
+})
 public class NFT {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nfts_seq")
+    @SequenceGenerator(name = "nfts_seq", sequenceName = "nfts_seq", allocationSize = 50)
     private Long id;
 
-    // Связь с заказом (опционально, если нужно хранить связь с заказом)
-    @OneToOne
-    @JoinColumn(name = "order_id")
-    private Order order;
+    // Заказ (опционально). Заказы лежат на шардах, поэтому без внешнего ключа; номер заказа хранится здесь
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_number")
+    private String orderNumber;
 
     // Пользователь, которому принадлежит NFT
     @ManyToOne
@@ -42,6 +49,21 @@ public class NFT {
     @Column(name = "rarity")
     private String rarity;
 
+    // Дроп и порядковый номер выдачи редкости (для аудита распределения)
+    @Column(name = "drop_id")
+    private String dropId;
+
+    @Column(name = "allocation_seq")
+    private Long allocationSeq;
+
+    // Внешний кошелёк, на который NFT передан (после подтверждения транзакции)
+    @Column(name = "external_address")
+    private String externalAddress;
+
+    // SHA-256 текущего JSON метаданных (имя файла в хранилище метаданных)
+    @Column(name = "metadata_hash", length = 64)
+    private String metadataHash;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 }
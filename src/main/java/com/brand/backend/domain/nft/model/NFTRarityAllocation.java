@@ -0,0 +1,42 @@
+package com.brand.backend.domain.nft.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Журнал выдачи редкостей NFT. Пишется в транзакции резерва тиража и служит для аудита:
+ * выдача сверяется с кандидатами своего номера при seed дропа и со счётчиками nft_rarity_supply.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "nft_rarity_allocations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_nft_rarity_allocations_drop_seq", columnNames = {"drop_id", "sequence"})
+})
+public class NFTRarityAllocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nft_rarity_allocations_seq")
+    @SequenceGenerator(name = "nft_rarity_allocations_seq", sequenceName = "nft_rarity_allocations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "drop_id", nullable = false)
+    private String dropId;
+
+    @Column(name = "sequence", nullable = false)
+    private long sequence;
+
+    @Column(name = "rarity", nullable = false)
+    private String rarity;
+
+    @Column(name = "seed", nullable = false)
+    private long seed;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
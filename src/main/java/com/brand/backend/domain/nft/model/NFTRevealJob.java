@@ -0,0 +1,70 @@
+package com.brand.backend.domain.nft.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Задание массового раскрытия NFT.
+ * Хранит контрольную точку (последний обработанный ID), поэтому задание можно продолжить после рестарта.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "nft_reveal_jobs")
+public class NFTRevealJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Базовый URI манифеста: revealedUri = baseUri + id + ".json"
+    @Column(name = "base_uri", nullable = false)
+    private String baseUri;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private NFTRevealJobStatus status = NFTRevealJobStatus.RUNNING;
+
+    // Все NFT с ID <= lastProcessedId уже обработаны
+    @Column(name = "last_processed_id", nullable = false)
+    private long lastProcessedId = 0L;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount = 0L;
+
+    @Column(name = "total_count", nullable = false)
+    private long totalCount = 0L;
+
+    // Запрошена пауза; меняется только запросами NFTRevealJobRepository, чтобы сохранение контрольной точки
+    // ведущим узлом не затёрло запрос, пришедший с другого узла
+    @Column(name = "pause_requested", nullable = false, insertable = false, updatable = false)
+    private boolean pauseRequested;
+
+    // Chat ID администратора, запустившего задание
+    @Column(name = "started_by")
+    private String startedBy;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    /**
+     * Процент выполнения задания
+     */
+    public int getProgressPercent() {
+        if (totalCount <= 0) {
+            return status == NFTRevealJobStatus.COMPLETED ? 100 : 0;
+        }
+        return (int) Math.min(100, processedCount * 100 / totalCount);
+    }
+}
@@ -0,0 +1,8 @@
+package com.brand.backend.domain.nft.model;
+
+public enum NFTRevealJobStatus {
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,14 @@
+package com.brand.backend.domain.nft.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция NFT для списков: только поля самого NFT, без заказа и пользователя
+ */
+public record NFTSummary(Long id,
+                         String placeholderUri,
+                         String revealedUri,
+                         boolean revealed,
+                         String rarity,
+                         LocalDateTime createdAt) {
+}
@@ -0,0 +1,53 @@
+package com.brand.backend.domain.nft.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запрос на передачу NFT на внешний кошелёк
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "nft_transfers", indexes = {
+        @Index(name = "idx_nft_transfers_status_destination", columnList = "status, destination_address"),
+        @Index(name = "idx_nft_transfers_tx_hash", columnList = "tx_hash")
+})
+public class NFTTransfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "nft_id", nullable = false)
+    private NFT nft;
+
+    @Column(name = "destination_address", nullable = false)
+    private String destinationAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private NFTTransferStatus status = NFTTransferStatus.QUEUED;
+
+    // Хеш транзакции, в которую попала передача (одна транзакция на пачку)
+    @Column(name = "tx_hash")
+    private String txHash;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+
+    @Column(name = "confirmed_at")
+    private LocalDateTime confirmedAt;
+}
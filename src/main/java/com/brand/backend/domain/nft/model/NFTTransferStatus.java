@@ -0,0 +1,8 @@
+package com.brand.backend.domain.nft.model;
+
+public enum NFTTransferStatus {
+    QUEUED,     // Ожидает формирования пачки
+    SUBMITTED,  // Транзакция отправлена, ждём подтверждений
+    CONFIRMED,  // Транзакция подтверждена
+    FAILED      // Передача не удалась
+}
@@ -0,0 +1,52 @@
+package com.brand.backend.domain.nft.repository;
+
+import com.brand.backend.domain.nft.model.NFTRarityAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface NFTRarityAllocationRepository extends JpaRepository<NFTRarityAllocation, Long> {
+
+    List<NFTRarityAllocation> findByDropIdOrderBySequence(String dropId);
+
+    /**
+     * Номер следующей выдачи редкости (последовательность nft_rarity_draw_seq)
+     */
+    @Query(value = "SELECT nextval('nft_rarity_draw_seq')", nativeQuery = true)
+    long nextSequence();
+
+    /**
+     * Создаёт строку тиража уровня (выдано - по журналу) или обновляет лимит существующей
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO nft_rarity_supply (drop_id, rarity, cap, issued) " +
+            "SELECT :dropId, :rarity, :cap, COUNT(*) FROM nft_rarity_allocations WHERE drop_id = :dropId AND rarity = :rarity " +
+            "ON CONFLICT (drop_id, rarity) DO UPDATE SET cap = EXCLUDED.cap",
+            nativeQuery = true)
+    int upsertSupply(@Param("dropId") String dropId, @Param("rarity") String rarity, @Param("cap") int cap);
+
+    /**
+     * Резервирует одну выдачу уровня, если тираж не исчерпан
+     *
+     * @return 1 - выдача зарезервирована, 0 - тираж исчерпан
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE nft_rarity_supply SET issued = issued + 1 " +
+            "WHERE drop_id = :dropId AND rarity = :rarity AND issued < cap",
+            nativeQuery = true)
+    int claimSupply(@Param("dropId") String dropId, @Param("rarity") String rarity);
+
+    /**
+     * Выдано по ограниченным уровням дропа: [rarity, issued]
+     */
+    @Query(value = "SELECT rarity, issued FROM nft_rarity_supply WHERE drop_id = :dropId", nativeQuery = true)
+    List<Object[]> findIssuedByDrop(@Param("dropId") String dropId);
+}
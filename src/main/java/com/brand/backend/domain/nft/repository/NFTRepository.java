@@ -1,12 +1,79 @@
 package com.brand.backend.domain.nft.repository;
 
 import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTSummary;
 import com.brand.backend.domain.user.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NFTRepository extends JpaRepository<NFT, Long> {
     List<NFT> findByUser(User user);
+
+    List<NFT> findByRevealedFalse();
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Страница NFT пользователя от новых к старым (keyset: id < beforeId, индекс user_id, id)
+     */
+    @Query("SELECT new com.brand.backend.domain.nft.model.NFTSummary(" +
+            "n.id, n.placeholderUri, n.revealedUri, n.revealed, n.rarity, n.createdAt) " +
+            "FROM NFT n WHERE n.user.id = :userId AND n.id < :beforeId ORDER BY n.id DESC")
+    List<NFTSummary> findSummariesByUserId(@Param("userId") Long userId,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+
+    /**
+     * То же с фильтром по признаку раскрытия (индекс user_id, revealed, id)
+     */
+    @Query("SELECT new com.brand.backend.domain.nft.model.NFTSummary(" +
+            "n.id, n.placeholderUri, n.revealedUri, n.revealed, n.rarity, n.createdAt) " +
+            "FROM NFT n WHERE n.user.id = :userId AND n.revealed = :revealed AND n.id < :beforeId ORDER BY n.id DESC")
+    List<NFTSummary> findSummariesByUserIdAndRevealed(@Param("userId") Long userId,
+                                                      @Param("revealed") boolean revealed,
+                                                      @Param("beforeId") Long beforeId,
+                                                      Pageable pageable);
+
+    long countByRevealedFalse();
+
+    long countByRevealedFalseAndIdGreaterThan(Long id);
+
+    /**
+     * Следующая страница ID нераскрытых NFT (keyset по частичному индексу idx_nfts_unrevealed_id)
+     */
+    @Query("SELECT n.id FROM NFT n WHERE n.revealed = false AND n.id > :afterId ORDER BY n.id")
+    List<Long> findUnrevealedIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Раскрывает пачку NFT одним UPDATE. Уже раскрытые NFT не затрагиваются, поэтому повтор пачки безопасен.
+     */
+    @Modifying
+    @Query("UPDATE NFT n SET n.revealed = true, n.revealedUri = CONCAT(:baseUri, CAST(n.id AS string), '.json') " +
+            "WHERE n.id IN :ids AND n.revealed = false")
+    int revealBatch(@Param("ids") Collection<Long> ids, @Param("baseUri") String baseUri);
+
+    /**
+     * Хэши метаданных всех NFT: [id, metadataHash]
+     */
+    @Query("SELECT n.id, n.metadataHash FROM NFT n WHERE n.metadataHash IS NOT NULL")
+    List<Object[]> findAllMetadataHashes();
+
+    @Query("SELECT n.id FROM NFT n WHERE n.metadataHash IS NULL AND n.id > :afterId ORDER BY n.id")
+    List<Long> findIdsWithoutMetadataAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE NFT n SET n.metadataHash = :hash WHERE n.id = :id")
+    int updateMetadataHash(@Param("id") Long id, @Param("hash") String hash);
+
+    @Query("SELECT n FROM NFT n JOIN FETCH n.user WHERE n.id IN :ids")
+    List<NFT> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
 }
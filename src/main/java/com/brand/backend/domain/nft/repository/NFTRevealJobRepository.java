@@ -0,0 +1,42 @@
+package com.brand.backend.domain.nft.repository;
+
+import com.brand.backend.domain.nft.model.NFTRevealJob;
+import com.brand.backend.domain.nft.model.NFTRevealJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NFTRevealJobRepository extends JpaRepository<NFTRevealJob, Long> {
+
+    List<NFTRevealJob> findByStatus(NFTRevealJobStatus status);
+
+    boolean existsByStatus(NFTRevealJobStatus status);
+
+    Optional<NFTRevealJob> findFirstByOrderByIdDesc();
+
+    /**
+     * Запрашивает паузу заданий в статусе status; ведущий узел увидит запрос перед следующей волной
+     *
+     * @return количество заданий, которым запрошена пауза
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NFTRevealJob j SET j.pauseRequested = true, j.updatedAt = :now WHERE j.status = :status")
+    int requestPause(@Param("status") NFTRevealJobStatus status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NFTRevealJob j SET j.pauseRequested = false WHERE j.id = :id")
+    int clearPauseRequest(@Param("id") Long id);
+
+    @Query("SELECT j.pauseRequested FROM NFTRevealJob j WHERE j.id = :id")
+    boolean isPauseRequested(@Param("id") Long id);
+}
@@ -0,0 +1,27 @@
+package com.brand.backend.domain.nft.repository;
+
+import com.brand.backend.domain.nft.model.NFTTransfer;
+import com.brand.backend.domain.nft.model.NFTTransferStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NFTTransferRepository extends JpaRepository<NFTTransfer, Long> {
+
+    @Query("SELECT t FROM NFTTransfer t JOIN FETCH t.nft WHERE t.status = :status ORDER BY t.id")
+    List<NFTTransfer> findWithNftByStatus(@Param("status") NFTTransferStatus status, Pageable pageable);
+
+    List<NFTTransfer> findByTxHash(String txHash);
+
+    @Query("SELECT DISTINCT t.txHash FROM NFTTransfer t WHERE t.status = 'SUBMITTED'")
+    List<String> findSubmittedTxHashes();
+
+    boolean existsByNftIdAndStatusIn(Long nftId, List<NFTTransferStatus> statuses);
+
+    long countByStatus(NFTTransferStatus status);
+}
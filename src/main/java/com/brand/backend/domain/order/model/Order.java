@@ -1,29 +1,31 @@
 package com.brand.backend.domain.order.model;
-import com.brand.backend.domain.product.model.Product;
-import com.brand.backend.domain.user.model.User;
 
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
-
 import java.time.LocalDateTime;
 
+/**
+ * Заказ: в строке orders только то, что читают списки и смена статуса.
+ * Контакты и адрес доставки лежат в order_contacts и загружаются лениво.
+ */
 @Getter
 @Setter
 @Entity
 @Table(name = "orders")
-public class Order {
+public class Order implements OrderView {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", nullable = false, unique = true)
     private String orderNumber;
 
-    @ManyToOne
-    @JoinColumn(name = "product_id", nullable = false)
-    private Product product;
+    // Товар и пользователь лежат в основной БД, заказ - на шарде: ссылки без внешних ключей
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
 
     @Column(name = "quantity", nullable = false)
     private int quantity = 1;
@@ -34,33 +36,6 @@ public class Order {
     @Column(name = "price", nullable = false)
     private double price;
 
-    @Column(name = "email", nullable = false)
-    private String email;
-
-    @Column(name = "full_name", nullable = false)
-    private String fullName;
-
-    @Column(name = "country", nullable = false)
-    private String country;
-
-    @Column(name = "address", nullable = false)
-    private String address;
-
-    @Column(name = "postal_code", nullable = false)
-    private String postalCode;
-
-    @Column(name = "phone_number", nullable = false)
-    private String phoneNumber;
-
-    @Column(name = "telegram_username")
-    private String telegramUsername;
-
-    @Column(name = "crypto_address")
-    private String cryptoAddress;
-
-    @Column(name = "order_comment")
-    private String orderComment;
-
     @Column(name = "promo_code")
     private String promoCode;
 
@@ -73,9 +48,12 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @ManyToOne
-    @JoinColumn(name = "user_id", nullable = false)
-    private User user;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true, optional = false)
+    @JoinColumn(name = "contact_id", nullable = false, unique = true)
+    private OrderContact contact;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
@@ -0,0 +1,49 @@
+package com.brand.backend.domain.order.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+
+/**
+ * Контактные данные и адрес доставки заказа (1:1 с {@link Order}).
+ * При выводе списка заказов загружаются пачками по 50.
+ */
+@Getter
+@Setter
+@Entity
+@BatchSize(size = 50)
+@Table(name = "order_contacts")
+public class OrderContact {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_contacts_seq")
+    @SequenceGenerator(name = "order_contacts_seq", sequenceName = "order_contacts_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "email", nullable = false)
+    private String email;
+
+    @Column(name = "full_name", nullable = false)
+    private String fullName;
+
+    @Column(name = "country", nullable = false)
+    private String country;
+
+    @Column(name = "address", nullable = false)
+    private String address;
+
+    @Column(name = "postal_code", nullable = false)
+    private String postalCode;
+
+    @Column(name = "phone_number", nullable = false)
+    private String phoneNumber;
+
+    @Column(name = "telegram_username")
+    private String telegramUsername;
+
+    @Column(name = "crypto_address")
+    private String cryptoAddress;
+
+    @Column(name = "order_comment")
+    private String orderComment;
+}
@@ -0,0 +1,71 @@
+package com.brand.backend.domain.order.model;
+
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+import java.time.LocalDateTime;
+
+/**
+ * Заказ из представления order_history: живые заказы, архив (orders_archive) и холодный архив
+ * (orders_archive_cold, отсоединённые секции) вместе.
+ * Только для чтения - история пользователя, поиск и отчёты админ-бота.
+ * Статус меняется только у живого заказа через {@link Order}; несохранённые изменения заказов
+ * сбрасываются в БД перед запросом к представлению (@Synchronize).
+ */
+@Getter
+@Setter
+@Entity
+@Immutable
+@Synchronize({"orders", "orders_archive"})
+@Table(name = "order_history")
+public class OrderHistory implements OrderView {
+    @Id
+    private Long id;
+
+    @Column(name = "order_number", nullable = false)
+    private String orderNumber;
+
+    // Товар и пользователь лежат в основной БД, заказ - на шарде: ссылки без внешних ключей
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Column(name = "size", nullable = false)
+    private String size;
+
+    @Column(name = "price", nullable = false)
+    private double price;
+
+    @Column(name = "promo_code")
+    private String promoCode;
+
+    @Column(name = "payment_method", nullable = false)
+    private String paymentMethod;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "contact_id", nullable = false)
+    private OrderContact contact;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status;
+
+    // true - заказ перенесён в orders_archive (или уже в холодный архив)
+    @Column(name = "archived", nullable = false)
+    private boolean archived;
+}
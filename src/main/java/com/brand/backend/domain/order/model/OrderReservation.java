@@ -0,0 +1,43 @@
+package com.brand.backend.domain.order.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Резерв остатка и промокода под заказ, который записывается в шард (хранится в основной БД).
+ * Строка создаётся в одной транзакции со списанием остатка и удаляется после записи заказа в шард;
+ * строки, оставшиеся после сбоя узла, возвращает
+ * {@link com.brand.backend.application.order.service.OrderReservationService}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "order_reservations")
+public class OrderReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_number", nullable = false, unique = true)
+    private String orderNumber;
+
+    // Шард, в который пишется заказ
+    @Column(name = "shard", nullable = false)
+    private int shard;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "size", nullable = false)
+    private String size;
+
+    // Промокод, использование которого списано (null - промокод не применялся)
+    @Column(name = "promo_code")
+    private String promoCode;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
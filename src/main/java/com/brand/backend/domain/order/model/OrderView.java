@@ -0,0 +1,37 @@
+package com.brand.backend.domain.order.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поля заказа, общие для живого заказа ({@link Order}) и записи истории ({@link OrderHistory}).
+ * Списки, карточки и отчёты работают с этим типом и не зависят от того, где лежит заказ.
+ * Товар и пользователь заданы id: они лежат в основной БД и читаются оттуда отдельно.
+ */
+public interface OrderView {
+
+    Long getId();
+
+    String getOrderNumber();
+
+    Long getProductId();
+
+    int getQuantity();
+
+    String getSize();
+
+    double getPrice();
+
+    String getPromoCode();
+
+    String getPaymentMethod();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getUserId();
+
+    OrderContact getContact();
+
+    OrderStatus getStatus();
+}
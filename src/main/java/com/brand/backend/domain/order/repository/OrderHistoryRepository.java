@@ -0,0 +1,65 @@
+package com.brand.backend.domain.order.repository;
+
+import com.brand.backend.domain.order.model.OrderHistory;
+import com.brand.backend.domain.order.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Чтение заказов из живой таблицы и архива (представление order_history)
+ */
+@Repository
+public interface OrderHistoryRepository extends JpaRepository<OrderHistory, Long> {
+
+    @EntityGraph(attributePaths = "contact")
+    List<OrderHistory> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Списки по всем шардам читаются страницами: pageable задаёт LIMIT на каждом шарде
+    @EntityGraph(attributePaths = "contact")
+    List<OrderHistory> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    List<OrderHistory> findByStatusOrderByCreatedAtDesc(OrderStatus status, Pageable pageable);
+
+    List<OrderHistory> findByCreatedAtGreaterThanEqual(LocalDateTime createdAt);
+
+    List<OrderHistory> findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime createdAt, Pageable pageable);
+
+    List<OrderHistory> findByOrderNumberContaining(String orderNumber);
+
+    long countByCreatedAtAfter(LocalDateTime createdAt);
+
+    @EntityGraph(attributePaths = "contact")
+    Optional<OrderHistory> findWithContactById(Long id);
+
+    @Query("SELECT o FROM OrderHistory o JOIN FETCH o.contact c WHERE c.email LIKE CONCAT('%', :email, '%')")
+    List<OrderHistory> searchByContactEmail(@Param("email") String email);
+
+    @Query("SELECT o FROM OrderHistory o JOIN FETCH o.contact c WHERE c.phoneNumber LIKE CONCAT('%', :phone, '%')")
+    List<OrderHistory> searchByContactPhone(@Param("phone") String phone);
+
+    /**
+     * Количество и сумма заказов по статусам: [status, count, sum(price)]
+     */
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.price), 0) FROM OrderHistory o GROUP BY o.status")
+    List<Object[]> summarizeByStatus();
+
+    /**
+     * Пользователи с наибольшим числом заказов: [userId, count]
+     */
+    @Query("SELECT o.userId, COUNT(o) FROM OrderHistory o GROUP BY o.userId ORDER BY COUNT(o) DESC")
+    List<Object[]> findTopUserIds(Pageable pageable);
+
+    /**
+     * Товары с наибольшим числом проданных единиц: [productId, sum(quantity)]
+     */
+    @Query("SELECT o.productId, SUM(o.quantity) FROM OrderHistory o GROUP BY o.productId ORDER BY SUM(o.quantity) DESC")
+    List<Object[]> findTopProductIds(Pageable pageable);
+}
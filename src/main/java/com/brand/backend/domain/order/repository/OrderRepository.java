@@ -1,13 +1,70 @@
 package com.brand.backend.domain.order.repository;
 
 import com.brand.backend.domain.order.model.Order;
-import com.brand.backend.domain.user.model.User;
+import com.brand.backend.domain.order.model.OrderStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUser(User user); // ✅ Получение заказов текущего пользователя
+    List<Order> findByUserId(Long userId);
+
+    boolean existsByOrderNumber(String orderNumber);
+
+    List<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status);
+
+    List<Order> findByCreatedAtGreaterThanEqual(LocalDateTime createdAt);
+
+    /**
+     * Заказ вместе с контактами (для карточки заказа в админ-боте)
+     */
+    @EntityGraph(attributePaths = "contact")
+    Optional<Order> findWithContactById(Long id);
+
+    /**
+     * Самый ранний заказ, подлежащий переносу в архив (null - переносить нечего)
+     */
+    @Query("SELECT MIN(o.createdAt) FROM Order o WHERE o.status IN :statuses AND o.createdAt < :cutoff")
+    LocalDateTime findOldestCreatedAt(@Param("statuses") Collection<OrderStatus> statuses,
+                                      @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Переносит в orders_archive до limit заказов одним оператором: строки удаляются из orders
+     * и вставляются в архив в одной транзакции. Заказы, заблокированные другими транзакциями, пропускаются.
+     * Секции архива за месяцы переносимых заказов должны уже существовать.
+     *
+     * @return число перенесённых заказов
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH moved AS (
+                DELETE FROM orders
+                WHERE id IN (SELECT id FROM orders
+                             WHERE status IN (:statuses) AND created_at < :cutoff
+                             ORDER BY created_at
+                             LIMIT :limit
+                             FOR UPDATE SKIP LOCKED)
+                RETURNING id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+                          created_at, updated_at, user_id, contact_id, status
+            )
+            INSERT INTO orders_archive (id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+                                        created_at, updated_at, user_id, contact_id, status)
+            SELECT id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+                   created_at, updated_at, user_id, contact_id, status
+            FROM moved
+            """, nativeQuery = true)
+    int moveToArchive(@Param("statuses") Collection<String> statuses,
+                      @Param("cutoff") LocalDateTime cutoff,
+                      @Param("limit") int limit);
 }
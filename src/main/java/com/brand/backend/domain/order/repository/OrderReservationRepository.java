@@ -0,0 +1,28 @@
+package com.brand.backend.domain.order.repository;
+
+import com.brand.backend.domain.order.model.OrderReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderReservationRepository extends JpaRepository<OrderReservation, Long> {
+
+    /**
+     * Резервы, созданные раньше cutoff: заказ по ним так и не подтверждён
+     */
+    List<OrderReservation> findByCreatedAtBeforeOrderById(LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Удаляет резерв; из конкурирующих вызовов 1 получает только один
+     */
+    @Modifying
+    @Query("DELETE FROM OrderReservation r WHERE r.id = :id")
+    int deleteReservation(@Param("id") Long id);
+}
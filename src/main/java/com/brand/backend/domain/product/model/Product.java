@@ -1,20 +1,37 @@
 package com.brand.backend.domain.product.model;
 
+import com.brand.backend.infrastructure.cache.ClusterCacheEntityListener;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.List;
 
+/**
+ * Товар. Лежит в кэше второго уровня (регион product): правки идут через сущность, и кэш обновляется
+ * после коммита, на других узлах запись сбрасывается по уведомлению. Здесь только данные каталога,
+ * которые меняются редко; остатки хранятся отдельно в {@link ProductStock} и подставляются
+ * в {@link #stock} сервисом при чтении.
+ */
 @Getter
 @Setter
 @Entity
-
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@EntityListeners(ClusterCacheEntityListener.class)
 @Table(name = "products")
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "name", nullable = false)
     private String name;
 
@@ -22,27 +39,21 @@ public class Product {
     private double price;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product.sizes")
     @CollectionTable(name = "product_sizes", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "size")
     private List<String> sizes;
 
-    @Column(name = "available_quantity_s", nullable = false)
-    private int availableQuantityS;
-
-    @Column(name = "available_quantity_m", nullable = false)
-    private int availableQuantityM;
-
-    @Column(name = "available_quantity_l", nullable = false)
-    private int availableQuantityL;
+    // Остатки на момент чтения; в ответе API - поля availableQuantityS/M/L, как раньше
+    @Transient
+    @JsonUnwrapped
+    private ProductStock stock;
 
-    public static Product createProduct(String name, double price, int quantityS, int quantityM, int quantityL) {
+    public static Product createProduct(String name, double price) {
         Product product = new Product();
         product.setName(name);
         product.setPrice(price);
         product.setSizes(List.of("S", "M", "L"));
-        product.setAvailableQuantityS(quantityS);
-        product.setAvailableQuantityM(quantityM);
-        product.setAvailableQuantityL(quantityL);
         return product;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.brand.backend.domain.product.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Остатки товара по размерам. Меняются на каждом заказе, поэтому вынесены из {@link Product} и не лежат
+ * в кэше второго уровня: списание остатка не сбрасывает регион product и кэш запросов каталога.
+ * Меняются только условными UPDATE ({@code ProductStockRepository})
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "product_stock")
+public class ProductStock {
+    @Id
+    @JsonIgnore
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "available_quantity_s", nullable = false)
+    private int availableQuantityS;
+
+    @Column(name = "available_quantity_m", nullable = false)
+    private int availableQuantityM;
+
+    @Column(name = "available_quantity_l", nullable = false)
+    private int availableQuantityL;
+
+    public static ProductStock of(Long productId, int quantityS, int quantityM, int quantityL) {
+        ProductStock stock = new ProductStock();
+        stock.setProductId(productId);
+        stock.setAvailableQuantityS(quantityS);
+        stock.setAvailableQuantityM(quantityM);
+        stock.setAvailableQuantityL(quantityL);
+        return stock;
+    }
+
+    @JsonIgnore
+    public int getTotalQuantity() {
+        return availableQuantityS + availableQuantityM + availableQuantityL;
+    }
+}
@@ -1,8 +1,11 @@
 package com.brand.backend.domain.product.repository;
 
 import com.brand.backend.domain.product.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,7 +13,15 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * Каталог: результат в кэше запросов, сами товары - в регионе product.
+     * Закэшированный результат сбрасывает любая запись в products; остатки лежат в product_stock и его не трогают
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT p FROM Product p WHERE :size MEMBER OF p.sizes")
     List<Product> findBySize(String size);
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.brand.backend.domain.product.repository;
+
+import com.brand.backend.domain.product.model.ProductStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductStockRepository extends JpaRepository<ProductStock, Long> {
+
+    /**
+     * Меняет остатки одним условным UPDATE: параллельные оформления не конфликтуют, а остаток не уходит в минус.
+     * Таблица не кэшируется, поэтому запрос не сбрасывает ни регион product, ни кэш запросов каталога
+     *
+     * @return 1 - изменено, 0 - остатка не хватает или товара нет
+     */
+    @Modifying
+    @Query("UPDATE ProductStock s SET s.availableQuantityS = s.availableQuantityS + :deltaS, " +
+            "s.availableQuantityM = s.availableQuantityM + :deltaM, " +
+            "s.availableQuantityL = s.availableQuantityL + :deltaL " +
+            "WHERE s.productId = :productId AND s.availableQuantityS + :deltaS >= 0 " +
+            "AND s.availableQuantityM + :deltaM >= 0 AND s.availableQuantityL + :deltaL >= 0")
+    int adjust(@Param("productId") Long productId,
+               @Param("deltaS") int deltaS,
+               @Param("deltaM") int deltaM,
+               @Param("deltaL") int deltaL);
+
+    /**
+     * Задаёт остатки из админ-бота
+     *
+     * @return 1 - изменено, 0 - товара нет
+     */
+    @Modifying
+    @Query("UPDATE ProductStock s SET s.availableQuantityS = :quantityS, s.availableQuantityM = :quantityM, " +
+            "s.availableQuantityL = :quantityL WHERE s.productId = :productId")
+    int set(@Param("productId") Long productId,
+            @Param("quantityS") int quantityS,
+            @Param("quantityM") int quantityM,
+            @Param("quantityL") int quantityL);
+}
@@ -1,20 +1,40 @@
 package com.brand.backend.domain.promotion.model;
 
+import com.brand.backend.infrastructure.cache.ClusterCacheEntityListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
+/**
+ * Промокод. Лежит в кэше второго уровня (регион promo-code), поиск по коду идёт через кэш natural id.
+ * Правки из админ-бота защищены версией. Счётчик использований хранится отдельно в {@link PromoCodeUsage}.
+ */
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "promo-code")
+@NaturalIdCache(region = "promo-code-natural-id")
+@EntityListeners(ClusterCacheEntityListener.class)
 @Table(name = "promo_codes")
 public class PromoCode {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "promo_codes_seq")
+    @SequenceGenerator(name = "promo_codes_seq", sequenceName = "promo_codes_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Код можно изменить из админ-бота
+    @NaturalId(mutable = true)
     @Column(name = "code", nullable = false, unique = true)
     private String code;
 
@@ -24,9 +44,6 @@ public class PromoCode {
     @Column(name = "max_uses", nullable = false)
     private int maxUses;
 
-    @Column(name = "used_count", nullable = false)
-    private int usedCount = 0;
-
     @Column(name = "active", nullable = false)
     private boolean active = true;
 
@@ -46,23 +63,12 @@ public class PromoCode {
     private LocalDateTime updatedAt;
 
     /**
-     * Проверяет, действителен ли промокод
+     * Включён ли промокод и действует ли сейчас; лимит использований проверяется по {@link PromoCodeUsage}
      */
     public boolean isValid() {
         LocalDateTime now = LocalDateTime.now();
         return active 
-                && usedCount < maxUses 
                 && now.isAfter(startDate) 
                 && (endDate == null || now.isBefore(endDate));
     }
-
-    /**
-     * Увеличивает счетчик использования промокода
-     */
-    public void incrementUsedCount() {
-        this.usedCount++;
-        if (this.usedCount >= this.maxUses) {
-            this.active = false;
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.brand.backend.domain.promotion.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Счётчик использований промокода. Меняется на каждом заказе с промокодом, поэтому вынесен из {@link PromoCode}
+ * и не лежит в кэше второго уровня: засчитанное использование не сбрасывает регион promo-code на узлах
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "promo_code_usage")
+public class PromoCodeUsage {
+    @Id
+    @Column(name = "promo_code_id")
+    private Long promoCodeId;
+
+    @Column(name = "used_count", nullable = false)
+    private int usedCount;
+
+    public static PromoCodeUsage of(Long promoCodeId) {
+        PromoCodeUsage usage = new PromoCodeUsage();
+        usage.setPromoCodeId(promoCodeId);
+        return usage;
+    }
+}
@@ -6,12 +6,9 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface PromoCodeRepository extends JpaRepository<PromoCode, Long> {
-    
-    Optional<PromoCode> findByCode(String code);
+public interface PromoCodeRepository extends JpaRepository<PromoCode, Long>, PromoCodeRepositoryCustom {
     
     List<PromoCode> findByActive(boolean active);
     
@@ -23,4 +20,4 @@ public interface PromoCodeRepository extends JpaRepository<PromoCode, Long> {
     
     List<PromoCode> findByActiveAndStartDateBeforeAndEndDateAfter(
             boolean active, LocalDateTime startDate, LocalDateTime endDate);
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.brand.backend.domain.promotion.repository;
+
+import com.brand.backend.domain.promotion.model.PromoCode;
+
+import java.util.Optional;
+
+public interface PromoCodeRepositoryCustom {
+
+    /**
+     * Промокод по коду через кэш natural id (без запроса в БД, если код уже загружался)
+     */
+    Optional<PromoCode> findByCode(String code);
+}
@@ -0,0 +1,23 @@
+package com.brand.backend.domain.promotion.repository;
+
+import com.brand.backend.domain.promotion.model.PromoCode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+class PromoCodeRepositoryCustomImpl implements PromoCodeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PromoCode> findByCode(String code) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(PromoCode.class)
+                .loadOptional(code);
+    }
+}
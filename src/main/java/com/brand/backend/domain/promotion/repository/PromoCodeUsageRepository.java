@@ -0,0 +1,31 @@
+package com.brand.backend.domain.promotion.repository;
+
+import com.brand.backend.domain.promotion.model.PromoCodeUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PromoCodeUsageRepository extends JpaRepository<PromoCodeUsage, Long> {
+
+    /**
+     * Засчитывает использование одним условным UPDATE, если промокод включён и лимит не исчерпан.
+     * Лимит читается из promo_codes в том же запросе, поэтому устаревшая копия в кэше его не обойдёт
+     *
+     * @return 1 - засчитано, 0 - промокод выключен или исчерпан
+     */
+    @Modifying
+    @Query("UPDATE PromoCodeUsage u SET u.usedCount = u.usedCount + 1 " +
+            "WHERE u.promoCodeId = :id AND u.usedCount < " +
+            "(SELECT p.maxUses FROM PromoCode p WHERE p.id = :id AND p.active = true)")
+    int increment(@Param("id") Long id);
+
+    /**
+     * Возвращает использование
+     */
+    @Modifying
+    @Query("UPDATE PromoCodeUsage u SET u.usedCount = u.usedCount - 1 WHERE u.promoCodeId = :id AND u.usedCount > 0")
+    int decrement(@Param("id") Long id);
+}
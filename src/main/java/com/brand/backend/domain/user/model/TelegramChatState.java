@@ -0,0 +1,44 @@
+package com.brand.backend.domain.user.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Состояние диалога чата с Telegram-ботом (чего бот ждёт от следующего сообщения)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(TelegramChatState.Key.class)
+@Table(name = "telegram_chat_states", indexes = {
+        @Index(name = "idx_telegram_chat_states_expires_at", columnList = "expires_at")
+})
+public class TelegramChatState {
+
+    @Id
+    @Column(name = "bot", nullable = false, length = 16)
+    private String bot;
+
+    @Id
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+
+    @Column(name = "state", nullable = false, length = 64)
+    private String state;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String bot;
+        private Long chatId;
+    }
+}
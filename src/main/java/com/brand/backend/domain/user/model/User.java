@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -37,9 +38,6 @@ public class User {
     @Column(name = "is_active", nullable = false)
     private boolean isActive = true;
 
-    @Column(name = "verification_code")
-    private String verificationCode;
-
     @Column(name = "telegram_id", unique = true)
     private Long telegramId;
 
@@ -72,4 +70,10 @@ public class User {
 
     @Column(name = "phone_number", unique = true)
     private String phoneNumber;
+
+    /**
+     * Момент отзыва access-токенов (мс); меняется только через {@code UserRepository.revokeTokens}
+     */
+    @Column(name = "tokens_revoked_at", insertable = false, updatable = false)
+    private Long tokensRevokedAt;
 }
@@ -0,0 +1,39 @@
+package com.brand.backend.domain.user.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Одноразовый код привязки аккаунта (Telegram, Discord) с ограниченным сроком действия
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "verification_codes", indexes = {
+        @Index(name = "uk_verification_codes_code", columnList = "code", unique = true),
+        @Index(name = "idx_verification_codes_user_id", columnList = "user_id"),
+        @Index(name = "idx_verification_codes_expires_at", columnList = "expires_at")
+})
+public class VerificationCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "code", nullable = false, length = 16)
+    private String code;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -6,7 +6,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
@@ -16,5 +20,29 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Transactional
     @Query("DELETE FROM RefreshToken r WHERE r.user = :user") // ✅ Удаляем по user
     void deleteByUser(User user);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken r WHERE r.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Заменяет токен пользователя без удаления строки
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.token = :token, r.expiryDate = :expiryDate WHERE r.user.id = :userId")
+    int updateTokenForUser(@Param("userId") Long userId,
+                           @Param("token") String token,
+                           @Param("expiryDate") Instant expiryDate);
+
+    /**
+     * Владелец токена без загрузки пользователя: [userId, expiryDate] (не больше одной строки)
+     */
+    @Query("SELECT r.user.id, r.expiryDate FROM RefreshToken r WHERE r.token = :token")
+    List<Object[]> findOwnerByToken(@Param("token") String token);
+
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.expiryDate <= :now ORDER BY r.id")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable pageable);
 }
 
@@ -0,0 +1,36 @@
+package com.brand.backend.domain.user.repository;
+
+import com.brand.backend.domain.user.model.TelegramChatState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface TelegramChatStateRepository extends JpaRepository<TelegramChatState, TelegramChatState.Key> {
+
+    @Query("SELECT s.state FROM TelegramChatState s WHERE s.bot = :bot AND s.chatId = :chatId AND s.expiresAt > :now")
+    Optional<String> findState(@Param("bot") String bot, @Param("chatId") Long chatId, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO telegram_chat_states (bot, chat_id, state, expires_at) " +
+            "VALUES (:bot, :chatId, :state, :expiresAt) " +
+            "ON CONFLICT (bot, chat_id) DO UPDATE SET state = EXCLUDED.state, expires_at = EXCLUDED.expires_at",
+            nativeQuery = true)
+    int saveState(@Param("bot") String bot, @Param("chatId") Long chatId, @Param("state") String state,
+                  @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TelegramChatState s WHERE s.bot = :bot AND s.chatId = :chatId")
+    int deleteState(@Param("bot") String bot, @Param("chatId") Long chatId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TelegramChatState s WHERE s.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
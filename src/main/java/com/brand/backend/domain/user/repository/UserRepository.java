@@ -2,14 +2,36 @@ package com.brand.backend.domain.user.repository;
 
 import com.brand.backend.domain.user.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByTelegramId(Long telegramId);
-    Optional<User> findByVerificationCode(String verificationCode);
     Optional<User> findByUsername(String username);
     Optional<User> findByDiscordId(Long discordId);
+
+    /**
+     * Сохраняет момент отзыва access-токенов; более ранний момент не перезаписывает поздний
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.tokensRevokedAt = :revokedAt " +
+            "WHERE u.id = :id AND (u.tokensRevokedAt IS NULL OR u.tokensRevokedAt < :revokedAt)")
+    int revokeTokens(@Param("id") Long id, @Param("revokedAt") long revokedAt);
+
+    @Query("SELECT u.tokensRevokedAt FROM User u WHERE u.id = :id")
+    Optional<Long> findTokensRevokedAt(@Param("id") Long id);
+
+    /**
+     * Отзывы позже since: строки [id, tokensRevokedAt]
+     */
+    @Query("SELECT u.id, u.tokensRevokedAt FROM User u WHERE u.tokensRevokedAt > :since")
+    List<Object[]> findTokenRevocationsAfter(@Param("since") long since);
 }
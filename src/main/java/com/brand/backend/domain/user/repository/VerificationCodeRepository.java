@@ -0,0 +1,40 @@
+package com.brand.backend.domain.user.repository;
+
+import com.brand.backend.domain.user.model.VerificationCode;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface VerificationCodeRepository extends JpaRepository<VerificationCode, Long> {
+
+    /**
+     * Коды пользователя, от новых к старым
+     */
+    @Query("SELECT v.code FROM VerificationCode v WHERE v.userId = :userId ORDER BY v.createdAt DESC, v.id DESC")
+    List<String> findCodesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Погашает действующий код одним запросом: из конкурирующих вызовов пользователя получает только один,
+     * на каком бы узле он ни выполнялся
+     */
+    @Transactional
+    @Query(value = "DELETE FROM verification_codes WHERE code = :code AND expires_at > :now RETURNING user_id",
+            nativeQuery = true)
+    Optional<Long> consumeCode(@Param("code") String code, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM VerificationCode v WHERE v.code IN :codes")
+    int deleteByCodeIn(@Param("codes") Collection<String> codes);
+
+    @Query("SELECT v.id FROM VerificationCode v WHERE v.expiresAt <= :now ORDER BY v.id")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+}
@@ -0,0 +1,355 @@
+package com.brand.backend.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сброс локальных кэшей на всех узлах через LISTEN/NOTIFY основной БД.
+ * <p>
+ * Изменения, накопленные за транзакцию, после коммита уходят одним уведомлением
+ * {@code <узел> <номер> <регион>:<ключ> ...}. Уведомления узла нумеруются подряд и отправляются по порядку
+ * одним потоком через одно соединение, поэтому пропуск номера означает потерю. Тогда, а также после
+ * переподключения слушателя, все {@link ClusterCache} сбрасываются целиком. Пульс с последним номером
+ * позволяет заметить потерю последнего уведомления узла, который затем ничего не менял.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    // Ограничение NOTIFY - 8000 байт
+    private static final int MAX_PAYLOAD = 7900;
+    private static final String ALL_KEYS = "*";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<ClusterCache> caches;
+    private final boolean enabled;
+    private final String channel;
+    private final long pollTimeoutMillis;
+    private final long heartbeatIntervalMillis;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    // Узел -> последний полученный номер
+    private final Map<String, Sender> senders = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sendExecutor;
+    // Соединение отправки; используется только потоком sendExecutor
+    private Connection sendConnection;
+
+    private final Counter sent;
+    private final Counter received;
+    private final Counter dropped;
+    private final Counter fullRefreshes;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public CacheInvalidationBus(DataSourceProperties dataSourceProperties,
+                                ObjectProvider<ClusterCache> caches,
+                                MeterRegistry meterRegistry,
+                                @Value("${cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+                                @Value("${cache.invalidation.poll-timeout-ms:500}") long pollTimeoutMillis,
+                                @Value("${cache.invalidation.heartbeat-interval-ms:5000}") long heartbeatIntervalMillis,
+                                @Value("${cache.invalidation.queue-capacity:1000}") int queueCapacity) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Некорректное имя канала: " + channel);
+        }
+        this.dataSourceProperties = dataSourceProperties;
+        this.caches = caches;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.sendExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "CacheInvalidation-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sent = meterRegistry.counter("cache.invalidation.notifications", "direction", "sent");
+        this.received = meterRegistry.counter("cache.invalidation.notifications", "direction", "received");
+        this.dropped = meterRegistry.counter("cache.invalidation.notifications", "direction", "dropped");
+        this.fullRefreshes = meterRegistry.counter("cache.invalidation.full-refreshes");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "CacheInvalidation-listen");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("🗄️ [CACHE] Узел {} слушает сброс кэшей (канал {})", nodeId, channel);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        sendExecutor.shutdown();
+        try {
+            sendExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeSendConnection();
+    }
+
+    /**
+     * Сообщает другим узлам об изменении записи после коммита текущей транзакции
+     * (без транзакции - сразу). При откате уведомление не отправляется
+     */
+    public void publish(String region, Object key) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(List.of(region + ":" + key));
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingNotices pending) {
+                pending.entries.add(region + ":" + key);
+                return;
+            }
+        }
+        PendingNotices pending = new PendingNotices();
+        pending.entries.add(region + ":" + key);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    /**
+     * Сообщает другим узлам об изменении сразу, не дожидаясь коммита (например, из обработчика AFTER_COMMIT)
+     */
+    public void publishNow(String region, Object key) {
+        if (enabled) {
+            send(List.of(region + ":" + key));
+        }
+    }
+
+    /**
+     * Пульс с последним номером и забывание остановленных узлов
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (!running) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> notify(sequence.get(), List.of()));
+        } catch (RejectedExecutionException e) {
+            // Очередь занята уведомлениями: они сами несут номер
+        }
+        long staleBefore = System.currentTimeMillis() - heartbeatIntervalMillis * 10;
+        senders.values().removeIf(sender -> sender.heardAt() < staleBefore);
+    }
+
+    private void send(Collection<String> entries) {
+        try {
+            sendExecutor.execute(() -> notify(sequence.incrementAndGet(), entries));
+        } catch (RejectedExecutionException e) {
+            // Номер пропускается: получатели заметят разрыв и сбросят кэши целиком
+            sequence.incrementAndGet();
+            dropped.increment();
+            log.warn("⚠️ [CACHE] Очередь уведомлений переполнена, сброс {} будет полным", entries);
+        }
+    }
+
+    private void notify(long number, Collection<String> entries) {
+        String payload = payload(number, entries);
+        try {
+            if (sendConnection == null) {
+                sendConnection = connect();
+            }
+            try (PreparedStatement statement = sendConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, channel);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+            if (!entries.isEmpty()) {
+                sent.increment();
+            }
+        } catch (SQLException e) {
+            // Номер уже занят, получатели увидят разрыв
+            closeSendConnection();
+            log.warn("⚠️ [CACHE] Уведомление {} не отправлено: {}", number, e.getMessage());
+        }
+    }
+
+    private String payload(long number, Collection<String> entries) {
+        StringBuilder payload = new StringBuilder(nodeId).append(' ').append(number);
+        entries.forEach(entry -> payload.append(' ').append(entry));
+        if (payload.length() <= MAX_PAYLOAD) {
+            return payload.toString();
+        }
+        // Слишком много ключей: регионы сбрасываются целиком
+        StringBuilder regions = new StringBuilder(nodeId).append(' ').append(number);
+        entries.stream()
+                .map(entry -> entry.substring(0, entry.indexOf(':')))
+                .distinct()
+                .forEach(region -> regions.append(' ').append(region).append(':').append(ALL_KEYS));
+        return regions.toString();
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    refreshAll("переподключение к БД");
+                }
+                connectedBefore = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeoutMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("⚠️ [CACHE] Соединение для сброса кэшей потеряно: {}", e.getMessage());
+                try {
+                    Thread.sleep(heartbeatIntervalMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("⚠️ [CACHE] Ошибка обработки уведомления: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split(" ");
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        long number = Long.parseLong(parts[1]);
+        boolean heartbeat = parts.length == 2;
+        if (!heartbeat) {
+            received.increment();
+        }
+
+        Sender sender = senders.get(parts[0]);
+        senders.put(parts[0], new Sender(sender != null ? Math.max(sender.sequence(), number) : number,
+                System.currentTimeMillis()));
+
+        if (sender == null) {
+            // Первое уведомление узла: более ранние относятся к данным, загруженным уже после них
+            apply(parts);
+            return;
+        }
+        long expected = heartbeat ? sender.sequence() : sender.sequence() + 1;
+        if (number > expected) {
+            refreshAll("пропущены уведомления узла " + parts[0] + " " + (sender.sequence() + 1) + ".." + number);
+        } else if (number == expected && !heartbeat) {
+            apply(parts);
+        }
+    }
+
+    private void apply(String[] parts) {
+        for (int i = 2; i < parts.length; i++) {
+            int separator = parts[i].indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String region = parts[i].substring(0, separator);
+            String key = parts[i].substring(separator + 1);
+            // Регион, которого на этом узле нет (другая версия приложения), пропускается
+            caches.orderedStream()
+                    .filter(cache -> cache.region().equals(region))
+                    .forEach(cache -> {
+                        if (ALL_KEYS.equals(key)) {
+                            cache.invalidateAll();
+                        } else {
+                            cache.invalidate(key);
+                        }
+                    });
+        }
+    }
+
+    private void refreshAll(String reason) {
+        fullRefreshes.increment();
+        log.warn("⚠️ [CACHE] Полный сброс локальных кэшей: {}", reason);
+        caches.orderedStream().forEach(ClusterCache::invalidateAll);
+    }
+
+    private Connection connect() throws SQLException {
+        // Отдельные соединения вне пулов: слушатель держит своё постоянно
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void closeSendConnection() {
+        if (sendConnection == null) {
+            return;
+        }
+        try {
+            sendConnection.close();
+        } catch (SQLException e) {
+            log.debug("Ошибка закрытия соединения уведомлений: {}", e.getMessage());
+        }
+        sendConnection = null;
+    }
+
+    /**
+     * Изменения транзакции, отправляемые одним уведомлением после коммита
+     */
+    private class PendingNotices implements TransactionSynchronization {
+
+        private final Set<String> entries = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            send(entries);
+        }
+    }
+
+    private record Sender(long sequence, long heardAt) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.brand.backend.infrastructure.cache;
+
+/**
+ * Локальный кэш узла, который сбрасывается по уведомлениям других узлов ({@link CacheInvalidationBus})
+ */
+public interface ClusterCache {
+
+    /**
+     * Имя региона в уведомлениях
+     */
+    String region();
+
+    /**
+     * Сбрасывает запись, изменённую на другом узле
+     */
+    void invalidate(String key);
+
+    /**
+     * Сбрасывает кэш целиком: часть уведомлений могла быть потеряна
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,36 @@
+package com.brand.backend.infrastructure.cache;
+
+import com.brand.backend.domain.product.model.Product;
+import com.brand.backend.domain.promotion.model.PromoCode;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Изменения сущностей из кэша второго уровня рассылаются другим узлам после коммита.
+ * Массовые UPDATE/DELETE запросом слушатель не видит, поэтому products и promo_codes меняются только через
+ * сущность. Частые условные UPDATE остатков и счётчиков использований идут в некэшируемые таблицы
+ * product_stock и promo_code_usage и кэш не сбрасывают
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterCacheEntityListener {
+
+    private static final String PRODUCT_REGION = EntityClusterCache.regionOf(Product.class);
+    private static final String PROMO_CODE_REGION = EntityClusterCache.regionOf(PromoCode.class);
+
+    private final CacheInvalidationBus invalidationBus;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Product product) {
+            invalidationBus.publish(PRODUCT_REGION, product.getId());
+        } else if (entity instanceof PromoCode promoCode) {
+            invalidationBus.publish(PROMO_CODE_REGION, promoCode.getId());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.brand.backend.infrastructure.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import java.util.List;
+
+/**
+ * Регион сущности в кэше второго уровня Hibernate. Вместе с сущностью сбрасываются её коллекции,
+ * natural id и результаты запросов: метки изменения таблиц у каждого узла свои.
+ */
+public class EntityClusterCache implements ClusterCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Class<?> entityClass;
+    private final List<String> collectionRoles;
+
+    /**
+     * @param collections кэшируемые коллекции сущности (имена полей)
+     */
+    public EntityClusterCache(EntityManagerFactory entityManagerFactory, Class<?> entityClass, String... collections) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityClass = entityClass;
+        this.collectionRoles = List.of(collections).stream()
+                .map(collection -> entityClass.getName() + "." + collection)
+                .toList();
+        // Сущность без региона не попала бы ни в один кэш: ошибка конфигурации видна при старте
+        regionOf(entityClass);
+    }
+
+    /**
+     * Регион сущности из её {@link org.hibernate.annotations.Cache}
+     */
+    public static String regionOf(Class<?> entityClass) {
+        org.hibernate.annotations.Cache cache = entityClass.getAnnotation(org.hibernate.annotations.Cache.class);
+        if (cache == null || cache.region().isEmpty()) {
+            throw new IllegalArgumentException("У сущности " + entityClass.getSimpleName() + " нет региона кэша");
+        }
+        return cache.region();
+    }
+
+    @Override
+    public String region() {
+        return regionOf(entityClass);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        Long id = Long.valueOf(key);
+        Cache cache = cache();
+        cache.evictEntityData(entityClass, id);
+        collectionRoles.forEach(role -> cache.evictCollectionData(role, id));
+        cache.evictNaturalIdData(entityClass);
+        cache.evictDefaultQueryRegion();
+    }
+
+    @Override
+    public void invalidateAll() {
+        Cache cache = cache();
+        cache.evictEntityData(entityClass);
+        collectionRoles.forEach(cache::evictCollectionData);
+        cache.evictNaturalIdData(entityClass);
+        cache.evictDefaultQueryRegion();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,360 @@
+package com.brand.backend.infrastructure.cluster;
+
+import com.brand.backend.infrastructure.persistence.sharding.ShardContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Выбор ведущего узла для ролей, которые в кластере должны выполняться в одном экземпляре
+ * (long polling ботов, одиночные фоновые задачи). HTTP обслуживают все узлы.
+ * <p>
+ * Ведущий роли держит {@code pg_try_advisory_lock} на отдельном соединении с основной БД; при каждом захвате
+ * fencing-токен роли в cluster_leases увеличивается. Свободные роли пробуют захватить каждые check-interval-ms,
+ * ведущий с той же частотой проверяет своё соединение. Падение узла освобождает локи сразу (сервер видит
+ * разрыв соединения), сетевой разрыв - через TCP keepalive сессии. Ведущий, у которого соединение не ответило,
+ * снимает с себя лидерство раньше, чем сервер отдаст лок другому узлу. Узел, который «проспал» потерю лидерства
+ * (долгая пауза), отсекается проверкой токена {@link #checkFence} перед действиями с внешним эффектом.
+ * <p>
+ * Обработчики {@link Leadership} вызываются из одного потока выборов.
+ */
+@Slf4j
+@Component
+public class LeaderElection {
+
+    // Первый ключ advisory-локов ролей; второй - хэш имени роли
+    private static final int LOCK_NAMESPACE = 0x6c656164;
+    private static final long NOT_LEADER = 0;
+    // Токен узла без выборов: он ведущий для всех ролей
+    private static final long STANDALONE_TOKEN = 1;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long checkIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final int keepaliveSeconds;
+
+    private final String nodeId = System.getenv().getOrDefault("HOSTNAME", "node")
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    // Соединение с локами; используется только потоком выборов
+    private Connection connection;
+
+    private volatile boolean running;
+
+    public LeaderElection(DataSourceProperties dataSourceProperties,
+                          JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${cluster.leader-election.enabled:true}") boolean enabled,
+                          @Value("${cluster.leader-election.check-interval-ms:1000}") long checkIntervalMillis,
+                          @Value("${cluster.leader-election.validation-timeout-seconds:2}") int validationTimeoutSeconds,
+                          @Value("${cluster.leader-election.keepalive-seconds:5}") int keepaliveSeconds) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.keepaliveSeconds = keepaliveSeconds;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LeaderElection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Узел без выборов, ведущий для всех ролей (один экземпляр приложения, тесты)
+     */
+    public static LeaderElection standalone() {
+        return new LeaderElection(null, null, new SimpleMeterRegistry(), false, 0, 0, 0);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("👑 [CLUSTER] Выборы ведущего отключены: узел ведущий для всех ролей");
+            return;
+        }
+        running = true;
+        executor.scheduleWithFixedDelay(this::tick, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("👑 [CLUSTER] Узел {} участвует в выборах ведущего", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        // Роли отдаются явно, чтобы другие узлы подхватили их на следующей проверке
+        try {
+            executor.submit(() -> {
+                roles.values().stream().filter(Role::held).forEach(this::release);
+                closeConnection();
+            }).get(validationTimeoutSeconds + 5L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("⚠️ [CLUSTER] Роли не освобождены при остановке: {}", e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Подписывает работу на роль: она запускается, пока этот узел ведущий
+     */
+    public void register(String role, Leadership leadership) {
+        Role target = role(role);
+        if (!enabled) {
+            target.listeners.add(leadership);
+            leadership.onAcquired(STANDALONE_TOKEN);
+            return;
+        }
+        executor.execute(() -> {
+            target.listeners.add(leadership);
+            if (target.held()) {
+                start(target, leadership, target.token);
+            }
+        });
+    }
+
+    /**
+     * Заявляет роль без обработчика: одиночная задача проверяет {@link #isLeader}/{@link #token} при запуске.
+     * Роль, заявленная только первой проверкой, была бы захвачена лишь к следующему запуску
+     */
+    public void claim(String role) {
+        role(role);
+    }
+
+    /**
+     * Ведущий ли узел для роли
+     */
+    public boolean isLeader(String role) {
+        return role(role).held();
+    }
+
+    /**
+     * Fencing-токен текущего срока лидерства (0 - узел не ведущий)
+     */
+    public long token(String role) {
+        return role(role).token;
+    }
+
+    /**
+     * Проверяет по основной БД, что токен ещё действует. Внутри транзакции основной БД строка роли
+     * остаётся заблокированной (FOR SHARE) до её конца: новый ведущий не получит токен, пока транзакция
+     * старого не завершится
+     *
+     * @throws LeadershipLostException токен устарел
+     */
+    public void checkFence(String role, long token) {
+        if (token == NOT_LEADER || role(role).token != token) {
+            throw new LeadershipLostException("Узел больше не ведущий роли " + role);
+        }
+        if (!enabled) {
+            return;
+        }
+        Long current = ShardContext.on(ShardContext.PRIMARY, () -> jdbcTemplate.query(
+                "SELECT token FROM cluster_leases WHERE role = ? FOR SHARE",
+                rs -> rs.next() ? rs.getLong(1) : null, role));
+        if (current == null || current != token) {
+            throw new LeadershipLostException("Токен " + token + " роли " + role + " устарел (текущий " + current + ")");
+        }
+    }
+
+    private synchronized Role role(String name) {
+        Role existing = roles.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        Role role = new Role(name, name.hashCode());
+        for (Role other : roles.values()) {
+            if (other.key == role.key) {
+                throw new IllegalStateException("Роли " + other.name + " и " + name + " получили один ключ лока");
+            }
+        }
+        if (!enabled) {
+            role.token = STANDALONE_TOKEN;
+        }
+        Gauge.builder("cluster.leader", role, r -> r.held() ? 1 : 0)
+                .tag("role", name)
+                .register(meterRegistry);
+        roles.put(name, role);
+        return role;
+    }
+
+    private void tick() {
+        if (!running) {
+            return;
+        }
+        try {
+            if (connection == null) {
+                connection = connect();
+            } else if (!connection.isValid(validationTimeoutSeconds)) {
+                throw new SQLException("соединение не ответило за " + validationTimeoutSeconds + " с");
+            }
+            for (Role role : roles.values()) {
+                if (!role.held()) {
+                    tryAcquire(role);
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("⚠️ [CLUSTER] Соединение выборов ведущего потеряно: {}", e.getMessage());
+            // Сначала останавливается работа, затем закрытие соединения отпускает локи
+            roles.values().stream().filter(Role::held).forEach(this::revoke);
+            closeConnection();
+        } catch (RuntimeException e) {
+            log.error("⚠️ [CLUSTER] Ошибка выборов ведущего: {}", e.getMessage(), e);
+        }
+    }
+
+    private void tryAcquire(Role role) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, role.key);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next() || !rs.getBoolean(1)) {
+                    return;
+                }
+            }
+        }
+
+        long token;
+        try (PreparedStatement statement = connection.prepareStatement("""
+                INSERT INTO cluster_leases (role, token, holder, acquired_at) VALUES (?, 1, ?, now())
+                ON CONFLICT (role) DO UPDATE
+                SET token = cluster_leases.token + 1, holder = EXCLUDED.holder, acquired_at = EXCLUDED.acquired_at
+                RETURNING token
+                """)) {
+            statement.setString(1, role.name);
+            statement.setString(2, nodeId);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                token = rs.getLong(1);
+            }
+        }
+
+        role.token = token;
+        log.info("👑 [CLUSTER] Узел {} стал ведущим роли {} (токен {})", nodeId, role.name, token);
+        for (Leadership leadership : role.listeners) {
+            if (!start(role, leadership, token)) {
+                return;
+            }
+        }
+    }
+
+    private boolean start(Role role, Leadership leadership, long token) {
+        try {
+            leadership.onAcquired(token);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("⚠️ [CLUSTER] Роль {} не запустилась, лидерство освобождается: {}", role.name, e.getMessage(), e);
+            release(role);
+            return false;
+        }
+    }
+
+    private void revoke(Role role) {
+        role.token = NOT_LEADER;
+        for (Leadership leadership : role.listeners) {
+            try {
+                leadership.onRevoked();
+            } catch (RuntimeException e) {
+                log.error("⚠️ [CLUSTER] Ошибка остановки роли {}: {}", role.name, e.getMessage(), e);
+            }
+        }
+        log.info("👑 [CLUSTER] Узел {} больше не ведущий роли {}", nodeId, role.name);
+    }
+
+    private void release(Role role) {
+        revoke(role);
+        if (connection == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, role.key);
+            statement.execute();
+        } catch (SQLException e) {
+            // Лок отпустит закрытие соединения
+            closeConnection();
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("ApplicationName", "leader-election " + nodeId);
+        // Отдельное соединение вне пулов: локи живут, пока жива сессия
+        Connection created = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+        try (Statement statement = created.createStatement()) {
+            // Сервер замечает пропавший узел примерно за 4 * keepalive-seconds и отпускает его локи
+            statement.execute("SET tcp_keepalives_idle = " + keepaliveSeconds);
+            statement.execute("SET tcp_keepalives_interval = " + keepaliveSeconds);
+            statement.execute("SET tcp_keepalives_count = 3");
+        } catch (SQLException e) {
+            created.close();
+            throw e;
+        }
+        return created;
+    }
+
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Ошибка закрытия соединения выборов: {}", e.getMessage());
+        }
+        connection = null;
+    }
+
+    private static final class Role {
+
+        private final String name;
+        private final int key;
+        private final List<Leadership> listeners = new CopyOnWriteArrayList<>();
+        private volatile long token;
+
+        private Role(String name, int key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        private boolean held() {
+            return token != NOT_LEADER;
+        }
+    }
+}
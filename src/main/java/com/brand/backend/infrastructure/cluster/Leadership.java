@@ -0,0 +1,19 @@
+package com.brand.backend.infrastructure.cluster;
+
+/**
+ * Работа, которая в кластере выполняется только на ведущем узле роли ({@link LeaderElection})
+ */
+public interface Leadership {
+
+    /**
+     * Узел стал ведущим. Исключение отменяет захват: роль освобождается и захватывается заново
+     *
+     * @param token fencing-токен этого срока лидерства
+     */
+    void onAcquired(long token);
+
+    /**
+     * Узел перестал быть ведущим (потеря соединения с БД или остановка)
+     */
+    void onRevoked();
+}
@@ -0,0 +1,11 @@
+package com.brand.backend.infrastructure.cluster;
+
+/**
+ * Узел больше не ведущий роли: его fencing-токен устарел
+ */
+public class LeadershipLostException extends RuntimeException {
+
+    public LeadershipLostException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,9 @@
 package com.brand.backend.infrastructure.config;
 
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -7,6 +11,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -19,6 +24,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(25);
         executor.setThreadNamePrefix("AppAsync-");
+        executor.setTaskDecorator(WorkloadContext.decorator(Workload.BACKGROUND));
         executor.initialize();
         return executor;
     }
@@ -30,10 +36,70 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setMaxPoolSize(5);
         executor.setQueueCapacity(10);
         executor.setThreadNamePrefix("EventAsync-");
+        executor.setTaskDecorator(WorkloadContext.decorator(Workload.BACKGROUND));
         executor.initialize();
         return executor;
     }
 
+    @Bean(name = "nftRevealExecutor")
+    public ThreadPoolTaskExecutor nftRevealExecutor(
+            @Value("${nft.reveal.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 2);
+        executor.setThreadNamePrefix("NftReveal-");
+        executor.setTaskDecorator(WorkloadContext.decorator(Workload.BACKGROUND));
+        // При переполнении очереди пачку выполняет координатор, это естественное ограничение скорости
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Параллельные запросы к шардам заказов (scatter-gather). Тип нагрузки передаёт OrderShardRouter
+     */
+    @Bean(name = "shardQueryExecutor")
+    public ThreadPoolTaskExecutor shardQueryExecutor(
+            @Value("${orders.sharding.query-threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setThreadNamePrefix("ShardQuery-");
+        // Запрос к шарду выполняется в отдельной транзакции, поэтому его можно выполнить и в вызывающем потоке
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Пул для BCrypt: ограничивает число одновременных хэширований (поток запроса ждёт результата).
+     * При заполнении очереди задача отклоняется (клиент получает 503), а не выполняется в потоке запроса.
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${security.password.workers:0}") int workers,
+            @Value("${security.password.queue-capacity:64}") int queueCapacity) {
+        int poolSize = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("PasswordHash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Задачи @Scheduled берут соединения из фонового пула
+     */
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer backgroundWorkloadSchedulerCustomizer() {
+        return scheduler -> scheduler.setTaskDecorator(WorkloadContext.decorator(Workload.BACKGROUND));
+    }
+
     @Override
     public Executor getAsyncExecutor() {
         return taskExecutor();
@@ -0,0 +1,26 @@
+package com.brand.backend.infrastructure.config;
+
+import com.brand.backend.domain.product.model.Product;
+import com.brand.backend.domain.promotion.model.PromoCode;
+import com.brand.backend.infrastructure.cache.ClusterCache;
+import com.brand.backend.infrastructure.cache.EntityClusterCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Регионы кэша второго уровня, которые сбрасываются по уведомлениям других узлов
+ */
+@Configuration
+public class ClusterCacheConfig {
+
+    @Bean
+    public ClusterCache productClusterCache(EntityManagerFactory entityManagerFactory) {
+        return new EntityClusterCache(entityManagerFactory, Product.class, "sizes");
+    }
+
+    @Bean
+    public ClusterCache promoCodeClusterCache(EntityManagerFactory entityManagerFactory) {
+        return new EntityClusterCache(entityManagerFactory, PromoCode.class);
+    }
+}
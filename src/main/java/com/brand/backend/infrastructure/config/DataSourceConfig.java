@@ -0,0 +1,197 @@
+package com.brand.backend.infrastructure.config;
+
+import com.brand.backend.infrastructure.persistence.routing.ReplicaSet;
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadRoutingDataSource;
+import com.brand.backend.infrastructure.persistence.sharding.ShardSet;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Отдельные пулы соединений (bulkhead) для REST API, Telegram-ботов и фоновых задач, плюс реплики для чтения.
+ * <p>
+ * Тяжёлые запросы админки и фоновых задач не могут занять соединения, нужные оформлению заказов.
+ * Для пулов admin и background задаётся statement_timeout. Репозитории работают через
+ * {@link WorkloadRoutingDataSource} и не знают о пулах.
+ * <p>
+ * Шарды заказов (orders.sharding.urls) - отдельные БД с той же схемой, по одному пулу на шард.
+ * Справочные таблицы (users, products и остальные) есть только в основной БД: на шардах они пусты.
+ * Заказ на шарде хранит user_id и product_id без внешних ключей (V9__order_plain_references), товар
+ * и пользователя проверяет и читает OrderService в основной БД.
+ */
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    private static final Map<Workload, Integer> DEFAULT_POOL_SIZES = Map.of(
+            Workload.CHECKOUT, 20,
+            Workload.ADMIN, 3,
+            Workload.BACKGROUND, 5);
+
+    // Старшие биты id заказа - шард, на котором id выдан: последовательности шардов не пересекаются
+    private static final int SHARD_ID_BITS = 40;
+
+    private final List<HikariDataSource> primaryPools = new ArrayList<>();
+    private final List<HikariDataSource> shardPools = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 MeterRegistry meterRegistry, ReplicaSet replicaSet, ShardSet shardSet) {
+        Map<Object, Object> pools = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            String name = workload.name().toLowerCase(Locale.ROOT);
+            HikariDataSource pool = createPool(name, properties.getUrl(), "datasource.pools." + name + ".",
+                    DEFAULT_POOL_SIZES.get(workload), properties, environment, meterRegistry);
+            primaryPools.add(pool);
+            pools.put(workload, pool);
+        }
+
+        WorkloadRoutingDataSource routingDataSource = new WorkloadRoutingDataSource(replicaSet, shardSet);
+        routingDataSource.setTargetDataSources(pools);
+        routingDataSource.setDefaultTargetDataSource(pools.get(Workload.CHECKOUT));
+        routingDataSource.afterPropertiesSet();
+
+        // Соединение берётся при первом запросе, когда признак read-only транзакции уже известен
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    /**
+     * Транзакции для WorkloadContext.onPrimary внутри read-only транзакций, уже взявших соединение реплики
+     */
+    @Bean
+    public SmartInitializingSingleton primaryReadTransactions(ObjectProvider<PlatformTransactionManager> transactionManager) {
+        return () -> WorkloadContext.useTransactionManager(transactionManager.getObject());
+    }
+
+    /**
+     * Реплики для чтения; список datasource.replicas.urls пуст - все запросы идут в основную БД
+     */
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                 ObjectProvider<DataSource> dataSource,
+                                 @Value("${datasource.replicas.urls:}") List<String> urls,
+                                 @Value("${datasource.replicas.max-lag-bytes:16777216}") long maxLagBytes,
+                                 @Value("${datasource.replicas.check-interval-ms:1000}") long checkIntervalMillis) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            pools.add(createPool("replica-" + pools.size(), url.trim(), "datasource.replicas.", 10,
+                    properties, environment, meterRegistry));
+        }
+        return new ReplicaSet(pools, dataSource, maxLagBytes, checkIntervalMillis, meterRegistry);
+    }
+
+    /**
+     * Шарды заказов 1..n; список orders.sharding.urls пуст - все заказы в основной БД.
+     * Схема шарда накатывается при старте теми же миграциями, что и основная БД
+     */
+    @Bean
+    public ShardSet shardSet(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                             @Value("${orders.sharding.urls:}") List<String> urls) {
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            int shard = shardPools.size() + 1;
+            HikariDataSource pool = createPool("shard-" + shard, url.trim(), "orders.sharding.pool.", 10,
+                    properties, environment, meterRegistry);
+            shardPools.add(pool);
+            migrateShard(pool, shard);
+        }
+        return new ShardSet(shardPools);
+    }
+
+    @PreDestroy
+    public void closePools() {
+        primaryPools.forEach(HikariDataSource::close);
+        shardPools.forEach(HikariDataSource::close);
+    }
+
+    private static void migrateShard(HikariDataSource pool, int shard) {
+        Flyway.configure()
+                .dataSource(pool)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        // Hibernate берёт блоки id из последовательности того шарда, где идёт транзакция,
+        // поэтому у каждого шарда свой диапазон
+        long floor = (long) shard << SHARD_ID_BITS;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+        for (String sequence : List.of("orders_seq", "order_contacts_seq")) {
+            jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', GREATEST(last_value, ?)) FROM " + sequence,
+                    Long.class, floor);
+        }
+        log.info("🗄️ [DB] Шард заказов {} готов, id с {}", shard, floor);
+    }
+
+    private HikariDataSource createPool(String name, String url, String prefix, int defaultPoolSize,
+                                        DataSourceProperties properties, Environment environment,
+                                        MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(environment.getProperty(prefix + "maximum-pool-size", Integer.class, defaultPoolSize));
+        pool.setMinimumIdle(environment.getProperty(prefix + "minimum-idle", Integer.class, 1));
+        pool.setConnectionTimeout(environment.getProperty(prefix + "connection-timeout-ms", Long.class, 3000L));
+        // Драйвер склеивает пакет INSERT в многострочные INSERT ... VALUES (...), (...)
+        pool.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+        long statementTimeout = environment.getProperty(prefix + "statement-timeout-ms", Long.class, 0L);
+        if (statementTimeout > 0) {
+            pool.addDataSourceProperty("options", "-c statement_timeout=" + statementTimeout);
+        }
+
+        // hikaricp.connections.* с тегом pool
+        pool.setMetricRegistry(meterRegistry);
+        Gauge.builder("datasource.pool.saturation", pool, DataSourceConfig::saturation)
+                .tag("pool", name)
+                .description("(активные + ожидающие) / размер пула")
+                .register(meterRegistry);
+
+        log.info("🗄️ [DB] Пул {}: до {} соединений, statement_timeout {}", name, pool.getMaximumPoolSize(),
+                statementTimeout > 0 ? statementTimeout + " мс" : "нет");
+        return pool;
+    }
+
+    private static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null) {
+            return 0;
+        }
+        return (double) (mxBean.getActiveConnections() + mxBean.getThreadsAwaitingConnection())
+                / pool.getMaximumPoolSize();
+    }
+}
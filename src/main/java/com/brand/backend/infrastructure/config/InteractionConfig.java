@@ -5,6 +5,8 @@ import com.brand.backend.application.order.service.OrderService;
 import com.brand.backend.application.product.service.ProductService;
 import com.brand.backend.application.nft.service.NFTService;
 import com.brand.backend.application.user.service.UserService;
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -31,7 +33,9 @@ public class InteractionConfig {
     @Bean
     public ApplicationEventMulticaster applicationEventMulticaster() {
         SimpleApplicationEventMulticaster eventMulticaster = new SimpleApplicationEventMulticaster();
-        eventMulticaster.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setTaskDecorator(WorkloadContext.decorator(Workload.BACKGROUND));
+        eventMulticaster.setTaskExecutor(executor);
         return eventMulticaster;
     }
 } 
\ No newline at end of file
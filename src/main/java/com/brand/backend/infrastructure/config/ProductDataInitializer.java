@@ -1,7 +1,9 @@
 package com.brand.backend.infrastructure.config;
 
 import com.brand.backend.domain.product.model.Product;
+import com.brand.backend.domain.product.model.ProductStock;
 import com.brand.backend.domain.product.repository.ProductRepository;
+import com.brand.backend.domain.product.repository.ProductStockRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -12,19 +14,22 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductDataInitializer {
     private final ProductRepository productRepository;
+    private final ProductStockRepository stockRepository;
 
     @PostConstruct
     @Transactional
     public void init() {
         if (productRepository.count() == 0) {
-            Product bloodTShirt = Product.createProduct("RC INCIDENTS", 2999, 100, 100, 100);
+            Product bloodTShirt = Product.createProduct("RC INCIDENTS", 2999);
             bloodTShirt.setSizes(List.of("M", "L", "XL"));
 
-/*            Product baseTShirt = Product.createProduct("Base edition", 2299, 100, 100, 100);
+/*            Product baseTShirt = Product.createProduct("Base edition", 2299);
             baseTShirt.setSizes(List.of("S", "M", "L"));*/
 
             productRepository.save(bloodTShirt);
+            stockRepository.save(ProductStock.of(bloodTShirt.getId(), 100, 100, 100));
 //            productRepository.save(baseTShirt);
+//            stockRepository.save(ProductStock.of(baseTShirt.getId(), 100, 100, 100));
 
         }
     }
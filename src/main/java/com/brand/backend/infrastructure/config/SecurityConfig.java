@@ -1,9 +1,12 @@
 package com.brand.backend.infrastructure.config;
 
+import com.brand.backend.application.auth.service.PasswordHashingService;
 import com.brand.backend.infrastructure.security.jwt.JwtRequestFilter;
 import com.brand.backend.infrastructure.security.filter.ApiKeyAuthFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -11,7 +14,6 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -24,13 +26,17 @@ public class SecurityConfig {
     private final JwtRequestFilter jwtRequestFilter;
     private final UserDetailsService userDetailsService;
     private final ApiKeyAuthFilter apiKeyAuthFilter;
+    private final PasswordHashingService passwordHashingService;
 
     @Value("${api.discord.secret-key}")
     private String discordApiSecretKey;
 
+    /**
+     * Хэшер PasswordHashingService: подобранная стоимость BCrypt и ограниченный пул вместо BCrypt по умолчанию
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return passwordHashingService.asPasswordEncoder();
     }
 
     @Bean
@@ -47,6 +53,16 @@ public class SecurityConfig {
         return provider;
     }
 
+    /**
+     * JWT-фильтр работает только в цепочке Spring Security, не как отдельный сервлетный фильтр
+     */
+    @Bean
+    public FilterRegistrationBean<JwtRequestFilter> jwtRequestFilterRegistration(JwtRequestFilter filter) {
+        FilterRegistrationBean<JwtRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -58,6 +74,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/discord/verify").permitAll()
                         .requestMatchers("/api/discord/check-status").permitAll()
                         .requestMatchers("/api/discord/generate-code").authenticated()
+                        // Метаданные NFT читают кошельки и маркетплейсы без авторизации
+                        .requestMatchers(HttpMethod.GET, "/api/nfts/*/metadata", "/api/nfts/metadata/**").permitAll()
+                        // Обновления Telegram проверяются секретом webhook
+                        .requestMatchers(HttpMethod.POST, "/api/telegram/webhook/*").permitAll()
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
@@ -0,0 +1,36 @@
+package com.brand.backend.infrastructure.integration.blockchain;
+
+import java.util.List;
+
+/**
+ * Адаптер блокчейна для передачи NFT.
+ * Реализация выбирается свойством nft.transfer.chain (по умолчанию simulated).
+ */
+public interface ChainAdapter {
+
+    /**
+     * Отправляет одну транзакцию, передающую пачку NFT на один адрес
+     *
+     * @param destinationAddress адрес получателя
+     * @param tokenIds идентификаторы NFT
+     * @return хеш транзакции
+     * @throws ChainException если транзакцию не удалось отправить
+     */
+    String submitBatchTransfer(String destinationAddress, List<Long> tokenIds);
+
+    /**
+     * Возвращает текущий статус транзакции
+     */
+    TransactionStatus getTransactionStatus(String txHash);
+
+    /**
+     * Текущая цена газа в gwei
+     */
+    long currentGasPriceGwei();
+
+    enum TransactionStatus {
+        PENDING,
+        CONFIRMED,
+        FAILED
+    }
+}
@@ -0,0 +1,12 @@
+package com.brand.backend.infrastructure.integration.blockchain;
+
+public class ChainException extends RuntimeException {
+
+    public ChainException(String message) {
+        super(message);
+    }
+
+    public ChainException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
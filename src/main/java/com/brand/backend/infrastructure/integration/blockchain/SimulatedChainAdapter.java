@@ -0,0 +1,92 @@
+package com.brand.backend.infrastructure.integration.blockchain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Внутрипроцессная имитация блокчейна для тестов и локального запуска.
+ * Задержка подтверждения, доля ошибок отправки и доля неуспешных транзакций настраиваются.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "nft.transfer.chain", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedChainAdapter implements ChainAdapter {
+
+    private final Map<String, SimulatedTransaction> transactions = new ConcurrentHashMap<>();
+
+    private final long submitLatencyMs;
+    private final long confirmationLatencyMs;
+    private final double submitFailureRate;
+    private final double transactionFailureRate;
+    private final long baseGasPriceGwei;
+
+    public SimulatedChainAdapter(
+            @Value("${nft.transfer.simulated.submit-latency-ms:50}") long submitLatencyMs,
+            @Value("${nft.transfer.simulated.confirmation-latency-ms:3000}") long confirmationLatencyMs,
+            @Value("${nft.transfer.simulated.submit-failure-rate:0.0}") double submitFailureRate,
+            @Value("${nft.transfer.simulated.tx-failure-rate:0.0}") double transactionFailureRate,
+            @Value("${nft.transfer.simulated.gas-price-gwei:20}") long baseGasPriceGwei) {
+        this.submitLatencyMs = submitLatencyMs;
+        this.confirmationLatencyMs = confirmationLatencyMs;
+        this.submitFailureRate = submitFailureRate;
+        this.transactionFailureRate = transactionFailureRate;
+        this.baseGasPriceGwei = baseGasPriceGwei;
+    }
+
+    @Override
+    public String submitBatchTransfer(String destinationAddress, List<Long> tokenIds) {
+        sleep(submitLatencyMs);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < submitFailureRate) {
+            throw new ChainException("Simulated RPC failure for " + destinationAddress);
+        }
+
+        String txHash = "0x" + UUID.randomUUID().toString().replace("-", "");
+        boolean willFail = random.nextDouble() < transactionFailureRate;
+        transactions.put(txHash, new SimulatedTransaction(System.currentTimeMillis() + confirmationLatencyMs, willFail));
+        log.debug("[SIMULATED CHAIN] {} NFT -> {}, tx={}", tokenIds.size(), destinationAddress, txHash);
+        return txHash;
+    }
+
+    @Override
+    public TransactionStatus getTransactionStatus(String txHash) {
+        SimulatedTransaction tx = transactions.get(txHash);
+        if (tx == null) {
+            return TransactionStatus.FAILED;
+        }
+        if (System.currentTimeMillis() < tx.confirmAt()) {
+            return TransactionStatus.PENDING;
+        }
+        transactions.remove(txHash);
+        return tx.willFail() ? TransactionStatus.FAILED : TransactionStatus.CONFIRMED;
+    }
+
+    @Override
+    public long currentGasPriceGwei() {
+        // Цена газа колеблется в пределах ±50% от базовой
+        long spread = Math.max(1, baseGasPriceGwei / 2);
+        return baseGasPriceGwei + ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record SimulatedTransaction(long confirmAt, boolean willFail) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.brand.backend.infrastructure.integration.telegram;
+
+import com.brand.backend.infrastructure.cluster.Leadership;
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.LongPollingBot;
+import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
+
+/**
+ * Long polling бота только на ведущем узле: два узла с одним токеном мешали бы друг другу (409 Conflict).
+ * Сессия создаётся заново на каждый срок лидерства; отправка сообщений работает на всех узлах
+ */
+@Slf4j
+public class LeaderBotSession implements Leadership {
+
+    private final LongPollingBot bot;
+    private DefaultBotSession session;
+
+    public LeaderBotSession(LongPollingBot bot) {
+        this.bot = bot;
+    }
+
+    @Override
+    public synchronized void onAcquired(long token) {
+        try {
+            bot.clearWebhook();
+        } catch (TelegramApiException e) {
+            throw new IllegalStateException("Не удалось сбросить webhook бота " + bot.getBotUsername(), e);
+        }
+        session = new DefaultBotSession();
+        session.setToken(bot.getBotToken());
+        session.setOptions(bot.getOptions());
+        session.setCallback(bot);
+        session.start();
+        log.info("🤖 [BOT] Бот {} получает обновления на этом узле (токен лидерства {})", bot.getBotUsername(), token);
+    }
+
+    @Override
+    public synchronized void onRevoked() {
+        if (session == null) {
+            return;
+        }
+        if (session.isRunning()) {
+            session.stop();
+        }
+        session = null;
+        log.info("🤖 [BOT] Бот {} больше не получает обновления на этом узле", bot.getBotUsername());
+    }
+
+    /**
+     * Останавливает polling при закрытии контекста
+     */
+    public void close() {
+        onRevoked();
+    }
+}
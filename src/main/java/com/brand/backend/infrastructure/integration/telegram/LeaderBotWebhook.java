@@ -0,0 +1,47 @@
+package com.brand.backend.infrastructure.integration.telegram;
+
+import com.brand.backend.infrastructure.cluster.Leadership;
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+/**
+ * Регистрация webhook бота ведущим узлом: Telegram отправляет обновления на общий адрес,
+ * принимает их любой узел ({@link TelegramWebhookIngest}). Повторная регистрация новым ведущим безвредна,
+ * при потере лидерства webhook остаётся
+ */
+@Slf4j
+public class LeaderBotWebhook implements Leadership {
+
+    private final TelegramLongPollingBot bot;
+    private final String url;
+    private final TelegramWebhookIngest ingest;
+
+    public LeaderBotWebhook(TelegramLongPollingBot bot, String name, TelegramWebhookIngest ingest) {
+        this.bot = bot;
+        this.url = ingest.webhookUrl(name);
+        this.ingest = ingest;
+        ingest.register(name, bot);
+    }
+
+    @Override
+    public void onAcquired(long token) {
+        SetWebhook setWebhook = SetWebhook.builder()
+                .url(url)
+                .secretToken(ingest.getSecretToken())
+                .maxConnections(ingest.getMaxConnections())
+                .build();
+        try {
+            bot.execute(setWebhook);
+        } catch (TelegramApiException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать webhook бота " + bot.getBotUsername(), e);
+        }
+        log.info("🤖 [BOT] Webhook бота {} зарегистрирован: {}", bot.getBotUsername(), url);
+    }
+
+    @Override
+    public void onRevoked() {
+        // Обновления продолжают приходить на общий адрес
+    }
+}
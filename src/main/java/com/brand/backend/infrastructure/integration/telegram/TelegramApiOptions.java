@@ -0,0 +1,21 @@
+package com.brand.backend.infrastructure.integration.telegram;
+
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+
+/**
+ * Настройки клиентов Bot API. Адрес API меняется на локальную заглушку в нагрузочных и интеграционных прогонах
+ */
+public final class TelegramApiOptions {
+
+    private TelegramApiOptions() {
+    }
+
+    /**
+     * @param baseUrl адрес до токена, например https://api.telegram.org/bot
+     */
+    public static DefaultBotOptions forBaseUrl(String baseUrl) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(baseUrl);
+        return options;
+    }
+}
@@ -0,0 +1,52 @@
+package com.brand.backend.infrastructure.integration.telegram;
+
+import com.brand.backend.domain.user.repository.TelegramChatStateRepository;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Состояния диалогов Telegram-ботов в таблице telegram_chat_states.
+ * <p>
+ * В режиме webhook обновления одного чата могут обработать разные узлы: команда, после которой бот ждёт код,
+ * и сам код. Поэтому состояние хранится в основной БД, а не в памяти узла, и читается с неё же - реплика
+ * может ещё не видеть состояние, записанное предыдущим сообщением. Незавершённый диалог забывается через
+ * ttl-minutes; просроченные строки удаляет фоновая задача.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TelegramChatStateStore {
+
+    private final TelegramChatStateRepository chatStateRepository;
+
+    @Value("${telegram.chat-state.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    public Optional<String> get(String bot, Long chatId) {
+        return WorkloadContext.onPrimary(() -> chatStateRepository.findState(bot, chatId, Instant.now()));
+    }
+
+    public void set(String bot, Long chatId, String state) {
+        chatStateRepository.saveState(bot, chatId, state, Instant.now().plus(Duration.ofMinutes(ttlMinutes)));
+    }
+
+    public void clear(String bot, Long chatId) {
+        chatStateRepository.deleteState(bot, chatId);
+    }
+
+    @Scheduled(fixedDelayString = "${telegram.chat-state.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int removed = chatStateRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.info("🧹 Удалено просроченных состояний диалогов Telegram: {}", removed);
+        }
+    }
+}
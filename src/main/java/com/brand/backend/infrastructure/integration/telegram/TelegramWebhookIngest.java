@@ -0,0 +1,181 @@
+package com.brand.backend.infrastructure.integration.telegram;
+
+import com.brand.backend.common.exeption.ResourceNotFoundException;
+import com.brand.backend.common.exeption.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.generics.LongPollingBot;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Приём обновлений Telegram через webhook для всех ботов.
+ * <p>
+ * Telegram отправляет обновления POST-запросом на {@code <public-url>/api/telegram/webhook/<бот>} с секретом
+ * в заголовке X-Telegram-Bot-Api-Secret-Token. Обновление сразу подтверждается и ставится в ограниченную
+ * очередь одного из обработчиков; обновления одного чата всегда попадают к одному обработчику и
+ * обрабатываются по порядку. При заполненной очереди возвращается 503: Telegram повторит доставку позже.
+ * Webhook регистрирует ведущий узел бота ({@link LeaderBotWebhook}), принимать обновления может любой узел.
+ */
+@Slf4j
+@Component
+public class TelegramWebhookIngest {
+
+    public static final String PATH = "/api/telegram/webhook/";
+    public static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private static final Pattern SECRET_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,256}");
+
+    @Getter
+    private final boolean enabled;
+    private final String publicUrl;
+    @Getter
+    private final String secretToken;
+    @Getter
+    private final int maxConnections;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, LongPollingBot> bots = new ConcurrentHashMap<>();
+    // Обработчики с собственными очередями; чат закреплён за одним из них
+    private final ThreadPoolExecutor[] workers;
+
+    public TelegramWebhookIngest(MeterRegistry meterRegistry,
+                                 @Value("${telegram.webhook.enabled:false}") boolean enabled,
+                                 @Value("${telegram.webhook.public-url:}") String publicUrl,
+                                 @Value("${telegram.webhook.secret-token:}") String secretToken,
+                                 @Value("${telegram.webhook.max-connections:40}") int maxConnections,
+                                 @Value("${telegram.webhook.workers:8}") int workerCount,
+                                 @Value("${telegram.webhook.queue-capacity:1000}") int queueCapacity) {
+        if (enabled && !publicUrl.startsWith("https://")) {
+            throw new IllegalStateException("telegram.webhook.public-url должен начинаться с https://");
+        }
+        if (enabled && !SECRET_PATTERN.matcher(secretToken).matches()) {
+            throw new IllegalStateException("telegram.webhook.secret-token: 1-256 символов A-Z, a-z, 0-9, _ и -");
+        }
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl.substring(0, publicUrl.length() - 1) : publicUrl;
+        this.secretToken = secretToken;
+        this.maxConnections = maxConnections;
+
+        this.workers = new ThreadPoolExecutor[enabled ? workerCount : 0];
+        int perWorker = Math.max(1, queueCapacity / Math.max(1, workerCount));
+        for (int i = 0; i < workers.length; i++) {
+            String name = "TelegramUpdate-" + i;
+            workers[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(perWorker), runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        Gauge.builder("telegram.webhook.queue.size", this, TelegramWebhookIngest::queued)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Подключает бота к приёму обновлений под именем из пути webhook
+     */
+    public void register(String name, LongPollingBot bot) {
+        bots.put(name, bot);
+    }
+
+    /**
+     * Адрес webhook бота, который регистрируется в Telegram
+     */
+    public String webhookUrl(String name) {
+        return publicUrl + PATH + name;
+    }
+
+    /**
+     * Совпадает ли секрет из заголовка с настроенным (сравнение за постоянное время)
+     */
+    public boolean verifySecret(String header) {
+        if (header == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(header.getBytes(StandardCharsets.UTF_8), secretToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ставит обновление в очередь обработки и сразу возвращает управление
+     *
+     * @throws ResourceNotFoundException   webhook выключен или бот не подключён
+     * @throws ServiceOverloadedException  очередь обработчика чата заполнена
+     */
+    public void accept(String name, Update update) {
+        LongPollingBot bot = enabled ? bots.get(name) : null;
+        if (bot == null) {
+            throw new ResourceNotFoundException("Бот не принимает обновления через webhook: " + name);
+        }
+        ThreadPoolExecutor worker = workers[Math.floorMod(Long.hashCode(chatKey(update)), workers.length)];
+        try {
+            worker.execute(() -> process(name, bot, update));
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("telegram.webhook.updates", "bot", name, "result", "rejected").increment();
+            throw new ServiceOverloadedException("Очередь обновлений Telegram заполнена", 1);
+        }
+        meterRegistry.counter("telegram.webhook.updates", "bot", name, "result", "accepted").increment();
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ThreadPoolExecutor worker : workers) {
+            worker.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor worker : workers) {
+                worker.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(String name, LongPollingBot bot, Update update) {
+        try {
+            bot.onUpdateReceived(update);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("telegram.webhook.updates", "bot", name, "result", "failed").increment();
+            log.error("Ошибка обработки обновления {} бота {}: {}", update.getUpdateId(), name, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ключ порядка обработки: чат сообщения, пользователь нажатия кнопки, иначе само обновление
+     */
+    private static long chatKey(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasEditedMessage()) {
+            return update.getEditedMessage().getChatId();
+        }
+        if (update.hasCallbackQuery()) {
+            return update.getCallbackQuery().getFrom().getId();
+        }
+        return update.getUpdateId();
+    }
+
+    private double queued() {
+        long queued = 0;
+        for (ThreadPoolExecutor worker : workers) {
+            queued += worker.getQueue().size();
+        }
+        return queued;
+    }
+}
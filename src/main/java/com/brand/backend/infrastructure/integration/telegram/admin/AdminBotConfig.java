@@ -1,22 +1,33 @@
 package com.brand.backend.infrastructure.integration.telegram.admin;
 
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.cluster.Leadership;
+import com.brand.backend.infrastructure.integration.telegram.LeaderBotSession;
+import com.brand.backend.infrastructure.integration.telegram.LeaderBotWebhook;
+import com.brand.backend.infrastructure.integration.telegram.TelegramWebhookIngest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.telegram.telegrambots.meta.TelegramBotsApi;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
 @Configuration
 @RequiredArgsConstructor
 public class AdminBotConfig {
 
+    public static final String WEBHOOK_NAME = "admin";
+    public static final String LEADER_ROLE = "telegram-admin-bot";
+
     private final AdminTelegramBot adminTelegramBot;
+    private final LeaderElection leaderElection;
 
-    @Bean(name = "adminTelegramBotsApi")
-    public TelegramBotsApi telegramBotsApi() throws TelegramApiException {
-        TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
-        botsApi.registerBot(adminTelegramBot);
-        return botsApi;
+    /**
+     * Получение обновлений на ведущем узле: long polling или регистрация webhook (telegram.webhook.enabled)
+     */
+    @Bean
+    public Leadership adminBotUpdates(TelegramWebhookIngest webhookIngest) {
+        Leadership updates = webhookIngest.isEnabled()
+                ? new LeaderBotWebhook(adminTelegramBot, WEBHOOK_NAME, webhookIngest)
+                : new LeaderBotSession(adminTelegramBot);
+        leaderElection.register(LEADER_ROLE, updates);
+        return updates;
     }
 }
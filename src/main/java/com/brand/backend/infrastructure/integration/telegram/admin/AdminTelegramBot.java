@@ -1,5 +1,6 @@
 package com.brand.backend.infrastructure.integration.telegram.admin;
 
+import com.brand.backend.infrastructure.integration.telegram.admin.handlers.NFTHandler;
 import com.brand.backend.infrastructure.integration.telegram.admin.handlers.OrderHandler;
 import com.brand.backend.infrastructure.integration.telegram.admin.handlers.UserHandler;
 import com.brand.backend.infrastructure.integration.telegram.admin.handlers.PromoCodeHandler;
@@ -10,6 +11,10 @@ import com.brand.backend.domain.order.model.OrderStatus;
 import com.brand.backend.domain.order.repository.OrderRepository;
 import com.brand.backend.domain.user.model.User;
 import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.infrastructure.integration.telegram.TelegramApiOptions;
+import com.brand.backend.infrastructure.integration.telegram.TelegramChatStateStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,7 +33,6 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKe
 import jakarta.annotation.PostConstruct;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,9 +46,13 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
     private final AdminBotService adminBotService;
     private final PromoCodeHandler promoCodeHandler;
     private final ProductHandler productHandler;
+    private final NFTHandler nftHandler;
 
-    // Состояния пользователей (chatId -> UserState)
-    private final Map<String, UserState> userStates = new ConcurrentHashMap<>();
+    // Имя бота в telegram_chat_states
+    private static final String CHAT_STATE_BOT = "admin";
+
+    // Состояния диалогов хранятся в БД: следующее сообщение чата может обработать другой узел
+    private final TelegramChatStateStore chatStateStore;
     
     // Возможные состояния пользователя
     private enum UserState {
@@ -98,23 +106,30 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
     private static final Pattern USER_EMAIL_SEARCH_PATTERN = Pattern.compile("^/email (.+)$");
     // Регулярное выражение для обработки команд вида /phone +79991234567
     private static final Pattern USER_PHONE_SEARCH_PATTERN = Pattern.compile("^/phone (.+)$");
+    // Регулярное выражение для обработки команд вида /nft_reveal_all ipfs://CID/
+    private static final Pattern NFT_REVEAL_ALL_PATTERN = Pattern.compile("^/nft_reveal_all\\s+(\\S+)$");
 
     // Конструктор с инициализацией всех необходимых полей
     public AdminTelegramBot(
             @Value("${admin.bot.token}") String botToken,
+            @Value("${telegram.api.base-url:https://api.telegram.org/bot}") String apiBaseUrl,
             OrderRepository orderRepository,
             OrderHandler orderHandler,
             UserHandler userHandler,
             AdminBotService adminBotService,
             PromoCodeHandler promoCodeHandler,
-            ProductHandler productHandler) {
-        super(botToken);
+            ProductHandler productHandler,
+            NFTHandler nftHandler,
+            TelegramChatStateStore chatStateStore) {
+        super(TelegramApiOptions.forBaseUrl(apiBaseUrl), botToken);
         this.orderRepository = orderRepository;
         this.orderHandler = orderHandler;
         this.userHandler = userHandler;
         this.adminBotService = adminBotService;
         this.promoCodeHandler = promoCodeHandler;
         this.productHandler = productHandler;
+        this.nftHandler = nftHandler;
+        this.chatStateStore = chatStateStore;
     }
 
     @PostConstruct
@@ -141,6 +156,11 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
+        // Запросы админки идут в отдельный пул соединений и не мешают оформлению заказов
+        WorkloadContext.run(Workload.ADMIN, () -> handleUpdate(update));
+    }
+
+    private void handleUpdate(Update update) {
         try {
             // Если получено сообщение с текстом
             if (update.hasMessage() && update.getMessage().hasText()) {
@@ -200,6 +220,7 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
         Matcher userSearchNameMatcher = USER_SEARCH_NAME_PATTERN.matcher(text);
         Matcher userEmailSearchMatcher = USER_EMAIL_SEARCH_PATTERN.matcher(text);
         Matcher userPhoneSearchMatcher = USER_PHONE_SEARCH_PATTERN.matcher(text);
+        Matcher nftRevealAllMatcher = NFT_REVEAL_ALL_PATTERN.matcher(text);
         
         if (orderMatcher.matches()) {
             response = handleOrderCommand(chatId, orderMatcher);
@@ -221,6 +242,8 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
             response = handlePromoCreateCommand(chatId, promoCreateMatcher);
         } else if (promoEditMatcher.matches()) {
             response = handlePromoEditCommand(chatId, promoEditMatcher);
+        } else if (nftRevealAllMatcher.matches()) {
+            response = nftHandler.handleBulkRevealStart(chatId, nftRevealAllMatcher.group(1));
         } else if (userSearchMatcher.find() || userSearchAltMatcher.find()) {
             String query = userSearchMatcher.find() ? userSearchMatcher.group(1) : userSearchAltMatcher.group(1);
             handleUserSearchCommand(chatId, message, "all", query);
@@ -499,10 +522,17 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
      * Обработка callback NFT
      */
     private BotApiMethod<?> handleNftCallback(String chatId, String nftCommand, Integer messageId) {
+        if (nftCommand.startsWith("revealResume:")) {
+            Long jobId = Long.parseLong(nftCommand.substring(13));
+            return nftHandler.handleRevealJobResume(chatId, jobId);
+        }
         return switch (nftCommand) {
             case "all" -> createAllNFTsMessage(chatId);
             case "unrevealed" -> createUnrevealedNFTsMessage(chatId);
             case "searchByUser" -> createNFTSearchMessage(chatId);
+            case "bulkReveal" -> nftHandler.handleBulkRevealForm(chatId);
+            case "revealStatus" -> nftHandler.handleRevealJobStatus(chatId);
+            case "revealPause" -> nftHandler.handleRevealJobPause(chatId);
             default -> createNFTMenuMessage(chatId);
         };
     }
@@ -983,7 +1013,9 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
      * Возвращает текущее состояние пользователя
      */
     private UserState getUserState(String chatId) {
-        return userStates.getOrDefault(chatId, UserState.NONE);
+        return chatStateStore.get(CHAT_STATE_BOT, Long.valueOf(chatId))
+                .map(UserState::valueOf)
+                .orElse(UserState.NONE);
     }
     
     /**
@@ -992,9 +1024,9 @@ public class AdminTelegramBot extends TelegramLongPollingBot {
     private void setUserState(String chatId, UserState state) {
         log.info("Установка состояния для админа {}: {}", chatId, state);
         if (state == UserState.NONE) {
-            userStates.remove(chatId);
+            chatStateStore.clear(CHAT_STATE_BOT, Long.valueOf(chatId));
         } else {
-            userStates.put(chatId, state);
+            chatStateStore.set(CHAT_STATE_BOT, Long.valueOf(chatId), state.name());
         }
     }
 }
@@ -3,6 +3,7 @@ package com.brand.backend.infrastructure.integration.telegram.admin.handlers;
 import com.brand.backend.infrastructure.integration.telegram.admin.keyboards.AdminKeyboards;
 import com.brand.backend.infrastructure.integration.telegram.admin.service.AdminBotService;
 import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTRevealJob;
 import com.brand.backend.domain.user.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -139,6 +140,64 @@ public class NFTHandler extends TelegramLongPollingBot {
         return createNFTListMessage(chatId, userNFTs, "NFT пользователя " + user.getUsername() + " (" + userNFTs.size() + "):");
     }
     
+    /**
+     * Отправляет инструкцию по запуску массового раскрытия
+     */
+    public SendMessage handleBulkRevealForm(String chatId) {
+        long unrevealed = adminBotService.countUnrevealedNFTs();
+        String text = "*🚀 Массовое раскрытие NFT*\n\n" +
+                "Нераскрытых NFT: " + unrevealed + "\n\n" +
+                "Укажите базовый URI манифеста, revealed URI будет сформирован как `<baseUri><id>.json`:\n" +
+                "/nft_reveal_all ipfs://CID/";
+        return createMessage(chatId, text, AdminKeyboards.createBackKeyboard("nft:menu"));
+    }
+
+    /**
+     * Запускает массовое раскрытие NFT
+     */
+    public SendMessage handleBulkRevealStart(String chatId, String baseUri) {
+        log.info("Администратор {} запускает массовое раскрытие NFT: {}", chatId, baseUri);
+        try {
+            NFTRevealJob job = adminBotService.startBulkReveal(baseUri, chatId);
+            return createRevealJobMessage(chatId, job);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return createMessage(chatId, "❌ " + e.getMessage(), AdminKeyboards.createRevealJobKeyboard(adminBotService.getLatestRevealJob()));
+        }
+    }
+
+    /**
+     * Отправляет прогресс последнего задания массового раскрытия
+     */
+    public SendMessage handleRevealJobStatus(String chatId) {
+        NFTRevealJob job = adminBotService.getLatestRevealJob();
+        if (job == null) {
+            return createMessage(chatId, "Задания массового раскрытия не найдены.", AdminKeyboards.createBackKeyboard("nft:menu"));
+        }
+        return createRevealJobMessage(chatId, job);
+    }
+
+    /**
+     * Приостанавливает текущее задание массового раскрытия
+     */
+    public SendMessage handleRevealJobPause(String chatId) {
+        if (!adminBotService.pauseBulkReveal()) {
+            return createMessage(chatId, "Нет выполняющегося задания раскрытия.", AdminKeyboards.createBackKeyboard("nft:menu"));
+        }
+        return createMessage(chatId, "⏸ Задание будет приостановлено после текущей пачки.",
+                AdminKeyboards.createRevealJobKeyboard(adminBotService.getLatestRevealJob()));
+    }
+
+    /**
+     * Продолжает задание массового раскрытия с контрольной точки
+     */
+    public SendMessage handleRevealJobResume(String chatId, Long jobId) {
+        try {
+            return createRevealJobMessage(chatId, adminBotService.resumeBulkReveal(jobId));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return createMessage(chatId, "❌ " + e.getMessage(), AdminKeyboards.createBackKeyboard("nft:menu"));
+        }
+    }
+
     /**
      * Отправляет список всех NFT
      */
@@ -177,6 +236,26 @@ public class NFTHandler extends TelegramLongPollingBot {
         return createMessage(chatId, message.toString(), AdminKeyboards.createBackKeyboard("nft:menu"));
     }
     
+    /**
+     * Создаёт сообщение с прогрессом задания раскрытия
+     */
+    private SendMessage createRevealJobMessage(String chatId, NFTRevealJob job) {
+        int percent = job.getProgressPercent();
+        int filled = percent / 10;
+        String bar = "▓".repeat(filled) + "░".repeat(10 - filled);
+
+        StringBuilder message = new StringBuilder("*📈 Массовое раскрытие #" + job.getId() + "*\n\n");
+        message.append("Статус: ").append(job.getStatus()).append("\n");
+        message.append(bar).append(" ").append(percent).append("%\n");
+        message.append("Раскрыто: ").append(job.getProcessedCount()).append(" из ").append(job.getTotalCount()).append("\n");
+        message.append("Последний ID: ").append(job.getLastProcessedId()).append("\n");
+        if (job.getErrorMessage() != null) {
+            message.append("Ошибка: ").append(job.getErrorMessage()).append("\n");
+        }
+
+        return createMessage(chatId, message.toString(), AdminKeyboards.createRevealJobKeyboard(job));
+    }
+
     /**
      * Создаёт объект сообщения
      */
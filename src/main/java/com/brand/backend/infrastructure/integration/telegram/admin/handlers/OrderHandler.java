@@ -4,7 +4,10 @@ import com.brand.backend.infrastructure.integration.telegram.admin.dto.OrderStat
 import com.brand.backend.infrastructure.integration.telegram.admin.keyboards.AdminKeyboards;
 import com.brand.backend.infrastructure.integration.telegram.admin.service.AdminBotService;
 import com.brand.backend.domain.order.model.Order;
+import com.brand.backend.domain.order.model.OrderContact;
+import com.brand.backend.domain.order.model.OrderHistory;
 import com.brand.backend.domain.order.model.OrderStatus;
+import com.brand.backend.domain.order.model.OrderView;
 import com.brand.backend.domain.user.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,7 +45,7 @@ public class OrderHandler {
      */
     public SendMessage handleAllOrders(String chatId) {
         log.info("Обработка запроса на показ всех заказов для администратора {}", chatId);
-        List<Order> orders = adminBotService.getOrdersByStatus(null);
+        List<OrderHistory> orders = adminBotService.getOrdersByStatus(null);
         
         if (orders.isEmpty()) {
             log.info("Заказы не найдены для администратора {}", chatId);
@@ -52,7 +55,7 @@ public class OrderHandler {
         log.info("Отправка списка всех заказов ({}) администратору {}", orders.size(), chatId);
         return createMessage(
             chatId, 
-            formatOrdersList(orders, "Все заказы (" + orders.size() + "):"), 
+            formatOrdersList(orders, "Все заказы, последние " + orders.size() + ":"), 
             AdminKeyboards.createOrderFiltersKeyboard()
         );
     }
@@ -62,7 +65,7 @@ public class OrderHandler {
      */
     public SendMessage handleOrdersByStatus(String chatId, OrderStatus status) {
         log.info("Обработка запроса на показ заказов со статусом {} для администратора {}", status, chatId);
-        List<Order> orders = adminBotService.getOrdersByStatus(status);
+        List<OrderHistory> orders = adminBotService.getOrdersByStatus(status);
         
         if (orders.isEmpty()) {
             log.info("Заказы со статусом {} не найдены для администратора {}", status, chatId);
@@ -76,7 +79,7 @@ public class OrderHandler {
         log.info("Отправка списка заказов со статусом {} ({}) администратору {}", status, orders.size(), chatId);
         return createMessage(
             chatId, 
-            formatOrdersList(orders, "Заказы со статусом " + status + " (" + orders.size() + "):"), 
+            formatOrdersList(orders, "Заказы со статусом " + status + ", последние " + orders.size() + ":"), 
             AdminKeyboards.createOrderFiltersKeyboard()
         );
     }
@@ -87,11 +90,7 @@ public class OrderHandler {
     public SendMessage handleTodayOrders(String chatId) {
         log.info("Обработка запроса на показ заказов за сегодня для администратора {}", chatId);
         LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MIDNIGHT);
-        List<Order> allOrders = adminBotService.getOrdersByStatus(null);
-        
-        List<Order> todayOrders = allOrders.stream()
-                .filter(order -> order.getCreatedAt().isAfter(startOfDay))
-                .toList();
+        List<OrderHistory> todayOrders = adminBotService.getOrdersSince(startOfDay);
         
         if (todayOrders.isEmpty()) {
             log.info("Заказы за сегодня не найдены для администратора {}", chatId);
@@ -101,7 +100,7 @@ public class OrderHandler {
         log.info("Отправка списка заказов за сегодня ({}) администратору {}", todayOrders.size(), chatId);
         return createMessage(
             chatId, 
-            formatOrdersList(todayOrders, "Заказы за сегодня (" + todayOrders.size() + "):"), 
+            formatOrdersList(todayOrders, "Заказы за сегодня, последние " + todayOrders.size() + ":"), 
             AdminKeyboards.createOrderFiltersKeyboard()
         );
     }
@@ -112,11 +111,7 @@ public class OrderHandler {
     public SendMessage handleWeekOrders(String chatId) {
         log.info("Обработка запроса на показ заказов за неделю для администратора {}", chatId);
         LocalDateTime startOfWeek = LocalDateTime.now().minusDays(7);
-        List<Order> allOrders = adminBotService.getOrdersByStatus(null);
-        
-        List<Order> weekOrders = allOrders.stream()
-                .filter(order -> order.getCreatedAt().isAfter(startOfWeek))
-                .toList();
+        List<OrderHistory> weekOrders = adminBotService.getOrdersSince(startOfWeek);
         
         if (weekOrders.isEmpty()) {
             log.info("Заказы за неделю не найдены для администратора {}", chatId);
@@ -126,7 +121,7 @@ public class OrderHandler {
         log.info("Отправка списка заказов за неделю ({}) администратору {}", weekOrders.size(), chatId);
         return createMessage(
             chatId, 
-            formatOrdersList(weekOrders, "Заказы за неделю (" + weekOrders.size() + "):"), 
+            formatOrdersList(weekOrders, "Заказы за неделю, последние " + weekOrders.size() + ":"), 
             AdminKeyboards.createOrderFiltersKeyboard()
         );
     }
@@ -137,11 +132,7 @@ public class OrderHandler {
     public SendMessage handleMonthOrders(String chatId) {
         log.info("Обработка запроса на показ заказов за месяц для администратора {}", chatId);
         LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        List<Order> allOrders = adminBotService.getOrdersByStatus(null);
-        
-        List<Order> monthOrders = allOrders.stream()
-                .filter(order -> order.getCreatedAt().isAfter(startOfMonth))
-                .toList();
+        List<OrderHistory> monthOrders = adminBotService.getOrdersSince(startOfMonth);
         
         if (monthOrders.isEmpty()) {
             log.info("Заказы за месяц не найдены для администратора {}", chatId);
@@ -151,7 +142,7 @@ public class OrderHandler {
         log.info("Отправка списка заказов за месяц ({}) администратору {}", monthOrders.size(), chatId);
         return createMessage(
             chatId, 
-            formatOrdersList(monthOrders, "Заказы за месяц (" + monthOrders.size() + "):"), 
+            formatOrdersList(monthOrders, "Заказы за месяц, последние " + monthOrders.size() + ":"), 
             AdminKeyboards.createOrderFiltersKeyboard()
         );
     }
@@ -160,7 +151,7 @@ public class OrderHandler {
      * Отправляет сообщение с детальной информацией о заказе
      */
     public SendMessage handleOrderDetails(String chatId, Long orderId) {
-        Order order = adminBotService.getOrderById(orderId);
+        OrderView order = adminBotService.getOrderById(orderId);
         
         if (order == null) {
             return createMessage(chatId, "Заказ не найден.");
@@ -236,7 +227,7 @@ public class OrderHandler {
      * Отправляет сообщение со статистикой продаж по дням
      */
     public SendMessage handleDailyStatistics(String chatId) {
-        Map<LocalDate, List<Order>> ordersByDay = adminBotService.getOrdersByDays();
+        Map<LocalDate, List<OrderHistory>> ordersByDay = adminBotService.getOrdersByDays();
         
         if (ordersByDay.isEmpty()) {
             return createMessage(chatId, "Нет данных о заказах за текущий месяц.", AdminKeyboards.createBackKeyboard("stats:general"));
@@ -244,15 +235,15 @@ public class OrderHandler {
         
         StringBuilder message = new StringBuilder("📊 *Статистика продаж по дням:*\n\n");
         
-        for (Map.Entry<LocalDate, List<Order>> entry : ordersByDay.entrySet().stream()
-                .sorted(Map.Entry.<LocalDate, List<Order>>comparingByKey().reversed())
+        for (Map.Entry<LocalDate, List<OrderHistory>> entry : ordersByDay.entrySet().stream()
+                .sorted(Map.Entry.<LocalDate, List<OrderHistory>>comparingByKey().reversed())
                 .toList()) {
             
             LocalDate date = entry.getKey();
-            List<Order> orders = entry.getValue();
+            List<OrderHistory> orders = entry.getValue();
             
             BigDecimal dailyRevenue = BigDecimal.ZERO;
-            for (Order order : orders) {
+            for (OrderHistory order : orders) {
                 dailyRevenue = dailyRevenue.add(BigDecimal.valueOf(order.getPrice()));
             }
             
@@ -274,7 +265,7 @@ public class OrderHandler {
             return createMessage(chatId, "Пользователь не найден.");
         }
         
-        List<Order> userOrders = adminBotService.getOrdersByUser(user);
+        List<OrderHistory> userOrders = adminBotService.getOrdersByUser(user);
         
         if (userOrders.isEmpty()) {
             return createMessage(
@@ -305,10 +296,10 @@ public class OrderHandler {
         
         for (int i = 0; i < topUsers.size(); i++) {
             User user = topUsers.get(i);
-            List<Order> userOrders = adminBotService.getOrdersByUser(user);
+            List<OrderHistory> userOrders = adminBotService.getOrdersByUser(user);
             
             BigDecimal totalSpent = BigDecimal.ZERO;
-            for (Order order : userOrders) {
+            for (OrderHistory order : userOrders) {
                 totalSpent = totalSpent.add(BigDecimal.valueOf(order.getPrice()));
             }
             
@@ -340,7 +331,7 @@ public class OrderHandler {
     public SendMessage handleOrderSearch(String chatId, String query) {
         log.info("Обработка поиска заказа с запросом: {}", query);
         query = query.trim().toLowerCase();
-        List<Order> orders = new ArrayList<>();
+        List<? extends OrderView> orders = new ArrayList<>();
 
         if (query.startsWith("#")) {
             String orderNumber = query.substring(1);
@@ -354,7 +345,7 @@ public class OrderHandler {
         } else {
             try {
                 long orderId = Long.parseLong(query);
-                Order order = adminBotService.getOrderById(orderId);
+                OrderView order = adminBotService.getOrderById(orderId);
                 if (order != null) {
                     orders = List.of(order);
                 }
@@ -379,10 +370,12 @@ public class OrderHandler {
     /**
      * Форматирует список заказов
      */
-    private String formatOrdersList(List<Order> orders, String title) {
+    private String formatOrdersList(List<? extends OrderView> orders, String title) {
         StringBuilder message = new StringBuilder("*" + title + "*\n\n");
+        Map<Long, String> productNames = adminBotService.getProductNames(orders);
+        Map<Long, String> usernames = adminBotService.getUsernames(orders);
         
-        for (Order order : orders) {
+        for (OrderView order : orders) {
             message.append("🔹 ").append(getStatusEmoji(order.getStatus()))
                   .append(" #").append(order.getOrderNumber());
             
@@ -391,10 +384,10 @@ public class OrderHandler {
             }
             
             message.append("\n");
-            message.append("📦 Товар: ").append(escapeMarkdown(order.getProduct().getName()))
+            message.append("📦 Товар: ").append(escapeMarkdown(productNames.getOrDefault(order.getProductId(), "-")))
                   .append(", Размер: ").append(order.getSize())
                   .append(", Цена: ").append(order.getPrice()).append(" RUB\n");
-            message.append("👤 Клиент: ").append(escapeMarkdown(order.getUser().getUsername())).append("\n");
+            message.append("👤 Клиент: ").append(escapeMarkdown(usernames.getOrDefault(order.getUserId(), "-"))).append("\n");
             message.append("/order\\_").append(order.getId()).append(" - подробнее\n\n");
         }
         
@@ -404,33 +397,35 @@ public class OrderHandler {
     /**
      * Форматирует детальную информацию о заказе
      */
-    private String formatOrderDetails(Order order) {
+    private String formatOrderDetails(OrderView order) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+        OrderContact contact = order.getContact();
+        String productName = adminBotService.getProductNames(List.of(order)).getOrDefault(order.getProductId(), "-");
         
         StringBuilder message = new StringBuilder();
         message.append("*Заказ #").append(order.getOrderNumber()).append("*\n\n");
         
         message.append("*Статус:* ").append(getStatusEmoji(order.getStatus())).append(" ").append(order.getStatus()).append("\n");
         message.append("*ID заказа:* ").append(order.getId()).append("\n");
-        message.append("*Продукт:* ").append(escapeMarkdown(order.getProduct().getName())).append("\n");
+        message.append("*Продукт:* ").append(escapeMarkdown(productName)).append("\n");
         message.append("*Размер:* ").append(order.getSize()).append("\n");
         message.append("*Количество:* ").append(order.getQuantity()).append("\n");
         message.append("*Цена:* ").append(order.getPrice()).append(" RUB\n\n");
         
         message.append("*Контакты:*\n");
-        message.append("   *Email:* ").append(escapeMarkdown(order.getEmail())).append("\n");
-        message.append("   *Телефон:* ").append(escapeMarkdown(order.getPhoneNumber())).append("\n\n");
+        message.append("   *Email:* ").append(escapeMarkdown(contact.getEmail())).append("\n");
+        message.append("   *Телефон:* ").append(escapeMarkdown(contact.getPhoneNumber())).append("\n\n");
         
         message.append("*Доставка:*\n");
-        message.append("   *Полное имя:* ").append(escapeMarkdown(order.getFullName())).append("\n");
-        message.append("   *Страна:* ").append(escapeMarkdown(order.getCountry())).append("\n");
-        message.append("   *Адрес:* ").append(escapeMarkdown(order.getAddress())).append("\n");
-        message.append("   *Почтовый индекс:* ").append(escapeMarkdown(order.getPostalCode())).append("\n\n");
+        message.append("   *Полное имя:* ").append(escapeMarkdown(contact.getFullName())).append("\n");
+        message.append("   *Страна:* ").append(escapeMarkdown(contact.getCountry())).append("\n");
+        message.append("   *Адрес:* ").append(escapeMarkdown(contact.getAddress())).append("\n");
+        message.append("   *Почтовый индекс:* ").append(escapeMarkdown(contact.getPostalCode())).append("\n\n");
         
         message.append("*Дополнительно:*\n");
-        message.append("   *Telegram:* ").append(order.getTelegramUsername() != null ? escapeMarkdown(order.getTelegramUsername()) : "-").append("\n");
-        message.append("   *Crypto адрес:* ").append(order.getCryptoAddress() != null ? escapeMarkdown(order.getCryptoAddress()) : "-").append("\n");
-        message.append("   *Комментарий:* ").append(order.getOrderComment() != null ? escapeMarkdown(order.getOrderComment()) : "-").append("\n");
+        message.append("   *Telegram:* ").append(contact.getTelegramUsername() != null ? escapeMarkdown(contact.getTelegramUsername()) : "-").append("\n");
+        message.append("   *Crypto адрес:* ").append(contact.getCryptoAddress() != null ? escapeMarkdown(contact.getCryptoAddress()) : "-").append("\n");
+        message.append("   *Комментарий:* ").append(contact.getOrderComment() != null ? escapeMarkdown(contact.getOrderComment()) : "-").append("\n");
         message.append("   *Промо код:* ").append(order.getPromoCode() != null ? escapeMarkdown(order.getPromoCode()) : "-").append("\n");
         message.append("   *Способ оплаты:* ").append(escapeMarkdown(order.getPaymentMethod())).append("\n\n");
         
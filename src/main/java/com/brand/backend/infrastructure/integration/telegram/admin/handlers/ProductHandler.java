@@ -8,6 +8,7 @@ import com.brand.backend.application.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 
 import java.util.List;
@@ -37,7 +38,7 @@ public class ProductHandler {
      * Обрабатывает команду отображения всех товаров
      */
     public SendMessage handleAllProducts(String chatId) {
-        List<Product> products = productRepository.findAll();
+        List<Product> products = productService.getAllProducts();
         
         if (products.isEmpty()) {
             return createMessage(chatId, "*👕 Товары*\n\nНет доступных товаров.", AdminKeyboards.createProductsKeyboard());
@@ -71,7 +72,7 @@ public class ProductHandler {
      * Обрабатывает поиск товара
      */
     public SendMessage handleProductSearch(String chatId, String query) {
-        List<Product> products = productRepository.findAll()
+        List<Product> products = productService.getAllProducts()
                 .stream()
                 .filter(p -> p.getName().toLowerCase().contains(query.toLowerCase()))
                 .toList();
@@ -95,7 +96,7 @@ public class ProductHandler {
      * Обрабатывает отображение деталей товара
      */
     public SendMessage handleProductDetails(String chatId, Long productId) {
-        Optional<Product> productOpt = productRepository.findById(productId);
+        Optional<Product> productOpt = productService.getProductById(productId);
         
         if (productOpt.isEmpty()) {
             return createMessage(chatId, "❌ Товар не найден.", AdminKeyboards.createBackKeyboard("product:all"));
@@ -136,6 +137,7 @@ public class ProductHandler {
     /**
      * Обрабатывает изменение цены товара
      */
+    @Transactional
     public SendMessage handleUpdatePrice(String chatId, Long productId, String priceText) {
         Optional<Product> productOpt = productRepository.findById(productId);
         
@@ -173,7 +175,7 @@ public class ProductHandler {
      * Обрабатывает запрос обновления запасов товара
      */
     public SendMessage handleUpdateStockRequest(String chatId, Long productId) {
-        Optional<Product> productOpt = productRepository.findById(productId);
+        Optional<Product> productOpt = productService.getProductById(productId);
         
         if (productOpt.isEmpty()) {
             return createMessage(chatId, "❌ Товар не найден.", AdminKeyboards.createBackKeyboard("product:all"));
@@ -196,9 +198,9 @@ public class ProductHandler {
                 
                 где числа - количество товаров размеров S, M и L соответственно.
                 """, product.getName(), 
-                product.getAvailableQuantityS(), 
-                product.getAvailableQuantityM(), 
-                product.getAvailableQuantityL(),
+                product.getStock().getAvailableQuantityS(), 
+                product.getStock().getAvailableQuantityM(), 
+                product.getStock().getAvailableQuantityL(),
                 product.getId());
         
         return createMessage(chatId, text, AdminKeyboards.createBackKeyboard("product:details:" + productId));
@@ -207,8 +209,9 @@ public class ProductHandler {
     /**
      * Обрабатывает обновление запасов товара
      */
+    @Transactional
     public SendMessage handleUpdateStock(String chatId, Long productId, String stockText) {
-        Optional<Product> productOpt = productRepository.findById(productId);
+        Optional<Product> productOpt = productService.getProductById(productId);
         
         if (productOpt.isEmpty()) {
             return createMessage(chatId, "❌ Товар не найден.", AdminKeyboards.createBackKeyboard("product:all"));
@@ -226,14 +229,11 @@ public class ProductHandler {
         int quantityL = Integer.parseInt(matcher.group(3));
         
         Product product = productOpt.get();
-        int oldS = product.getAvailableQuantityS();
-        int oldM = product.getAvailableQuantityM();
-        int oldL = product.getAvailableQuantityL();
+        int oldS = product.getStock().getAvailableQuantityS();
+        int oldM = product.getStock().getAvailableQuantityM();
+        int oldL = product.getStock().getAvailableQuantityL();
         
-        product.setAvailableQuantityS(quantityS);
-        product.setAvailableQuantityM(quantityM);
-        product.setAvailableQuantityL(quantityL);
-        productRepository.save(product);
+        productService.updateProductStock(productId, quantityS, quantityM, quantityL);
         
         String text = String.format("""
                 ✅ Запасы товара обновлены!
@@ -306,9 +306,9 @@ public class ProductHandler {
                 M: *%d* шт.
                 L: *%d* шт.
                 """, product.getName(), product.getPrice(), 
-                product.getAvailableQuantityS(), 
-                product.getAvailableQuantityM(), 
-                product.getAvailableQuantityL());
+                product.getStock().getAvailableQuantityS(), 
+                product.getStock().getAvailableQuantityM(), 
+                product.getStock().getAvailableQuantityL());
         
         return createMessage(chatId, text, AdminKeyboards.createProductDetailsKeyboard(product.getId()));
     }
@@ -324,7 +324,7 @@ public class ProductHandler {
         result.append("*").append(escapedName).append("*\n");
         result.append("💰 Цена: ").append(String.format("%.2f", product.getPrice())).append("\n");
         
-        int totalQuantity = product.getAvailableQuantityS() + product.getAvailableQuantityM() + product.getAvailableQuantityL();
+        int totalQuantity = product.getStock().getTotalQuantity();
         result.append("📦 В наличии: ").append(totalQuantity).append(" шт.\n");
         
         result.append("👁 /product\\_").append(product.getId());
@@ -356,11 +356,11 @@ public class ProductHandler {
         result.append("\n\n");
         
         result.append("*Количество в наличии:*\n");
-        result.append("S: ").append(product.getAvailableQuantityS()).append(" шт.\n");
-        result.append("M: ").append(product.getAvailableQuantityM()).append(" шт.\n");
-        result.append("L: ").append(product.getAvailableQuantityL()).append(" шт.\n\n");
+        result.append("S: ").append(product.getStock().getAvailableQuantityS()).append(" шт.\n");
+        result.append("M: ").append(product.getStock().getAvailableQuantityM()).append(" шт.\n");
+        result.append("L: ").append(product.getStock().getAvailableQuantityL()).append(" шт.\n\n");
         
-        int totalQuantity = product.getAvailableQuantityS() + product.getAvailableQuantityM() + product.getAvailableQuantityL();
+        int totalQuantity = product.getStock().getTotalQuantity();
         result.append("*Всего в наличии:* ").append(totalQuantity).append(" шт.\n");
         
         return result.toString();
@@ -417,7 +417,7 @@ public class ProductHandler {
      * Обрабатывает запрос на удаление товара
      */
     public SendMessage handleDeleteProductRequest(String chatId, Long productId) {
-        Optional<Product> productOpt = productRepository.findById(productId);
+        Optional<Product> productOpt = productService.getProductById(productId);
         
         if (productOpt.isEmpty()) {
             return createMessage(chatId, "❌ Товар не найден.", AdminKeyboards.createBackKeyboard("product:all"));
@@ -439,9 +439,9 @@ public class ProductHandler {
                 M: *%d* шт.
                 L: *%d* шт.
                 """, product.getName(), product.getPrice(),
-                product.getAvailableQuantityS(),
-                product.getAvailableQuantityM(),
-                product.getAvailableQuantityL());
+                product.getStock().getAvailableQuantityS(),
+                product.getStock().getAvailableQuantityM(),
+                product.getStock().getAvailableQuantityL());
         
         return createMessage(chatId, text, AdminKeyboards.createConfirmKeyboard("product:delete", productId.toString()));
     }
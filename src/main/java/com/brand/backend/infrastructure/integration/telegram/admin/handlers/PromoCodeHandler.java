@@ -231,7 +231,7 @@ public class PromoCodeHandler {
         result.append(promoCode.getDiscountPercent()).append("%\n");
         
         result.append(promoCode.isActive() ? "✅ Активен" : "❌ Неактивен");
-        result.append(" | Использован: ").append(promoCode.getUsedCount()).append("/").append(promoCode.getMaxUses());
+        result.append(" | Использован: ").append(promoCodeService.getUsedCount(promoCode.getId())).append("/").append(promoCode.getMaxUses());
         
         result.append("\n👁 /promo\\_").append(promoCode.getId());
         
@@ -247,7 +247,7 @@ public class PromoCodeHandler {
         result.append("*Код:* `").append(promoCode.getCode()).append("`\n");
         result.append("*Скидка:* ").append(promoCode.getDiscountPercent()).append("%\n");
         result.append("*Статус:* ").append(promoCode.isActive() ? "✅ Активен" : "❌ Неактивен").append("\n");
-        result.append("*Использований:* ").append(promoCode.getUsedCount()).append("/").append(promoCode.getMaxUses()).append("\n");
+        result.append("*Использований:* ").append(promoCodeService.getUsedCount(promoCode.getId())).append("/").append(promoCode.getMaxUses()).append("\n");
         
         if (promoCode.getStartDate() != null) {
             result.append("*Действует с:* ").append(promoCode.getStartDate().format(formatter)).append("\n");
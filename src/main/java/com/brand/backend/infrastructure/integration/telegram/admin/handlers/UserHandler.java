@@ -1,7 +1,7 @@
 package com.brand.backend.infrastructure.integration.telegram.admin.handlers;
 
 import com.brand.backend.infrastructure.integration.telegram.admin.service.AdminBotService;
-import com.brand.backend.domain.order.model.Order;
+import com.brand.backend.domain.order.model.OrderHistory;
 import com.brand.backend.domain.user.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,7 +49,7 @@ public class UserHandler {
             
             message.append("\n");
             
-            List<Order> userOrders = adminBotService.getOrdersByUser(user);
+            List<OrderHistory> userOrders = adminBotService.getOrdersByUser(user);
             message.append("📝 Заказов: ").append(userOrders.size()).append("\n");
             
             if (user.getTelegramUsername() != null) {
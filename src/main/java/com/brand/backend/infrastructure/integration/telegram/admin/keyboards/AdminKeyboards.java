@@ -1,7 +1,9 @@
 package com.brand.backend.infrastructure.integration.telegram.admin.keyboards;
 
-import com.brand.backend.domain.order.model.Order;
+import com.brand.backend.domain.nft.model.NFTRevealJob;
+import com.brand.backend.domain.nft.model.NFTRevealJobStatus;
 import com.brand.backend.domain.order.model.OrderStatus;
+import com.brand.backend.domain.order.model.OrderView;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
@@ -92,7 +94,7 @@ public class AdminKeyboards {
     /**
      * Создаёт клавиатуру для изменения статуса заказа
      */
-    public static InlineKeyboardMarkup createStatusKeyboard(Order order) {
+    public static InlineKeyboardMarkup createStatusKeyboard(OrderView order) {
         List<List<InlineKeyboardButton>> rows = new ArrayList<>();
         
         for (OrderStatus status : OrderStatus.values()) {
@@ -107,12 +109,12 @@ public class AdminKeyboards {
         
         // Добавляем кнопку для отображения деталей пользователя
         List<InlineKeyboardButton> userRow = new ArrayList<>();
-        userRow.add(createButton("👤 Информация о клиенте", "viewUser:" + order.getUser().getId()));
+        userRow.add(createButton("👤 Информация о клиенте", "viewUser:" + order.getUserId()));
         rows.add(userRow);
         
         // Добавляем кнопку для поиска других заказов этого пользователя
         List<InlineKeyboardButton> userOrdersRow = new ArrayList<>();
-        userOrdersRow.add(createButton("🧾 Заказы клиента", "userOrders:" + order.getUser().getId()));
+        userOrdersRow.add(createButton("🧾 Заказы клиента", "userOrders:" + order.getUserId()));
         rows.add(userOrdersRow);
         
         InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
@@ -156,6 +158,35 @@ public class AdminKeyboards {
         row2.add(createButton("🔍 Поиск по владельцу", "nft:searchByUser"));
         rows.add(row2);
         
+        List<InlineKeyboardButton> row3 = new ArrayList<>();
+        row3.add(createButton("🚀 Массовое раскрытие", "nft:bulkReveal"));
+        row3.add(createButton("📈 Прогресс раскрытия", "nft:revealStatus"));
+        rows.add(row3);
+        
+        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
+        markup.setKeyboard(rows);
+        return markup;
+    }
+    
+    /**
+     * Создаёт клавиатуру для задания массового раскрытия NFT
+     */
+    public static InlineKeyboardMarkup createRevealJobKeyboard(NFTRevealJob job) {
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
+        
+        List<InlineKeyboardButton> row1 = new ArrayList<>();
+        row1.add(createButton("🔄 Обновить", "nft:revealStatus"));
+        if (job != null && job.getStatus() == NFTRevealJobStatus.RUNNING) {
+            row1.add(createButton("⏸ Пауза", "nft:revealPause"));
+        } else if (job != null && (job.getStatus() == NFTRevealJobStatus.PAUSED || job.getStatus() == NFTRevealJobStatus.FAILED)) {
+            row1.add(createButton("▶️ Продолжить", "nft:revealResume:" + job.getId()));
+        }
+        rows.add(row1);
+        
+        List<InlineKeyboardButton> row2 = new ArrayList<>();
+        row2.add(createButton("◀️ Назад", "nft:menu"));
+        rows.add(row2);
+        
         InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
         markup.setKeyboard(rows);
         return markup;
@@ -2,32 +2,51 @@ package com.brand.backend.infrastructure.integration.telegram.admin.service;
 
 import com.brand.backend.infrastructure.integration.telegram.admin.dto.OrderStatisticsDto;
 import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTRevealJob;
 import com.brand.backend.domain.order.model.Order;
+import com.brand.backend.domain.order.model.OrderHistory;
 import com.brand.backend.domain.order.model.OrderStatus;
+import com.brand.backend.domain.order.model.OrderView;
 import com.brand.backend.domain.product.model.Product;
+import com.brand.backend.domain.user.event.UserEvent;
 import com.brand.backend.domain.user.model.User;
 import com.brand.backend.domain.nft.repository.NFTRepository;
+import com.brand.backend.domain.order.repository.OrderHistoryRepository;
 import com.brand.backend.domain.order.repository.OrderRepository;
 import com.brand.backend.domain.product.repository.ProductRepository;
 import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.application.nft.service.NFTRevealJobService;
 import com.brand.backend.application.nft.service.NFTService;
 import com.brand.backend.application.order.service.OrderService;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.infrastructure.persistence.sharding.OrderShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * Сервис для обработки запросов от административного бота
+ * Сервис для обработки запросов от административного бота.
+ * Списки, поиск и отчёты по заказам читаются из order_history (живые заказы и архив)
+ * на всех шардах заказов: списки сливаются по дате, агрегаты суммируются.
  */
 @Service
 @Slf4j
@@ -35,17 +54,27 @@ import java.util.stream.Collectors;
 public class AdminBotService {
 
     private final OrderRepository orderRepository;
+    private final OrderHistoryRepository orderHistoryRepository;
     private final UserRepository userRepository;
     private final NFTRepository nftRepository;
     private final ProductRepository productRepository;
     private final OrderService orderService;
     private final NFTService nftService;
+    private final NFTRevealJobService nftRevealJobService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderShardRouter shardRouter;
+
+    // Списки заказов в боте: сообщение Telegram ограничено 4096 символами
+    public static final int ORDER_LIST_LIMIT = 20;
+
+    private static final Comparator<OrderHistory> NEWEST_FIRST =
+            Comparator.comparing(OrderHistory::getCreatedAt).reversed();
 
     /**
      * Получает заказ по ID
      */
-    public Order getOrderById(Long orderId) {
-        return orderRepository.findById(orderId).orElse(null);
+    public OrderView getOrderById(Long orderId) {
+        return shardRouter.findAny(() -> orderHistoryRepository.findWithContactById(orderId)).orElse(null);
     }
     
     /**
@@ -55,93 +84,101 @@ public class AdminBotService {
         return userRepository.findById(userId).orElse(null);
     }
     
+    /**
+     * Названия товаров заказов по id товара (товары лежат в основной БД, заказы - на шардах)
+     */
+    public Map<Long, String> getProductNames(List<? extends OrderView> orders) {
+        Set<Long> ids = orders.stream().map(OrderView::getProductId).collect(Collectors.toSet());
+        return productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName));
+    }
+
+    /**
+     * Имена покупателей заказов по id пользователя
+     */
+    public Map<Long, String> getUsernames(List<? extends OrderView> orders) {
+        Set<Long> ids = orders.stream().map(OrderView::getUserId).collect(Collectors.toSet());
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+    }
+
     /**
      * Получает заказы пользователя
      */
-    public List<Order> getOrdersByUser(User user) {
-        return orderRepository.findByUser(user);
+    public List<OrderHistory> getOrdersByUser(User user) {
+        return shardRouter.queryUser(user.getId(),
+                () -> orderHistoryRepository.findByUserIdOrderByCreatedAtDesc(user.getId()), NEWEST_FIRST);
     }
 
     /**
      * Получает статистику по заказам
      */
     public OrderStatisticsDto getOrderStatistics() {
-        List<Order> allOrders = orderRepository.findAll();
-        
-        // Рассчитываем основные метрики
+        // Рассчитываем основные метрики агрегатами в БД
         BigDecimal totalRevenue = BigDecimal.ZERO;
-        int totalCompletedOrders = 0;
-        int totalCancelledOrders = 0;
-        int newOrders = 0;
-        int processingOrders = 0;
-        int dispatchedOrders = 0;
-        int completedOrders = 0;
-        int cancelledOrders = 0;
+        int totalOrders = 0;
+        Map<OrderStatus, Integer> ordersByStatus = new HashMap<>();
         
-        for (Order order : allOrders) {
-            // Добавляем к общей выручке
-            totalRevenue = totalRevenue.add(BigDecimal.valueOf(order.getPrice()));
-            
-            // Подсчитываем заказы по статусам
-            switch (order.getStatus()) {
-                case NEW -> newOrders++;
-                case PROCESSING -> processingOrders++;
-                case DISPATCHED -> dispatchedOrders++;
-                case COMPLETED -> {
-                    completedOrders++;
-                    totalCompletedOrders++;
-                }
-                case CANCELLED -> {
-                    cancelledOrders++;
-                    totalCancelledOrders++;
-                }
-            }
+        for (Object[] row : collect(orderHistoryRepository::summarizeByStatus)) {
+            int count = ((Number) row[1]).intValue();
+            ordersByStatus.merge((OrderStatus) row[0], count, Integer::sum);
+            totalOrders += count;
+            totalRevenue = totalRevenue.add(BigDecimal.valueOf(((Number) row[2]).doubleValue()));
         }
         
+        int completedOrders = ordersByStatus.getOrDefault(OrderStatus.COMPLETED, 0);
+        int cancelledOrders = ordersByStatus.getOrDefault(OrderStatus.CANCELLED, 0);
+        
         // Временные рамки для статистики по периодам
         LocalDateTime today = LocalDateTime.of(LocalDate.now(), LocalTime.MIDNIGHT);
         LocalDateTime startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
         LocalDateTime startOfMonth = today.withDayOfMonth(1);
         
-        // Фильтруем заказы по периодам
-        int ordersToday = (int) allOrders.stream().filter(order -> order.getCreatedAt().isAfter(today)).count();
-        int ordersThisWeek = (int) allOrders.stream().filter(order -> order.getCreatedAt().isAfter(startOfWeek)).count();
-        int ordersThisMonth = (int) allOrders.stream().filter(order -> order.getCreatedAt().isAfter(startOfMonth)).count();
-        
         // Среднее значение заказа
-        BigDecimal averageOrderValue = allOrders.isEmpty() 
+        BigDecimal averageOrderValue = totalOrders == 0
             ? BigDecimal.ZERO 
-            : totalRevenue.divide(BigDecimal.valueOf(allOrders.size()), 2, RoundingMode.HALF_UP);
+            : totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP);
         
         // Создаем и возвращаем DTO со статистикой
         return OrderStatisticsDto.builder()
-                .totalOrders(allOrders.size())
+                .totalOrders(totalOrders)
                 .totalRevenue(totalRevenue)
-                .totalCompletedOrders(totalCompletedOrders)
-                .totalCancelledOrders(totalCancelledOrders)
-                .newOrders(newOrders)
-                .processingOrders(processingOrders)
-                .dispatchedOrders(dispatchedOrders)
+                .totalCompletedOrders(completedOrders)
+                .totalCancelledOrders(cancelledOrders)
+                .newOrders(ordersByStatus.getOrDefault(OrderStatus.NEW, 0))
+                .processingOrders(ordersByStatus.getOrDefault(OrderStatus.PROCESSING, 0))
+                .dispatchedOrders(ordersByStatus.getOrDefault(OrderStatus.DISPATCHED, 0))
                 .completedOrders(completedOrders)
                 .cancelledOrders(cancelledOrders)
-                .ordersToday(ordersToday)
-                .ordersThisWeek(ordersThisWeek)
-                .ordersThisMonth(ordersThisMonth)
+                .ordersToday(countOrdersAfter(today))
+                .ordersThisWeek(countOrdersAfter(startOfWeek))
+                .ordersThisMonth(countOrdersAfter(startOfMonth))
                 .averageOrderValue(averageOrderValue)
                 .build();
     }
     
     /**
-     * Получает заказы по статусу
+     * Получает последние заказы по статусу (null - все статусы)
      */
-    public List<Order> getOrdersByStatus(OrderStatus status) {
+    public List<OrderHistory> getOrdersByStatus(OrderStatus status) {
         if (status == null) {
-            return orderRepository.findAll();
+            return shardRouter.scatterGather(
+                    limit -> orderHistoryRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, limit)),
+                    NEWEST_FIRST, ORDER_LIST_LIMIT);
         }
         
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getStatus() == status)
-                .collect(Collectors.toList());
+        return shardRouter.scatterGather(
+                limit -> orderHistoryRepository.findByStatusOrderByCreatedAtDesc(status, PageRequest.of(0, limit)),
+                NEWEST_FIRST, ORDER_LIST_LIMIT);
+    }
+
+    /**
+     * Получает последние заказы, созданные после указанного момента (новые первыми)
+     */
+    public List<OrderHistory> getOrdersSince(LocalDateTime from) {
+        return shardRouter.scatterGather(
+                limit -> orderHistoryRepository.findByCreatedAtAfterOrderByCreatedAtDesc(from, PageRequest.of(0, limit)),
+                NEWEST_FIRST, ORDER_LIST_LIMIT);
     }
     
     /**
@@ -165,7 +202,9 @@ public class AdminBotService {
     public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
         try {
             orderService.updateOrderStatus(orderId, newStatus);
-            return orderRepository.findById(orderId).orElse(null);
+            // Только что записанное читаем с основной БД, реплика может отставать
+            return WorkloadContext.onPrimary(() -> shardRouter.findAny(() -> orderRepository.findWithContactById(orderId))
+                    .orElse(null));
         } catch (Exception e) {
             log.error("Ошибка при обновлении статуса заказа: {}", e.getMessage());
             return null;
@@ -175,11 +214,10 @@ public class AdminBotService {
     /**
      * Получает заказы текущего месяца сгруппированные по дням
      */
-    public Map<LocalDate, List<Order>> getOrdersByDays() {
+    public Map<LocalDate, List<OrderHistory>> getOrdersByDays() {
         LocalDateTime startOfMonth = LocalDateTime.of(LocalDate.now().withDayOfMonth(1), LocalTime.MIDNIGHT);
         
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getCreatedAt().isAfter(startOfMonth))
+        return collect(() -> orderHistoryRepository.findByCreatedAtGreaterThanEqual(startOfMonth)).stream()
                 .collect(Collectors.groupingBy(order -> order.getCreatedAt().toLocalDate()));
     }
     
@@ -213,9 +251,43 @@ public class AdminBotService {
      * Получает нераскрытые NFT
      */
     public List<NFT> getUnrevealedNFTs() {
-        return nftRepository.findAll().stream()
-                .filter(nft -> !nft.isRevealed())
-                .collect(Collectors.toList());
+        return nftRepository.findByRevealedFalse();
+    }
+
+    /**
+     * Считает нераскрытые NFT
+     */
+    public long countUnrevealedNFTs() {
+        return nftRepository.countByRevealedFalse();
+    }
+
+    /**
+     * Запускает массовое раскрытие NFT по манифесту
+     */
+    public NFTRevealJob startBulkReveal(String baseUri, String chatId) {
+        return nftRevealJobService.startJob(baseUri, chatId);
+    }
+
+    /**
+     * Возвращает последнее задание массового раскрытия
+     */
+    public NFTRevealJob getLatestRevealJob() {
+        return nftRevealJobService.getLatestJob().orElse(null);
+    }
+
+    /**
+     * Приостанавливает текущее задание массового раскрытия
+     */
+    public boolean pauseBulkReveal() {
+        return nftRevealJobService.pauseActiveJob();
+    }
+
+    /**
+     * Продолжает задание массового раскрытия
+     */
+    public NFTRevealJob resumeBulkReveal(Long jobId) {
+        // Контрольную точку задания пишет фоновый поток: читаем её с основной БД
+        return WorkloadContext.onPrimary(() -> nftRevealJobService.resumeJob(jobId));
     }
     
     /**
@@ -224,7 +296,7 @@ public class AdminBotService {
     public NFT revealNFT(Long nftId, String revealedUri) {
         try {
             nftService.revealNFT(nftId, revealedUri);
-            return nftRepository.findById(nftId).orElse(null);
+            return WorkloadContext.onPrimary(() -> nftRepository.findById(nftId).orElse(null));
         } catch (Exception e) {
             log.error("Ошибка при раскрытии NFT: {}", e.getMessage());
             return null;
@@ -235,19 +307,29 @@ public class AdminBotService {
      * Получает топ пользователей по количеству заказов
      */
     public List<User> getTopUsersByOrderCount(int limit) {
-        Map<User, Long> userOrderCounts = orderRepository.findAll().stream()
-                .collect(Collectors.groupingBy(Order::getUser, Collectors.counting()));
-        
-        return userOrderCounts.entrySet().stream()
-                .sorted(Map.Entry.<User, Long>comparingByValue().reversed())
+        // Заказы пользователя лежат на одном шарде, поэтому топ каждого шарда достаточно
+        Map<Long, Long> orderCounts = new HashMap<>();
+        for (Object[] row : collect(() -> orderHistoryRepository.findTopUserIds(PageRequest.of(0, limit)))) {
+            orderCounts.merge((Long) row[0], ((Number) row[1]).longValue(), Long::sum);
+        }
+        List<Long> userIds = orderCounts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
                 .limit(limit)
                 .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        
+        return userIds.stream()
+                .map(users::get)
+                .filter(user -> user != null)
                 .collect(Collectors.toList());
     }
     
     /**
      * Обновляет статус активности пользователя
      */
+    @Transactional
     public User updateUserActiveStatus(Long userId, boolean isActive) {
         User user = getUserById(userId);
         if (user == null) {
@@ -255,50 +337,63 @@ public class AdminBotService {
         }
         
         user.setActive(isActive);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserEvent(this, savedUser, UserEvent.UserEventType.UPDATED));
+        return savedUser;
     }
     
     /**
      * Получает топ популярных товаров
      */
     public Map<Product, Integer> getTopProducts(int limit) {
-        Map<Product, Integer> productCounts = new HashMap<>();
-        
-        for (Order order : orderRepository.findAll()) {
-            Product product = order.getProduct();
-            productCounts.put(product, productCounts.getOrDefault(product, 0) + order.getQuantity());
+        // Товар продаётся на всех шардах: суммируются продажи по всем товарам, а не топы шардов
+        Map<Long, Integer> soldById = new HashMap<>();
+        for (Object[] row : collect(() -> orderHistoryRepository.findTopProductIds(Pageable.unpaged()))) {
+            soldById.merge((Long) row[0], ((Number) row[1]).intValue(), Integer::sum);
         }
-        
-        return productCounts.entrySet().stream()
-                .sorted(Map.Entry.<Product, Integer>comparingByValue().reversed())
+
+        // Порядок по убыванию продаж сохраняется
+        Map<Product, Integer> productCounts = new LinkedHashMap<>();
+        soldById.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
                 .limit(limit)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                .forEach(entry -> productRepository.findById(entry.getKey())
+                        .ifPresent(product -> productCounts.put(product, entry.getValue())));
+        
+        return productCounts;
     }
     
     /**
      * Поиск заказов по номеру заказа
      */
-    public List<Order> searchOrdersByOrderNumber(String orderNumber) {
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getOrderNumber().contains(orderNumber))
-                .collect(Collectors.toList());
+    public List<OrderHistory> searchOrdersByOrderNumber(String orderNumber) {
+        return collect(() -> orderHistoryRepository.findByOrderNumberContaining(orderNumber));
     }
     
     /**
      * Поиск заказов по телефону
      */
-    public List<Order> searchOrdersByPhone(String phone) {
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getPhoneNumber().contains(phone))
-                .collect(Collectors.toList());
+    public List<OrderHistory> searchOrdersByPhone(String phone) {
+        return collect(() -> orderHistoryRepository.searchByContactPhone(phone));
     }
     
     /**
      * Поиск заказов по email
      */
-    public List<Order> searchOrdersByEmail(String email) {
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getEmail().contains(email))
-                .collect(Collectors.toList());
+    public List<OrderHistory> searchOrdersByEmail(String email) {
+        return collect(() -> orderHistoryRepository.searchByContactEmail(email));
+    }
+
+    /**
+     * Результаты запроса со всех шардов одним списком (без общего порядка)
+     */
+    private <T> List<T> collect(Supplier<List<T>> query) {
+        return shardRouter.scatter(query).stream().flatMap(List::stream).toList();
+    }
+
+    private int countOrdersAfter(LocalDateTime from) {
+        return (int) shardRouter.scatter(() -> orderHistoryRepository.countByCreatedAtAfter(from)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
     }
 } 
\ No newline at end of file
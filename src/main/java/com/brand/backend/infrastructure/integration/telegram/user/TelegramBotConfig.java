@@ -1,26 +1,38 @@
 package com.brand.backend.infrastructure.integration.telegram.user;
 
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.cluster.Leadership;
+import com.brand.backend.infrastructure.integration.telegram.LeaderBotSession;
+import com.brand.backend.infrastructure.integration.telegram.LeaderBotWebhook;
+import com.brand.backend.infrastructure.integration.telegram.TelegramWebhookIngest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Service;
-import org.telegram.telegrambots.meta.TelegramBotsApi;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
 @Service
 @Configuration
 public class TelegramBotConfig {
 
+    public static final String WEBHOOK_NAME = "user";
+    public static final String LEADER_ROLE = "telegram-user-bot";
+
     private final TelegramBotService telegramBotService;
+    private final LeaderElection leaderElection;
 
-    public TelegramBotConfig(TelegramBotService telegramBotService) {
+    public TelegramBotConfig(TelegramBotService telegramBotService, LeaderElection leaderElection) {
         this.telegramBotService = telegramBotService;
+        this.leaderElection = leaderElection;
     }
 
+    /**
+     * Получение обновлений на ведущем узле: long polling или регистрация webhook (telegram.webhook.enabled)
+     */
     @Bean
-    public TelegramBotsApi telegramBotsApi() throws TelegramApiException {
-        TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
-        botsApi.registerBot(telegramBotService);
-        return botsApi;
+    public Leadership telegramBotUpdates(TelegramWebhookIngest webhookIngest) {
+        Leadership updates = webhookIngest.isEnabled()
+                ? new LeaderBotWebhook(telegramBotService, WEBHOOK_NAME, webhookIngest)
+                : new LeaderBotSession(telegramBotService);
+        leaderElection.register(LEADER_ROLE, updates);
+        return updates;
     }
 }
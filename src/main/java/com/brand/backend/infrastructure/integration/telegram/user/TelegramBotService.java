@@ -4,7 +4,11 @@ import com.brand.backend.domain.product.model.Product;
 import com.brand.backend.domain.product.repository.ProductRepository;
 import com.brand.backend.domain.user.repository.UserRepository;
 import com.brand.backend.domain.user.model.User;
-import lombok.RequiredArgsConstructor;
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.infrastructure.integration.telegram.TelegramApiOptions;
+import com.brand.backend.infrastructure.integration.telegram.TelegramChatStateStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
@@ -18,13 +22,25 @@ import com.brand.backend.application.user.service.VerificationService;
 
 import java.util.*;
 
-@RequiredArgsConstructor
 @Service
 public class TelegramBotService extends TelegramLongPollingBot {
 
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final VerificationService verificationService;
+    private final TelegramChatStateStore chatStateStore;
+
+    public TelegramBotService(UserRepository userRepository,
+                              ProductRepository productRepository,
+                              VerificationService verificationService,
+                              TelegramChatStateStore chatStateStore,
+                              @Value("${telegram.api.base-url:https://api.telegram.org/bot}") String apiBaseUrl) {
+        super(TelegramApiOptions.forBaseUrl(apiBaseUrl));
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.verificationService = verificationService;
+        this.chatStateStore = chatStateStore;
+    }
 
     @Override
     public String getBotUsername() {
@@ -38,6 +54,10 @@ public class TelegramBotService extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
+        WorkloadContext.run(Workload.ADMIN, () -> handleUpdate(update));
+    }
+
+    private void handleUpdate(Update update) {
         if (update.hasMessage() && update.getMessage().hasText()) {
             handleIncomingMessage(update.getMessage());
         } else if (update.hasCallbackQuery()) {
@@ -45,18 +65,20 @@ public class TelegramBotService extends TelegramLongPollingBot {
         }
     }
 
-    private final Map<Long, String> userStates = new HashMap<>();
+    // Имя бота в telegram_chat_states; состояние диалога хранится в БД, а не в памяти узла
+    private static final String CHAT_STATE_BOT = "user";
 
     private void handleIncomingMessage(Message message) {
         String chatId = String.valueOf(message.getChatId());
         String text = message.getText();
+        String state = chatStateStore.get(CHAT_STATE_BOT, message.getChatId()).orElse(null);
 
-        if (userStates.containsKey(message.getChatId()) && userStates.get(message.getChatId()).equals("linkTelegram")) {
+        if ("linkTelegram".equals(state)) {
             linkTelegram(message); // Если пользователь в процессе привязки Telegram
             return;
         }
         
-        if (userStates.containsKey(message.getChatId()) && userStates.get(message.getChatId()).equals("linkDiscord")) {
+        if ("linkDiscord".equals(state)) {
             linkDiscord(message); // Если пользователь в процессе привязки Discord
             return;
         }
@@ -79,7 +101,7 @@ public class TelegramBotService extends TelegramLongPollingBot {
                 sendMessage(chatId, "💻 Наше desktop-приложение скоро будет доступно! Следите за новостями.");
                 break;
             case "/linkTelegram":
-                userStates.put(message.getChatId(), "linkTelegram"); // Устанавливаем состояние
+                chatStateStore.set(CHAT_STATE_BOT, message.getChatId(), "linkTelegram"); // Устанавливаем состояние
                 sendMessage(chatId, "Отправьте код, который вы скопировали на сайте нашего бренда.");
                 break;
             case "/linkDiscord":
@@ -115,7 +137,7 @@ public class TelegramBotService extends TelegramLongPollingBot {
         } else {
             sendMessage(chatId, "Код не верен, попробуйте еще раз.");
         }
-        userStates.remove(message.getChatId());
+        chatStateStore.clear(CHAT_STATE_BOT, message.getChatId());
     }
 
     // Обработка команды привязки Discord
@@ -144,7 +166,7 @@ public class TelegramBotService extends TelegramLongPollingBot {
         instructions.append("1. Добавьте нашего бота в Discord: https://discord.gg/our-bot\n");
         instructions.append("2. Напишите нашему боту команду `!link ").append(verificationCode).append("`\n");
         instructions.append("3. Или отправьте боту команду `!link`, а затем код `").append(verificationCode).append("`\n\n");
-        instructions.append("⚠️ Код действителен в течение 10 минут.");
+        instructions.append("⚠️ Код действителен в течение ").append(verificationService.getCodeTtlMinutes()).append(" минут.");
         
         SendMessage sendMessage = new SendMessage();
         sendMessage.setChatId(chatId);
@@ -165,7 +187,7 @@ public class TelegramBotService extends TelegramLongPollingBot {
         // Пользователю будет предоставлен код, который он отправит в Discord боте
         String chatId = String.valueOf(message.getChatId());
         sendMessage(chatId, "Для привязки Discord используйте команду /linkDiscord и следуйте инструкциям.");
-        userStates.remove(message.getChatId());
+        chatStateStore.clear(CHAT_STATE_BOT, message.getChatId());
     }
 
     private void handleCallback(String data, Long chatId, Integer messageId) {
@@ -180,7 +202,7 @@ public class TelegramBotService extends TelegramLongPollingBot {
                     "/linkTelegram - Привязать Telegram-аккаунт\n" +
                     "/linkDiscord - Привязать Discord-аккаунт");
         } else if (data.equals("startLinkTelegram")) {
-            userStates.put(chatId, "linkTelegram");
+            chatStateStore.set(CHAT_STATE_BOT, chatId, "linkTelegram");
             sendMessage(stringChatId, "Отправьте код, который вы скопировали на сайте нашего бренда.");
         } else if (data.equals("startLinkDiscord")) {
             handleLinkDiscordCommand(new Message() {
@@ -0,0 +1,38 @@
+package com.brand.backend.infrastructure.persistence.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Доля попаданий по каждому региону кэша второго уровня (hibernate.cache.hit.ratio{region}).
+ * Счётчики попаданий и промахов публикует hibernate-micrometer (hibernate.second.level.cache.requests).
+ */
+@Slf4j
+@Component
+public class SecondLevelCacheMetrics {
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> hitRatio(s.getCacheRegionStatistics(region)))
+                    .tag("region", region)
+                    .description("Попадания / (попадания + промахи) с запуска")
+                    .register(meterRegistry);
+        }
+        log.info("🗄️ [DB] Регионы кэша второго уровня: {}", String.join(", ", statistics.getSecondLevelCacheRegionNames()));
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return 0;
+        }
+        long requests = region.getHitCount() + region.getMissCount();
+        return requests == 0 ? 0 : (double) region.getHitCount() / requests;
+    }
+}
@@ -0,0 +1,187 @@
+package com.brand.backend.infrastructure.persistence.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реплики для read-only транзакций с учётом отставания.
+ * <p>
+ * Монитор периодически снимает WAL LSN основной БД и LSN воспроизведения на каждой реплике.
+ * Реплика используется, пока она доступна и отстаёт не больше чем на max-lag-bytes.
+ * <p>
+ * Read-your-writes: после коммита записи пользователя снимается WAL LSN основной БД (один запрос на
+ * транзакцию записи), и его чтения идут только на реплики, которые воспроизвели этот LSN. Узел помнит LSN
+ * своих записей сам, а {@link WorkloadRoutingDataSource} возвращает его клиенту в cookie, поэтому следующий
+ * запрос пользователя видит запись и на другом узле.
+ */
+@Slf4j
+public class ReplicaSet {
+
+    // Сколько интервалов проверки узел помнит LSN записи пользователя
+    private static final int WRITE_RETENTION_CHECKS = 128;
+    private static final String CURRENT_LSN_QUERY = "SELECT pg_current_wal_lsn() - '0/0'::pg_lsn";
+
+    private final List<Replica> replicas;
+    private final ObjectProvider<DataSource> primary;
+    private final long maxLagBytes;
+    private final long staleAfterMillis;
+    private final long writeRetentionMillis;
+
+    private volatile long primaryLsn;
+    private final AtomicInteger next = new AtomicInteger();
+    // userId -> LSN основной БД после последнего коммита записи
+    private final Map<Long, Write> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReplicaSet(List<HikariDataSource> pools, ObjectProvider<DataSource> primary, long maxLagBytes,
+                      long checkIntervalMillis, MeterRegistry meterRegistry) {
+        this.replicas = pools.stream().map(Replica::new).toList();
+        this.primary = primary;
+        this.maxLagBytes = maxLagBytes;
+        this.staleAfterMillis = checkIntervalMillis * 3;
+        this.writeRetentionMillis = checkIntervalMillis * WRITE_RETENTION_CHECKS;
+
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.lag.bytes", replica, r -> Math.max(0, primaryLsn - r.replayLsn))
+                    .tag("replica", replica.pool.getPoolName()).register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> isAvailable(r, System.currentTimeMillis()) ? 1 : 0)
+                    .tag("replica", replica.pool.getPoolName()).register(meterRegistry);
+        }
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Сколько LSN записи пользователя нужно помнить (срок cookie)
+     */
+    public long writeRetentionMillis() {
+        return writeRetentionMillis;
+    }
+
+    /**
+     * Реплика для чтения или null, если подходящей нет
+     *
+     * @param userId      пользователь, чьи записи должны быть видны (может быть null)
+     * @param requiredLsn LSN записи, которую клиент принёс с другого узла (0 - нет)
+     */
+    public DataSource select(Long userId, long requiredLsn) {
+        long now = System.currentTimeMillis();
+        Write lastWrite = userId != null ? lastWriteByUser.get(userId) : null;
+        long required = Math.max(requiredLsn, lastWrite != null ? lastWrite.lsn() : 0);
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (isAvailable(replica, now) && (replica.standIn || replica.replayLsn >= required)) {
+                return replica.pool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Запоминает коммит записи пользователя. Вызывается после коммита
+     *
+     * @param primaryPool пул основной БД, в которой прошла запись
+     * @return LSN основной БД после коммита или 0, если его не удалось получить
+     */
+    public long recordWrite(Long userId, DataSource primaryPool) {
+        long lsn;
+        try {
+            lsn = currentLsn(primaryPool);
+        } catch (Exception e) {
+            // LSN неизвестен: до конца срока чтения пользователя идут в основную БД
+            log.warn("⚠️ [DB] Не удалось получить LSN записи пользователя {}: {}", userId, e.getMessage());
+            lastWriteByUser.put(userId, new Write(Long.MAX_VALUE, System.currentTimeMillis()));
+            return 0;
+        }
+        lastWriteByUser.merge(userId, new Write(lsn, System.currentTimeMillis()),
+                (previous, current) -> previous.lsn() > current.lsn() ? previous : current);
+        return lsn;
+    }
+
+    /**
+     * Замер LSN основной БД и реплик
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.check-interval-ms:1000}")
+    public void checkLag() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        long sampledAt = System.currentTimeMillis();
+        try {
+            primaryLsn = currentLsn(primary.getObject());
+        } catch (Exception e) {
+            log.warn("⚠️ [DB] Не удалось получить LSN основной БД: {}", e.getMessage());
+            return;
+        }
+
+        for (Replica replica : replicas) {
+            checkReplica(replica);
+        }
+
+        lastWriteByUser.values().removeIf(write -> write.writtenAt() < sampledAt - writeRetentionMillis);
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private void checkReplica(Replica replica) {
+        try (Connection connection = replica.pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT pg_is_in_recovery(), pg_last_wal_replay_lsn() - '0/0'::pg_lsn")) {
+            rs.next();
+            // Не реплика (локальная замена, указывающая на ту же БД): отставания нет
+            replica.standIn = !rs.getBoolean(1);
+            replica.replayLsn = replica.standIn ? primaryLsn : rs.getLong(2);
+            replica.checkedAt = System.currentTimeMillis();
+        } catch (Exception e) {
+            replica.checkedAt = 0;
+            log.warn("⚠️ [DB] Реплика {} недоступна: {}", replica.pool.getPoolName(), e.getMessage());
+        }
+    }
+
+    private static long currentLsn(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(CURRENT_LSN_QUERY)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private boolean isAvailable(Replica replica, long now) {
+        return now - replica.checkedAt <= staleAfterMillis && primaryLsn - replica.replayLsn <= maxLagBytes;
+    }
+
+    private record Write(long lsn, long writtenAt) {
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private volatile long replayLsn;
+        private volatile boolean standIn;
+        private volatile long checkedAt;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
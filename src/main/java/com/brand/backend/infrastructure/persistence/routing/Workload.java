@@ -0,0 +1,10 @@
+package com.brand.backend.infrastructure.persistence.routing;
+
+/**
+ * Тип нагрузки; у каждого свой пул соединений с БД
+ */
+public enum Workload {
+    CHECKOUT,   // REST API магазина (по умолчанию)
+    ADMIN,      // Telegram-боты: админка и пользовательский бот
+    BACKGROUND  // Асинхронные обработчики событий и задачи по расписанию
+}
@@ -0,0 +1,101 @@
+package com.brand.backend.infrastructure.persistence.routing;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Тип нагрузки текущего потока. Определяет, из какого пула {@link WorkloadRoutingDataSource}
+ * берёт соединение, поэтому должен быть задан до начала транзакции.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    // Отдельная read-only транзакция для onPrimary внутри транзакции, уже читающей с реплики
+    private static volatile TransactionOperations primaryReadTransactions;
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.CHECKOUT;
+    }
+
+    /**
+     * Задан ли тип нагрузки явно (точкой входа, а не по умолчанию)
+     */
+    public static boolean isExplicit() {
+        return CURRENT.get() != null;
+    }
+
+    public static boolean isPrimaryOnly() {
+        return Boolean.TRUE.equals(PRIMARY_ONLY.get());
+    }
+
+    /**
+     * Транзакции для {@link #onPrimary}; задаётся конфигурацией пулов при старте
+     */
+    public static void useTransactionManager(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        primaryReadTransactions = template;
+    }
+
+    /**
+     * Выполняет чтение только на основной БД, минуя реплики.
+     * Нужно для заполнения кэшей: устаревшие данные с реплики остались бы в кэше до следующего сброса.
+     * Если внешняя read-only транзакция уже взяла соединение реплики, чтение выполняется в отдельной
+     * транзакции: иначе оно ушло бы на то же соединение.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean onReplica = WorkloadRoutingDataSource.holdsReplicaConnection();
+        if (isPrimaryOnly() && !onReplica) {
+            return action.get();
+        }
+        TransactionOperations transactions = primaryReadTransactions;
+        if (onReplica && transactions == null) {
+            throw new IllegalStateException("Транзакция уже читает с реплики, а менеджер транзакций не задан");
+        }
+        boolean outer = !isPrimaryOnly();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return onReplica ? transactions.execute(status -> action.get()) : action.get();
+        } finally {
+            if (outer) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+
+    /**
+     * Выполняет действие с заданным типом нагрузки и восстанавливает предыдущий
+     */
+    public static void run(Workload workload, Runnable action) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            action.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Декоратор задач пула: задачи выполняются с заданным типом нагрузки
+     */
+    public static TaskDecorator decorator(Workload workload) {
+        return task -> () -> run(workload, task);
+    }
+}
@@ -0,0 +1,156 @@
+package com.brand.backend.infrastructure.persistence.routing;
+
+import com.brand.backend.infrastructure.persistence.sharding.ShardContext;
+import com.brand.backend.infrastructure.persistence.sharding.ShardSet;
+import com.brand.backend.infrastructure.security.jwt.AuthenticatedUser;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+/**
+ * Выбирает пул соединений по типу нагрузки текущего потока.
+ * <p>
+ * Read-only транзакции HTTP-запросов и Telegram-ботов уходят на реплику, если она есть и успевает за
+ * основной БД. Фоновые задачи и загрузка при старте всегда читают с основной БД: они часто читают
+ * только что записанное. Работает за {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * чтобы соединение бралось уже после того, как транзакция помечена read-only.
+ * Если поток работает с шардом заказов ({@link ShardContext}), соединение берётся из пула шарда.
+ * <p>
+ * LSN записи пользователя после коммита отдаётся клиенту в cookie {@value #READ_AFTER_COOKIE}: запросы с ней
+ * читают только с реплик, которые воспроизвели запись, на каком бы узле она ни прошла.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String READ_AFTER_COOKIE = "db_read_after";
+
+    // Отметка транзакции, которая уже взяла соединение реплики
+    private static final TransactionSynchronization REPLICA_MARKER = new TransactionSynchronization() {
+    };
+
+    private final ReplicaSet replicaSet;
+    private final ShardSet shardSet;
+
+    public WorkloadRoutingDataSource(ReplicaSet replicaSet, ShardSet shardSet) {
+        this.replicaSet = replicaSet;
+        this.shardSet = shardSet;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        DataSource shard = shardSet.dataSource(ShardContext.current());
+        if (shard != null) {
+            return shard;
+        }
+        if (replicaSet.isEmpty() || !isReplicaEligibleThread()) {
+            return super.determineTargetDataSource();
+        }
+
+        Long userId = currentUserId();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (!WorkloadContext.isPrimaryOnly()) {
+                DataSource replica = replicaSet.select(userId, requiredLsn());
+                if (replica != null) {
+                    markReplicaConnection();
+                    return replica;
+                }
+            }
+        } else if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Read-your-writes: после коммита чтения пользователя идут только на догнавшие реплики
+            DataSource primaryPool = super.determineTargetDataSource();
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    long lsn = replicaSet.recordWrite(userId, primaryPool);
+                    if (lsn > 0) {
+                        rememberInResponse(attributes, lsn);
+                    }
+                }
+            });
+            return primaryPool;
+        }
+        return super.determineTargetDataSource();
+    }
+
+    /**
+     * Взяла ли текущая транзакция соединение реплики (после этого сменить пул в ней уже нельзя)
+     */
+    static boolean holdsReplicaConnection() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getSynchronizations().contains(REPLICA_MARKER);
+    }
+
+    private static void markReplicaConnection() {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !holdsReplicaConnection()) {
+            TransactionSynchronizationManager.registerSynchronization(REPLICA_MARKER);
+        }
+    }
+
+    /**
+     * LSN записи, который клиент принёс в cookie (0 - нет или запрос не HTTP)
+     */
+    private static long requiredLsn() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return 0;
+        }
+        Cookie[] cookies = attributes.getRequest().getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (READ_AFTER_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void rememberInResponse(RequestAttributes attributes, long lsn) {
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        HttpServletResponse response = servletAttributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(READ_AFTER_COOKIE, Long.toString(lsn));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, replicaSet.writeRetentionMillis() / 1000));
+        response.addCookie(cookie);
+    }
+
+    private static boolean isReplicaEligibleThread() {
+        Workload workload = WorkloadContext.current();
+        if (workload == Workload.BACKGROUND) {
+            return false;
+        }
+        return WorkloadContext.isExplicit() || RequestContextHolder.getRequestAttributes() != null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,313 @@
+package com.brand.backend.infrastructure.persistence.sharding;
+
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Маршрутизация заказов по шардам.
+ * <p>
+ * Заказы пользователя лежат на шарде его бакета ({@link ShardMap}). Запись и чтение одного пользователя -
+ * транзакция на одном шарде; админские выборки выполняются на всех шардах параллельно с лимитом на каждом,
+ * а отсортированные результаты сливаются в первые N. Карта хранится в таблице order_shard_maps основной БД и
+ * перечитывается периодически: новая версия публикуется без перезапуска, старые версии удаляются
+ * после переноса данных бакетов.
+ * <p>
+ * Каждый вызов с шардом открывает новую транзакцию (REQUIRES_NEW): внешняя транзакция держит соединение
+ * другого шарда.
+ */
+@Slf4j
+@Component
+public class OrderShardRouter {
+
+    private final ShardSet shardSet;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final TransactionTemplate readTemplate;
+    private final Executor executor;
+    private final long scatterTimeoutMillis;
+    private final AtomicReference<ShardMap> map = new AtomicReference<>();
+
+    public OrderShardRouter(ShardSet shardSet,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("shardQueryExecutor") Executor executor,
+                            @Value("${orders.sharding.scatter-timeout-ms:5000}") long scatterTimeoutMillis) {
+        this.shardSet = shardSet;
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.scatterTimeoutMillis = scatterTimeoutMillis;
+
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void init() {
+        // Первая карта фиксируется в БД: иначе добавление шарда в конфигурацию сдвинуло бы бакеты
+        if (latestVersion() == 0) {
+            try {
+                insertVersion(1, ShardMap.uniform(1, shardSet.size()).spec());
+            } catch (DuplicateKeyException e) {
+                // Карту одновременно создал другой узел
+            }
+        }
+        refresh();
+        if (map.get() == null) {
+            throw new IllegalStateException("Не удалось загрузить карту шардов заказов");
+        }
+    }
+
+    /**
+     * Перечитывает карту шардов из основной БД
+     */
+    @Scheduled(fixedDelayString = "${orders.sharding.refresh-interval-ms:10000}")
+    public void refresh() {
+        List<ShardMap> versions;
+        try {
+            versions = ShardContext.on(ShardContext.PRIMARY, () -> jdbcTemplate.query(
+                    "SELECT version, spec FROM order_shard_maps ORDER BY version",
+                    (rs, rowNum) -> ShardMap.parse(rs.getLong(1), rs.getString(2), shardSet.size())));
+        } catch (RuntimeException e) {
+            // Например, версия ссылается на шард, которого нет в конфигурации этого узла
+            log.error("⚠️ [DB] Карта шардов не обновлена, остаётся версия {}: {}", currentVersion(), e.getMessage());
+            return;
+        }
+        if (versions.isEmpty()) {
+            log.error("⚠️ [DB] Таблица order_shard_maps пуста, остаётся версия {}", currentVersion());
+            return;
+        }
+
+        ShardMap updated = ShardMap.withHistory(versions);
+        ShardMap previous = map.getAndSet(updated);
+        if (previous == null || previous.version() != updated.version() || previous.isMigrating() != updated.isMigrating()) {
+            log.info("🗄️ [DB] Карта шардов заказов v{}: {}{}", updated.version(), updated.spec(),
+                    updated.isMigrating() ? " (чтение и с прежних шардов, версий: " + versions.size() + ")" : "");
+        }
+    }
+
+    /**
+     * Публикует новую версию карты. Новые заказы перенесённых бакетов сразу пишутся в новые шарды,
+     * остальные узлы подхватят версию при следующем обновлении
+     *
+     * @throws DuplicateKeyException если одновременно опубликована другая версия
+     */
+    public ShardMap publish(String spec) {
+        ShardMap parsed = ShardMap.parse(0, spec, shardSet.size());
+        insertVersion(latestVersion() + 1, parsed.spec());
+        refresh();
+        return map.get();
+    }
+
+    /**
+     * Удаляет предыдущие версии карты: вызывается, когда данные перенесённых бакетов уже скопированы
+     * в новые шарды. После этого заказы пользователя читаются только с текущего шарда
+     */
+    public void dropPreviousVersions() {
+        long version = currentVersion();
+        ShardContext.on(ShardContext.PRIMARY, () -> jdbcTemplate.update(
+                "DELETE FROM order_shard_maps WHERE version < ?", version));
+        refresh();
+    }
+
+    public ShardMap currentMap() {
+        return map.get();
+    }
+
+    public int shardCount() {
+        return shardSet.size();
+    }
+
+    /**
+     * Шард для новых заказов пользователя
+     */
+    public int shardOf(Long userId) {
+        return map.get().shardOf(userId);
+    }
+
+    /**
+     * Транзакция на шарде
+     */
+    public <T> T inTransaction(int shard, TransactionCallback<T> action) {
+        return ShardContext.on(shard, () -> writeTemplate.execute(action));
+    }
+
+    /**
+     * Read-only транзакция на шарде
+     */
+    public <T> T read(int shard, Supplier<T> query) {
+        return ShardContext.on(shard, () -> readTemplate.execute(status -> query.get()));
+    }
+
+    /**
+     * Заказы пользователя: обычно один шард, во время переноса бакета - также прежние.
+     * Результат каждого шарда должен быть отсортирован по order
+     */
+    public <T> List<T> queryUser(Long userId, Supplier<List<T>> query, Comparator<? super T> order) {
+        int[] shards = map.get().readShards(userId);
+        if (shards.length == 1) {
+            return read(shards[0], query);
+        }
+        return mergeSorted(gather(shards, query), order, 0);
+    }
+
+    /**
+     * Первые limit элементов по order со всех шардов
+     *
+     * @see #scatterGather(IntFunction, Comparator, int, int)
+     */
+    public <T> List<T> scatterGather(IntFunction<List<T>> query, Comparator<? super T> order, int limit) {
+        return scatterGather(query, order, 0, limit);
+    }
+
+    /**
+     * Страница общего порядка по всем шардам. Каждый шард возвращает свои первые offset + limit элементов,
+     * отсортированные по order (query получает это число и передаёт его в LIMIT), затем списки сливаются
+     * и первые offset элементов отбрасываются. Чтение без лимита не поддерживается: заказы всех шардов
+     * оказались бы в памяти одного узла
+     *
+     * @param offset сколько элементов общего порядка пропустить
+     * @param limit  сколько элементов вернуть (больше 0)
+     */
+    public <T> List<T> scatterGather(IntFunction<List<T>> query, Comparator<? super T> order, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Нужны offset >= 0 и limit > 0: " + offset + ", " + limit);
+        }
+        int perShard = Math.addExact(offset, limit);
+        List<T> merged = mergeSorted(scatter(() -> query.apply(perShard)), order, perShard);
+        return merged.size() > offset ? merged.subList(offset, merged.size()) : List.of();
+    }
+
+    /**
+     * Результаты запроса на каждом шарде (индекс - номер шарда), например для агрегатов
+     */
+    public <T> List<T> scatter(Supplier<T> query) {
+        return gather(IntStream.range(0, shardSet.size()).toArray(), query);
+    }
+
+    /**
+     * Первый найденный результат (поиск по id заказа, шард которого неизвестен)
+     */
+    public <T> Optional<T> findAny(Supplier<Optional<T>> query) {
+        return scatter(query).stream().flatMap(Optional::stream).findFirst();
+    }
+
+    /**
+     * Шард, на котором условие выполнено (например, лежит заказ с данным id)
+     */
+    public OptionalInt findShard(Supplier<Boolean> condition) {
+        List<Boolean> results = scatter(condition);
+        return IntStream.range(0, results.size()).filter(shard -> Boolean.TRUE.equals(results.get(shard))).findFirst();
+    }
+
+    private <T> List<T> gather(int[] shards, Supplier<T> query) {
+        if (shards.length == 1) {
+            return Collections.singletonList(read(shards[0], query));
+        }
+        // Тип нагрузки вызывающего потока определяет пул основной БД и допустимость реплик
+        Workload workload = WorkloadContext.current();
+        boolean primaryOnly = WorkloadContext.isPrimaryOnly();
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.length);
+        for (int shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                AtomicReference<T> result = new AtomicReference<>();
+                WorkloadContext.run(workload, () -> result.set(primaryOnly
+                        ? WorkloadContext.onPrimary(() -> read(shard, query))
+                        : read(shard, query)));
+                return result.get();
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(scatterTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Шарды заказов не ответили за " + scatterTimeoutMillis + " мс");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запрос к шардам заказов прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Слияние k отсортированных списков с остановкой на limit элементах
+     */
+    static <T> List<T> mergeSorted(List<List<T>> sorted, Comparator<? super T> order, int limit) {
+        int max = limit > 0 ? limit : Integer.MAX_VALUE;
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.head, b.head));
+        for (List<T> list : sorted) {
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Cursor<>(iterator.next(), iterator));
+            }
+        }
+        List<T> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < max) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head);
+            if (cursor.rest.hasNext()) {
+                heads.add(new Cursor<>(cursor.rest.next(), cursor.rest));
+            }
+        }
+        return merged;
+    }
+
+    private long latestVersion() {
+        Long latest = ShardContext.on(ShardContext.PRIMARY, () -> jdbcTemplate.queryForObject(
+                "SELECT MAX(version) FROM order_shard_maps", Long.class));
+        return latest != null ? latest : 0;
+    }
+
+    private void insertVersion(long version, String spec) {
+        ShardContext.on(ShardContext.PRIMARY, () -> jdbcTemplate.update(
+                "INSERT INTO order_shard_maps (version, spec, created_at) VALUES (?, ?, ?)",
+                version, spec, LocalDateTime.now()));
+    }
+
+    private long currentVersion() {
+        ShardMap current = map.get();
+        return current != null ? current.version() : 0;
+    }
+
+    private record Cursor<T>(T head, Iterator<T> rest) {
+    }
+}
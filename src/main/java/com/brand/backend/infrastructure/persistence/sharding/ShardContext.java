@@ -0,0 +1,40 @@
+package com.brand.backend.infrastructure.persistence.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Шард заказов текущего потока. {@link com.brand.backend.infrastructure.persistence.routing.WorkloadRoutingDataSource}
+ * берёт соединение из пула этого шарда, поэтому шард задаётся до начала транзакции и не меняется внутри неё.
+ * Без явного шарда запросы идут в основную БД (шард 0).
+ */
+public final class ShardContext {
+
+    public static final int PRIMARY = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : PRIMARY;
+    }
+
+    /**
+     * Выполняет действие на заданном шарде и восстанавливает предыдущий
+     */
+    public static <T> T on(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
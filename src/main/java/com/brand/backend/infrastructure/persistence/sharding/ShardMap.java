@@ -0,0 +1,160 @@
+package com.brand.backend.infrastructure.persistence.sharding;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Карта шардов заказов: user_id хэшируется в один из {@value #BUCKETS} бакетов, бакет закреплён за шардом.
+ * <p>
+ * Смена карты переносит бакеты целиком. Новые заказы бакета сразу пишутся в новый шард, а чтения заказов
+ * пользователя идут ещё и в шарды, за которыми бакет был закреплён в предыдущих версиях, пока эти версии
+ * не удалены (после переноса данных). Формат спецификации: {@code 0-511:0,512-1023:1}.
+ */
+public final class ShardMap {
+
+    public static final int BUCKETS = 1024;
+
+    private final long version;
+    private final int[] owners;
+    private final int[][] readShards;
+
+    private ShardMap(long version, int[] owners, int[][] readShards) {
+        this.version = version;
+        this.owners = owners;
+        this.readShards = readShards;
+    }
+
+    /**
+     * Равномерная карта: бакеты поделены на shardCount непрерывных диапазонов
+     */
+    public static ShardMap uniform(long version, int shardCount) {
+        int[] owners = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            owners[bucket] = (int) ((long) bucket * shardCount / BUCKETS);
+        }
+        return single(version, owners);
+    }
+
+    /**
+     * Разбирает спецификацию; каждый бакет должен быть назначен ровно один раз
+     *
+     * @throws IllegalArgumentException если спецификация некорректна или ссылается на несуществующий шард
+     */
+    public static ShardMap parse(long version, String spec, int shardCount) {
+        int[] owners = new int[BUCKETS];
+        Arrays.fill(owners, -1);
+        for (String part : spec.split(",")) {
+            String[] rangeAndShard = part.trim().split(":");
+            if (rangeAndShard.length != 2) {
+                throw new IllegalArgumentException("Ожидается <бакеты>:<шард>, получено '" + part + "'");
+            }
+            String[] range = rangeAndShard[0].trim().split("-");
+            int from = Integer.parseInt(range[0].trim());
+            int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+            int shard = Integer.parseInt(rangeAndShard[1].trim());
+            if (from < 0 || to >= BUCKETS || from > to) {
+                throw new IllegalArgumentException("Некорректный диапазон бакетов " + rangeAndShard[0]);
+            }
+            if (shard < 0 || shard >= shardCount) {
+                throw new IllegalArgumentException("Нет шарда " + shard + " (всего " + shardCount + ")");
+            }
+            for (int bucket = from; bucket <= to; bucket++) {
+                if (owners[bucket] != -1) {
+                    throw new IllegalArgumentException("Бакет " + bucket + " назначен дважды");
+                }
+                owners[bucket] = shard;
+            }
+        }
+        int unassigned = IntStream.range(0, BUCKETS).filter(bucket -> owners[bucket] == -1).findFirst().orElse(-1);
+        if (unassigned != -1) {
+            throw new IllegalArgumentException("Бакет " + unassigned + " не назначен");
+        }
+        return single(version, owners);
+    }
+
+    /**
+     * Текущая карта с учётом предыдущих версий (по возрастанию, последняя - текущая)
+     */
+    public static ShardMap withHistory(List<ShardMap> versions) {
+        ShardMap current = versions.get(versions.size() - 1);
+        int[][] readShards = new int[BUCKETS][];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int b = bucket;
+            // Сначала текущий владелец, затем предыдущие от новых к старым
+            readShards[bucket] = IntStream.iterate(versions.size() - 1, i -> i >= 0, i -> i - 1)
+                    .map(i -> versions.get(i).owners[b])
+                    .distinct()
+                    .toArray();
+        }
+        return new ShardMap(current.version, current.owners, readShards);
+    }
+
+    private static ShardMap single(long version, int[] owners) {
+        int[][] readShards = new int[BUCKETS][];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            readShards[bucket] = new int[]{owners[bucket]};
+        }
+        return new ShardMap(version, owners, readShards);
+    }
+
+    /**
+     * Бакет пользователя. Хэш фиксирован (финализатор MurmurHash3) и не зависит от JVM
+     */
+    public static int bucketOf(long userId) {
+        long h = userId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) BUCKETS);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Шард, в который пишутся заказы пользователя
+     */
+    public int shardOf(long userId) {
+        return owners[bucketOf(userId)];
+    }
+
+    /**
+     * Шарды, где могут лежать заказы пользователя (текущий первым)
+     */
+    public int[] readShards(long userId) {
+        return readShards[bucketOf(userId)].clone();
+    }
+
+    /**
+     * Есть ли бакеты, чьи данные ещё могут лежать на прежних шардах
+     */
+    public boolean isMigrating() {
+        return Arrays.stream(readShards).anyMatch(shards -> shards.length > 1);
+    }
+
+    /**
+     * Спецификация в сжатом виде (диапазоны подряд идущих бакетов одного шарда)
+     */
+    public String spec() {
+        StringBuilder spec = new StringBuilder();
+        int from = 0;
+        for (int bucket = 1; bucket <= BUCKETS; bucket++) {
+            if (bucket == BUCKETS || owners[bucket] != owners[from]) {
+                if (!spec.isEmpty()) {
+                    spec.append(',');
+                }
+                spec.append(from);
+                if (bucket - 1 > from) {
+                    spec.append('-').append(bucket - 1);
+                }
+                spec.append(':').append(owners[from]);
+                from = bucket;
+            }
+        }
+        return spec.toString();
+    }
+}
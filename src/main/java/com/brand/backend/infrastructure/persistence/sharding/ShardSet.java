@@ -0,0 +1,45 @@
+package com.brand.backend.infrastructure.persistence.sharding;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Базы данных шардов заказов. Шард 0 - основная БД (её пулы и реплики выбирает
+ * {@link com.brand.backend.infrastructure.persistence.routing.WorkloadRoutingDataSource}),
+ * шарды 1..n - отдельные БД с той же схемой, по одному пулу на шард.
+ */
+public class ShardSet {
+
+    private final List<? extends DataSource> shards;
+
+    /**
+     * @param shards пулы шардов 1..n (пусто - все заказы в основной БД)
+     */
+    public ShardSet(List<? extends DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * Число шардов вместе с основной БД
+     */
+    public int size() {
+        return shards.size() + 1;
+    }
+
+    public boolean isSingle() {
+        return shards.isEmpty();
+    }
+
+    /**
+     * Пул шарда или null для основной БД
+     */
+    public DataSource dataSource(int shard) {
+        if (shard == ShardContext.PRIMARY) {
+            return null;
+        }
+        if (shard < 0 || shard > shards.size()) {
+            throw new IllegalArgumentException("Нет шарда " + shard + " (всего " + size() + ")");
+        }
+        return shards.get(shard - 1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.brand.backend.infrastructure.security.filter;
+
+import com.brand.backend.infrastructure.security.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов к входу, регистрации и Discord API.
+ * <p>
+ * Стоит первым сервлетным фильтром, до Spring Security: отклонённый запрос не доходит ни до JWT,
+ * ни до БД, ни до BCrypt. Ключ - IP клиента (за прокси нужен server.forward-headers-strategy)
+ * или API-ключ Discord-бота.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_KEY_HEADER = "X-API-KEY";
+    private static final byte[] REJECTED_BODY =
+            "{\"status\":429,\"error\":\"Too Many Requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.auth.login-per-minute:10}")
+    private int loginPerMinute;
+
+    @Value("${rate-limit.auth.register-per-minute:5}")
+    private int registerPerMinute;
+
+    @Value("${rate-limit.discord.per-second:20}")
+    private int discordPerSecond;
+
+    public RateLimitFilter(TokenBucketRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String uri = request.getRequestURI();
+        long waitNanos = 0;
+        String rule = null;
+
+        if ("POST".equals(request.getMethod()) && uri.equals("/api/auth/login")) {
+            rule = "login";
+            waitNanos = rateLimiter.tryAcquire(rule, request.getRemoteAddr(), loginPerMinute, TimeUnit.MINUTES.toNanos(1));
+        } else if ("POST".equals(request.getMethod()) && uri.equals("/api/auth/register")) {
+            rule = "register";
+            waitNanos = rateLimiter.tryAcquire(rule, request.getRemoteAddr(), registerPerMinute, TimeUnit.MINUTES.toNanos(1));
+        } else if (uri.startsWith("/api/discord/verify") || uri.startsWith("/api/discord/check-status")) {
+            rule = "discord";
+            String apiKey = request.getHeader(API_KEY_HEADER);
+            String key = apiKey != null ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+            waitNanos = rateLimiter.tryAcquire(rule, key, discordPerSecond, TimeUnit.SECONDS.toNanos(1));
+        }
+
+        if (waitNanos > 0) {
+            reject(rule, request, response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(String rule, HttpServletRequest request, HttpServletResponse response, long waitNanos)
+            throws IOException {
+        meterRegistry.counter("rate.limit.rejected", "rule", rule).increment();
+        log.debug("[RATE LIMIT] {} отклонён для {}", rule, request.getRemoteAddr());
+
+        long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1;
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
@@ -0,0 +1,15 @@
+package com.brand.backend.infrastructure.security.jwt;
+
+import java.security.Principal;
+
+/**
+ * Пользователь запроса, восстановленный из claims access-токена без обращения к БД.
+ * Реализует Principal, поэтому Authentication.getName() по-прежнему возвращает username.
+ */
+public record AuthenticatedUser(Long id, String username, String role, boolean verified) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -1,5 +1,6 @@
 package com.brand.backend.infrastructure.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -8,21 +9,28 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
+/**
+ * Аутентификация по access-токену: токен разбирается и проверяется один раз,
+ * principal строится из claims без обращения к БД. Проверенные токены берутся из {@link VerifiedTokenCache}
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache tokenCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -37,32 +45,48 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
 
         final String token = authHeader.substring(7);
-        final String username;
+        AuthenticatedUser user = tokenCache.get(token);
 
-        try {
-            username = jwtUtil.extractUsername(token);
-        } catch (ExpiredJwtException e) {
-            log.warn("⚠️ [JWT ERROR] Токен просрочен: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token expired");
-            return;
-        } catch (Exception e) {
-            log.error("❌ [JWT ERROR] Ошибка обработки токена: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
-            return;
-        }
+        if (user == null) {
+            try {
+                Claims claims = jwtUtil.parseToken(token);
+                user = jwtUtil.toAuthenticatedUser(claims);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                long issuedAt = jwtUtil.issuedAtMillis(claims);
+                if (tokenCache.isRevoked(user.id(), issuedAt)) {
+                    log.warn("⚠️ [JWT ERROR] Токен пользователя {} отозван", user.id());
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revoked");
+                    return;
+                }
+                tokenCache.put(token, user, issuedAt, claims.getExpiration().getTime());
+            } catch (ExpiredJwtException e) {
+                log.warn("⚠️ [JWT ERROR] Токен просрочен: {}", e.getMessage());
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token expired");
+                return;
+            } catch (Exception e) {
+                log.error("❌ [JWT ERROR] Ошибка обработки токена: {}", e.getMessage());
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+                return;
+            }
+        }
 
-            if (jwtUtil.isTokenValid(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(user, null, authoritiesOf(user));
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private static List<GrantedAuthority> authoritiesOf(AuthenticatedUser user) {
+        List<GrantedAuthority> authorities = new ArrayList<>(2);
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        if (user.role() != null && !"user".equalsIgnoreCase(user.role())) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + user.role().toUpperCase(Locale.ROOT)));
+        }
+        return authorities;
+    }
 }
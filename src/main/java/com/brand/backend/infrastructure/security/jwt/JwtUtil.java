@@ -1,17 +1,23 @@
 package com.brand.backend.infrastructure.security.jwt;
 
+import com.brand.backend.domain.user.model.User;
 import io.jsonwebtoken.*;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import java.util.Date;
-import java.util.function.Function;
 
 @Slf4j
 @Service
 public class JwtUtil {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_VERIFIED = "verified";
+    // iat в JWT - секунды; для сравнения с моментом отзыва нужен момент выпуска в мс
+    static final String CLAIM_ISSUED_AT_MS = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -21,37 +27,73 @@ public class JwtUtil {
     @Value("${jwt.refreshExpiration}")
     private long refreshTokenExpiration;
 
-    public String generateAccessToken(String username) {
-        return generateToken(username, accessTokenExpiration);
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+    }
+
+    /**
+     * Access-токен с данными, достаточными для авторизации запроса без загрузки пользователя
+     */
+    public String generateAccessToken(User user) {
+        return generateAccessToken(new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), user.isVerified()));
     }
 
-    private String generateToken(String username, long expiration) {
+    public String generateAccessToken(AuthenticatedUser user) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setSubject(user.username())
+                .claim(CLAIM_USER_ID, user.id())
+                .claim(CLAIM_ROLE, user.role())
+                .claim(CLAIM_VERIFIED, user.verified())
+                .claim(CLAIM_ISSUED_AT_MS, now)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenExpiration))
                 .signWith(SignatureAlgorithm.HS256, secretKey)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    /**
+     * Проверяет подпись и срок действия токена за один разбор и возвращает его claims
+     *
+     * @throws ExpiredJwtException если токен просрочен
+     * @throws JwtException если токен некорректен
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    /**
+     * Момент выпуска токена в мс. У токенов без iat_ms - iat с точностью до секунды (округлён вниз,
+     * поэтому такой токен, выпущенный в секунду отзыва, считается отозванным)
+     */
+    public long issuedAtMillis(Claims claims) {
+        Long issuedAtMillis = claims.get(CLAIM_ISSUED_AT_MS, Long.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(secretKey)
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+    /**
+     * Пользователь из claims токена
+     *
+     * @throws JwtException если в токене нет нужных claims (токен выпущен до их появления)
+     */
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        if (userId == null || claims.getSubject() == null) {
+            throw new MalformedJwtException("Token has no user claims");
+        }
+        Boolean verified = claims.get(CLAIM_VERIFIED, Boolean.class);
+        return new AuthenticatedUser(
+                userId,
+                claims.getSubject(),
+                claims.get(CLAIM_ROLE, String.class),
+                Boolean.TRUE.equals(verified));
     }
 }
@@ -0,0 +1,276 @@
+package com.brand.backend.infrastructure.security.jwt;
+
+import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.cache.CacheInvalidationBus;
+import com.brand.backend.infrastructure.cache.ClusterCache;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кэш уже проверенных access-токенов.
+ * <p>
+ * Ключ - SHA-256 токена (сами токены в памяти не хранятся), запись живёт до exp токена.
+ * Размер ограничен: при переполнении удаляются просроченные записи, а если места всё равно нет,
+ * токен просто не кэшируется. Отзыв (выход, смена пароля) удаляет записи пользователя и запоминает
+ * момент отзыва, чтобы ранее выданные токены не прошли повторную проверку.
+ * <p>
+ * Момент отзыва и момент выпуска токена (claim iat_ms) сравниваются в мс, токен, выпущенный в ту же
+ * миллисекунду, что и отзыв, считается отозванным. Чтобы это не задело токен, выданный сразу после
+ * отзыва, {@link #revokeUser} возвращается только когда часы ушли за момент отзыва.
+ * <p>
+ * Момент отзыва хранится в users.tokens_revoked_at, уведомление другим узлам лишь ускоряет его применение.
+ * Токен, которого нет в кэше, проверяется по отметкам в памяти: их дополняют уведомления и периодическая
+ * сверка, которая находит отзывы, уведомление о которых не было отправлено вовсе (узел упал до отправки):
+ * такой токен действует не дольше jwt.cache.revocation-sync-interval-ms. К основной БД проверка обращается,
+ * только если отметки заведомо неполные: узел ещё не загрузил их после запуска, после полного сброса кэшей
+ * (пропуск уведомлений) или сверка давно не удавалась. Тогда отметки за срок жизни токенов перечитываются
+ * одним запросом, а если и он не удался, читается отметка пользователя.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache implements ClusterCache {
+
+    private static final String REGION = "token-revocation";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // userId -> момент отзыва (мс); токены, выпущенные не позже, недействительны
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    // Отзыв попадает в БД после коммита, а момент берётся до него; часы узлов тоже расходятся
+    private static final long SYNC_OVERLAP_MS = 60_000;
+
+    private final int maxSize;
+    private final long accessTokenExpiration;
+    private final CacheInvalidationBus invalidationBus;
+    private final UserRepository userRepository;
+    private final long syncInterval;
+    // Момент предыдущей сверки отзывов с БД; 0 - отметки в памяти неполные
+    private volatile long syncedAt;
+    // Перечитывает неполные отметки один поток, остальные не ждут его
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize,
+                              @Value("${jwt.expiration}") long accessTokenExpiration,
+                              @Value("${jwt.cache.revocation-sync-interval-ms:30000}") long syncInterval,
+                              CacheInvalidationBus invalidationBus,
+                              UserRepository userRepository) {
+        this.maxSize = maxSize;
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.syncInterval = syncInterval;
+        this.invalidationBus = invalidationBus;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Пользователь по ранее проверенному токену или null
+     */
+    public AuthenticatedUser get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.user();
+    }
+
+    /**
+     * Кэширует проверенный токен
+     *
+     * @param issuedAt момент выпуска токена (мс)
+     * @param expiresAt момент истечения токена (мс)
+     */
+    public void put(String token, AuthenticatedUser user, long issuedAt, long expiresAt) {
+        if (isRevokedLocally(user.id(), issuedAt) || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            purgeExpired();
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        entries.put(hash(token), new Entry(user, expiresAt));
+        // Отзыв мог произойти между проверкой и вставкой
+        if (isRevokedLocally(user.id(), issuedAt)) {
+            evictUser(user.id());
+        }
+    }
+
+    /**
+     * Отзывает все выпущенные пользователю access-токены
+     */
+    public void revokeUser(Long userId) {
+        long revokedAt = System.currentTimeMillis();
+        userRepository.revokeTokens(userId, revokedAt);
+        revoke(userId, revokedAt);
+        // Пароль уже сменён или сессия закрыта: ждать коммита незачем
+        invalidationBus.publishNow(REGION, userId + "@" + revokedAt);
+        log.info("🔒 [JWT] Токены пользователя {} отозваны", userId);
+        // Токен, выданный после возврата, должен быть выпущен строго позже отзыва
+        while (System.currentTimeMillis() <= revokedAt) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Выпущен ли токен до отзыва токенов пользователя. Вызывается для токена, которого нет в кэше:
+     * отвечают отметки в памяти, основная БД читается, только если они заведомо неполные
+     */
+    public boolean isRevoked(Long userId, long issuedAt) {
+        if (isRevokedLocally(userId, issuedAt)) {
+            return true;
+        }
+        if (isComplete() || reloadIfIncomplete()) {
+            return isRevokedLocally(userId, issuedAt);
+        }
+        WorkloadContext.onPrimary(() -> userRepository.findTokensRevokedAt(userId))
+                .ifPresent(revokedAt -> revoke(userId, revokedAt));
+        return isRevokedLocally(userId, issuedAt);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    /**
+     * Отзыв, выполненный на другом узле: ключ {@code <userId>@<момент отзыва>}
+     */
+    @Override
+    public void invalidate(String key) {
+        int separator = key.indexOf('@');
+        revoke(Long.valueOf(key.substring(0, separator)), Long.parseLong(key.substring(separator + 1)));
+    }
+
+    /**
+     * Полный сброс: уведомления об отзыве могли потеряться, поэтому отметки перечитываются из БД
+     */
+    @Override
+    public void invalidateAll() {
+        entries.clear();
+        syncedAt = 0;
+        syncRevocations();
+    }
+
+    /**
+     * Загрузка отметок за срок жизни токенов при запуске узла
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocations() {
+        syncRevocations();
+    }
+
+    /**
+     * Сверка с БД: отзывы, уведомление о которых не пришло и не оставило разрыва в номерах
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.revocation-sync-interval-ms:30000}",
+            initialDelayString = "${jwt.cache.revocation-sync-interval-ms:30000}")
+    public void syncRevocations() {
+        syncRevocations(syncedAt - SYNC_OVERLAP_MS);
+    }
+
+    /**
+     * Удаляет просроченные записи и отметки отзыва, пережившие срок жизни токенов
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        revokedBefore.values().removeIf(revokedAt -> revokedAt + accessTokenExpiration <= now);
+    }
+
+    private boolean isRevokedLocally(Long userId, long issuedAt) {
+        Long revokedAt = revokedBefore.get(userId);
+        return revokedAt != null && issuedAt <= revokedAt;
+    }
+
+    /**
+     * Отметки полны, пока сверка удаётся: одну пропущенную сверку допускаем
+     */
+    private boolean isComplete() {
+        long synced = syncedAt;
+        return synced != 0 && System.currentTimeMillis() - synced <= 2 * syncInterval;
+    }
+
+    private boolean reloadIfIncomplete() {
+        if (!reloadLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (!isComplete()) {
+                syncRevocations();
+            }
+            return isComplete();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void syncRevocations(long since) {
+        long now = System.currentTimeMillis();
+        try {
+            // Без предыдущей сверки перечитываются отзывы за весь срок жизни токенов
+            List<Object[]> revocations = WorkloadContext.onPrimary(() -> userRepository
+                    .findTokenRevocationsAfter(Math.max(since, now - accessTokenExpiration)));
+            for (Object[] row : revocations) {
+                revoke((Long) row[0], (Long) row[1]);
+            }
+            syncedAt = now;
+        } catch (RuntimeException e) {
+            // Пока сверка не удаётся, отметки становятся неполными и токены без записи в кэше проверяются по БД
+            log.warn("⚠️ [JWT] Не удалось перечитать отзывы токенов: {}", e.getMessage());
+        }
+    }
+
+    private void revoke(Long userId, long revokedAt) {
+        Long previous = revokedBefore.get(userId);
+        if (previous != null && previous >= revokedAt) {
+            // Отзыв уже применён, записи пользователя удалены тогда же
+            return;
+        }
+        revokedBefore.merge(userId, revokedAt, Math::max);
+        evictUser(userId);
+    }
+
+    private void evictUser(Long userId) {
+        entries.values().removeIf(entry -> entry.user().id().equals(userId));
+    }
+
+    private static String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private record Entry(AuthenticatedUser user, long expiresAt) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.brand.backend.infrastructure.security.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket на каждый ключ клиента (IP, API-ключ, username).
+ * <p>
+ * Состояние корзины - одно число (момент, когда корзина снова станет полной), обновляемое CAS без блокировок.
+ * Корзины разложены по нескольким картам (stripe) по хэшу ключа, число ключей в каждой ограничено.
+ * Полная корзина ничем не отличается от новой, поэтому простаивающие корзины удаляются плановой задачей
+ * без потери состояния. Если stripe переполнен ключами, новые ключи правила до следующей очистки делят
+ * общую корзину stripe'а для этого правила - так перебор ключей не раздувает память и не обходит лимит,
+ * а запрос с новым ключом не перебирает stripe.
+ */
+@Slf4j
+@Component
+public class TokenBucketRateLimiter {
+
+    private final Map<String, Bucket>[] stripes;
+    // Общие корзины переполненного stripe'а: имя правила -> корзина
+    private final Map<String, Bucket>[] overflow;
+    private final int maxKeysPerStripe;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter(@Value("${rate-limit.stripes:16}") int stripes,
+                                  @Value("${rate-limit.max-keys:100000}") int maxKeys,
+                                  MeterRegistry meterRegistry) {
+        int stripeCount = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Map[stripeCount];
+        this.overflow = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+            this.overflow[i] = new ConcurrentHashMap<>();
+        }
+        this.maxKeysPerStripe = Math.max(1, maxKeys / stripeCount);
+        Gauge.builder("rate.limit.keys", this, TokenBucketRateLimiter::size).register(meterRegistry);
+    }
+
+    /**
+     * Забирает токен из корзины ключа
+     *
+     * @param rule имя правила; у каждого правила свои корзины
+     * @param key ключ клиента
+     * @param capacity размер корзины - сколько запросов допускается подряд
+     * @param periodNanos время полного восполнения корзины
+     * @return 0, если запрос разрешён, иначе сколько наносекунд ждать следующего токена
+     */
+    public long tryAcquire(String rule, String key, int capacity, long periodNanos) {
+        long now = System.nanoTime();
+        long interval = periodNanos / capacity;
+        Bucket bucket = bucketFor(rule, rule + ':' + key, now);
+
+        while (true) {
+            long full = bucket.fullAt.get();
+            long next = Math.max(full, now) + interval;
+            long excess = next - now - periodNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.fullAt.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, Bucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Удаляет полные (простаивающие) корзины - единственное место, где перебираются stripe'ы
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Map<String, Bucket> stripe : stripes) {
+            int before = stripe.size();
+            stripe.values().removeIf(bucket -> bucket.isFull(now));
+            evicted += before - stripe.size();
+        }
+        for (Map<String, Bucket> shared : overflow) {
+            shared.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        if (evicted > 0) {
+            log.debug("[RATE LIMIT] Удалено простаивающих корзин: {}", evicted);
+        }
+    }
+
+    private Bucket bucketFor(String rule, String key, long now) {
+        int hash = key.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (stripes.length - 1);
+        Map<String, Bucket> stripe = stripes[index];
+
+        Bucket bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxKeysPerStripe) {
+            // Место освободит плановая очистка; до неё новый ключ делит корзину правила
+            return overflow[index].computeIfAbsent(rule, r -> new Bucket(now));
+        }
+        return stripe.computeIfAbsent(key, k -> new Bucket(now));
+    }
+
+    private static final class Bucket {
+        // Момент (System.nanoTime), когда корзина снова будет полной
+        private final AtomicLong fullAt;
+
+        private Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        private boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+    }
+}
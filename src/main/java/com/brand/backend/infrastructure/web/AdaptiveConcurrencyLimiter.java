@@ -0,0 +1,158 @@
+package com.brand.backend.infrastructure.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременных запросов для каждой группы эндпоинтов (AIMD).
+ * <p>
+ * Запрос, уложившийся в целевое время группы при достаточной загрузке, увеличивает лимит на 1;
+ * медленный запрос или ошибка 5xx уменьшают его в backoff-ratio раз - не чаще раза за время ответа:
+ * запросы, начатые до предыдущего уменьшения, видели ту же перегрузку и лимит повторно не снижают.
+ * Иначе одна волна медленных ответов сбрасывала бы лимит сразу до минимума. Пока группа с более высоким
+ * приоритетом упирается в свой лимит, группы ниже неё работают с минимальным лимитом, освобождая
+ * потоки и соединения с БД.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final Map<EndpointGroup, GroupLimit> limits = new EnumMap<>(EndpointGroup.class);
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+
+    public AdaptiveConcurrencyLimiter(@Value("${concurrency.initial-limit:20}") int initialLimit,
+                                      @Value("${concurrency.min-limit:4}") int minLimit,
+                                      @Value("${concurrency.max-limit:200}") int maxLimit,
+                                      @Value("${concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                      Environment environment,
+                                      MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+
+        for (EndpointGroup group : EndpointGroup.values()) {
+            long targetMs = environment.getProperty("concurrency." + group.getKey() + ".latency-target-ms",
+                    Long.class, group.getDefaultLatencyTargetMs());
+            GroupLimit limit = new GroupLimit(group, TimeUnit.MILLISECONDS.toNanos(targetMs), initialLimit,
+                    meterRegistry.counter("http.concurrency.rejected", "group", group.getKey()));
+            limits.put(group, limit);
+
+            Gauge.builder("http.concurrency.limit", limit, l -> l.limit)
+                    .tag("group", group.getKey()).register(meterRegistry);
+            Gauge.builder("http.concurrency.inflight", limit, l -> l.inFlight.get())
+                    .tag("group", group.getKey()).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Занимает слот группы
+     *
+     * @return разрешение, которое нужно вернуть через {@link Permit#release(int)}, или null, если запрос отклонён
+     */
+    public Permit tryAcquire(EndpointGroup group) {
+        GroupLimit limit = limits.get(group);
+        int allowed = isHigherPriorityCongested(group) ? minLimit : (int) limit.limit;
+
+        while (true) {
+            int current = limit.inFlight.get();
+            if (current >= allowed) {
+                limit.rejected.increment();
+                return null;
+            }
+            if (limit.inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(limit, current + 1, System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit(EndpointGroup group) {
+        return (int) limits.get(group).limit;
+    }
+
+    private boolean isHigherPriorityCongested(EndpointGroup group) {
+        for (EndpointGroup higher : EndpointGroup.values()) {
+            if (higher == group) {
+                return false;
+            }
+            GroupLimit limit = limits.get(higher);
+            if (limit.inFlight.get() >= (int) limit.limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onComplete(GroupLimit limit, int inFlightAtStart, long startedAt, int status) {
+        long completedAt = System.nanoTime();
+        limit.inFlight.decrementAndGet();
+        synchronized (limit) {
+            double previous = limit.limit;
+            if (status >= 500 || completedAt - startedAt > limit.latencyTargetNanos) {
+                if (startedAt - limit.lastDecreaseAt >= 0) {
+                    limit.limit = Math.max(minLimit, previous * backoffRatio);
+                    limit.lastDecreaseAt = completedAt;
+                }
+            } else if (inFlightAtStart * 2 >= previous) {
+                // Растём, только если лимит действительно используется
+                limit.limit = Math.min(maxLimit, previous + 1);
+            }
+            if ((int) previous != (int) limit.limit) {
+                log.debug("[CONCURRENCY] {}: лимит {} -> {}", limit.group.getKey(), (int) previous, (int) limit.limit);
+            }
+        }
+    }
+
+    /**
+     * Занятый слот группы
+     */
+    public final class Permit {
+        private final GroupLimit limit;
+        private final int inFlightAtStart;
+        private final long startedAt;
+
+        private Permit(GroupLimit limit, int inFlightAtStart, long startedAt) {
+            this.limit = limit;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Освобождает слот и учитывает время ответа в лимите группы
+         *
+         * @param status HTTP-статус ответа
+         */
+        public void release(int status) {
+            onComplete(limit, inFlightAtStart, startedAt, status);
+        }
+    }
+
+    private static final class GroupLimit {
+        private final EndpointGroup group;
+        private final long latencyTargetNanos;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rejected;
+        private volatile double limit;
+        // Момент (System.nanoTime) последнего уменьшения лимита; меняется под монитором группы
+        private long lastDecreaseAt;
+
+        private GroupLimit(EndpointGroup group, long latencyTargetNanos, int initialLimit, Counter rejected) {
+            this.group = group;
+            this.latencyTargetNanos = latencyTargetNanos;
+            this.limit = initialLimit;
+            this.rejected = rejected;
+            this.lastDecreaseAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.brand.backend.infrastructure.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Сброс нагрузки: запросы сверх адаптивного лимита группы сразу получают 503 с Retry-After,
+ * не занимая потоки и соединения с БД. Стоит сразу после ограничения частоты, до Spring Security.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"status\":503,\"error\":\"Service Unavailable\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Value("${concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${concurrency.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        EndpointGroup group = EndpointGroup.resolve(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(group);
+        if (permit == null) {
+            log.debug("[CONCURRENCY] {}: запрос отклонён, лимит {}", group.getKey(), limiter.getLimit(group));
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(REJECTED_BODY.length);
+            response.getOutputStream().write(REJECTED_BODY);
+            return;
+        }
+
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            permit.release(status);
+        }
+    }
+}
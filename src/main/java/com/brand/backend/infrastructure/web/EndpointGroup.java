@@ -0,0 +1,39 @@
+package com.brand.backend.infrastructure.web;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Группы эндпоинтов с отдельными лимитами конкурентности.
+ * Порядок объявления - приоритет: при перегрузке группы все группы ниже неё урезаются до минимального лимита.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EndpointGroup {
+    CHECKOUT("checkout", 500),
+    AUTH("auth", 1000),
+    CATALOG("catalog", 200),
+    ADMIN("admin", 2000);
+
+    private final String key;
+    private final long defaultLatencyTargetMs;
+
+    /**
+     * Группа запроса или null, если эндпоинт не ограничивается
+     */
+    public static EndpointGroup resolve(String method, String uri) {
+        if (uri.startsWith("/api/orders")) {
+            return CHECKOUT;
+        }
+        if (uri.startsWith("/api/auth/") || uri.startsWith("/api/discord/")) {
+            return AUTH;
+        }
+        if (uri.startsWith("/api/products") && "GET".equals(method)) {
+            return CATALOG;
+        }
+        if (uri.startsWith("/api/admin/")) {
+            return ADMIN;
+        }
+        return null;
+    }
+}
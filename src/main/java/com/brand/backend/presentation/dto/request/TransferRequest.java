@@ -0,0 +1,8 @@
+package com.brand.backend.presentation.dto.request;
+
+import lombok.Data;
+
+@Data
+public class TransferRequest {
+    private String externalAddress;
+}
@@ -20,7 +20,6 @@ public class UserDTO {
     private LocalDateTime updatedAt;
 
     // Новые поля, отражающие актуальную структуру таблицы
-    private String verificationCode;
     private boolean verified;
     private Long discordId;
     private LocalDateTime lastLogin;
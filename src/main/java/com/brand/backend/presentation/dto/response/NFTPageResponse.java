@@ -0,0 +1,16 @@
+package com.brand.backend.presentation.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница NFT. nextCursor передаётся в параметре cursor для следующей страницы, null - страниц больше нет.
+ */
+@Data
+@AllArgsConstructor
+public class NFTPageResponse {
+    private List<NFTDto> items;
+    private Long nextCursor;
+}
@@ -25,10 +25,15 @@ public class AdminController {
     private final UserService userService;
     private final NFTService nftService;
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/orders")
-    public ResponseEntity<List<OrderResponseDto>> getAllOrders() {
-        List<OrderResponseDto> orders = orderService.getAllOrders();
+    public ResponseEntity<List<OrderResponseDto>> getAllOrders(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                               @RequestParam(value = "size", defaultValue = "50") int size) {
+        // Глубокие страницы дороже: каждый шард читает page * size + size строк
+        List<OrderResponseDto> orders = orderService.getAllOrders(Math.max(0, page),
+                Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
         return ResponseEntity.ok(orders);
     }
 
@@ -4,8 +4,10 @@ import com.brand.backend.presentation.dto.request.UserLoginRequest;
 import com.brand.backend.presentation.dto.request.UserRegistrationRequest;
 import com.brand.backend.domain.user.model.User;
 import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.security.jwt.AuthenticatedUser;
 import com.brand.backend.infrastructure.security.jwt.JwtUtil;
 import com.brand.backend.application.auth.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,10 +40,10 @@ public class AuthController {
             user.setUsername(request.getUsername());
             user.setVerified(false);
 
-            authService.registerUser(user, request.getPassword());
+            User savedUser = authService.registerUser(user, request.getPassword());
 
             response.put("message", "User registered successfully");
-            response.put("verificationCode", user.getVerificationCode());
+            response.put("verificationCode", authService.issueVerificationCode(savedUser));
 
             log.info("Регистрация успешна для пользователя: {}", request.getUsername());
             return ResponseEntity.ok(response);
@@ -60,11 +62,13 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> loginUser(@RequestBody @Valid UserLoginRequest request) {
+    public ResponseEntity<Map<String, String>> loginUser(@RequestBody @Valid UserLoginRequest request,
+                                                         HttpServletRequest httpRequest) {
 
         log.info("📥 [LOGIN] Получен запрос на вход: {}", request.getUsername());
 
-        Optional<User> userOptional = authService.authenticateUser(request.getUsername(), request.getPassword());
+        Optional<User> userOptional = authService.authenticateUser(request.getUsername(), request.getPassword(),
+                httpRequest.getRemoteAddr());
         Map<String, String> response = new HashMap<>();
 
         if (userOptional.isEmpty()) {
@@ -79,12 +83,12 @@ public class AuthController {
         if (!user.isVerified()) {
             log.warn("⚠️ [LOGIN BLOCKED] Аккаунт {} не верифицирован!", request.getUsername());
             response.put("message", "Account not verified. Use this code in Telegram bot:");
-            response.put("verificationCode", user.getVerificationCode());
+            response.put("verificationCode", authService.issueVerificationCode(user));
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
         }
 
         log.info("🔑 [JWT] Генерация токена для {}", request.getUsername());
-        String accessToken = jwtUtil.generateAccessToken(user.getUsername());
+        String accessToken = jwtUtil.generateAccessToken(user);
         String refreshToken = authService.generateRefreshToken(user);
 
         response.put("message", "Login successful");
@@ -99,8 +103,8 @@ public class AuthController {
     @PostMapping("/refresh")
     public ResponseEntity<Map<String, String>> refreshAccessToken(@RequestBody Map<String, String> request) {
         String refreshToken = request.get("refreshToken");
-        String username = authService.refreshAccessToken(refreshToken);
-        String newAccessToken = jwtUtil.generateAccessToken(username);
+        AuthenticatedUser user = authService.refreshAccessToken(refreshToken);
+        String newAccessToken = jwtUtil.generateAccessToken(user);
 
         Map<String, String> response = new HashMap<>();
         response.put("accessToken", newAccessToken);
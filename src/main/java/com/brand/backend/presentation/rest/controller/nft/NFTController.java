@@ -1,14 +1,20 @@
 package com.brand.backend.presentation.rest.controller.nft;
 
+import com.brand.backend.common.exeption.ConflictException;
 import com.brand.backend.presentation.dto.request.RevealRequest;
+import com.brand.backend.presentation.dto.request.TransferRequest;
 import com.brand.backend.presentation.dto.response.NFTDto;
-import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.presentation.dto.response.NFTPageResponse;
+import com.brand.backend.domain.nft.model.NFTSummary;
+import com.brand.backend.domain.nft.model.NFTTransfer;
 import com.brand.backend.application.nft.service.NFTService;
 import com.brand.backend.application.user.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -19,24 +25,32 @@ public class NFTController {
     private final NFTService nftService;
     private final UserService userService; // Предполагается, что через этот сервис получаем текущего пользователя
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     /**
      * Эндпоинт для получения списка NFT для текущего пользователя.
+     * Без limit и cursor - как раньше, массив всех NFT. С limit или cursor - страница {@link NFTPageResponse}:
+     * cursor - nextCursor из предыдущего ответа. revealed - необязательный фильтр в обоих режимах.
      */
     @GetMapping("/me")
-    public ResponseEntity<List<NFTDto>> getMyNFTs() {
-        // Получаем текущего пользователя (например, через Spring Security)
-        var currentUser = userService.getCurrentUser();
-        List<NFT> nfts = nftService.getNFTsForUser(userService.getUserByUsername(currentUser.getUsername()));
-        // Преобразуем в DTO для отдачи на фронтенд
-        List<NFTDto> nftDtos = nfts.stream().map(nft -> new NFTDto(
-                nft.getId(),
-                nft.getPlaceholderUri(),
-                nft.getRevealedUri(),
-                nft.isRevealed(),
-                nft.getRarity(),
-                nft.getCreatedAt()
-        )).collect(Collectors.toList());
-        return ResponseEntity.ok(nftDtos);
+    public ResponseEntity<?> getMyNFTs(@RequestParam(value = "cursor", required = false) Long cursor,
+                                       @RequestParam(value = "limit", required = false) Integer limit,
+                                       @RequestParam(value = "revealed", required = false) Boolean revealed) {
+        Long userId = userService.getCurrentUserId();
+        if (limit == null && cursor == null) {
+            List<NFTDto> nftDtos = nftService.getNFTSummariesForUser(userId, revealed).stream()
+                    .map(NFTController::toDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(nftDtos);
+        }
+
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+        NFTService.NFTPage page = nftService.getNFTPageForUser(userId, revealed, cursor, pageSize);
+        List<NFTDto> nftDtos = page.items().stream()
+                .map(NFTController::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new NFTPageResponse(nftDtos, page.nextCursor()));
     }
 
     /**
@@ -48,4 +62,39 @@ public class NFTController {
         nftService.revealNFT(nftId, request.getRevealedUri());
         return ResponseEntity.ok("NFT успешно раскрыт");
     }
-}
\ No newline at end of file
+
+    /**
+     * Эндпоинт для передачи своего NFT на внешний кошелек.
+     * Передача ставится в очередь и выполняется пачкой, поэтому возвращается 202.
+     * Если NFT уже на внешнем кошельке или его передача ещё не завершена - 409.
+     */
+    @PostMapping("/{id}/transfer")
+    public ResponseEntity<Map<String, Object>> transferNFT(@PathVariable("id") Long nftId, @RequestBody TransferRequest request) {
+        if (!nftService.isOwnedBy(nftId, userService.getCurrentUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "NFT не принадлежит пользователю"));
+        }
+
+        try {
+            NFTTransfer transfer = nftService.transferNFTToExternalWallet(nftId, request.getExternalAddress());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "transferId", transfer.getId(),
+                    "status", transfer.getStatus().name()
+            ));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static NFTDto toDto(NFTSummary nft) {
+        return new NFTDto(
+                nft.id(),
+                nft.placeholderUri(),
+                nft.revealedUri(),
+                nft.revealed(),
+                nft.rarity(),
+                nft.createdAt()
+        );
+    }
+}
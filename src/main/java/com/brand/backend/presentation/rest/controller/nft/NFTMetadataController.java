@@ -0,0 +1,88 @@
+package com.brand.backend.presentation.rest.controller.nft;
+
+import com.brand.backend.application.nft.service.NFTMetadataService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Раздача метаданных NFT для кошельков и маркетплейсов. Запросы не обращаются к БД.
+ */
+@RestController
+@RequestMapping("/api/nfts")
+@RequiredArgsConstructor
+public class NFTMetadataController {
+
+    // Атрибуты Tomcat для отправки файла через sendfile, минуя буферы приложения
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE_CONTROL =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+
+    private final NFTMetadataService metadataService;
+
+    /**
+     * tokenURI NFT: перенаправляет на неизменяемый файл текущей версии метаданных.
+     * Ответ кэшируется ненадолго, т.к. после раскрытия версия меняется.
+     */
+    @GetMapping("/{id}/metadata")
+    public ResponseEntity<Void> getMetadata(@PathVariable("id") Long nftId) {
+        return metadataService.getHash(nftId)
+                .map(hash -> ResponseEntity.status(HttpStatus.FOUND)
+                        .header(HttpHeaders.LOCATION, "/api/nfts/metadata/" + hash + ".json")
+                        .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic())
+                        .<Void>build())
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * JSON метаданных по хэшу содержимого
+     */
+    @GetMapping("/metadata/{hash:[0-9a-f]{64}}.json")
+    public void getMetadataByHash(@PathVariable("hash") String hash,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        Optional<Path> file = metadataService.resolve(hash);
+        if (file.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        Path path = file.get();
+        long length = Files.size(path);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLengthLong(length);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        Files.copy(path, response.getOutputStream());
+    }
+}
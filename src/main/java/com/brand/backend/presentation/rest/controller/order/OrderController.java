@@ -4,6 +4,7 @@ import com.brand.backend.presentation.dto.request.OrderDto;
 import com.brand.backend.presentation.dto.response.OrderResponseDto;
 import com.brand.backend.common.exeption.ResourceNotFoundException;
 import com.brand.backend.application.order.service.OrderService;
+import com.brand.backend.infrastructure.security.jwt.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,7 +17,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -41,9 +42,9 @@ public class OrderController {
     @PostMapping
     public ResponseEntity<OrderResponseDto> createOrder(
             @Parameter(description = "Данные нового заказа") @Valid @RequestBody OrderDto orderDto,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser principal) {
         
-        OrderResponseDto createdOrder = orderService.createOrder(authentication.getName(), orderDto);
+        OrderResponseDto createdOrder = orderService.createOrder(principal.id(), orderDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
@@ -69,8 +70,8 @@ public class OrderController {
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован")
     })
     @GetMapping
-    public ResponseEntity<List<OrderResponseDto>> getUserOrders(Authentication authentication) {
-        List<OrderResponseDto> orders = orderService.getUserOrders(authentication.getName());
+    public ResponseEntity<List<OrderResponseDto>> getUserOrders(@AuthenticationPrincipal AuthenticatedUser principal) {
+        List<OrderResponseDto> orders = orderService.getUserOrders(principal.id());
         return ResponseEntity.ok(orders);
     }
 
@@ -84,9 +85,9 @@ public class OrderController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> cancelOrder(
             @Parameter(description = "ID заказа") @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser principal) {
         
-        orderService.cancelOrder(id, authentication.getName());
+        orderService.cancelOrder(id, principal.id());
         return ResponseEntity.noContent().build();
     }
 }
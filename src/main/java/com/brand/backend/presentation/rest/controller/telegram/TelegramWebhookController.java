@@ -0,0 +1,38 @@
+package com.brand.backend.presentation.rest.controller.telegram;
+
+import com.brand.backend.infrastructure.integration.telegram.TelegramWebhookIngest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Общая точка приёма обновлений Telegram для всех ботов в режиме webhook
+ */
+@Slf4j
+@RestController
+@RequestMapping(TelegramWebhookIngest.PATH)
+@RequiredArgsConstructor
+public class TelegramWebhookController {
+
+    private final TelegramWebhookIngest webhookIngest;
+
+    @PostMapping("/{bot}")
+    public ResponseEntity<Void> receive(@PathVariable String bot,
+                                        @RequestHeader(value = TelegramWebhookIngest.SECRET_HEADER, required = false) String secret,
+                                        @RequestBody Update update) {
+        if (!webhookIngest.verifySecret(secret)) {
+            log.warn("Обновление Telegram для бота {} с неверным секретом отклонено", bot);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        webhookIngest.accept(bot, update);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,15 @@
+-- Резервы остатка под заказы, которые пишутся в шард (OrderReservationService).
+-- Нужны только в основной БД; на шардах таблица остаётся пустой
+CREATE TABLE order_reservations (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_number varchar(255) NOT NULL,
+    shard        integer      NOT NULL,
+    product_id   bigint       NOT NULL,
+    size         varchar(255) NOT NULL,
+    promo_code   varchar(255),
+    created_at   timestamp(6) NOT NULL,
+    CONSTRAINT order_reservations_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_order_reservations_order_number UNIQUE (order_number)
+);
+
+CREATE INDEX idx_order_reservations_created_at ON order_reservations (created_at);
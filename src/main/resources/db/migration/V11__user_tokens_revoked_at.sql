@@ -0,0 +1,7 @@
+-- Момент последнего отзыва access-токенов пользователя (мс от эпохи, как iat токена).
+-- Узлы читают его при промахе кэша проверенных токенов и после полного сброса кэшей,
+-- поэтому потерянное уведомление об отзыве не оставляет отозванный токен действующим.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS tokens_revoked_at BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_users_tokens_revoked_at ON users (tokens_revoked_at)
+    WHERE tokens_revoked_at IS NOT NULL;
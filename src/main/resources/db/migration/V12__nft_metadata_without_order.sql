@@ -0,0 +1,3 @@
+-- Публичные метаданные NFT больше не содержат номер заказа. Сбрасываем хэши, чтобы
+-- NFTMetadataService.backfill при запуске перерендерил JSON, а файлы прежних версий удалил.
+UPDATE nfts SET metadata_hash = NULL WHERE metadata_hash IS NOT NULL;
@@ -0,0 +1,11 @@
+-- Состояние диалога Telegram-ботов (ожидание кода привязки, поискового запроса) вместо карт в памяти узла:
+-- в режиме webhook следующее сообщение чата может прийти на другой узел
+CREATE TABLE IF NOT EXISTS telegram_chat_states (
+    bot        varchar(16)                 NOT NULL,
+    chat_id    bigint                      NOT NULL,
+    state      varchar(64)                 NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    CONSTRAINT telegram_chat_states_pkey PRIMARY KEY (bot, chat_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_telegram_chat_states_expires_at ON telegram_chat_states (expires_at);
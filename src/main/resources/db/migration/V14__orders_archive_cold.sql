@@ -0,0 +1,33 @@
+-- Холодный архив заказов: отсоединённые секции orders_archive наследуют orders_archive_cold
+-- (OrderArchiveService.detachPartitionsBefore), поэтому их строки остаются видны в order_history без копирования.
+-- Сама таблица пустая; удалить старые данные - DROP TABLE нужной секции *_detached_*
+CREATE TABLE IF NOT EXISTS orders_archive_cold (LIKE orders_archive INCLUDING DEFAULTS);
+
+-- Секции, отсоединённые до появления холодного архива
+DO $$
+DECLARE
+    detached regclass;
+BEGIN
+    FOR detached IN
+        SELECT c.oid::regclass FROM pg_class c
+        JOIN pg_namespace ns ON ns.oid = c.relnamespace
+        WHERE ns.nspname = current_schema() AND c.relkind = 'r'
+          AND c.relname LIKE 'orders\_archive\_p%\_detached\_%'
+          AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid)
+    LOOP
+        EXECUTE format('ALTER TABLE %s INHERIT orders_archive_cold', detached);
+    END LOOP;
+END $$;
+
+CREATE OR REPLACE VIEW order_history AS
+SELECT id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+       created_at, updated_at, user_id, contact_id, status, false AS archived
+FROM orders
+UNION ALL
+SELECT id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+       created_at, updated_at, user_id, contact_id, status, true AS archived
+FROM orders_archive
+UNION ALL
+SELECT id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+       created_at, updated_at, user_id, contact_id, status, true AS archived
+FROM orders_archive_cold;
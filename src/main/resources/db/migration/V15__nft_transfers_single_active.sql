@@ -0,0 +1,11 @@
+-- Не больше одной незавершённой передачи на NFT (NFTTransferService.requestTransfer):
+-- проверка в сервисе не защищает от двух одновременных запросов.
+-- Дубли, ещё не отправленные в блокчейн, закрываются до создания индекса
+UPDATE nft_transfers t
+SET status = 'FAILED', error_message = 'Дубликат незавершённой передачи'
+WHERE t.status = 'QUEUED'
+  AND EXISTS (SELECT 1 FROM nft_transfers o
+              WHERE o.nft_id = t.nft_id AND o.status IN ('QUEUED', 'SUBMITTED') AND o.id < t.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_nft_transfers_active_nft ON nft_transfers (nft_id)
+    WHERE status IN ('QUEUED', 'SUBMITTED');
@@ -0,0 +1,19 @@
+-- Тираж уровней редкости хранится в БД, а не в памяти узла (RarityAllocationService):
+-- выдачу резервирует условный UPDATE issued = issued + 1 WHERE issued < cap, поэтому лимит общий для всех узлов.
+-- Строки создаёт приложение при старте для ограниченных уровней из nft.rarity.tiers
+CREATE TABLE IF NOT EXISTS nft_rarity_supply (
+    drop_id varchar(255) NOT NULL,
+    rarity  varchar(255) NOT NULL,
+    cap     integer      NOT NULL,
+    issued  integer      NOT NULL,
+    CONSTRAINT nft_rarity_supply_pkey PRIMARY KEY (drop_id, rarity),
+    CONSTRAINT ck_nft_rarity_supply_issued CHECK (issued >= 0)
+);
+
+-- Номера выдач редкости (общие для всех дропов): номер берётся из последовательности БД,
+-- поэтому два узла не выдадут один (drop_id, sequence). Откаченная выдача оставляет пропуск в номерах
+CREATE SEQUENCE IF NOT EXISTS nft_rarity_draw_seq;
+SELECT setval('nft_rarity_draw_seq', GREATEST(
+        (SELECT COALESCE(MAX(sequence), -1) + 1 FROM nft_rarity_allocations),
+        (SELECT COALESCE(MAX(allocation_seq), -1) + 1 FROM nfts),
+        1), false);
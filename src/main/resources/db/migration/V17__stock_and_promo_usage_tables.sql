@@ -0,0 +1,35 @@
+-- Остатки товаров и счётчик использований промокодов меняются на каждом заказе. Пока они были колонками
+-- products и promo_codes, каждое оформление сбрасывало регионы product/promo-code и кэш запросов на всех узлах.
+-- Переносим их в отдельные таблицы без кэша второго уровня: в products и promo_codes остаются
+-- редко меняющиеся данные каталога.
+CREATE TABLE product_stock (
+    product_id           bigint  NOT NULL,
+    available_quantity_s integer NOT NULL,
+    available_quantity_m integer NOT NULL,
+    available_quantity_l integer NOT NULL,
+    CONSTRAINT product_stock_pkey PRIMARY KEY (product_id),
+    CONSTRAINT fk_product_stock_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE,
+    CONSTRAINT ck_product_stock_quantity
+        CHECK (available_quantity_s >= 0 AND available_quantity_m >= 0 AND available_quantity_l >= 0)
+);
+
+INSERT INTO product_stock (product_id, available_quantity_s, available_quantity_m, available_quantity_l)
+SELECT id, available_quantity_s, available_quantity_m, available_quantity_l FROM products;
+
+ALTER TABLE products
+    DROP COLUMN available_quantity_s,
+    DROP COLUMN available_quantity_m,
+    DROP COLUMN available_quantity_l;
+
+CREATE TABLE promo_code_usage (
+    promo_code_id bigint  NOT NULL,
+    used_count    integer NOT NULL,
+    CONSTRAINT promo_code_usage_pkey PRIMARY KEY (promo_code_id),
+    CONSTRAINT fk_promo_code_usage_promo_code FOREIGN KEY (promo_code_id) REFERENCES promo_codes (id) ON DELETE CASCADE,
+    CONSTRAINT ck_promo_code_usage_used_count CHECK (used_count >= 0)
+);
+
+INSERT INTO promo_code_usage (promo_code_id, used_count)
+SELECT id, used_count FROM promo_codes;
+
+ALTER TABLE promo_codes DROP COLUMN used_count;
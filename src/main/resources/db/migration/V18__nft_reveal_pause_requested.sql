@@ -0,0 +1,3 @@
+-- Запрос паузы задания раскрытия хранится в БД: команду принимает админ-бот на любом узле,
+-- а задание выполняет ведущий узел роли nft-reveal и проверяет флаг перед каждой волной
+ALTER TABLE nft_reveal_jobs ADD COLUMN IF NOT EXISTS pause_requested boolean NOT NULL DEFAULT false;
@@ -0,0 +1,17 @@
+-- Задания пакетного раскрытия NFT (NFTRevealJobService).
+-- Миграции V1_x добавляют объекты, появившиеся после baseline-схемы. На БД, помеченных baseline-версией 1,
+-- они могли уже быть созданы ddl-auto=update, поэтому скрипты не падают на существующих объектах.
+CREATE TABLE IF NOT EXISTS nft_reveal_jobs (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY,
+    base_uri          varchar(255) NOT NULL,
+    status            varchar(255) NOT NULL,
+    last_processed_id bigint       NOT NULL,
+    processed_count   bigint       NOT NULL,
+    total_count       bigint       NOT NULL,
+    started_by        varchar(255),
+    error_message     varchar(255),
+    created_at        timestamp(6) NOT NULL,
+    updated_at        timestamp(6),
+    finished_at       timestamp(6),
+    CONSTRAINT nft_reveal_jobs_pkey PRIMARY KEY (id)
+);
@@ -0,0 +1,20 @@
+-- Вывод NFT на внешний кошелёк (NFTTransferService)
+ALTER TABLE nfts ADD COLUMN IF NOT EXISTS external_address varchar(255);
+
+CREATE TABLE IF NOT EXISTS nft_transfers (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY,
+    nft_id              bigint       NOT NULL,
+    destination_address varchar(255) NOT NULL,
+    status              varchar(255) NOT NULL,
+    tx_hash             varchar(255),
+    attempts            integer      NOT NULL,
+    error_message       varchar(255),
+    created_at          timestamp(6) NOT NULL,
+    submitted_at        timestamp(6),
+    confirmed_at        timestamp(6),
+    CONSTRAINT nft_transfers_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_nft_transfers_nft FOREIGN KEY (nft_id) REFERENCES nfts (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_nft_transfers_status_destination ON nft_transfers (status, destination_address);
+CREATE INDEX IF NOT EXISTS idx_nft_transfers_tx_hash ON nft_transfers (tx_hash);
@@ -0,0 +1,15 @@
+-- Распределение редкости по дропам (RarityAllocationService): номер NFT в дропе и журнал выдач
+ALTER TABLE nfts ADD COLUMN IF NOT EXISTS drop_id varchar(255);
+ALTER TABLE nfts ADD COLUMN IF NOT EXISTS allocation_seq bigint;
+
+CREATE TABLE IF NOT EXISTS nft_rarity_allocations (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY,
+    drop_id    varchar(255) NOT NULL,
+    sequence   bigint       NOT NULL,
+    rarity     varchar(255) NOT NULL,
+    seed       bigint       NOT NULL,
+    order_id   bigint,
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT nft_rarity_allocations_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_nft_rarity_allocations_drop_seq UNIQUE (drop_id, sequence)
+);
@@ -0,0 +1,3 @@
+-- Постраничная выдача NFT пользователя (/api/nfts/me)
+CREATE INDEX IF NOT EXISTS idx_nfts_user_id_id ON nfts (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_nfts_user_id_revealed_id ON nfts (user_id, revealed, id);
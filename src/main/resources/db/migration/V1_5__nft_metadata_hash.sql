@@ -0,0 +1,2 @@
+-- Хэш опубликованных метаданных NFT (NFTMetadataService)
+ALTER TABLE nfts ADD COLUMN IF NOT EXISTS metadata_hash varchar(64);
@@ -0,0 +1,16 @@
+-- Коды верификации с ограниченным сроком жизни (VerificationCodeStore) вместо users.verification_code.
+-- Выданные старые коды не переносятся: пользователь запрашивает новый код
+CREATE TABLE IF NOT EXISTS verification_codes (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY,
+    code       varchar(16)                 NOT NULL,
+    user_id    bigint                      NOT NULL,
+    created_at timestamp(6) with time zone NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    CONSTRAINT verification_codes_pkey PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_verification_codes_code ON verification_codes (code);
+CREATE INDEX IF NOT EXISTS idx_verification_codes_user_id ON verification_codes (user_id);
+CREATE INDEX IF NOT EXISTS idx_verification_codes_expires_at ON verification_codes (expires_at);
+
+ALTER TABLE users DROP COLUMN IF EXISTS verification_code;
@@ -0,0 +1,120 @@
+-- Схема на момент перехода с ddl-auto=update на миграции (до пакетной вставки, NFT-пайплайна и
+-- хранилища кодов верификации). Существующие БД помечаются baseline-версией 1, и этот скрипт на них
+-- не выполняется; всё, что появилось позже, добавляют следующие миграции.
+
+CREATE TABLE users (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY,
+    username            varchar(255) NOT NULL,
+    password_hash       varchar(255) NOT NULL,
+    role                varchar(255) NOT NULL,
+    created_at          timestamp(6) NOT NULL,
+    updated_at          timestamp(6),
+    is_active           boolean      NOT NULL,
+    verification_code   varchar(255),
+    telegram_id         bigint,
+    verified            boolean      NOT NULL,
+    discord_id          bigint,
+    last_login          timestamp(6),
+    telegram_username   varchar(255),
+    discord_username    varchar(255),
+    vk_username         varchar(255),
+    is_linked_discord   boolean      NOT NULL,
+    is_linked_vkontakte boolean      NOT NULL,
+    email               varchar(255),
+    phone_number        varchar(255),
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_telegram_id UNIQUE (telegram_id),
+    CONSTRAINT uk_users_discord_id UNIQUE (discord_id),
+    CONSTRAINT uk_users_telegram_username UNIQUE (telegram_username),
+    CONSTRAINT uk_users_discord_username UNIQUE (discord_username),
+    CONSTRAINT uk_users_vk_username UNIQUE (vk_username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_phone_number UNIQUE (phone_number)
+);
+
+CREATE TABLE products (
+    id                   bigint GENERATED BY DEFAULT AS IDENTITY,
+    name                 varchar(255)     NOT NULL,
+    price                double precision NOT NULL,
+    available_quantity_s integer          NOT NULL,
+    available_quantity_m integer          NOT NULL,
+    available_quantity_l integer          NOT NULL,
+    CONSTRAINT products_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE product_sizes (
+    product_id bigint NOT NULL,
+    size       varchar(255),
+    CONSTRAINT fk_product_sizes_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE orders (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_number      varchar(255)     NOT NULL,
+    product_id        bigint           NOT NULL,
+    quantity          integer          NOT NULL,
+    size              varchar(255)     NOT NULL,
+    price             double precision NOT NULL,
+    email             varchar(255)     NOT NULL,
+    full_name         varchar(255)     NOT NULL,
+    country           varchar(255)     NOT NULL,
+    address           varchar(255)     NOT NULL,
+    postal_code       varchar(255)     NOT NULL,
+    phone_number      varchar(255)     NOT NULL,
+    telegram_username varchar(255),
+    crypto_address    varchar(255),
+    order_comment     varchar(255),
+    promo_code        varchar(255),
+    payment_method    varchar(255)     NOT NULL,
+    created_at        timestamp(6)     NOT NULL,
+    updated_at        timestamp(6),
+    user_id           bigint           NOT NULL,
+    status            varchar(255)     NOT NULL,
+    CONSTRAINT orders_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_orders_order_number UNIQUE (order_number),
+    CONSTRAINT fk_orders_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE nfts (
+    id               bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_id         bigint,
+    user_id          bigint       NOT NULL,
+    placeholder_uri  varchar(255) NOT NULL,
+    revealed_uri     varchar(255),
+    revealed         boolean      NOT NULL,
+    rarity           varchar(255),
+    created_at       timestamp(6) NOT NULL,
+    CONSTRAINT nfts_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_nfts_order_id UNIQUE (order_id),
+    CONSTRAINT fk_nfts_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_nfts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE promo_codes (
+    id               bigint GENERATED BY DEFAULT AS IDENTITY,
+    code             varchar(255) NOT NULL,
+    discount_percent integer      NOT NULL,
+    max_uses         integer      NOT NULL,
+    used_count       integer      NOT NULL,
+    active           boolean      NOT NULL,
+    start_date       timestamp(6) NOT NULL,
+    end_date         timestamp(6),
+    description      varchar(255),
+    created_at       timestamp(6) NOT NULL,
+    updated_at       timestamp(6),
+    CONSTRAINT promo_codes_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_promo_codes_code UNIQUE (code)
+);
+
+CREATE TABLE refresh_tokens (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY,
+    user_id     bigint,
+    token       varchar(255)                NOT NULL,
+    expiry_date timestamp(6) with time zone NOT NULL,
+    CONSTRAINT refresh_tokens_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_user_id UNIQUE (user_id),
+    CONSTRAINT uk_refresh_tokens_token UNIQUE (token),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
@@ -0,0 +1,29 @@
+-- Последовательности id для сущностей с пакетной вставкой (шаг = allocationSize в @SequenceGenerator).
+-- На БД, где id выдавал IDENTITY-столбец, последовательность сдвигается за текущий максимум id;
+-- nextval забирает свободный блок, поэтому сдвиг не задевает id, уже выданные работающим узлам.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', GREATEST(nextval('users_seq'), (SELECT COALESCE(MAX(id), 0) + 1 FROM users)), false);
+
+CREATE SEQUENCE IF NOT EXISTS refresh_tokens_seq INCREMENT BY 50;
+SELECT setval('refresh_tokens_seq', GREATEST(nextval('refresh_tokens_seq'), (SELECT COALESCE(MAX(id), 0) + 1 FROM refresh_tokens)), false);
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+SELECT setval('orders_seq', GREATEST(nextval('orders_seq'), (SELECT COALESCE(MAX(id), 0) + 1 FROM orders)), false);
+
+CREATE SEQUENCE IF NOT EXISTS nfts_seq INCREMENT BY 50;
+SELECT setval('nfts_seq', GREATEST(nextval('nfts_seq'), (SELECT COALESCE(MAX(id), 0) + 1 FROM nfts)), false);
+
+CREATE SEQUENCE IF NOT EXISTS nft_rarity_allocations_seq INCREMENT BY 50;
+SELECT setval('nft_rarity_allocations_seq', GREATEST(nextval('nft_rarity_allocations_seq'), (SELECT COALESCE(MAX(id), 0) + 1 FROM nft_rarity_allocations)), false);
+
+CREATE SEQUENCE IF NOT EXISTS promo_codes_seq INCREMENT BY 50;
+SELECT setval('promo_codes_seq', GREATEST(nextval('promo_codes_seq'), (SELECT COALESCE(MAX(id), 0) + 1 FROM promo_codes)), false);
+
+-- Столбцы id больше не заполняются через IDENTITY
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE refresh_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE nfts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE nft_rarity_allocations ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE promo_codes ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,38 @@
+-- Индексы под запросы репозиториев. CONCURRENTLY не блокирует запись в таблицы на время построения,
+-- поэтому скрипт выполняется вне транзакции (V3__hot_path_indexes.sql.conf).
+-- Если построение прервалось, в БД остаётся INVALID-индекс: его нужно удалить через DROP INDEX CONCURRENTLY
+-- и выполнить flyway repair перед повторным запуском.
+
+-- OrderRepository.findByUser / findByUserId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_user_id ON orders (user_id);
+
+-- OrderRepository.findByStatusOrderByCreatedAtDesc: заказы по статусу в админ-боте, новые сверху
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_created_at ON orders (status, created_at DESC);
+
+-- OrderRepository.findByCreatedAtGreaterThanEqual: статистика заказов за месяц
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_created_at ON orders (created_at);
+
+-- NFTRepository.findByUser (user_id, id уже есть для постраничной выдачи)
+-- NFTRepository.findUnrevealedIdsAfter / countByRevealedFalse*: нераскрытых NFT мало относительно всех,
+-- частичный индекс не растёт вместе с раскрытыми
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_nfts_unrevealed_id ON nfts (id) WHERE revealed = false;
+
+-- NFTRepository.findIdsWithoutMetadataAfter: NFT без опубликованных метаданных
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_nfts_without_metadata_id ON nfts (id) WHERE metadata_hash IS NULL;
+
+-- NFTRepository.findMaxAllocationSeq / countByRarityForDrop
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_nfts_drop_id_allocation_seq ON nfts (drop_id, allocation_seq);
+
+-- NFTTransferRepository.findWithNftByStatus / findSubmittedTxHashes: в работе только QUEUED и SUBMITTED
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_nft_transfers_pending ON nft_transfers (status, id)
+    WHERE status IN ('QUEUED', 'SUBMITTED');
+
+-- NFTTransferRepository.existsByNftIdAndStatusIn
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_nft_transfers_nft_id ON nft_transfers (nft_id);
+
+-- RefreshTokenRepository.findActiveTokens / findExpiredIds (user_id покрыт уникальным ограничением)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+
+-- PromoCodeRepository.findByActiveAndStartDateBeforeAndEndDateAfter
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_promo_codes_active_dates ON promo_codes (start_date, end_date)
+    WHERE active = true;
@@ -0,0 +1,3 @@
+-- Версии для оптимистической блокировки товаров и промокодов, которые лежат в кэше второго уровня
+ALTER TABLE products ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE promo_codes ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,46 @@
+-- Вертикальное разделение orders: контакты и адрес доставки переезжают в order_contacts (1:1).
+-- Для существующих заказов id контакта совпадает с id заказа.
+-- Место удалённых столбцов освобождается только после перезаписи таблицы (VACUUM FULL / pg_repack).
+
+CREATE TABLE order_contacts (
+    id                bigint       NOT NULL,
+    email             varchar(255) NOT NULL,
+    full_name         varchar(255) NOT NULL,
+    country           varchar(255) NOT NULL,
+    address           varchar(255) NOT NULL,
+    postal_code       varchar(255) NOT NULL,
+    phone_number      varchar(255) NOT NULL,
+    telegram_username varchar(255),
+    crypto_address    varchar(255),
+    order_comment     varchar(255),
+    CONSTRAINT order_contacts_pkey PRIMARY KEY (id)
+);
+
+INSERT INTO order_contacts (id, email, full_name, country, address, postal_code, phone_number,
+                            telegram_username, crypto_address, order_comment)
+SELECT id, email, full_name, country, address, postal_code, phone_number,
+       telegram_username, crypto_address, order_comment
+FROM orders;
+
+CREATE SEQUENCE order_contacts_seq INCREMENT BY 50;
+SELECT setval('order_contacts_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM order_contacts), false);
+
+ALTER TABLE orders ADD COLUMN contact_id bigint;
+UPDATE orders SET contact_id = id;
+ALTER TABLE orders ALTER COLUMN contact_id SET NOT NULL;
+ALTER TABLE orders ADD CONSTRAINT uk_orders_contact_id UNIQUE (contact_id);
+ALTER TABLE orders ADD CONSTRAINT fk_orders_contact FOREIGN KEY (contact_id) REFERENCES order_contacts (id);
+
+ALTER TABLE orders
+    DROP COLUMN email,
+    DROP COLUMN full_name,
+    DROP COLUMN country,
+    DROP COLUMN address,
+    DROP COLUMN postal_code,
+    DROP COLUMN phone_number,
+    DROP COLUMN telegram_username,
+    DROP COLUMN crypto_address,
+    DROP COLUMN order_comment;
+
+-- Запас места на странице для HOT-обновлений (updated_at и прочие неиндексированные столбцы)
+ALTER TABLE orders SET (fillfactor = 90);
@@ -0,0 +1,48 @@
+-- Архив завершённых и отменённых заказов (OrderArchiveService).
+-- Таблица секционирована по месяцам created_at: секции создаёт сервис перед переносом,
+-- старые секции отсоединяются через DETACH PARTITION CONCURRENTLY без удаления строк по одной.
+-- id заказов общий с orders (orders_seq), поэтому первичный ключ (id, created_at) не пересекается с живыми заказами.
+
+CREATE TABLE orders_archive (
+    id             bigint           NOT NULL,
+    order_number   varchar(255)     NOT NULL,
+    product_id     bigint           NOT NULL,
+    quantity       integer          NOT NULL,
+    size           varchar(255)     NOT NULL,
+    price          double precision NOT NULL,
+    promo_code     varchar(255),
+    payment_method varchar(255)     NOT NULL,
+    created_at     timestamp(6)     NOT NULL,
+    updated_at     timestamp(6),
+    user_id        bigint           NOT NULL,
+    contact_id     bigint           NOT NULL,
+    status         varchar(255)     NOT NULL,
+    archived_at    timestamp(6)     NOT NULL DEFAULT now(),
+    CONSTRAINT orders_archive_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_orders_archive_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_orders_archive_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_orders_archive_contact FOREIGN KEY (contact_id) REFERENCES order_contacts (id)
+) PARTITION BY RANGE (created_at);
+
+-- Индексы создаются на каждой секции автоматически
+CREATE INDEX idx_orders_archive_user_id ON orders_archive (user_id);
+CREATE INDEX idx_orders_archive_status_created_at ON orders_archive (status, created_at DESC);
+CREATE INDEX idx_orders_archive_order_number ON orders_archive (order_number);
+
+-- Кандидаты на перенос: OrderRepository.moveToArchive
+CREATE INDEX idx_orders_archivable_created_at ON orders (created_at)
+    WHERE status IN ('COMPLETED', 'CANCELLED');
+
+-- NFT остаются у владельца после переноса заказа в архив; связь читается через order_history
+ALTER TABLE nfts DROP CONSTRAINT fk_nfts_order;
+
+-- Живые и архивные заказы одним запросом (сущность OrderHistory, только чтение).
+-- Перенос - один оператор DELETE ... INSERT, поэтому запрос к представлению видит заказ ровно один раз
+CREATE VIEW order_history AS
+SELECT id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+       created_at, updated_at, user_id, contact_id, status, false AS archived
+FROM orders
+UNION ALL
+SELECT id, order_number, product_id, quantity, size, price, promo_code, payment_method,
+       created_at, updated_at, user_id, contact_id, status, true AS archived
+FROM orders_archive;
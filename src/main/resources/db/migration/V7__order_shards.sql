@@ -0,0 +1,17 @@
+-- Шардирование заказов по user_id (OrderShardRouter).
+-- Версии карты бакет -> шард; хранятся только в основной БД. Первую версию создаёт приложение при старте,
+-- предыдущие версии удаляются после переноса данных бакетов
+CREATE TABLE order_shard_maps (
+    version    bigint        NOT NULL,
+    spec       varchar(8192) NOT NULL,
+    created_at timestamp(6)  NOT NULL,
+    CONSTRAINT order_shard_maps_pkey PRIMARY KEY (version)
+);
+
+-- Заказ NFT может лежать на другом шарде: номер заказа для метаданных хранится в самой NFT
+ALTER TABLE nfts ADD COLUMN order_number varchar(255);
+
+UPDATE nfts n
+SET order_number = h.order_number
+FROM order_history h
+WHERE h.id = n.order_id;
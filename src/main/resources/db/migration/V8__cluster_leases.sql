@@ -0,0 +1,10 @@
+-- Лидерство ролей кластера (LeaderElection): сам захват - advisory-лок на сессии ведущего,
+-- здесь хранится fencing-токен, который растёт при каждой смене ведущего.
+-- Строка роли создаётся при первом захвате
+CREATE TABLE cluster_leases (
+    role        varchar(100) NOT NULL,
+    token       bigint       NOT NULL,
+    holder      varchar(100) NOT NULL,
+    acquired_at timestamp(6) NOT NULL,
+    CONSTRAINT cluster_leases_pkey PRIMARY KEY (role)
+);
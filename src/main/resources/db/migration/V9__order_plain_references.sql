@@ -0,0 +1,10 @@
+-- Заказы лежат на шардах, а users и products - только в основной БД: на шарде эти таблицы пусты,
+-- и внешние ключи не дали бы записать заказ. Заказ хранит product_id и user_id без ограничений,
+-- существование товара и пользователя проверяет OrderService при оформлении в основной БД.
+-- Выполняется и на основной БД, чтобы схема у всех шардов была одинаковой.
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS fk_orders_product;
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS fk_orders_user;
+
+-- Секции архива наследуют ограничения родительской таблицы
+ALTER TABLE orders_archive DROP CONSTRAINT IF EXISTS fk_orders_archive_product;
+ALTER TABLE orders_archive DROP CONSTRAINT IF EXISTS fk_orders_archive_user;
@@ -0,0 +1,164 @@
+package com.brand.backend.benchmark;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка пачки промокодов через Hibernate: сущность с IDENTITY (Hibernate отключает для неё пакетную
+ * вставку и делает INSERT ... RETURNING на каждую строку) против сущности с последовательностью pooled-lo
+ * блоками по 50 при тех же настройках, что в application.properties (hibernate.jdbc.batch_size=50,
+ * order_inserts, reWriteBatchedInserts в URL). Сущности повторяют отображение id и колонок PromoCode.
+ * <p>
+ * Нужна живая Postgres: -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/clothingbrand
+ * (плюс -Dbenchmark.jdbc.username / -Dbenchmark.jdbc.password). Таблицы bench_* создаются и удаляются
+ * Hibernate (create-drop). Запуск: mvn test-compile, затем main этого класса с тестовым classpath.
+ * Результаты замеров пока не зафиксированы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({"1000"})
+    private int rows;
+
+    private SessionFactory sessionFactory;
+    private long codeCounter;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/clothingbrand");
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL,
+                        url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("benchmark.jdbc.username", "postgres"))
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("benchmark.jdbc.password", "root"))
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, ALLOCATION_SIZE)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(IdentityPromoCode.class)
+                .addAnnotatedClass(SequencePromoCode.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    /**
+     * Как было: IDENTITY, отдельный INSERT с RETURNING id на каждую строку
+     */
+    @Benchmark
+    public long identityRowByRow() {
+        IdentityPromoCode last = null;
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int i = 0; i < rows; i++) {
+                last = new IdentityPromoCode();
+                fill(last);
+                session.persist(last);
+            }
+            transaction.commit();
+        }
+        return last.id;
+    }
+
+    /**
+     * Как сейчас: id из последовательности (один nextval на 50 id), INSERT уходят пакетами по 50
+     */
+    @Benchmark
+    public long sequenceBatched() {
+        SequencePromoCode last = null;
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int i = 0; i < rows; i++) {
+                last = new SequencePromoCode();
+                fill(last);
+                session.persist(last);
+            }
+            transaction.commit();
+        }
+        return last.id;
+    }
+
+    private void fill(BenchPromoCode promoCode) {
+        LocalDateTime now = LocalDateTime.now();
+        promoCode.code = "BENCH-" + codeCounter++;
+        promoCode.discountPercent = 10;
+        promoCode.maxUses = 1;
+        promoCode.startDate = now;
+        promoCode.createdAt = now;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BatchInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @MappedSuperclass
+    abstract static class BenchPromoCode {
+        @Column(name = "code", nullable = false, unique = true)
+        String code;
+
+        @Column(name = "discount_percent", nullable = false)
+        int discountPercent;
+
+        @Column(name = "max_uses", nullable = false)
+        int maxUses;
+
+        @Column(name = "start_date", nullable = false)
+        LocalDateTime startDate;
+
+        @Column(name = "created_at", nullable = false)
+        LocalDateTime createdAt;
+    }
+
+    @Entity
+    @Table(name = "bench_identity_promo_codes")
+    static class IdentityPromoCode extends BenchPromoCode {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity
+    @Table(name = "bench_sequence_promo_codes")
+    static class SequencePromoCode extends BenchPromoCode {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_sequence_promo_codes_seq")
+        @SequenceGenerator(name = "bench_sequence_promo_codes_seq", sequenceName = "bench_sequence_promo_codes_seq",
+                allocationSize = ALLOCATION_SIZE)
+        Long id;
+    }
+}
@@ -0,0 +1,76 @@
+package com.brand.backend.benchmark;
+
+import com.brand.backend.domain.user.model.User;
+import com.brand.backend.infrastructure.security.jwt.AuthenticatedUser;
+import com.brand.backend.infrastructure.security.jwt.JwtUtil;
+import com.brand.backend.infrastructure.security.jwt.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость аутентификации запроса по access-токену: полный разбор и проверка подписи
+ * против попадания в кэш проверенных токенов.
+ * <p>
+ * Запуск: mvn test-compile, затем main этого класса с тестовым classpath.
+ * Результаты замеров пока не зафиксированы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", "VfbJTwagLbTybf0Wq28UZd8GD1PfbwCg6gZlMblkyeE=");
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", 3_600_000L);
+        jwtUtil.init();
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setVerified(true);
+        token = jwtUtil.generateAccessToken(user);
+
+        // Отзыв в бенчмарке не вызывается, шина уведомлений и БД не нужны
+        tokenCache = new VerifiedTokenCache(10_000, 3_600_000L, 30_000L, null, null);
+        Claims claims = jwtUtil.parseToken(token);
+        tokenCache.put(token, jwtUtil.toAuthenticatedUser(claims),
+                jwtUtil.issuedAtMillis(claims), claims.getExpiration().getTime());
+    }
+
+    /**
+     * Как было: каждый запрос разбирает токен и проверяет HMAC
+     */
+    @Benchmark
+    public AuthenticatedUser parseAndVerify() {
+        return jwtUtil.toAuthenticatedUser(jwtUtil.parseToken(token));
+    }
+
+    /**
+     * Повторный токен: SHA-256 ключа и поиск в кэше
+     */
+    @Benchmark
+    public AuthenticatedUser cachedLookup() {
+        return tokenCache.get(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,416 @@
+package com.brand.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Локальная заглушка Telegram Bot API для интеграционных и нагрузочных прогонов без сети.
+ * <p>
+ * Реализует методы, которыми пользуются боты и обработчики событий: sendMessage, editMessageText,
+ * answerCallbackQuery, getUpdates (long polling с timeout), а также deleteWebhook/setWebhook/getMe.
+ * Задержка, доля ответов 429 с retry_after, общий лимит запросов в секунду (сверх него тоже 429) и доля
+ * ошибок 500 настраиваются на ходу. Каждый вызов записывается вместе с параметрами, кодом ответа и задержкой.
+ * <p>
+ * Боты направляются на заглушку через telegram.api.base-url={@link #baseUrl()}. Отдельный запуск:
+ * main этого класса с тестовым classpath, -Dstub.port=8081 -Dstub.latency-ms=50 -Dstub.throttle-rate=0.01
+ * -Dstub.rate-limit=30 -Dstub.error-rate=0.001.
+ */
+public class TelegramBotApiStub implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<String, String> METHODS = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        for (String method : List.of("sendMessage", "editMessageText", "answerCallbackQuery", "getUpdates",
+                "deleteWebhook", "setWebhook", "getMe")) {
+            METHODS.put(method, method);
+        }
+    }
+
+    /**
+     * Записанный вызов
+     *
+     * @param status    HTTP-код ответа
+     * @param latencyMs время от получения запроса до ответа
+     */
+    public record Call(String token, String method, JsonNode params, int status, long latencyMs) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<Call> calls = new ConcurrentLinkedQueue<>();
+    // Обновления для getUpdates; доступ под монитором самой очереди
+    private final Deque<ObjectNode> updates = new ArrayDeque<>();
+    private final AtomicInteger nextUpdateId = new AtomicInteger(1);
+    private final AtomicLong nextMessageId = new AtomicLong(1);
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double throttleRate;
+    private volatile int retryAfterSeconds = 1;
+    private volatile double errorRate;
+    // Общий лимит запросов в секунду (0 - без лимита): окно текущей секунды и число запросов в нём
+    private volatile int rateLimit;
+    private long rateWindow;
+    private int rateWindowCount;
+
+    private TelegramBotApiStub(int port, int threads) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Запускает заглушку на свободном порту
+     */
+    public static TelegramBotApiStub start() throws IOException {
+        return new TelegramBotApiStub(0, 64);
+    }
+
+    public static TelegramBotApiStub start(int port, int threads) throws IOException {
+        return new TelegramBotApiStub(port, threads);
+    }
+
+    /**
+     * Адрес для telegram.api.base-url (без токена)
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/bot";
+    }
+
+    /**
+     * Задержка каждого ответа: base плюс случайная добавка до jitter
+     */
+    public TelegramBotApiStub latency(Duration base, Duration jitter) {
+        this.latencyMillis = base.toMillis();
+        this.jitterMillis = jitter.toMillis();
+        return this;
+    }
+
+    /**
+     * Доля запросов, на которые отвечается 429 с retry_after
+     */
+    public TelegramBotApiStub throttle(double rate, int retryAfterSeconds) {
+        this.throttleRate = rate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    /**
+     * Общий лимит запросов в секунду (как у Telegram для бота); сверх него - 429 с retry_after до конца секунды
+     */
+    public TelegramBotApiStub rateLimit(int perSecond) {
+        this.rateLimit = perSecond;
+        return this;
+    }
+
+    /**
+     * Доля запросов, на которые отвечается 500
+     */
+    public TelegramBotApiStub errors(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    /**
+     * Ставит обновление в очередь getUpdates; update_id назначается заглушкой
+     *
+     * @return назначенный update_id
+     */
+    public int pushUpdate(ObjectNode update) {
+        ObjectNode copy = update.deepCopy();
+        synchronized (updates) {
+            int updateId = nextUpdateId.getAndIncrement();
+            copy.put("update_id", updateId);
+            updates.addLast(copy);
+            updates.notifyAll();
+            return updateId;
+        }
+    }
+
+    public List<Call> calls() {
+        return List.copyOf(calls);
+    }
+
+    public List<Call> calls(String method) {
+        return calls.stream().filter(call -> call.method().equals(method)).toList();
+    }
+
+    /**
+     * Ждёт, пока заглушка получит не меньше count вызовов метода
+     */
+    public boolean awaitCalls(String method, int count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (calls(method).size() < count) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * Забывает записанные вызовы и неотданные обновления, сбрасывает сбои
+     */
+    public void reset() {
+        calls.clear();
+        synchronized (updates) {
+            updates.clear();
+        }
+        latencyMillis = 0;
+        jitterMillis = 0;
+        throttleRate = 0;
+        errorRate = 0;
+        rateLimit = 0;
+    }
+
+    @Override
+    public void close() {
+        synchronized (updates) {
+            updates.notifyAll();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long receivedAt = System.nanoTime();
+        String path = exchange.getRequestURI().getPath();
+        // /bot<token>/<method>
+        int slash = path.indexOf('/', 1);
+        String token = slash > 4 ? path.substring(4, slash) : "";
+        String requested = slash > 0 ? path.substring(slash + 1) : "";
+        String method = METHODS.getOrDefault(requested, requested);
+        ObjectNode params = readParams(exchange);
+
+        int status;
+        ObjectNode response;
+        try {
+            sleep(latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0));
+            int retryAfter = throttle();
+            if (retryAfter > 0) {
+                status = 429;
+                response = error(429, "Too Many Requests: retry after " + retryAfter);
+                response.putObject("parameters").put("retry_after", retryAfter);
+            } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                status = 500;
+                response = error(500, "Internal Server Error");
+            } else {
+                JsonNode result = result(method, params);
+                if (result == null) {
+                    status = 404;
+                    response = error(404, "Not Found: method not found");
+                } else {
+                    status = 200;
+                    response = JsonNodeFactory.instance.objectNode().put("ok", true);
+                    response.set("result", result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+            return;
+        }
+
+        // Вызов записывается до ответа: клиент, получивший ответ, уже видит его в calls()
+        calls.add(new Call(token, method, params, status,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedAt)));
+        byte[] body = MAPPER.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private JsonNode result(String method, ObjectNode params) throws InterruptedException {
+        JsonNodeFactory json = JsonNodeFactory.instance;
+        switch (method) {
+            case "sendMessage": {
+                ObjectNode message = message(params);
+                message.put("message_id", nextMessageId.getAndIncrement());
+                return message;
+            }
+            case "editMessageText": {
+                if (params.hasNonNull("inline_message_id")) {
+                    return json.booleanNode(true);
+                }
+                ObjectNode message = message(params);
+                message.put("message_id", params.path("message_id").asLong());
+                message.put("edit_date", System.currentTimeMillis() / 1000);
+                return message;
+            }
+            case "answerCallbackQuery":
+            case "deleteWebhook":
+            case "setWebhook":
+                return json.booleanNode(true);
+            case "getMe":
+                return json.objectNode().put("id", 1).put("is_bot", true)
+                        .put("first_name", "stub").put("username", "stub_bot");
+            case "getUpdates":
+                return pollUpdates(params.path("offset").asInt(0), params.path("limit").asInt(100),
+                        params.path("timeout").asInt(0));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Обновления с update_id не меньше offset; offset подтверждает и удаляет более ранние, как в Telegram
+     */
+    private ArrayNode pollUpdates(int offset, int limit, int timeoutSeconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        synchronized (updates) {
+            while (true) {
+                while (!updates.isEmpty() && updates.peekFirst().path("update_id").asInt() < offset) {
+                    updates.removeFirst();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (!updates.isEmpty() || remaining <= 0 || executor.isShutdown()) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedWait(updates, remaining);
+            }
+            ArrayNode result = JsonNodeFactory.instance.arrayNode();
+            updates.stream().limit(Math.max(1, limit)).forEach(result::add);
+            return result;
+        }
+    }
+
+    private static ObjectNode message(ObjectNode params) {
+        ObjectNode message = JsonNodeFactory.instance.objectNode();
+        message.put("date", System.currentTimeMillis() / 1000);
+        ObjectNode chat = message.putObject("chat");
+        String chatId = params.path("chat_id").asText();
+        try {
+            chat.put("id", Long.parseLong(chatId));
+            chat.put("type", Long.parseLong(chatId) < 0 ? "group" : "private");
+        } catch (NumberFormatException e) {
+            chat.put("id", 0).put("type", "channel").put("username", chatId);
+        }
+        message.putObject("from").put("id", 1).put("is_bot", true).put("first_name", "stub");
+        message.put("text", params.path("text").asText());
+        if (params.has("reply_markup")) {
+            message.set("reply_markup", params.get("reply_markup"));
+        }
+        return message;
+    }
+
+    /**
+     * @return retry_after для ответа 429, 0 - запрос пропускается
+     */
+    private int throttle() {
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            return retryAfterSeconds;
+        }
+        int limit = rateLimit;
+        if (limit <= 0) {
+            return 0;
+        }
+        synchronized (this) {
+            long second = System.currentTimeMillis() / 1000;
+            if (second != rateWindow) {
+                rateWindow = second;
+                rateWindowCount = 0;
+            }
+            return ++rateWindowCount > limit ? 1 : 0;
+        }
+    }
+
+    private static ObjectNode readParams(HttpExchange exchange) throws IOException {
+        ObjectNode params = JsonNodeFactory.instance.objectNode();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            parseForm(query, params);
+        }
+        byte[] body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = input.readAllBytes();
+        }
+        if (body.length == 0) {
+            return params;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            parseForm(new String(body, StandardCharsets.UTF_8), params);
+        } else {
+            JsonNode json = MAPPER.readTree(body);
+            if (json instanceof ObjectNode object) {
+                params.setAll(object);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, ObjectNode params) {
+        for (String pair : form.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static ObjectNode error(int code, String description) {
+        return JsonNodeFactory.instance.objectNode()
+                .put("ok", false)
+                .put("error_code", code)
+                .put("description", description);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        TelegramBotApiStub stub = start(Integer.getInteger("stub.port", 8081), Integer.getInteger("stub.threads", 64))
+                .latency(Duration.ofMillis(Long.getLong("stub.latency-ms", 0L)),
+                        Duration.ofMillis(Long.getLong("stub.jitter-ms", 0L)))
+                .throttle(Double.parseDouble(System.getProperty("stub.throttle-rate", "0")),
+                        Integer.getInteger("stub.retry-after-seconds", 1))
+                .rateLimit(Integer.getInteger("stub.rate-limit", 0))
+                .errors(Double.parseDouble(System.getProperty("stub.error-rate", "0")));
+        System.out.println("Заглушка Bot API: telegram.api.base-url=" + stub.baseUrl());
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Map<String, Map<Integer, Long>> summary = new TreeMap<>();
+            for (Call call : stub.calls()) {
+                summary.computeIfAbsent(call.method(), method -> new TreeMap<>()).merge(call.status(), 1L, Long::sum);
+            }
+            System.out.println("Вызовы по методам и кодам: " + summary);
+            stub.close();
+        }));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,146 @@
+package com.brand.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Имитация Telegram для режима webhook: записанные обновления (по одному JSON в строке) отправляются
+ * на /api/telegram/webhook/{бот} запущенного узла с заданной частотой. update_id переписываются
+ * в возрастающие, чтобы повторы записи выглядели новыми обновлениями.
+ * <p>
+ * Запуск: mvn test-compile, затем main этого класса с тестовым classpath:
+ * -Dreplay.url=http://localhost:8080/api/telegram/webhook/user -Dreplay.secret=... -Dreplay.rate=2000
+ * -Dreplay.seconds=30 (-Dreplay.file=путь к своей записи; по умолчанию {@value #RECORDED} из ресурсов).
+ */
+public class TelegramUpdateReplayer {
+
+    public static final String RECORDED = "/telegram/updates.jsonl";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Записанные обновления как JSON
+     */
+    public static List<ObjectNode> load(InputStream input) {
+        List<ObjectNode> updates = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    updates.add((ObjectNode) MAPPER.readTree(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return updates;
+    }
+
+    /**
+     * Записанные обновления из ресурсов теста
+     */
+    public static List<ObjectNode> loadRecorded() {
+        return load(TelegramUpdateReplayer.class.getResourceAsStream(RECORDED));
+    }
+
+    /**
+     * Обновление записи с заданным update_id
+     */
+    public static Update toUpdate(ObjectNode recorded, int updateId) {
+        ObjectNode copy = recorded.deepCopy();
+        copy.put("update_id", updateId);
+        try {
+            return MAPPER.treeToValue(copy, Update.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("replay.url", "http://localhost:8080/api/telegram/webhook/user");
+        String secret = System.getProperty("replay.secret", "");
+        int rate = Integer.getInteger("replay.rate", 1000);
+        int seconds = Integer.getInteger("replay.seconds", 30);
+        String file = System.getProperty("replay.file");
+
+        List<ObjectNode> recorded = file != null
+                ? load(Files.newInputStream(Path.of(file)))
+                : loadRecorded();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(32))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder errors = new LongAdder();
+        long total = (long) rate * seconds;
+        long[] latencies = new long[(int) total];
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        int updateId = (int) (System.currentTimeMillis() / 1000 % 1_000_000) * 1000;
+        long intervalNanos = 1_000_000_000L / rate;
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = startedAt + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            }
+            ObjectNode update = recorded.get(i % recorded.size()).deepCopy();
+            update.put("update_id", updateId + i);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .header("X-Telegram-Bot-Api-Secret-Token", secret)
+                    .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(update)))
+                    .build();
+            int index = i;
+            long sentAt = System.nanoTime();
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sentAt;
+                        if (error != null) {
+                            errors.increment();
+                        } else {
+                            statuses.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        double elapsed = (System.nanoTime() - startedAt) / 1e9;
+
+        Arrays.sort(latencies);
+        Map<Integer, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+        System.out.printf("Отправлено %d обновлений за %.1f с (%.0f/с)%n", total, elapsed, total / elapsed);
+        System.out.printf("Ответы: %s, ошибки соединения: %d%n", byStatus, errors.sum());
+        System.out.printf("Задержка подтверждения: p50 %.1f мс, p99 %.1f мс, max %.1f мс%n",
+                latencies[(int) (total * 0.5)] / 1e6, latencies[(int) (total * 0.99)] / 1e6,
+                latencies[(int) total - 1] / 1e6);
+        System.exit(0);
+    }
+}
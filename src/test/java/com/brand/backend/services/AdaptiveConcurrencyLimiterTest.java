@@ -0,0 +1,64 @@
+package com.brand.backend.services;
+
+import com.brand.backend.infrastructure.web.AdaptiveConcurrencyLimiter;
+import com.brand.backend.infrastructure.web.EndpointGroup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveConcurrencyLimiter(20, 1, 200, 0.5, new MockEnvironment(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void release_WaveOfFailures_ShouldDecreaseLimitOnce() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = acquire(10);
+
+        // Все десять запросов застали одну и ту же перегрузку
+        permits.forEach(permit -> permit.release(503));
+
+        assertEquals(10, limiter.getLimit(EndpointGroup.CHECKOUT));
+    }
+
+    @Test
+    void release_FailureStartedAfterDecrease_ShouldDecreaseAgain() {
+        AdaptiveConcurrencyLimiter.Permit first = acquire(1).get(0);
+        first.release(500);
+        assertEquals(10, limiter.getLimit(EndpointGroup.CHECKOUT));
+
+        AdaptiveConcurrencyLimiter.Permit second = acquire(1).get(0);
+        second.release(500);
+
+        assertEquals(5, limiter.getLimit(EndpointGroup.CHECKOUT));
+    }
+
+    @Test
+    void release_FastResponsesUnderLoad_ShouldIncreaseLimit() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = acquire(15);
+
+        permits.forEach(permit -> permit.release(200));
+
+        assertTrue(limiter.getLimit(EndpointGroup.CHECKOUT) > 20);
+    }
+
+    private List<AdaptiveConcurrencyLimiter.Permit> acquire(int count) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(EndpointGroup.CHECKOUT);
+            assertNotNull(permit);
+            permits.add(permit);
+        }
+        return permits;
+    }
+}
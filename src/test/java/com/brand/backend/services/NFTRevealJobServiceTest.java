@@ -0,0 +1,227 @@
+package com.brand.backend.services;
+
+import com.brand.backend.application.nft.service.NFTRevealJobService;
+import com.brand.backend.domain.nft.event.NFTBatchRevealedEvent;
+import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTRevealJob;
+import com.brand.backend.domain.nft.model.NFTRevealJobStatus;
+import com.brand.backend.domain.nft.repository.NFTRepository;
+import com.brand.backend.domain.nft.repository.NFTRevealJobRepository;
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Волны раскрытия на NFT в памяти: пачки выполняются в вызывающем потоке, ошибка пачки откатывает её целиком
+ */
+@ExtendWith(MockitoExtension.class)
+class NFTRevealJobServiceTest {
+
+    private static final String BASE_URI = "ipfs://manifest/";
+
+    @Mock
+    private NFTRepository nftRepository;
+
+    @Mock
+    private NFTRevealJobRepository jobRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, NFT> nfts = new TreeMap<>();
+    // ID, на которых пачка падает до изменения строк
+    private final Set<Long> failingIds = new HashSet<>();
+    private final List<Long> notifiedIds = new ArrayList<>();
+    private final AtomicReference<NFTRevealJob> storedJob = new AtomicReference<>();
+    // Колонка pause_requested: меняется только запросами репозитория
+    private final AtomicBoolean pauseRequested = new AtomicBoolean();
+
+    private NFTRevealJobService revealJobService;
+
+    @BeforeEach
+    void setUp() {
+        LongStream.rangeClosed(1, 6).forEach(id -> {
+            NFT nft = new NFT();
+            nft.setId(id);
+            nfts.put(id, nft);
+        });
+
+        lenient().when(nftRepository.findUnrevealedIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return nfts.values().stream()
+                    .filter(nft -> !nft.isRevealed() && nft.getId() > afterId)
+                    .map(NFT::getId)
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+        lenient().when(nftRepository.revealBatch(anyCollection(), anyString())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            String baseUri = invocation.getArgument(1);
+            if (ids.stream().anyMatch(failingIds::contains)) {
+                throw new IllegalStateException("connection reset");
+            }
+            int updated = 0;
+            for (Long id : ids) {
+                NFT nft = nfts.get(id);
+                if (!nft.isRevealed()) {
+                    nft.setRevealed(true);
+                    nft.setRevealedUri(baseUri + id + ".json");
+                    updated++;
+                }
+            }
+            return updated;
+        });
+        lenient().when(nftRepository.findAllWithUserByIdIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().map(nfts::get).toList());
+
+        lenient().when(jobRepository.save(any(NFTRevealJob.class))).thenAnswer(invocation -> {
+            NFTRevealJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(1L);
+            }
+            storedJob.set(job);
+            return job;
+        });
+        lenient().when(jobRepository.findById(1L)).thenAnswer(invocation -> Optional.ofNullable(storedJob.get()));
+        lenient().when(jobRepository.existsByStatus(NFTRevealJobStatus.RUNNING)).thenAnswer(invocation ->
+                storedJob.get() != null && storedJob.get().getStatus() == NFTRevealJobStatus.RUNNING);
+        lenient().when(jobRepository.requestPause(eq(NFTRevealJobStatus.RUNNING), any())).thenAnswer(invocation -> {
+            if (storedJob.get() == null || storedJob.get().getStatus() != NFTRevealJobStatus.RUNNING) {
+                return 0;
+            }
+            pauseRequested.set(true);
+            return 1;
+        });
+        lenient().when(jobRepository.isPauseRequested(1L)).thenAnswer(invocation -> pauseRequested.get());
+        lenient().when(jobRepository.clearPauseRequest(1L)).thenAnswer(invocation -> {
+            pauseRequested.set(false);
+            return 1;
+        });
+
+        lenient().doAnswer(invocation -> {
+            NFTBatchRevealedEvent event = invocation.getArgument(0);
+            event.getNfts().forEach(nft -> notifiedIds.add(nft.getId()));
+            return null;
+        }).when(eventPublisher).publishEvent(any(ApplicationEvent.class));
+
+        revealJobService = new NFTRevealJobService(nftRepository, jobRepository, eventPublisher, transactionManager,
+                Runnable::run, Runnable::run, LeaderElection.standalone());
+        // Волна из двух пачек по два NFT
+        ReflectionTestUtils.setField(revealJobService, "chunkSize", 2);
+        ReflectionTestUtils.setField(revealJobService, "workers", 2);
+        revealJobService.registerLeadership();
+    }
+
+    @Test
+    void resumeJob_AfterWaveFailure_ShouldNotifyEveryNftExactlyOnce() {
+        failingIds.add(3L);
+
+        NFTRevealJob job = revealJobService.startJob(BASE_URI, "admin");
+
+        // Пачка [1, 2] раскрыта и уведомлена, пачка [3, 4] откатилась; контрольная точка не сдвинулась
+        assertEquals(NFTRevealJobStatus.FAILED, job.getStatus());
+        assertEquals(0L, job.getLastProcessedId());
+        assertEquals(2L, job.getProcessedCount());
+        assertEquals(List.of(1L, 2L), notifiedIds);
+
+        failingIds.clear();
+        revealJobService.resumeJob(job.getId());
+
+        assertEquals(NFTRevealJobStatus.COMPLETED, job.getStatus());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), notifiedIds.stream().sorted().toList());
+        assertEquals(6L, job.getProcessedCount());
+        assertTrue(nfts.values().stream().allMatch(NFT::isRevealed));
+    }
+
+    @Test
+    void resumeJob_AfterPause_ShouldContinueFromCheckpoint() {
+        doAnswer(invocation -> {
+            NFTBatchRevealedEvent event = invocation.getArgument(0);
+            event.getNfts().forEach(nft -> notifiedIds.add(nft.getId()));
+            // Пауза запрошена посреди первой волны
+            if (notifiedIds.size() == 2) {
+                assertTrue(revealJobService.pauseActiveJob());
+            }
+            return null;
+        }).when(eventPublisher).publishEvent(any(ApplicationEvent.class));
+
+        NFTRevealJob job = revealJobService.startJob(BASE_URI, "admin");
+
+        assertEquals(NFTRevealJobStatus.PAUSED, job.getStatus());
+        assertEquals(4L, job.getLastProcessedId());
+        assertEquals(List.of(1L, 2L, 3L, 4L), notifiedIds);
+        assertFalse(revealJobService.isRunning());
+        assertFalse(revealJobService.pauseActiveJob());
+
+        revealJobService.resumeJob(job.getId());
+
+        assertEquals(NFTRevealJobStatus.COMPLETED, job.getStatus());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), notifiedIds);
+        assertEquals(6L, job.getProcessedCount());
+    }
+
+    @Test
+    void startJob_NftRevealedManually_ShouldNotNotifyItAgain() {
+        NFT manual = nfts.get(2L);
+        manual.setRevealed(true);
+        manual.setRevealedUri("ipfs://manual/2.json");
+
+        NFTRevealJob job = revealJobService.startJob(BASE_URI, "admin");
+
+        assertEquals(NFTRevealJobStatus.COMPLETED, job.getStatus());
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L), notifiedIds);
+        assertEquals(5L, job.getProcessedCount());
+    }
+
+    @Test
+    void runJob_PauseRequestedOnAnotherNode_ShouldPauseBeforeNextWave() {
+        NFTRevealJob job = new NFTRevealJob();
+        job.setId(1L);
+        job.setBaseUri(BASE_URI);
+        job.setStatus(NFTRevealJobStatus.RUNNING);
+        job.setTotalCount(6);
+        storedJob.set(job);
+        when(jobRepository.findByStatus(NFTRevealJobStatus.RUNNING)).thenReturn(List.of(job));
+        // Админ-бот на другом узле записал запрос паузы, пока задание ждало ведущего
+        pauseRequested.set(true);
+
+        revealJobService.resumeInterruptedJobs();
+
+        assertEquals(NFTRevealJobStatus.PAUSED, job.getStatus());
+        assertEquals(0L, job.getLastProcessedId());
+        assertTrue(notifiedIds.isEmpty());
+        assertFalse(revealJobService.isRunning());
+    }
+}
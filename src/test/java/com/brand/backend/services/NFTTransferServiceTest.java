@@ -0,0 +1,164 @@
+package com.brand.backend.services;
+
+import com.brand.backend.application.nft.service.NFTTransferService;
+import com.brand.backend.common.exeption.ConflictException;
+import com.brand.backend.domain.nft.event.NFTEvent;
+import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.nft.model.NFTTransfer;
+import com.brand.backend.domain.nft.model.NFTTransferStatus;
+import com.brand.backend.domain.nft.repository.NFTRepository;
+import com.brand.backend.domain.nft.repository.NFTTransferRepository;
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.integration.blockchain.SimulatedChainAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NFTTransferServiceTest {
+
+    private static final String WALLET_A = "0x" + "a".repeat(40);
+    private static final String WALLET_B = "0x" + "b".repeat(40);
+
+    @Mock
+    private NFTRepository nftRepository;
+
+    @Mock
+    private NFTTransferRepository transferRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NFTTransferService transferService;
+
+    @BeforeEach
+    void setUp() {
+        // Мгновенная имитация блокчейна без ошибок
+        SimulatedChainAdapter chain = new SimulatedChainAdapter(0, 0, 0.0, 0.0, 20);
+        meterRegistry = new SimpleMeterRegistry();
+        transferService = new NFTTransferService(nftRepository, transferRepository, chain,
+                eventPublisher, transactionManager, LeaderElection.standalone(), meterRegistry);
+
+        ReflectionTestUtils.setField(transferService, "batchSize", 50);
+        ReflectionTestUtils.setField(transferService, "maxGasPriceGwei", 30L);
+        ReflectionTestUtils.setField(transferService, "maxWaitSeconds", 600L);
+        ReflectionTestUtils.setField(transferService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(transferService, "flushLimit", 1000);
+    }
+
+    @Test
+    void flushQueue_GroupsTransfersByDestination() {
+        NFTTransfer first = createTransfer(1L, WALLET_A);
+        NFTTransfer second = createTransfer(2L, WALLET_A);
+        NFTTransfer third = createTransfer(3L, WALLET_B);
+
+        when(transferRepository.findWithNftByStatus(eq(NFTTransferStatus.QUEUED), any(Pageable.class)))
+                .thenReturn(List.of(first, second, third));
+        when(transferRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(transferRepository.findAllById(List.of(3L))).thenReturn(List.of(third));
+
+        transferService.flushQueue();
+
+        // Две транзакции: одна на адрес A с двумя NFT, одна на адрес B
+        assertEquals(NFTTransferStatus.SUBMITTED, first.getStatus());
+        assertEquals(NFTTransferStatus.SUBMITTED, third.getStatus());
+        assertNotNull(first.getTxHash());
+        assertEquals(first.getTxHash(), second.getTxHash());
+        assertNotEquals(first.getTxHash(), third.getTxHash());
+        assertEquals(3.0, meterRegistry.counter("nft.transfer.submitted").count());
+        assertEquals(2L, meterRegistry.summary("nft.transfer.batch.size").count());
+    }
+
+    @Test
+    void pollConfirmations_ConfirmsSubmittedTransfers() {
+        NFTTransfer transfer = createTransfer(1L, WALLET_A);
+        when(transferRepository.findWithNftByStatus(eq(NFTTransferStatus.QUEUED), any(Pageable.class)))
+                .thenReturn(List.of(transfer));
+        when(transferRepository.findAllById(List.of(1L))).thenReturn(List.of(transfer));
+        transferService.flushQueue();
+
+        when(transferRepository.findSubmittedTxHashes()).thenReturn(List.of(transfer.getTxHash()));
+        when(transferRepository.findByTxHash(transfer.getTxHash())).thenReturn(List.of(transfer));
+
+        transferService.pollConfirmations();
+
+        assertEquals(NFTTransferStatus.CONFIRMED, transfer.getStatus());
+        assertEquals(WALLET_A, transfer.getNft().getExternalAddress());
+        assertEquals(1.0, meterRegistry.counter("nft.transfer.confirmed").count());
+        verify(eventPublisher).publishEvent(any(NFTEvent.class));
+    }
+
+    @Test
+    void requestTransfer_RejectsInvalidAddress() {
+        assertThrows(IllegalArgumentException.class, () -> transferService.requestTransfer(1L, "not-a-wallet"));
+        verify(transferRepository, never()).save(any());
+        verify(transferRepository, never()).existsByNftIdAndStatusIn(any(), anyList());
+    }
+
+    @Test
+    void requestTransfer_NftAlreadyOnExternalWallet_ShouldConflict() {
+        NFT nft = createTransfer(1L, WALLET_A).getNft();
+        nft.setExternalAddress(WALLET_B);
+        when(nftRepository.findById(1L)).thenReturn(Optional.of(nft));
+
+        assertThrows(ConflictException.class, () -> transferService.requestTransfer(1L, WALLET_A));
+        verify(transferRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void requestTransfer_TransferPending_ShouldConflict() {
+        NFT nft = createTransfer(1L, WALLET_A).getNft();
+        when(nftRepository.findById(1L)).thenReturn(Optional.of(nft));
+        when(transferRepository.existsByNftIdAndStatusIn(eq(1L), anyList())).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> transferService.requestTransfer(1L, WALLET_A));
+        verify(transferRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void requestTransfer_ConcurrentRequestWon_ShouldConflict() {
+        NFT nft = createTransfer(1L, WALLET_A).getNft();
+        when(nftRepository.findById(1L)).thenReturn(Optional.of(nft));
+        when(transferRepository.saveAndFlush(any(NFTTransfer.class)))
+                .thenThrow(new DataIntegrityViolationException("uq_nft_transfers_active_nft"));
+
+        assertThrows(ConflictException.class, () -> transferService.requestTransfer(1L, WALLET_A));
+        assertEquals(0.0, meterRegistry.counter("nft.transfer.requested").count());
+    }
+
+    private NFTTransfer createTransfer(Long id, String destination) {
+        NFT nft = new NFT();
+        nft.setId(id);
+        nft.setCreatedAt(LocalDateTime.now());
+
+        NFTTransfer transfer = new NFTTransfer();
+        transfer.setId(id);
+        transfer.setNft(nft);
+        transfer.setDestinationAddress(destination);
+        transfer.setStatus(NFTTransferStatus.QUEUED);
+        transfer.setCreatedAt(LocalDateTime.now());
+        return transfer;
+    }
+}
@@ -0,0 +1,119 @@
+package com.brand.backend.services;
+
+import com.brand.backend.application.order.service.OrderReservationService;
+import com.brand.backend.application.product.service.ProductService;
+import com.brand.backend.application.promotion.service.PromoCodeService;
+import com.brand.backend.domain.order.model.OrderReservation;
+import com.brand.backend.domain.order.repository.OrderRepository;
+import com.brand.backend.domain.order.repository.OrderReservationRepository;
+import com.brand.backend.infrastructure.cluster.LeaderElection;
+import com.brand.backend.infrastructure.persistence.sharding.OrderShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderReservationServiceTest {
+
+    @Mock
+    private OrderReservationRepository reservationRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private PromoCodeService promoCodeService;
+
+    @Mock
+    private OrderShardRouter shardRouter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(shardRouter.inTransaction(anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(1).doInTransaction(null));
+        lenient().when(shardRouter.read(anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+        meterRegistry = new SimpleMeterRegistry();
+        reservationService = new OrderReservationService(reservationRepository, orderRepository, productService,
+                promoCodeService, shardRouter, LeaderElection.standalone(), meterRegistry);
+        ReflectionTestUtils.setField(reservationService, "timeoutMillis", 600_000L);
+        ReflectionTestUtils.setField(reservationService, "sweepBatchSize", 100);
+    }
+
+    @Test
+    void sweep_OrderWrittenToShard_ShouldConfirmWithoutReturningStock() {
+        OrderReservation reservation = createReservation(1L, "ORD-1", null);
+        when(reservationRepository.findByCreatedAtBeforeOrderById(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(reservation));
+        when(orderRepository.existsByOrderNumber("ORD-1")).thenReturn(true);
+        when(reservationRepository.deleteReservation(1L)).thenReturn(1);
+
+        reservationService.sweep();
+
+        verify(reservationRepository).deleteReservation(1L);
+        verifyNoInteractions(productService, promoCodeService);
+        assertEquals(0.0, meterRegistry.counter("orders.reservations.released").count());
+    }
+
+    @Test
+    void sweep_OrderMissing_ShouldReturnStockAndPromoCode() {
+        OrderReservation reservation = createReservation(2L, "ORD-2", "SALE10");
+        when(reservationRepository.findByCreatedAtBeforeOrderById(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(reservation));
+        when(orderRepository.existsByOrderNumber("ORD-2")).thenReturn(false);
+        when(reservationRepository.findById(2L)).thenReturn(Optional.of(reservation));
+        when(reservationRepository.deleteReservation(2L)).thenReturn(1);
+
+        reservationService.sweep();
+
+        verify(productService).returnStock(1L, "M");
+        verify(promoCodeService).releasePromoCode("SALE10");
+        assertEquals(1.0, meterRegistry.counter("orders.reservations.released").count());
+    }
+
+    @Test
+    void release_AlreadyConfirmed_ShouldNotReturnStock() {
+        OrderReservation reservation = createReservation(3L, "ORD-3", "SALE10");
+        when(reservationRepository.findById(3L)).thenReturn(Optional.of(reservation));
+        when(reservationRepository.deleteReservation(3L)).thenReturn(0);
+
+        assertFalse(reservationService.release(3L));
+
+        verifyNoInteractions(productService, promoCodeService);
+    }
+
+    private static OrderReservation createReservation(Long id, String orderNumber, String promoCode) {
+        OrderReservation reservation = new OrderReservation();
+        reservation.setId(id);
+        reservation.setOrderNumber(orderNumber);
+        reservation.setShard(1);
+        reservation.setProductId(1L);
+        reservation.setSize("M");
+        reservation.setPromoCode(promoCode);
+        reservation.setCreatedAt(LocalDateTime.now().minusHours(1));
+        return reservation;
+    }
+}
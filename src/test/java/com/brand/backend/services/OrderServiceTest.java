@@ -1,32 +1,52 @@
 package com.brand.backend.services;
 
+import com.brand.backend.application.order.service.OrderReservationService;
 import com.brand.backend.application.order.service.OrderService;
+import com.brand.backend.application.product.service.ProductService;
+import com.brand.backend.application.promotion.service.PromoCodeService;
 import com.brand.backend.presentation.dto.request.OrderDto;
 import com.brand.backend.presentation.dto.response.OrderResponseDto;
 import com.brand.backend.domain.order.event.OrderEvent;
 import com.brand.backend.domain.order.model.Order;
+import com.brand.backend.domain.order.model.OrderContact;
+import com.brand.backend.domain.order.model.OrderHistory;
+import com.brand.backend.domain.order.model.OrderReservation;
 import com.brand.backend.domain.order.model.OrderStatus;
 import com.brand.backend.domain.product.model.Product;
 import com.brand.backend.domain.user.model.User;
+import com.brand.backend.domain.order.repository.OrderHistoryRepository;
 import com.brand.backend.domain.order.repository.OrderRepository;
 import com.brand.backend.domain.product.repository.ProductRepository;
 import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.persistence.sharding.OrderShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +55,9 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderHistoryRepository orderHistoryRepository;
+
     @Mock
     private ProductRepository productRepository;
 
@@ -44,16 +67,43 @@ class OrderServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private PromoCodeService promoCodeService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private OrderShardRouter shardRouter;
+
+    @Mock
+    private OrderReservationService reservationService;
+
     @InjectMocks
     private OrderService orderService;
 
     private User testUser;
     private Product testProduct;
     private Order testOrder;
+    private OrderHistory testOrderHistory;
     private OrderDto orderDto;
 
     @BeforeEach
     void setUp() {
+        // Один шард (основная БД): роутер выполняет запросы в вызывающем потоке
+        lenient().when(shardRouter.inTransaction(anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(1).doInTransaction(null));
+        lenient().when(shardRouter.queryUser(anyLong(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(shardRouter.scatterGather(any(), any(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> invocation.<IntFunction<?>>getArgument(0)
+                        .apply(invocation.<Integer>getArgument(2) + invocation.<Integer>getArgument(3)));
+        lenient().when(shardRouter.findAny(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(shardRouter.findShard(any()))
+                .thenAnswer(invocation -> Boolean.TRUE.equals(invocation.<Supplier<?>>getArgument(0).get())
+                        ? OptionalInt.of(0) : OptionalInt.empty());
+
         // Создаем тестового пользователя
         testUser = new User();
         testUser.setId(1L);
@@ -68,29 +118,43 @@ class OrderServiceTest {
         testProduct.setName("Test Product");
         testProduct.setPrice(100.0);
         testProduct.setSizes(List.of("S", "M", "L"));
-        testProduct.setAvailableQuantityS(10);
-        testProduct.setAvailableQuantityM(10);
-        testProduct.setAvailableQuantityL(10);
 
         // Создаем тестовый заказ
         testOrder = new Order();
         testOrder.setId(1L);
         testOrder.setOrderNumber("ORD-12345678");
-        testOrder.setProduct(testProduct);
+        testOrder.setProductId(testProduct.getId());
         testOrder.setQuantity(1);
         testOrder.setSize("M");
         testOrder.setPrice(100.0);
-        testOrder.setUser(testUser);
-        testOrder.setEmail("test@example.com");
-        testOrder.setPhoneNumber("+79123456789");
-        testOrder.setFullName("Test User");
-        testOrder.setCountry("Russia");
-        testOrder.setAddress("Test Address");
-        testOrder.setPostalCode("123456");
+        testOrder.setUserId(testUser.getId());
+        OrderContact contact = new OrderContact();
+        contact.setEmail("test@example.com");
+        contact.setPhoneNumber("+79123456789");
+        contact.setFullName("Test User");
+        contact.setCountry("Russia");
+        contact.setAddress("Test Address");
+        contact.setPostalCode("123456");
+        testOrder.setContact(contact);
         testOrder.setPaymentMethod("card");
         testOrder.setStatus(OrderStatus.NEW);
         testOrder.setCreatedAt(LocalDateTime.now());
 
+        // Тот же заказ, перенесённый в архив
+        testOrderHistory = new OrderHistory();
+        testOrderHistory.setId(1L);
+        testOrderHistory.setOrderNumber("ORD-12345678");
+        testOrderHistory.setProductId(testProduct.getId());
+        testOrderHistory.setQuantity(1);
+        testOrderHistory.setSize("M");
+        testOrderHistory.setPrice(100.0);
+        testOrderHistory.setUserId(testUser.getId());
+        testOrderHistory.setContact(contact);
+        testOrderHistory.setPaymentMethod("card");
+        testOrderHistory.setStatus(OrderStatus.COMPLETED);
+        testOrderHistory.setCreatedAt(LocalDateTime.now().minusYears(1));
+        testOrderHistory.setArchived(true);
+
         // Создаем тестовый DTO заказа
         orderDto = new OrderDto();
         orderDto.setProductId(1L);
@@ -108,12 +172,13 @@ class OrderServiceTest {
     @Test
     void createOrder_Success() {
         // Подготавливаем моки
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productService.takeStock(1L, "M")).thenReturn(true);
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Вызываем тестируемый метод
-        OrderResponseDto result = orderService.createOrder("testuser", orderDto);
+        OrderResponseDto result = orderService.createOrder(1L, orderDto);
 
         // Проверяем результат
         assertNotNull(result);
@@ -122,35 +187,126 @@ class OrderServiceTest {
         assertEquals("M", result.getSize());
 
         // Проверяем, что были вызваны нужные методы
-        verify(userRepository).findByUsername("testuser");
+        verify(userRepository).findById(1L);
         verify(productRepository).findById(1L);
         verify(orderRepository).save(any(Order.class));
         verify(eventPublisher).publishEvent(any(OrderEvent.class));
     }
 
+    @Test
+    void createOrder_OnShard_ShouldConfirmReservationAfterWrite() {
+        // Подготавливаем моки: заказы пользователя лежат на шарде 1
+        when(shardRouter.shardOf(1L)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productService.takeStock(1L, "M")).thenReturn(true);
+        when(reservationService.record(any(Order.class), eq(1), anyBoolean())).thenReturn(reservation(5L));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        when(reservationService.confirm(5L)).thenReturn(true);
+
+        // Вызываем тестируемый метод
+        OrderResponseDto result = orderService.createOrder(1L, orderDto);
+
+        // Резерв записан до записи в шард и подтверждён после неё
+        assertEquals("ORD-12345678", result.getOrderNumber());
+        InOrder inOrder = inOrder(reservationService, orderRepository);
+        inOrder.verify(reservationService).record(any(Order.class), eq(1), eq(false));
+        inOrder.verify(orderRepository).save(any(Order.class));
+        inOrder.verify(reservationService).confirm(5L);
+        verify(reservationService, never()).release(anyLong());
+    }
+
+    @Test
+    void createOrder_ShardWriteFails_ShouldReleaseReservation() {
+        // Подготавливаем моки
+        when(shardRouter.shardOf(1L)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productService.takeStock(1L, "M")).thenReturn(true);
+        when(reservationService.record(any(Order.class), eq(1), anyBoolean())).thenReturn(reservation(5L));
+        when(orderRepository.save(any(Order.class))).thenThrow(new IllegalStateException("шард недоступен"));
+
+        // Вызываем тестируемый метод
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(1L, orderDto));
+
+        verify(reservationService).release(5L);
+        verify(reservationService, never()).confirm(anyLong());
+    }
+
+    @Test
+    void createOrder_ReservationAlreadyReturned_ShouldDeleteOrder() {
+        // Подготавливаем моки: плановая задача вернула остаток раньше, чем заказ подтвердили
+        when(shardRouter.shardOf(1L)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productService.takeStock(1L, "M")).thenReturn(true);
+        when(reservationService.record(any(Order.class), eq(1), anyBoolean())).thenReturn(reservation(5L));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        when(reservationService.confirm(5L)).thenReturn(false);
+
+        // Вызываем тестируемый метод
+        assertThrows(RuntimeException.class, () -> orderService.createOrder(1L, orderDto));
+
+        verify(orderRepository).deleteById(testOrder.getId());
+    }
+
+    @Test
+    void createOrder_StockTakenByConcurrentOrder_ShouldRejectWithoutSaving() {
+        // Подготавливаем моки: последнюю единицу размера списал параллельный заказ
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productService.takeStock(1L, "M")).thenReturn(false);
+
+        // Вызываем тестируемый метод
+        RuntimeException e = assertThrows(RuntimeException.class, () -> orderService.createOrder(1L, orderDto));
+
+        assertEquals("Товар данного размера не доступен", e.getMessage());
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(reservationService);
+    }
+
+    @Test
+    void createOrder_PromoCodeExhausted_ShouldKeepFullPrice() {
+        // Подготавливаем моки: лимит использований промокода исчерпан параллельным заказом
+        orderDto.setPromoCode("SALE10");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(promoCodeService.applyPromoCode(eq("SALE10"), anyDouble())).thenReturn(OptionalDouble.empty());
+        when(productService.takeStock(1L, "M")).thenReturn(true);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Вызываем тестируемый метод
+        orderService.createOrder(1L, orderDto);
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(saved.capture());
+        assertEquals(100.0, saved.getValue().getPrice());
+    }
+
     @Test
     void getUserOrders_Success() {
         // Подготавливаем моки
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(orderRepository.findByUser(testUser)).thenReturn(Arrays.asList(testOrder));
+        when(orderHistoryRepository.findByUserIdOrderByCreatedAtDesc(1L)).thenReturn(Arrays.asList(testOrderHistory));
+        when(productRepository.findAllById(any())).thenReturn(List.of(testProduct));
 
         // Вызываем тестируемый метод
-        List<OrderResponseDto> result = orderService.getUserOrders("testuser");
+        List<OrderResponseDto> result = orderService.getUserOrders(1L);
 
-        // Проверяем результат
+        // Проверяем результат: название товара берётся из основной БД по product_id
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("ORD-12345678", result.get(0).getOrderNumber());
+        assertEquals("Test Product", result.get(0).getProductName());
 
         // Проверяем, что были вызваны нужные методы
-        verify(userRepository).findByUsername("testuser");
-        verify(orderRepository).findByUser(testUser);
+        verify(orderHistoryRepository).findByUserIdOrderByCreatedAtDesc(1L);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getOrderById_Success() {
         // Подготавливаем моки
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderHistoryRepository.findWithContactById(1L)).thenReturn(Optional.of(testOrderHistory));
 
         // Вызываем тестируемый метод
         Optional<OrderResponseDto> result = orderService.getOrderById(1L);
@@ -160,16 +316,17 @@ class OrderServiceTest {
         assertEquals("ORD-12345678", result.get().getOrderNumber());
 
         // Проверяем, что были вызваны нужные методы
-        verify(orderRepository).findById(1L);
+        verify(orderHistoryRepository).findWithContactById(1L);
     }
 
     @Test
     void cancelOrder_Success() {
         // Подготавливаем моки
+        when(orderRepository.existsById(1L)).thenReturn(true);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
 
         // Вызываем тестируемый метод
-        orderService.cancelOrder(1L, "testuser");
+        orderService.cancelOrder(1L, 1L);
 
         // Проверяем, что были вызваны нужные методы
         verify(orderRepository).findById(1L);
@@ -178,9 +335,23 @@ class OrderServiceTest {
     }
 
     @Test
-    void updateOrderStatus_Success() {
+    void cancelOrder_ShouldRejectForeignOrder() {
         // Подготавливаем моки
+        when(orderRepository.existsById(1L)).thenReturn(true);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Заказ принадлежит пользователю с ID 1
+        assertThrows(RuntimeException.class, () -> orderService.cancelOrder(1L, 2L));
+
+        verify(orderRepository, never()).delete(any(Order.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateOrderStatus_Success() {
+        // Подготавливаем моки
+        when(orderRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findWithContactById(1L)).thenReturn(Optional.of(testOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Вызываем тестируемый метод
@@ -194,7 +365,7 @@ class OrderServiceTest {
         assertEquals(OrderStatus.PROCESSING, testOrder.getStatus());
 
         // Проверяем, что были вызваны нужные методы
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findWithContactById(1L);
         verify(orderRepository).save(testOrder);
         verify(eventPublisher).publishEvent(eventCaptor.capture());
         
@@ -205,10 +376,11 @@ class OrderServiceTest {
     @Test
     void getAllOrders_Success() {
         // Подготавливаем моки
-        when(orderRepository.findAll()).thenReturn(Arrays.asList(testOrder));
+        when(orderHistoryRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, 50)))
+                .thenReturn(Arrays.asList(testOrderHistory));
 
         // Вызываем тестируемый метод
-        List<OrderResponseDto> result = orderService.getAllOrders();
+        List<OrderResponseDto> result = orderService.getAllOrders(0, 50);
 
         // Проверяем результат
         assertNotNull(result);
@@ -216,6 +388,20 @@ class OrderServiceTest {
         assertEquals("ORD-12345678", result.get(0).getOrderNumber());
 
         // Проверяем, что были вызваны нужные методы
-        verify(orderRepository).findAll();
+        verify(orderHistoryRepository).findAllByOrderByCreatedAtDesc(PageRequest.of(0, 50));
+    }
+
+    @Test
+    void updateOrderStatus_ShouldFailWhenOrderOnNoShard() {
+        assertThrows(RuntimeException.class, () -> orderService.updateOrderStatus(1L, OrderStatus.PROCESSING));
+
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static OrderReservation reservation(Long id) {
+        OrderReservation reservation = new OrderReservation();
+        reservation.setId(id);
+        return reservation;
     }
-} 
\ No newline at end of file
+}
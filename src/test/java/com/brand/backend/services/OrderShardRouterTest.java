@@ -0,0 +1,206 @@
+package com.brand.backend.services;
+
+import com.brand.backend.infrastructure.persistence.routing.ReplicaSet;
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadRoutingDataSource;
+import com.brand.backend.infrastructure.persistence.sharding.OrderShardRouter;
+import com.brand.backend.infrastructure.persistence.sharding.ShardMap;
+import com.brand.backend.infrastructure.persistence.sharding.ShardSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Роутер заказов на трёх встроенных БД: основная (шард 0) и два шарда
+ */
+class OrderShardRouterTest {
+
+    private static final String ORDERS_BY_USER = "SELECT id FROM orders WHERE user_id = ? ORDER BY created_at DESC";
+    private static final String ORDERS = "SELECT created_at FROM orders ORDER BY created_at DESC";
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private OrderShardRouter router;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int shard = 0; shard < 3; shard++) {
+            EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                    .generateUniqueName(true)
+                    .setType(EmbeddedDatabaseType.H2)
+                    .build();
+            new JdbcTemplate(database).execute(
+                    "CREATE TABLE orders (id bigint PRIMARY KEY, user_id bigint NOT NULL, created_at timestamp NOT NULL)");
+            databases.add(database);
+        }
+        new JdbcTemplate(databases.get(0)).execute(
+                "CREATE TABLE order_shard_maps (version bigint PRIMARY KEY, spec varchar(8192) NOT NULL, created_at timestamp NOT NULL)");
+
+        Map<Object, Object> primaryPools = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            primaryPools.put(workload, databases.get(0));
+        }
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource(
+                new ReplicaSet(List.of(), null, 0, 1000, new SimpleMeterRegistry()),
+                new ShardSet(databases.subList(1, 3)));
+        dataSource.setTargetDataSources(primaryPools);
+        dataSource.setDefaultTargetDataSource(databases.get(0));
+        dataSource.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        router = new OrderShardRouter(new ShardSet(databases.subList(1, 3)), jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), executor, 5000);
+        router.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void init_ShouldStoreUniformMapOnce() {
+        assertEquals(1, router.currentMap().version());
+        assertEquals(ShardMap.uniform(1, 3).spec(), router.currentMap().spec());
+
+        router.init();
+
+        assertEquals(1, new JdbcTemplate(databases.get(0)).queryForObject("SELECT COUNT(*) FROM order_shard_maps", Integer.class));
+    }
+
+    @Test
+    void inTransaction_ShouldWriteOrdersToUserShard() {
+        // Действие
+        for (long userId = 1; userId <= 300; userId++) {
+            createOrder(userId * 10, userId, LocalDateTime.now());
+        }
+
+        // Каждый заказ лежит ровно на шарде своего пользователя
+        for (int shard = 0; shard < 3; shard++) {
+            List<Long> userIds = new JdbcTemplate(databases.get(shard)).queryForList("SELECT user_id FROM orders", Long.class);
+            assertFalse(userIds.isEmpty(), "шард " + shard + " пуст");
+            for (Long userId : userIds) {
+                assertEquals(shard, router.shardOf(userId));
+            }
+        }
+    }
+
+    @Test
+    void scatterGather_ShouldMergeShardsInOrderWithLimit() {
+        // Подготовка
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<LocalDateTime> all = new ArrayList<>();
+        for (long userId = 1; userId <= 60; userId++) {
+            LocalDateTime createdAt = start.plusMinutes(userId * 7 % 60);
+            createOrder(userId, userId, createdAt);
+            all.add(createdAt);
+        }
+        all.sort(Comparator.reverseOrder());
+
+        // Действие
+        List<Integer> shardLimits = new CopyOnWriteArrayList<>();
+        List<LocalDateTime> newest = router.scatterGather(limit -> {
+            shardLimits.add(limit);
+            return jdbcTemplate.queryForList(ORDERS + " LIMIT ?", LocalDateTime.class, limit);
+        }, Comparator.reverseOrder(), 10);
+        List<Long> counts = router.scatter(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class));
+
+        // Проверка: каждый шард прочитал не больше 10 строк
+        assertEquals(all.subList(0, 10), newest);
+        assertEquals(List.of(10, 10, 10), shardLimits);
+        assertEquals(3, counts.size());
+        assertEquals(60L, counts.stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void scatterGather_ShouldReturnPagesOfGlobalOrder() {
+        // Подготовка
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<LocalDateTime> all = new ArrayList<>();
+        for (long userId = 1; userId <= 45; userId++) {
+            LocalDateTime createdAt = start.plusMinutes(userId);
+            createOrder(userId, userId, createdAt);
+            all.add(createdAt);
+        }
+        all.sort(Comparator.reverseOrder());
+
+        // Действие: страницы по 20
+        List<LocalDateTime> pages = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            pages.addAll(router.scatterGather(limit -> jdbcTemplate.queryForList(ORDERS + " LIMIT ?",
+                    LocalDateTime.class, limit), Comparator.reverseOrder(), page * 20, 20));
+        }
+
+        // Проверка
+        assertEquals(all, pages);
+        assertThrows(IllegalArgumentException.class,
+                () -> router.scatterGather(limit -> List.<LocalDateTime>of(), Comparator.reverseOrder(), 0));
+    }
+
+    @Test
+    void publish_ShouldRouteNewOrdersAndReadPreviousShardsUntilDropped() {
+        // Подготовка: пользователь с заказом не на последнем шарде
+        long userId = 1;
+        while (router.shardOf(userId) == 2) {
+            userId++;
+        }
+        int oldShard = router.shardOf(userId);
+        LocalDateTime now = LocalDateTime.now();
+        createOrder(1, userId, now.minusDays(1));
+
+        // Действие: все бакеты переезжают на шард 2
+        ShardMap map = router.publish("0-1023:2");
+        createOrder(2, userId, now);
+
+        // Новые заказы пишутся в новый шард, старые читаются с прежнего
+        assertEquals(2, map.version());
+        assertEquals(2, router.shardOf(userId));
+        assertArrayEquals(new int[]{2, oldShard}, map.readShards(userId));
+        assertEquals(List.of(2L, 1L), ordersOf(userId));
+
+        // После переноса данных предыдущие версии удаляются
+        router.dropPreviousVersions();
+
+        assertFalse(router.currentMap().isMigrating());
+        assertEquals(List.of(2L), ordersOf(userId));
+    }
+
+    @Test
+    void publish_ShouldRejectUnknownShard() {
+        assertThrows(IllegalArgumentException.class, () -> router.publish("0-1023:3"));
+        assertThrows(IllegalArgumentException.class, () -> router.publish("0-511:1"));
+
+        assertEquals(1, router.currentMap().version());
+    }
+
+    private void createOrder(long id, long userId, LocalDateTime createdAt) {
+        router.inTransaction(router.shardOf(userId), status -> jdbcTemplate.update(
+                "INSERT INTO orders (id, user_id, created_at) VALUES (?, ?, ?)", id, userId, createdAt));
+    }
+
+    private List<Long> ordersOf(long userId) {
+        return router.queryUser(userId, () -> jdbcTemplate.queryForList(ORDERS_BY_USER, Long.class, userId),
+                Comparator.<Long>naturalOrder().reversed());
+    }
+}
@@ -0,0 +1,139 @@
+package com.brand.backend.services;
+
+import com.brand.backend.application.nft.rarity.RarityAllocator;
+import com.brand.backend.application.nft.service.RarityAllocationService;
+import com.brand.backend.domain.nft.model.NFTRarityAllocation;
+import com.brand.backend.domain.nft.repository.NFTRarityAllocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Два узла с общей БД: тираж и номера выдач берутся из таблицы и последовательности, а не из памяти узла
+ */
+class RarityAllocationServiceTest {
+
+    private static final String TIERS = "legendary:1:3,epic:4:10,rare:15:0,common:80:0";
+
+    // Общая "БД": тираж уровней, последовательность номеров и журнал
+    private final Map<String, int[]> supply = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<NFTRarityAllocation> ledger = new ArrayList<>();
+
+    private NFTRarityAllocationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NFTRarityAllocationRepository.class);
+        when(repository.nextSequence()).thenAnswer(invocation -> sequence.getAndIncrement());
+        when(repository.upsertSupply(anyString(), anyString(), anyInt())).thenAnswer(invocation -> {
+            synchronized (supply) {
+                supply.computeIfAbsent(invocation.getArgument(1), rarity -> new int[]{0, 0})[0] = invocation.getArgument(2);
+            }
+            return 1;
+        });
+        when(repository.claimSupply(anyString(), anyString())).thenAnswer(invocation -> {
+            synchronized (supply) {
+                int[] row = supply.get(invocation.<String>getArgument(1));
+                if (row[1] >= row[0]) {
+                    return 0;
+                }
+                row[1]++;
+                return 1;
+            }
+        });
+        when(repository.saveAndFlush(any(NFTRarityAllocation.class))).thenAnswer(invocation -> {
+            synchronized (ledger) {
+                ledger.add(invocation.getArgument(0));
+            }
+            return invocation.getArgument(0);
+        });
+        when(repository.findByDropIdOrderBySequence("drop-1")).thenAnswer(invocation -> List.copyOf(ledger));
+        when(repository.findIssuedByDrop("drop-1")).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>();
+            supply.forEach((rarity, row) -> rows.add(new Object[]{rarity, row[1]}));
+            return rows;
+        });
+    }
+
+    @Test
+    void allocate_TwoNodes_ShouldShareCapsAndSequence() {
+        RarityAllocationService first = node();
+        RarityAllocationService second = node();
+
+        List<RarityAllocator.Allocation> allocations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            allocations.add((i % 2 == 0 ? first : second).allocate(null));
+        }
+
+        long legendary = allocations.stream().filter(a -> a.rarity().equals("legendary")).count();
+        long epic = allocations.stream().filter(a -> a.rarity().equals("epic")).count();
+        assertTrue(legendary <= 3);
+        assertTrue(epic <= 10);
+        // Тираж, выданный одним узлом, виден другому
+        assertEquals(3 - legendary, first.remaining("legendary"));
+        assertEquals(3 - legendary, second.remaining("legendary"));
+        Set<Long> sequences = new HashSet<>();
+        allocations.forEach(a -> assertTrue(sequences.add(a.sequence())));
+        assertEquals(0, second.verifyLedger());
+    }
+
+    @Test
+    void allocate_LedgerWriteFails_ShouldFailAllocation() {
+        RarityAllocationService service = node();
+        when(repository.saveAndFlush(any(NFTRarityAllocation.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_nft_rarity_allocations_drop_seq"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.allocate(null));
+    }
+
+    @Test
+    void allocate_AllTiersExhausted_ShouldThrow() {
+        RarityAllocationService service = node("legendary:1:1,epic:4:1");
+
+        service.allocate(null);
+        service.allocate(null);
+
+        assertThrows(IllegalStateException.class, () -> service.allocate(null));
+    }
+
+    @Test
+    void verifyLedger_CounterDiffersFromLedger_ShouldReportMismatch() {
+        RarityAllocationService service = node();
+        for (int i = 0; i < 50; i++) {
+            service.allocate(null);
+        }
+        // Выдача резервировалась, но журнал потерян
+        supply.get("epic")[1]++;
+
+        assertEquals(1, service.verifyLedger());
+    }
+
+    private RarityAllocationService node() {
+        return node(TIERS);
+    }
+
+    private RarityAllocationService node(String tiers) {
+        RarityAllocationService service = new RarityAllocationService(repository);
+        ReflectionTestUtils.setField(service, "dropId", "drop-1");
+        ReflectionTestUtils.setField(service, "seed", 20250101L);
+        ReflectionTestUtils.setField(service, "tiersSpec", tiers);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,78 @@
+package com.brand.backend.services;
+
+import com.brand.backend.application.nft.rarity.RarityAllocator;
+import com.brand.backend.application.nft.rarity.RarityTier;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RarityAllocatorTest {
+
+    private final List<RarityTier> tiers = RarityTier.parseList("legendary:1:5,epic:4:40,rare:15:0,common:80:0");
+
+    @Test
+    void candidates_ShouldBeReproducibleForSameSeed() {
+        RarityAllocator first = new RarityAllocator(tiers, 42L);
+        RarityAllocator second = new RarityAllocator(tiers, 42L);
+
+        for (long sequence = 0; sequence < 2000; sequence++) {
+            assertArrayEquals(first.candidates(sequence), second.candidates(sequence));
+        }
+    }
+
+    @Test
+    void candidates_ShouldEndWithUncappedFallbackTier() {
+        RarityAllocator allocator = new RarityAllocator(tiers, 7L);
+
+        for (long sequence = 0; sequence < 500; sequence++) {
+            int[] candidates = allocator.candidates(sequence);
+            // common - уровень без ограничения с наибольшим весом
+            assertEquals("common", tiers.get(candidates[candidates.length - 1]).name());
+        }
+    }
+
+    @Test
+    void candidates_AllTiersCapped_ShouldTryEveryTier() {
+        List<RarityTier> capped = RarityTier.parseList("legendary:1:1,epic:4:2");
+        RarityAllocator allocator = new RarityAllocator(capped, 3L);
+
+        int[] candidates = allocator.candidates(0);
+
+        int[] tail = Arrays.copyOfRange(candidates, candidates.length - 2, candidates.length);
+        assertArrayEquals(new int[]{0, 1}, tail);
+    }
+
+    @Test
+    void candidates_ShouldFollowWeights() {
+        RarityAllocator allocator = new RarityAllocator(tiers, 11L);
+        int legendary = 0;
+        int common = 0;
+
+        for (long sequence = 0; sequence < 100_000; sequence++) {
+            String first = tiers.get(allocator.candidates(sequence)[0]).name();
+            if (first.equals("legendary")) {
+                legendary++;
+            } else if (first.equals("common")) {
+                common++;
+            }
+        }
+
+        // Веса 1% и 80% с запасом на разброс
+        assertTrue(legendary > 700 && legendary < 1300, "legendary: " + legendary);
+        assertTrue(common > 79_000 && common < 81_000, "common: " + common);
+    }
+
+    @Test
+    void isCandidate_ShouldRejectTierThatCouldNotBeDrawn() {
+        RarityAllocator allocator = new RarityAllocator(tiers, 13L);
+
+        for (long sequence = 0; sequence < 200; sequence++) {
+            int[] candidates = allocator.candidates(sequence);
+            assertTrue(allocator.isCandidate(sequence, tiers.get(candidates[0]).name()));
+            assertFalse(allocator.isCandidate(sequence, "mythic"));
+        }
+    }
+}
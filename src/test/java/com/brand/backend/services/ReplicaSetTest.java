@@ -0,0 +1,176 @@
+package com.brand.backend.services;
+
+import com.brand.backend.infrastructure.persistence.routing.ReplicaSet;
+import com.brand.backend.infrastructure.persistence.routing.Workload;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadContext;
+import com.brand.backend.infrastructure.persistence.routing.WorkloadRoutingDataSource;
+import com.brand.backend.infrastructure.persistence.sharding.ShardSet;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Выбор реплики с учётом LSN записи пользователя; пулы и запросы LSN - моки
+ */
+class ReplicaSetTest {
+
+    private static final long USER_ID = 7L;
+
+    private final AtomicLong primaryLsn = new AtomicLong(100);
+    private final AtomicLong replayLsn = new AtomicLong(100);
+
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+    private ReplicaSet replicaSet;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws SQLException {
+        primaryPool = pool("primary", primaryLsn);
+        replicaPool = pool("replica-0", replayLsn);
+        ObjectProvider<DataSource> primary = mock(ObjectProvider.class);
+        when(primary.getObject()).thenReturn(primaryPool);
+
+        replicaSet = new ReplicaSet(List.of(replicaPool), primary, 1_000_000, 1000, new SimpleMeterRegistry());
+        replicaSet.checkLag();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void select_UserWroteOnThisNode_ShouldWaitUntilReplicaReplaysWrite() {
+        primaryLsn.set(150);
+
+        assertEquals(150, replicaSet.recordWrite(USER_ID, primaryPool));
+
+        assertNull(replicaSet.select(USER_ID, 0));
+        // Чужие чтения запись не задерживает
+        assertSame(replicaPool, replicaSet.select(8L, 0));
+
+        replayLsn.set(150);
+        replicaSet.checkLag();
+
+        assertSame(replicaPool, replicaSet.select(USER_ID, 0));
+    }
+
+    @Test
+    void select_WriteLsnFromAnotherNode_ShouldSkipLaggingReplica() {
+        // Запись прошла на другом узле: этот узел знает о ней только из cookie
+        assertNull(replicaSet.select(USER_ID, 150));
+
+        primaryLsn.set(150);
+        replayLsn.set(150);
+        replicaSet.checkLag();
+
+        assertSame(replicaPool, replicaSet.select(USER_ID, 150));
+    }
+
+    @Test
+    void recordWrite_LsnUnavailable_ShouldKeepUserOnPrimary() throws SQLException {
+        DataSource unavailable = mock(DataSource.class);
+        when(unavailable.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertEquals(0, replicaSet.recordWrite(USER_ID, unavailable));
+
+        primaryLsn.set(10_000);
+        replayLsn.set(10_000);
+        replicaSet.checkLag();
+        assertNull(replicaSet.select(USER_ID, 0));
+    }
+
+    @Test
+    void onPrimary_InsideTransactionOnReplica_ShouldReadInNewTransaction() throws SQLException {
+        WorkloadRoutingDataSource dataSource = routingDataSource();
+        clearInvocations(replicaPool);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        WorkloadContext.useTransactionManager(transactionManager);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        WorkloadContext.run(Workload.CHECKOUT, () -> {
+            try {
+                // Внешняя read-only транзакция уже держит соединение реплики
+                dataSource.getConnection();
+                assertTrue(WorkloadContext.onPrimary(WorkloadContext::isPrimaryOnly));
+            } catch (SQLException e) {
+                fail(e);
+            }
+        });
+
+        verify(replicaPool).getConnection();
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        assertFalse(WorkloadContext.isPrimaryOnly());
+    }
+
+    @Test
+    void onPrimary_WithoutReplicaConnection_ShouldNotOpenTransaction() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        WorkloadContext.useTransactionManager(transactionManager);
+
+        assertTrue(WorkloadContext.onPrimary(WorkloadContext::isPrimaryOnly));
+
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    private WorkloadRoutingDataSource routingDataSource() {
+        Map<Object, Object> pools = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            pools.put(workload, primaryPool);
+        }
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource(replicaSet, new ShardSet(List.of()));
+        dataSource.setTargetDataSources(pools);
+        dataSource.setDefaultTargetDataSource(primaryPool);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    /**
+     * Пул, на котором запросы LSN возвращают текущее значение lsn (pg_is_in_recovery() - true)
+     */
+    private static HikariDataSource pool(String name, AtomicLong lsn) throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(pool.getPoolName()).thenReturn(name);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getBoolean(1)).thenReturn(true);
+        when(rs.getLong(anyInt())).thenAnswer(invocation -> lsn.get());
+        return pool;
+    }
+}
@@ -0,0 +1,219 @@
+package com.brand.backend.services;
+
+import com.brand.backend.application.nft.handler.NFTEventHandler;
+import com.brand.backend.application.nft.service.NFTMetadataService;
+import com.brand.backend.application.user.service.VerificationService;
+import com.brand.backend.benchmark.TelegramBotApiStub;
+import com.brand.backend.benchmark.TelegramUpdateReplayer;
+import com.brand.backend.domain.nft.event.NFTEvent;
+import com.brand.backend.domain.nft.model.NFT;
+import com.brand.backend.domain.product.repository.ProductRepository;
+import com.brand.backend.domain.user.model.User;
+import com.brand.backend.domain.user.repository.TelegramChatStateRepository;
+import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.integration.telegram.LeaderBotSession;
+import com.brand.backend.infrastructure.integration.telegram.TelegramApiOptions;
+import com.brand.backend.infrastructure.integration.telegram.TelegramChatStateStore;
+import com.brand.backend.infrastructure.integration.telegram.user.TelegramBotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Бот и уведомления против локальной заглушки Bot API
+ */
+class TelegramBotApiStubTest {
+
+    private static final long CHAT_ID = 512345001L;
+
+    private TelegramBotApiStub stub;
+    private TelegramBotService telegramBotService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = TelegramBotApiStub.start();
+        telegramBotService = new TelegramBotService(mock(UserRepository.class), mock(ProductRepository.class),
+                mock(VerificationService.class), mock(TelegramChatStateStore.class), stub.baseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void nftNotification_IsRecordedByStub() {
+        NFTEventHandler handler = new NFTEventHandler(telegramBotService, mock(NFTMetadataService.class));
+        User user = new User();
+        user.setTelegramId(CHAT_ID);
+        NFT nft = new NFT();
+        nft.setId(1L);
+        nft.setUser(user);
+
+        handler.handleNFTEvent(new NFTEvent(this, nft, NFTEvent.NFTEventType.TRANSFERRED));
+
+        List<TelegramBotApiStub.Call> calls = stub.calls("sendMessage");
+        assertEquals(1, calls.size());
+        assertEquals(telegramBotService.getBotToken(), calls.get(0).token());
+        assertEquals(String.valueOf(CHAT_ID), calls.get(0).params().path("chat_id").asText());
+        assertEquals(200, calls.get(0).status());
+    }
+
+    @Test
+    void botMethods_ReturnTelegramShapedResults() throws Exception {
+        Message sent = telegramBotService.execute(new SendMessage(String.valueOf(CHAT_ID), "Заказ оформлен"));
+        EditMessageText edit = new EditMessageText("Заказ оплачен");
+        edit.setChatId(String.valueOf(CHAT_ID));
+        edit.setMessageId(sent.getMessageId());
+
+        Message edited = (Message) telegramBotService.execute(edit);
+        Boolean answered = telegramBotService.execute(new AnswerCallbackQuery("callback-1"));
+
+        assertEquals(CHAT_ID, sent.getChatId());
+        assertEquals(sent.getMessageId(), edited.getMessageId());
+        assertEquals("Заказ оплачен", edited.getText());
+        assertTrue(answered);
+        assertEquals(List.of("sendMessage", "editMessageText", "answerCallbackQuery"),
+                stub.calls().stream().map(TelegramBotApiStub.Call::method).toList());
+    }
+
+    @Test
+    void throttling_ReturnsRetryAfter() {
+        stub.throttle(1.0, 7);
+
+        TelegramApiRequestException e = assertThrows(TelegramApiRequestException.class,
+                () -> telegramBotService.execute(new SendMessage(String.valueOf(CHAT_ID), "Привет")));
+
+        assertEquals(429, e.getErrorCode());
+        assertEquals(7, e.getParameters().getRetryAfter());
+        assertEquals(429, stub.calls("sendMessage").get(0).status());
+    }
+
+    @Test
+    void rateLimit_ThrottlesRequestsOverLimit() {
+        stub.rateLimit(3);
+        int throttled = 0;
+        for (int i = 0; i < 10; i++) {
+            try {
+                telegramBotService.execute(new SendMessage(String.valueOf(CHAT_ID), "Сообщение " + i));
+            } catch (TelegramApiRequestException e) {
+                throttled++;
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        // Запросы могли попасть на границу секунды: тогда пропущено по 3 в каждой
+        assertTrue(throttled >= 4 && throttled <= 7, "Отклонено запросов: " + throttled);
+    }
+
+    @Test
+    void latency_IsInjectedAndRecorded() throws Exception {
+        stub.latency(Duration.ofMillis(100), Duration.ZERO);
+
+        long startedAt = System.nanoTime();
+        telegramBotService.execute(new SendMessage(String.valueOf(CHAT_ID), "Привет"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) >= 100);
+        assertTrue(stub.calls("sendMessage").get(0).latencyMs() >= 100);
+    }
+
+    @Test
+    void linkDialog_ContinuesOnAnotherNode() {
+        // Два узла с общей таблицей состояний: команда пришла на первый, код - на второй
+        Map<String, String> states = new ConcurrentHashMap<>();
+        TelegramChatStateRepository repository = mock(TelegramChatStateRepository.class);
+        when(repository.saveState(anyString(), anyLong(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    states.put(invocation.getArgument(0) + ":" + invocation.getArgument(1), invocation.getArgument(2));
+                    return 1;
+                });
+        when(repository.findState(anyString(), anyLong(), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(
+                        states.get(invocation.getArgument(0) + ":" + invocation.getArgument(1))));
+        VerificationService verificationService = mock(VerificationService.class);
+        TelegramBotService firstNode = new TelegramBotService(mock(UserRepository.class), mock(ProductRepository.class),
+                verificationService, new TelegramChatStateStore(repository), stub.baseUrl());
+        TelegramBotService secondNode = new TelegramBotService(mock(UserRepository.class), mock(ProductRepository.class),
+                verificationService, new TelegramChatStateStore(repository), stub.baseUrl());
+
+        firstNode.onUpdateReceived(textUpdate("/linkTelegram"));
+        secondNode.onUpdateReceived(textUpdate("ABCD2345"));
+
+        verify(verificationService).verifyCode("ABCD2345");
+        verify(repository).deleteState("user", CHAT_ID);
+    }
+
+    @Test
+    void longPolling_DeliversPushedUpdates() throws InterruptedException {
+        DefaultBotOptions options = TelegramApiOptions.forBaseUrl(stub.baseUrl());
+        options.setGetUpdatesTimeout(1);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(2);
+        TelegramLongPollingBot bot = new TelegramLongPollingBot(options, "test-token") {
+            @Override
+            public String getBotUsername() {
+                return "test_bot";
+            }
+
+            @Override
+            public void onUpdateReceived(Update update) {
+                received.add(update.getUpdateId());
+                delivered.countDown();
+            }
+        };
+        LeaderBotSession session = new LeaderBotSession(bot);
+
+        session.onAcquired(1);
+        try {
+            int first = stub.pushUpdate(TelegramUpdateReplayer.loadRecorded().get(0));
+            int second = stub.pushUpdate(TelegramUpdateReplayer.loadRecorded().get(3));
+
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            assertEquals(List.of(first, second), received);
+        } finally {
+            session.onRevoked();
+        }
+        assertFalse(stub.calls("deleteWebhook").isEmpty());
+    }
+
+    private static Update textUpdate(String text) {
+        Chat chat = new Chat(CHAT_ID, "private");
+        Message message = new Message();
+        message.setMessageId(1);
+        message.setChat(chat);
+        message.setFrom(new org.telegram.telegrambots.meta.api.objects.User(CHAT_ID, "Buyer", false));
+        message.setText(text);
+        Update update = new Update();
+        update.setUpdateId(1);
+        update.setMessage(message);
+        return update;
+    }
+}
@@ -0,0 +1,130 @@
+package com.brand.backend.services;
+
+import com.brand.backend.benchmark.TelegramUpdateReplayer;
+import com.brand.backend.common.exeption.ResourceNotFoundException;
+import com.brand.backend.common.exeption.ServiceOverloadedException;
+import com.brand.backend.infrastructure.integration.telegram.TelegramWebhookIngest;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Приём обновлений webhook на записанных обновлениях Telegram
+ */
+class TelegramWebhookIngestTest {
+
+    private static final String SECRET = "test-secret_1";
+
+    private TelegramWebhookIngest ingest;
+
+    @AfterEach
+    void tearDown() {
+        if (ingest != null) {
+            ingest.stop();
+        }
+    }
+
+    @Test
+    void accept_ProcessesReplayedUpdatesInChatOrder() throws InterruptedException {
+        ingest = createIngest(4, 20_000);
+        List<ObjectNode> recorded = TelegramUpdateReplayer.loadRecorded();
+        int total = 10_000;
+        CountDownLatch processed = new CountDownLatch(total);
+        Map<Long, List<Integer>> byChat = new ConcurrentHashMap<>();
+        ingest.register("user", bot(update -> {
+            long chatId = update.hasMessage()
+                    ? update.getMessage().getChatId()
+                    : update.getCallbackQuery().getFrom().getId();
+            byChat.computeIfAbsent(chatId, id -> new ArrayList<>()).add(update.getUpdateId());
+            processed.countDown();
+        }));
+
+        for (int i = 0; i < total; i++) {
+            ingest.accept("user", TelegramUpdateReplayer.toUpdate(recorded.get(i % recorded.size()), i + 1));
+        }
+
+        assertTrue(processed.await(10, TimeUnit.SECONDS));
+        assertEquals(total, byChat.values().stream().mapToInt(List::size).sum());
+        for (List<Integer> updateIds : byChat.values()) {
+            for (int i = 1; i < updateIds.size(); i++) {
+                assertTrue(updateIds.get(i - 1) < updateIds.get(i), "Обновления чата обработаны не по порядку");
+            }
+        }
+    }
+
+    @Test
+    void accept_RejectsWhenQueueIsFull() throws InterruptedException {
+        ingest = createIngest(1, 2);
+        ObjectNode recorded = TelegramUpdateReplayer.loadRecorded().get(0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ingest.register("admin", bot(update -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        // Одно обновление в обработке, два в очереди
+        ingest.accept("admin", TelegramUpdateReplayer.toUpdate(recorded, 1));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ingest.accept("admin", TelegramUpdateReplayer.toUpdate(recorded, 2));
+        ingest.accept("admin", TelegramUpdateReplayer.toUpdate(recorded, 3));
+
+        assertThrows(ServiceOverloadedException.class,
+                () -> ingest.accept("admin", TelegramUpdateReplayer.toUpdate(recorded, 4)));
+        release.countDown();
+    }
+
+    @Test
+    void accept_UnknownBot_ThrowsNotFound() {
+        ingest = createIngest(1, 10);
+        Update update = TelegramUpdateReplayer.toUpdate(TelegramUpdateReplayer.loadRecorded().get(0), 1);
+
+        assertThrows(ResourceNotFoundException.class, () -> ingest.accept("missing", update));
+    }
+
+    @Test
+    void verifySecret_AcceptsOnlyConfiguredToken() {
+        ingest = createIngest(1, 10);
+
+        assertTrue(ingest.verifySecret(SECRET));
+        assertFalse(ingest.verifySecret("wrong"));
+        assertFalse(ingest.verifySecret(null));
+        assertEquals("https://shop.example.com/api/telegram/webhook/user", ingest.webhookUrl("user"));
+    }
+
+    private static TelegramWebhookIngest createIngest(int workers, int queueCapacity) {
+        return new TelegramWebhookIngest(new SimpleMeterRegistry(), true, "https://shop.example.com/",
+                SECRET, 40, workers, queueCapacity);
+    }
+
+    private static TelegramLongPollingBot bot(Consumer<Update> handler) {
+        return new TelegramLongPollingBot("test-token") {
+            @Override
+            public String getBotUsername() {
+                return "test_bot";
+            }
+
+            @Override
+            public void onUpdateReceived(Update update) {
+                handler.accept(update);
+            }
+        };
+    }
+}
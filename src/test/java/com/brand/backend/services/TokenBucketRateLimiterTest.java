@@ -0,0 +1,58 @@
+package com.brand.backend.services;
+
+import com.brand.backend.infrastructure.security.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void tryAcquire_ShouldAllowCapacityThenReject() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(16, 1000, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("login", "10.0.0.1", 3, MINUTE));
+        }
+
+        assertTrue(limiter.tryAcquire("login", "10.0.0.1", 3, MINUTE) > 0);
+        // Тот же ключ в другом правиле - другая корзина
+        assertEquals(0, limiter.tryAcquire("register", "10.0.0.1", 3, MINUTE));
+    }
+
+    @Test
+    void fullStripe_NewKeysShouldShareBucketOfTheirRule() {
+        // Один stripe на один ключ: все новые ключи идут в общие корзины
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, new SimpleMeterRegistry());
+        assertEquals(0, limiter.tryAcquire("login", "10.0.0.1", 1, MINUTE));
+
+        assertEquals(0, limiter.tryAcquire("login", "10.0.0.2", 2, MINUTE));
+        assertEquals(0, limiter.tryAcquire("login", "10.0.0.3", 2, MINUTE));
+        assertTrue(limiter.tryAcquire("login", "10.0.0.4", 2, MINUTE) > 0);
+
+        // Исчерпанная корзина login не задевает правило с другой ёмкостью
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("discord", "key:" + i, 5, TimeUnit.SECONDS.toNanos(1)));
+        }
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void evictIdle_ShouldFreeRoomForNewKeys() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, new SimpleMeterRegistry());
+        long period = TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(0, limiter.tryAcquire("login", "10.0.0.1", 1, period));
+
+        Thread.sleep(5);
+        limiter.evictIdle();
+
+        assertEquals(0, limiter.size());
+        assertEquals(0, limiter.tryAcquire("login", "10.0.0.2", 1, MINUTE));
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.brand.backend.services;
+
+import com.brand.backend.domain.user.repository.UserRepository;
+import com.brand.backend.infrastructure.cache.CacheInvalidationBus;
+import com.brand.backend.infrastructure.security.jwt.AuthenticatedUser;
+import com.brand.backend.infrastructure.security.jwt.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedTokenCacheTest {
+
+    private static final long EXPIRATION = 3_600_000L;
+    private static final long SYNC_INTERVAL = 30_000L;
+    private static final AuthenticatedUser USER = new AuthenticatedUser(7L, "buyer", "customer", true);
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private VerifiedTokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new VerifiedTokenCache(100, EXPIRATION, SYNC_INTERVAL, invalidationBus, userRepository);
+    }
+
+    @Test
+    void revokeUser_ShouldPersistCutoffAndNotifyNodes() {
+        long now = System.currentTimeMillis();
+        tokenCache.put("token", USER, now - 5_000, now + EXPIRATION);
+
+        tokenCache.revokeUser(USER.id());
+
+        verify(userRepository).revokeTokens(eq(USER.id()), anyLong());
+        verify(invalidationBus).publishNow(eq("token-revocation"), any());
+        assertNull(tokenCache.get("token"));
+        assertTrue(tokenCache.isRevoked(USER.id(), now - 5_000));
+    }
+
+    @Test
+    void revokeUser_TokenFromSameMillisecond_ShouldBeRevokedAndNextTokenValid() {
+        tokenCache.revokeUser(USER.id());
+        ArgumentCaptor<Long> revokedAt = ArgumentCaptor.forClass(Long.class);
+        verify(userRepository).revokeTokens(eq(USER.id()), revokedAt.capture());
+
+        assertTrue(tokenCache.isRevoked(USER.id(), revokedAt.getValue()));
+        // Токен новой сессии выпускается уже после возврата revokeUser
+        assertTrue(System.currentTimeMillis() > revokedAt.getValue());
+        assertFalse(tokenCache.isRevoked(USER.id(), revokedAt.getValue() + 1));
+    }
+
+    @Test
+    void isRevoked_NodeMissedNotification_ShouldReadCutoffFromDatabase() {
+        long now = System.currentTimeMillis();
+        List<Object[]> revocations = List.<Object[]>of(new Object[]{USER.id(), now - 1_000});
+        when(userRepository.findTokenRevocationsAfter(anyLong())).thenReturn(revocations);
+
+        // Отметки ещё не загружены: перечитываются одним запросом, дальше проверки идут по памяти
+        assertTrue(tokenCache.isRevoked(USER.id(), now - 5_000));
+        assertFalse(tokenCache.isRevoked(USER.id(), now));
+        assertFalse(tokenCache.isRevoked(8L, now - 5_000));
+
+        verify(userRepository, times(1)).findTokenRevocationsAfter(anyLong());
+        verify(userRepository, never()).findTokensRevokedAt(anyLong());
+    }
+
+    @Test
+    void isRevoked_CompleteRevocations_ShouldNotQueryDatabase() {
+        long now = System.currentTimeMillis();
+        when(userRepository.findTokenRevocationsAfter(anyLong())).thenReturn(List.of());
+        tokenCache.loadRevocations();
+
+        for (long userId = 1; userId <= 100; userId++) {
+            assertFalse(tokenCache.isRevoked(userId, now));
+        }
+
+        verify(userRepository, times(1)).findTokenRevocationsAfter(anyLong());
+        verify(userRepository, never()).findTokensRevokedAt(anyLong());
+    }
+
+    @Test
+    void isRevoked_ReloadFailed_ShouldReadUserCutoff() {
+        long now = System.currentTimeMillis();
+        when(userRepository.findTokenRevocationsAfter(anyLong())).thenThrow(new IllegalStateException("timeout"));
+        when(userRepository.findTokensRevokedAt(USER.id())).thenReturn(Optional.of(now - 1_000));
+
+        assertTrue(tokenCache.isRevoked(USER.id(), now - 5_000));
+    }
+
+    @Test
+    void invalidateAll_ShouldReloadRevocationsAndEvictCachedTokens() {
+        long now = System.currentTimeMillis();
+        tokenCache.put("token", USER, now - 5_000, now + EXPIRATION);
+        List<Object[]> revocations = List.<Object[]>of(new Object[]{USER.id(), now - 1_000});
+        when(userRepository.findTokenRevocationsAfter(anyLong())).thenReturn(revocations);
+
+        tokenCache.invalidateAll();
+
+        assertNull(tokenCache.get("token"));
+        // Отметка уже известна узлу: повторная проверка не обращается к БД
+        assertTrue(tokenCache.isRevoked(USER.id(), now - 5_000));
+        verify(userRepository, never()).findTokensRevokedAt(anyLong());
+    }
+
+    @Test
+    void syncRevocations_ShouldFindRevocationWithoutNotification() {
+        long now = System.currentTimeMillis();
+        tokenCache.put("token", USER, now - 5_000, now + EXPIRATION);
+        List<Object[]> revocations = List.<Object[]>of(new Object[]{USER.id(), now - 1_000});
+        when(userRepository.findTokenRevocationsAfter(anyLong())).thenReturn(revocations);
+
+        tokenCache.syncRevocations();
+
+        assertNull(tokenCache.get("token"));
+    }
+}